@@ -72,8 +72,9 @@ public class QSignalsNetworkFactory extends QNetworkFactory{
 		
 		this.netsimEngine = simEngine1;
 		this.context = new NetsimEngineContext( events, scenario.getNetwork().getEffectiveCellSize(), agentCounter, agentSnapshotInfoBuilder, 
-				scenario.getConfig().qsim(), mobsimTimer, linkWidthCalculator );
+				scenario.getConfig().qsim(), mobsimTimer, linkWidthCalculator, getCapacityScaleFactor() );
 		
+		delegate.populationSample = this.populationSample;
 		delegate.initializeFactory(agentCounter, mobsimTimer, simEngine1);
 	}
 
@@ -0,0 +1,163 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.handler.ActivityEndEventHandler;
+import org.matsim.api.core.v01.events.handler.ActivityStartEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonStuckEventHandler;
+import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * A single event handler which passes the events on to the analyses bound by default ({@link VolumesAnalyzer},
+ * {@link LegHistogram} and {@link CalcLegTimes}), instead of each of them being registered with the
+ * {@link EventsManager} on its own.  The events manager thus dispatches each event only once to all of them.
+ * The link of a link event is looked up only once, and the mode of every vehicle is only memorized once.
+ * <p></p>
+ * The analyses register themselves when they are created by injection; when created by their public
+ * constructors, they are normal event handlers as before.
+ */
+public final class AnalysisEventsHub implements LinkLeaveEventHandler, VehicleEntersTrafficEventHandler,
+		PersonDepartureEventHandler, PersonArrivalEventHandler, PersonStuckEventHandler,
+		ActivityEndEventHandler, ActivityStartEventHandler {
+
+	private final LinkIndex linkIndex = new LinkIndex();
+	private final Map<Id<Vehicle>, String> vehicleModes = new HashMap<>();
+
+	private final List<VolumesAnalyzer> volumesAnalyzers = new ArrayList<>();
+	private final List<LegHistogram> legHistograms = new ArrayList<>();
+	private final List<CalcLegTimes> legTimes = new ArrayList<>();
+
+	@Inject
+	AnalysisEventsHub(final EventsManager eventsManager) {
+		eventsManager.addHandler(this);
+	}
+
+	LinkIndex getLinkIndex() {
+		return this.linkIndex;
+	}
+
+	void addVolumesAnalyzer(final VolumesAnalyzer analyzer) {
+		this.volumesAnalyzers.add(analyzer);
+	}
+
+	void addLegHistogram(final LegHistogram histogram) {
+		this.legHistograms.add(histogram);
+	}
+
+	void addLegTimes(final CalcLegTimes calcLegTimes) {
+		this.legTimes.add(calcLegTimes);
+	}
+
+	@Override
+	public void handleEvent(final VehicleEntersTrafficEvent event) {
+		if (!this.volumesAnalyzers.isEmpty()) {
+			this.vehicleModes.put(event.getVehicleId(), event.getNetworkMode());
+		}
+	}
+
+	@Override
+	public void handleEvent(final LinkLeaveEvent event) {
+		if (this.volumesAnalyzers.isEmpty()) {
+			return;
+		}
+		int index = this.linkIndex.getIndex(event.getLinkId());
+		String mode = this.vehicleModes.get(event.getVehicleId());
+		for (int i = 0, n = this.volumesAnalyzers.size(); i < n; i++) {
+			this.volumesAnalyzers.get(i).handleLinkLeave(index, event.getTime(), mode);
+		}
+	}
+
+	@Override
+	public void handleEvent(final PersonDepartureEvent event) {
+		for (int i = 0, n = this.legHistograms.size(); i < n; i++) {
+			this.legHistograms.get(i).handleEvent(event);
+		}
+		for (int i = 0, n = this.legTimes.size(); i < n; i++) {
+			this.legTimes.get(i).handleEvent(event);
+		}
+	}
+
+	@Override
+	public void handleEvent(final PersonArrivalEvent event) {
+		for (int i = 0, n = this.legHistograms.size(); i < n; i++) {
+			this.legHistograms.get(i).handleEvent(event);
+		}
+		for (int i = 0, n = this.legTimes.size(); i < n; i++) {
+			this.legTimes.get(i).handleEvent(event);
+		}
+	}
+
+	@Override
+	public void handleEvent(final PersonStuckEvent event) {
+		for (int i = 0, n = this.legHistograms.size(); i < n; i++) {
+			this.legHistograms.get(i).handleEvent(event);
+		}
+	}
+
+	@Override
+	public void handleEvent(final ActivityEndEvent event) {
+		for (int i = 0, n = this.legTimes.size(); i < n; i++) {
+			this.legTimes.get(i).handleEvent(event);
+		}
+	}
+
+	@Override
+	public void handleEvent(final ActivityStartEvent event) {
+		for (int i = 0, n = this.legTimes.size(); i < n; i++) {
+			this.legTimes.get(i).handleEvent(event);
+		}
+	}
+
+	@Override
+	public void reset(final int iteration) {
+		this.vehicleModes.clear();
+		for (VolumesAnalyzer analyzer : this.volumesAnalyzers) {
+			analyzer.reset(iteration);
+		}
+		for (LegHistogram histogram : this.legHistograms) {
+			histogram.reset(iteration);
+		}
+		for (CalcLegTimes calcLegTimes : this.legTimes) {
+			calcLegTimes.reset(iteration);
+		}
+	}
+
+}
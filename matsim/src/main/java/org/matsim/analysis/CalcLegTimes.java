@@ -31,7 +31,6 @@ import org.matsim.api.core.v01.events.handler.ActivityStartEventHandler;
 import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
 import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
 import org.matsim.api.core.v01.population.Person;
-import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.utils.io.IOUtils;
 import org.matsim.core.utils.io.UncheckedIOException;
 import org.matsim.core.utils.misc.Time;
@@ -67,8 +66,8 @@ public class CalcLegTimes implements PersonDepartureEventHandler, PersonArrivalE
 	private int sumTrips = 0;
 
 	@Inject
-	CalcLegTimes(EventsManager eventsManager) {
-		eventsManager.addHandler(this);
+	CalcLegTimes(AnalysisEventsHub hub) {
+		hub.addLegTimes(this);
 	}
 
 	public CalcLegTimes() {
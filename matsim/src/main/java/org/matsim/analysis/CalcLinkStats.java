@@ -87,6 +87,14 @@ public class CalcLinkStats {
 	}
 
 	public void addData(final VolumesAnalyzer analyzer, final TravelTime ttimes) {
+		addData(analyzer, ttimes, 1.0);
+	}
+
+	/**
+	 * Like {@link #addData(VolumesAnalyzer, TravelTime)}, but with the volumes divided by <code>volumeScaleFactor</code>,
+	 * e.g. for an iteration in which only a sample of the population was simulated.
+	 */
+	public void addData(final VolumesAnalyzer analyzer, final TravelTime ttimes, final double volumeScaleFactor) {
 		this.count++;
 		// TODO verify ttimes has hourly timeBin-Settings
 
@@ -98,12 +106,17 @@ public class CalcLinkStats {
 			
 			// get the volumes for the link ID from the analyzier
 			double[] volumes = analyzer.getVolumesPerHourForLink(linkId);
+			if (volumeScaleFactor != 1.0) {
+				for (int hour = 0; hour < volumes.length; hour++) {
+					volumes[hour] /= volumeScaleFactor;
+				}
+			}
 			
 			// get the destination container for the data from link data (could have gotten this through iterator right away)
 			LinkData data = this.linkData.get(linkId);
 			
 			// prepare the sum variables (for volumes);
-			long sumVolumes = 0; // daily (0-24) sum
+			double sumVolumes = 0; // daily (0-24) sum
 			
 			// go through all hours:
 			for (int hour = 0; hour < this.nofHours; hour++) {
@@ -145,6 +158,33 @@ public class CalcLinkStats {
 		}
 	}
 
+	/**
+	 * @return a copy of the collected data, which is not affected by further calls to {@link #addData} or {@link #reset()}.
+	 */
+	/*package*/ CalcLinkStats copy() {
+		return new CalcLinkStats(this);
+	}
+
+	private CalcLinkStats(final CalcLinkStats original) {
+		this.network = original.network;
+		this.nofHours = original.nofHours;
+		this.volScaleFactor = original.volScaleFactor;
+		this.count = original.count;
+		this.linkData = new TreeMap<>();
+		for (Map.Entry<Id<Link>, LinkData> e : original.linkData.entrySet()) {
+			LinkData data = e.getValue();
+			this.linkData.put(e.getKey(), new LinkData(deepCopy(data.volumes), deepCopy(data.ttimes)));
+		}
+	}
+
+	private static double[][] deepCopy(final double[][] values) {
+		double[][] copy = new double[values.length][];
+		for (int i = 0; i < values.length; i++) {
+			copy[i] = values[i].clone();
+		}
+		return copy;
+	}
+
 	public void reset() {
 		this.linkData.clear();
 		this.count = 0;
@@ -160,9 +200,14 @@ public class CalcLinkStats {
 	}
 
 	public void writeFile(final String filename) {
-		BufferedWriter out = null;
+		writeFile(IOUtils.getBufferedWriter(filename));
+	}
+
+	/**
+	 * Writes the link statistics to the given writer, e.g. one for a file with a specific compression, and closes it.
+	 */
+	public void writeFile(final BufferedWriter out) {
 		try {
-			out = IOUtils.getBufferedWriter(filename);
 
 			// write header
 			out.write("LINK\tORIG_ID\tFROM\tTO\tLENGTH\tFREESPEED\tCAPACITY");
@@ -23,6 +23,7 @@ package org.matsim.analysis;
 import org.jfree.chart.axis.CategoryLabelPositions;
 import org.matsim.core.utils.charts.StackedBarChart;
 import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 import org.matsim.core.utils.misc.Time;
 
 import java.io.BufferedWriter;
@@ -163,8 +164,12 @@ public final class IterationStopWatch {
 		String ident = "END " + identifier;
 		ensureIdentifier(ident);
 		ensureOperation(identifier);
-		this.currentIterationValues.put(ident, Long.valueOf(System.currentTimeMillis()));
-		
+		long now = System.currentTimeMillis();
+		this.currentIterationValues.put(ident, Long.valueOf(now));
+		Long begin = this.currentIterationValues.get("BEGIN " + identifier);
+		if (begin != null) {
+			MetricsRegistry.getInstance().timer("stopwatch." + identifier).record((now - begin) * 1000000L);
+		}
 		
 		this.currentMeasuredOperations.pop();
 	}
@@ -26,10 +26,13 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.DataDependentListener;
 import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.controler.listener.IterationStartsListener;
 
 import javax.inject.Inject;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Integrates the {@link org.matsim.analysis.LegHistogram} into the
@@ -38,7 +41,7 @@ import javax.inject.Inject;
  *
  * @author mrieser
  */
-final class LegHistogramListener implements IterationEndsListener, IterationStartsListener {
+final class LegHistogramListener implements IterationEndsListener, IterationStartsListener, DataDependentListener {
 
 	@Inject private LegHistogram histogram;
 	@Inject private ControlerConfigGroup controlerConfigGroup;
@@ -51,6 +54,11 @@ final class LegHistogramListener implements IterationEndsListener, IterationStar
 		this.histogram.reset(event.getIteration());
 	}
 
+	@Override
+	public Set<Data> getDataDependencies() {
+		return EnumSet.of(Data.EVENTS);
+	}
+
 	@Override
 	public void notifyIterationEnds(final IterationEndsEvent event) {
 		this.histogram.write(controlerIO.getIterationFilename(event.getIteration(), "legHistogram.txt"));
@@ -0,0 +1,75 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+
+/**
+ * Numbers links consecutively, so that data per link can be kept in arrays.  Links are numbered in the order
+ * they are first asked for.  Not thread-safe.
+ */
+/* package */ final class LinkIndex {
+
+	private final Map<Id<Link>, Integer> indices = new HashMap<>();
+	private final List<Id<Link>> linkIds = new ArrayList<>();
+
+	LinkIndex() {
+	}
+
+	/**
+	 * Numbers the links of the network in the order of the network first.
+	 */
+	LinkIndex(final Network network) {
+		for (Id<Link> linkId : network.getLinks().keySet()) {
+			getIndex(linkId);
+		}
+	}
+
+	int getIndex(final Id<Link> linkId) {
+		Integer index = this.indices.get(linkId);
+		if (index == null) {
+			index = this.linkIds.size();
+			this.indices.put(linkId, index);
+			this.linkIds.add(linkId);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the index of the link, or -1 if it has no index yet
+	 */
+	int findIndex(final Id<Link> linkId) {
+		Integer index = this.indices.get(linkId);
+		return index == null ? -1 : index;
+	}
+
+	Id<Link> getLinkId(final int index) {
+		return this.linkIds.get(index);
+	}
+
+}
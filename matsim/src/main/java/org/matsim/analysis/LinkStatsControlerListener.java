@@ -22,43 +22,65 @@ package org.matsim.analysis;
 import org.matsim.api.core.v01.TransportMode;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.LinkStatsConfigGroup;
+import org.matsim.core.controler.BackgroundOutputWriter;
 import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.ControlerUtils;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.PopulationSample;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.DataDependentListener;
 import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.controler.listener.IterationStartsListener;
 import org.matsim.core.router.util.TravelTime;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * @author mrieser
  */
-final class LinkStatsControlerListener implements IterationEndsListener, IterationStartsListener {
+final class LinkStatsControlerListener implements IterationEndsListener, IterationStartsListener, DataDependentListener {
 
 	@Inject private LinkStatsConfigGroup linkStatsConfigGroup;
 	@Inject private ControlerConfigGroup controlerConfigGroup;
 	@Inject private CalcLinkStats linkStats;
 	@Inject private VolumesAnalyzer volumes;
 	@Inject private OutputDirectoryHierarchy controlerIO;
+	@Inject private BackgroundOutputWriter outputWriter;
 	@Inject private Map<String, TravelTime> travelTime;
+	@com.google.inject.Inject(optional = true) private PopulationSample populationSample = null;
     private int iterationsUsed = 0;
 	private boolean doReset = false;
 
     @Override
+	public Set<Data> getDataDependencies() {
+		return EnumSet.of(Data.EVENTS, Data.TRAVEL_TIMES);
+	}
+
+	@Override
 	public void notifyIterationEnds(IterationEndsEvent event) {
 		int iteration = event.getIteration();
 		
 		if (useVolumesOfIteration(iteration, controlerConfigGroup.getFirstIteration())) {
 			this.iterationsUsed++;
-            linkStats.addData(volumes, travelTime.get(TransportMode.car));
+			// volumes of iterations with only a sample of the population are scaled up to the full population
+			double volumeScaleFactor = this.populationSample == null ? 1.0 : this.populationSample.getScaleFactor(iteration);
+			linkStats.addData(volumes, travelTime.get(TransportMode.car), volumeScaleFactor);
 		}
 
 		if (createLinkStatsInIteration(iteration)) {
-			linkStats.writeFile(this.controlerIO.getIterationFilename(iteration, Controler.FILENAME_LINKSTATS));
+			final String filename = this.controlerIO.getIterationFilename(iteration,
+					ControlerUtils.getCompressedOutputFilename(Controler.FILENAME_LINKSTATS, controlerConfigGroup));
+			final CalcLinkStats snapshot = outputWriter.isInBackground() ? linkStats.copy() : linkStats;
+			outputWriter.submit(filename, () -> snapshot.writeFile(new BufferedWriter(new OutputStreamWriter(
+					ControlerUtils.getCompressedOutputStream(filename, controlerConfigGroup), StandardCharsets.UTF_8))));
 			this.doReset = true;
 		}
 	}
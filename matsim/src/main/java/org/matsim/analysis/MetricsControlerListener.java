@@ -0,0 +1,260 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import javax.inject.Inject;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.metrics.MetricsRegistry;
+import org.matsim.core.utils.metrics.MetricsRegistry.Snapshot;
+
+/**
+ * Collects the {@link MetricsRegistry metrics} of each iteration, writes them to <code>metrics.csv</code> in the output
+ * directory and to <code>metrics.json</code> in the iteration directory, and optionally publishes them via JMX.
+ * <p></p>
+ * The number of bytes written to the iteration directory is added as metric <code>io.iterationOutputBytes</code>.
+ * It only contains the files which are complete at the end of the iteration, i.e. not those written in the background.
+ * <p></p>
+ * The registry is only switched on if the metrics are written (<code>writeMetricsInterval &gt; 0</code>) or published via
+ * JMX, otherwise the instrumented code does not measure anything. Note that the registry is a JVM-wide singleton: if several
+ * Controlers run concurrently in the same JVM, their metrics are mixed, and one run switching the registry on or off
+ * affects the others as well.
+ */
+final class MetricsControlerListener implements IterationStartsListener, IterationEndsListener, ShutdownListener, MetricsMXBean {
+
+	private static final Logger log = Logger.getLogger(MetricsControlerListener.class);
+
+	/*package*/ static final String FILENAME = "metrics";
+
+	private static final String OBJECT_NAME = "org.matsim:type=Metrics";
+
+	private final ControlerConfigGroup config;
+	private final OutputDirectoryHierarchy controlerIO;
+	private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+	private volatile int lastIteration = -1;
+	private volatile Map<String, Snapshot> lastSnapshots = Collections.emptyMap();
+	private ObjectName objectName = null;
+	private boolean headerWritten = false;
+	private boolean enabledRegistry = false;
+
+	@Inject
+	MetricsControlerListener(final ControlerConfigGroup config, final OutputDirectoryHierarchy controlerIO) {
+		this.config = config;
+		this.controlerIO = controlerIO;
+	}
+
+	@Override
+	public void notifyIterationStarts(final IterationStartsEvent event) {
+		if (!isActive()) {
+			return;
+		}
+		if (this.config.isExposingMetricsViaJmx() && this.objectName == null) {
+			registerMBean();
+		}
+		if (!this.registry.isEnabled()) {
+			this.registry.setEnabled(true);
+			this.enabledRegistry = true;
+		}
+		this.registry.snapshotAndReset(); // start from zero, the values before belong to no iteration
+	}
+
+	@Override
+	public void notifyIterationEnds(final IterationEndsEvent event) {
+		if (!isActive()) {
+			return;
+		}
+		int iteration = event.getIteration();
+		this.registry.counter("io.iterationOutputBytes").add(sizeOf(new File(this.controlerIO.getIterationPath(iteration))));
+		Map<String, Snapshot> snapshots = this.registry.snapshotAndReset();
+		this.lastSnapshots = snapshots;
+		this.lastIteration = iteration;
+
+		int interval = this.config.getWriteMetricsInterval();
+		if (interval > 0 && iteration % interval == 0) {
+			writeCsv(iteration, snapshots);
+			writeJson(iteration, snapshots);
+		}
+	}
+
+	@Override
+	public void notifyShutdown(final ShutdownEvent event) {
+		if (this.objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+			} catch (JMException e) {
+				log.warn("could not unregister " + this.objectName, e);
+			}
+			this.objectName = null;
+		}
+		if (this.enabledRegistry) {
+			this.registry.setEnabled(false);
+			this.registry.snapshotAndReset();
+			this.enabledRegistry = false;
+		}
+	}
+
+	private boolean isActive() {
+		return this.config.getWriteMetricsInterval() > 0 || this.config.isExposingMetricsViaJmx();
+	}
+
+	private void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				// e.g. from an earlier run in the same JVM which did not shut down properly
+				server.unregisterMBean(name);
+			}
+			server.registerMBean(this, name);
+			this.objectName = name;
+		} catch (JMException e) {
+			log.warn("could not publish the metrics via JMX", e);
+		}
+	}
+
+	private void writeCsv(final int iteration, final Map<String, Snapshot> snapshots) {
+		String filename = this.controlerIO.getOutputFilename(FILENAME + ".csv");
+		boolean append = this.headerWritten;
+		try (BufferedWriter out = append ? IOUtils.getAppendingBufferedWriter(filename) : IOUtils.getBufferedWriter(filename)) {
+			if (!append) {
+				out.write("iteration;name;type;count;sum;min;max;mean;median;p95");
+				out.newLine();
+				this.headerWritten = true;
+			}
+			for (Map.Entry<String, Snapshot> e : snapshots.entrySet()) {
+				Snapshot s = e.getValue();
+				out.write(iteration + ";" + e.getKey() + ";" + s.getType() + ";" + s.getCount() + ";" + s.getSum() + ";" + s.getMin()
+						+ ";" + s.getMax() + ";" + s.getMean() + ";" + s.getMedian() + ";" + s.get95thPercentile());
+				out.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void writeJson(final int iteration, final Map<String, Snapshot> snapshots) {
+		try (BufferedWriter out = IOUtils.getBufferedWriter(this.controlerIO.getIterationFilename(iteration, FILENAME + ".json"))) {
+			out.write("{\"iteration\":" + iteration + ",\"metrics\":{");
+			boolean first = true;
+			for (Map.Entry<String, Snapshot> e : snapshots.entrySet()) {
+				Snapshot s = e.getValue();
+				if (!first) {
+					out.write(",");
+				}
+				first = false;
+				out.newLine();
+				out.write("\"" + e.getKey().replace("\\", "\\\\").replace("\"", "\\\"") + "\":{\"type\":\"" + s.getType()
+						+ "\",\"count\":" + s.getCount() + ",\"sum\":" + s.getSum() + ",\"min\":" + s.getMin() + ",\"max\":" + s.getMax()
+						+ ",\"mean\":" + s.getMean() + ",\"median\":" + s.getMedian() + ",\"p95\":" + s.get95thPercentile() + "}");
+			}
+			out.newLine();
+			out.write("}}");
+			out.newLine();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long sizeOf(final File file) {
+		if (file.isFile()) {
+			return file.length();
+		}
+		long size = 0;
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				size += sizeOf(child);
+			}
+		}
+		return size;
+	}
+
+	private Map<String, Double> collect(final ToDoubleFunction<Snapshot> value) {
+		Map<String, Double> values = new HashMap<>();
+		for (Map.Entry<String, Snapshot> e : this.lastSnapshots.entrySet()) {
+			values.put(e.getKey(), value.applyAsDouble(e.getValue()));
+		}
+		return values;
+	}
+
+	private Map<String, Long> collectLong(final ToLongFunction<Snapshot> value) {
+		Map<String, Long> values = new HashMap<>();
+		for (Map.Entry<String, Snapshot> e : this.lastSnapshots.entrySet()) {
+			values.put(e.getKey(), value.applyAsLong(e.getValue()));
+		}
+		return values;
+	}
+
+	@Override
+	public int getIteration() {
+		return this.lastIteration;
+	}
+
+	@Override
+	public Map<String, Long> getCounts() {
+		return collectLong(Snapshot::getCount);
+	}
+
+	@Override
+	public Map<String, Long> getSums() {
+		return collectLong(Snapshot::getSum);
+	}
+
+	@Override
+	public Map<String, Double> getMeans() {
+		return collect(Snapshot::getMean);
+	}
+
+	@Override
+	public Map<String, Long> getMaxima() {
+		return collectLong(Snapshot::getMax);
+	}
+
+	@Override
+	public Map<String, Long> get95thPercentiles() {
+		return collectLong(Snapshot::get95thPercentile);
+	}
+
+}
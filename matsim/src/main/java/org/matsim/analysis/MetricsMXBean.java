@@ -0,0 +1,44 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import java.util.Map;
+
+/**
+ * The metrics of the last finished iteration, as published via JMX if
+ * {@link org.matsim.core.config.groups.ControlerConfigGroup#isExposingMetricsViaJmx()} is set.
+ * Timers are in nanoseconds.
+ */
+public interface MetricsMXBean {
+
+	int getIteration();
+
+	Map<String, Long> getCounts();
+
+	Map<String, Long> getSums();
+
+	Map<String, Double> getMeans();
+
+	Map<String, Long> getMaxima();
+
+	Map<String, Long> get95thPercentiles();
+
+}
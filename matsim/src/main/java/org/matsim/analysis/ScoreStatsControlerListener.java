@@ -41,6 +41,7 @@ import org.matsim.api.core.v01.population.PlanElement;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.controler.BackgroundOutputWriter;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.ShutdownEvent;
@@ -85,6 +86,7 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 	
 	private final boolean createPNG;
 	private final ControlerConfigGroup controlerConfigGroup;
+	private final BackgroundOutputWriter outputWriter;
 
 	Map<ScoreItem,Map< Integer, Double>> scoreHistory = new HashMap<>() ;
 	private int minIteration = 0;
@@ -93,8 +95,9 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 
 	@Inject
 	ScoreStatsControlerListener(ControlerConfigGroup controlerConfigGroup, Population population1, OutputDirectoryHierarchy controlerIO,
-			PlanCalcScoreConfigGroup scoreConfig, Provider<TripRouter> tripRouterFactory ) {
+			PlanCalcScoreConfigGroup scoreConfig, Provider<TripRouter> tripRouterFactory, BackgroundOutputWriter outputWriter ) {
 		this.controlerConfigGroup = controlerConfigGroup;
+		this.outputWriter = outputWriter;
 		this.population = population1;
 		this.fileName = controlerIO.getOutputFilename(FILENAME_SCORESTATS);
 		this.createPNG = controlerConfigGroup.isCreateGraphs();
@@ -220,7 +223,8 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 			chart.addSeries("avg. of plans' average score", this.scoreHistory.get( ScoreItem.average) );
 			chart.addSeries("avg. executed score", this.scoreHistory.get( ScoreItem.executed ) );
 			chart.addMatsimLogo();
-			chart.saveAsPng(this.fileName + ".png", 800, 600);
+			// the chart has its own copy of the data
+			this.outputWriter.submit(this.fileName + ".png", () -> chart.saveAsPng(this.fileName + ".png", 800, 600));
 		}
 	}
 
@@ -20,7 +20,9 @@
 
 package org.matsim.analysis;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -34,12 +36,13 @@ import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.vehicles.Vehicle;
-import org.matsim.core.api.experimental.events.EventsManager;
 
 import javax.inject.Inject;
 
 /**
  * Counts the number of vehicles leaving a link, aggregated into time bins of a specified size.
+ * <p></p>
+ * When created by injection, this gets its events from the {@link AnalysisEventsHub}.
  *
  * @author mrieser
  */
@@ -49,17 +52,19 @@ public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTraf
 	private final int timeBinSize;
 	private final int maxTime;
 	private final int maxSlotIndex;
-	private final Map<Id<Link>, int[]> links;
+	private final LinkIndex linkIndex;
+	/** the volumes per link index; <code>null</code> for links without volumes */
+	private int[][] links;
 	
 	// for multi-modal support
 	private final boolean observeModes;
 	private final Map<Id<Vehicle>, String> enRouteModes;
-	private final Map<Id<Link>, Map<String, int[]>> linksPerMode;
+	private final Map<String, int[][]> linksPerMode;
 
 	@Inject
-	VolumesAnalyzer(Network network, EventsManager eventsManager) {
-		this(3600, 24 * 3600 - 1, network);
-		eventsManager.addHandler(this);
+	VolumesAnalyzer(AnalysisEventsHub hub) {
+		this(3600, 24 * 3600 - 1, true, hub.getLinkIndex());
+		hub.addVolumesAnalyzer(this);
 	}
 
 	public VolumesAnalyzer(final int timeBinSize, final int maxTime, final Network network) {
@@ -67,15 +72,20 @@ public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTraf
 	}
 	
 	public VolumesAnalyzer(final int timeBinSize, final int maxTime, final Network network, boolean observeModes) {
+		this(timeBinSize, maxTime, observeModes, new LinkIndex(network));
+	}
+
+	private VolumesAnalyzer(final int timeBinSize, final int maxTime, boolean observeModes, final LinkIndex linkIndex) {
 		this.timeBinSize = timeBinSize;
 		this.maxTime = maxTime;
 		this.maxSlotIndex = (this.maxTime/this.timeBinSize) + 1;
-		this.links = new HashMap<>((int) (network.getLinks().size() * 1.1), 0.95f);
+		this.linkIndex = linkIndex;
+		this.links = new int[0][];
 		
 		this.observeModes = observeModes;
 		if (this.observeModes) {
 			this.enRouteModes = new HashMap<>();
-			this.linksPerMode = new HashMap<>((int) (network.getLinks().size() * 1.1), 0.95f);
+			this.linksPerMode = new HashMap<>();
 		} else {
 			this.enRouteModes = null;
 			this.linksPerMode = null;
@@ -91,30 +101,47 @@ public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTraf
 	
 	@Override
 	public void handleEvent(final LinkLeaveEvent event) {
-		int[] volumes = this.links.get(event.getLinkId());
-		if (volumes == null) {
-			volumes = new int[this.maxSlotIndex + 1]; // initialized to 0 by default, according to JVM specs
-			this.links.put(event.getLinkId(), volumes);
-		}
-		int timeslot = getTimeSlotIndex(event.getTime());
-		volumes[timeslot]++;
+		handleLinkLeave(this.linkIndex.getIndex(event.getLinkId()), event.getTime(),
+				observeModes ? enRouteModes.get(event.getVehicleId()) : null);
+	}
+
+	/* package */ void handleLinkLeave(final int linkIndex, final double time, final String mode) {
+		int timeslot = getTimeSlotIndex(time);
+		this.links = count(this.links, linkIndex, timeslot);
 		
 		if (observeModes) {
-			Map<String, int[]> modeVolumes = this.linksPerMode.get(event.getLinkId());
-			if (modeVolumes == null) {
-				modeVolumes = new HashMap<>();
-				this.linksPerMode.put(event.getLinkId(), modeVolumes);
-			}
-			String mode = enRouteModes.get(event.getVehicleId());
-			volumes = modeVolumes.get(mode);
-			if (volumes == null) {
-				volumes = new int[this.maxSlotIndex + 1]; // initialized to 0 by default, according to JVM specs
-				modeVolumes.put(mode, volumes);
+			int[][] modeVolumes = this.linksPerMode.get(mode);
+			int[][] counted = count(modeVolumes == null ? new int[0][] : modeVolumes, linkIndex, timeslot);
+			if (counted != modeVolumes) {
+				this.linksPerMode.put(mode, counted);
 			}
-			volumes[timeslot]++;
 		}
 	}
 
+	/**
+	 * @return the array of volumes, which may have been replaced by a larger one
+	 */
+	private int[][] count(int[][] volumes, final int linkIndex, final int timeslot) {
+		if (linkIndex >= volumes.length) {
+			volumes = Arrays.copyOf(volumes, Math.max(linkIndex + 1, volumes.length * 2));
+		}
+		int[] linkVolumes = volumes[linkIndex];
+		if (linkVolumes == null) {
+			linkVolumes = new int[this.maxSlotIndex + 1]; // initialized to 0 by default, according to JVM specs
+			volumes[linkIndex] = linkVolumes;
+		}
+		linkVolumes[timeslot]++;
+		return volumes;
+	}
+
+	private int[] getVolumes(final int[][] volumes, final Id<Link> linkId) {
+		int index = this.linkIndex.findIndex(linkId);
+		if (index < 0 || index >= volumes.length) {
+			return null;
+		}
+		return volumes[index];
+	}
+
 	private int getTimeSlotIndex(final double time) {
 		if (time > this.maxTime) {
 			return this.maxSlotIndex;
@@ -128,7 +155,7 @@ public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTraf
 	 * 		starting with time bin 0 from 0 seconds to (timeBinSize-1)seconds.
 	 */
 	public int[] getVolumesForLink(final Id<Link> linkId) {
-		return this.links.get(linkId);
+		return getVolumes(this.links, linkId);
 	}
 	
 	/**
@@ -139,8 +166,8 @@ public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTraf
 	 */
 	public int[] getVolumesForLink(final Id<Link> linkId, String mode) {
 		if (observeModes) {
-			Map<String, int[]> modeVolumes = this.linksPerMode.get(linkId);
-			if (modeVolumes != null) return modeVolumes.get(mode);
+			int[][] modeVolumes = this.linksPerMode.get(mode);
+			if (modeVolumes != null) return getVolumes(modeVolumes, linkId);
 		} 
 		return null;
 	}
@@ -222,25 +249,25 @@ public class VolumesAnalyzer implements LinkLeaveEventHandler, VehicleEntersTraf
 	 * @return Set of Strings containing all modes for which counting-values are available.
 	 */
 	public Set<String> getModes() {
-		Set<String> modes = new TreeSet<>();
-		
-		for (Map<String, int[]> map : this.linksPerMode.values()) {
-			modes.addAll(map.keySet());
-		}
-		
-		return modes;
+		return new TreeSet<>(this.linksPerMode.keySet());
 	}
 	
 	/**
 	 * @return Set of Strings containing all link ids for which counting-values are available.
 	 */
 	public Set<Id<Link>> getLinkIds() {
-		return this.links.keySet();
+		Set<Id<Link>> linkIds = new HashSet<>();
+		for (int i = 0; i < this.links.length; i++) {
+			if (this.links[i] != null) {
+				linkIds.add(this.linkIndex.getLinkId(i));
+			}
+		}
+		return linkIds;
 	}
 
 	@Override
 	public void reset(final int iteration) {
-		this.links.clear();
+		this.links = new int[0][];
 		if (observeModes) {
 			this.linksPerMode.clear();
 			this.enRouteModes.clear();
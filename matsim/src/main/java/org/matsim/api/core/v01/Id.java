@@ -60,14 +60,17 @@ public abstract class Id<T> implements Comparable<Id<T>> {
 	public static <T> Id<T> create(final String key, final Class<T> type) {
 		Map<String, Id<?>> map = cache.get(type);
 		if (map == null) {
-			map = new ConcurrentHashMap<String, Id<?>>();
-			cache.put(type, map);
+			map = cache.computeIfAbsent(type, t -> new ConcurrentHashMap<String, Id<?>>());
 		}
 		Gbl.assertNotNull(key);
 		Id<?> id = map.get(key);
 		if (id == null) {
-			id = new IdImpl<T>(key);
-			map.put(key, id);
+			// ids may be created concurrently, e.g. by parallel readers, but there must only be one instance per key
+			Id<?> newId = new IdImpl<T>(key);
+			id = map.putIfAbsent(key, newId);
+			if (id == null) {
+				id = newId;
+			}
 		}
 		
 		return (Id<T>) id;
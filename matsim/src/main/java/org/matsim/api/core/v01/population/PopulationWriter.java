@@ -26,6 +26,7 @@ import org.matsim.core.utils.geometry.CoordinateTransformation;
 import org.matsim.core.utils.geometry.transformations.IdentityTransformation;
 import org.matsim.utils.objectattributes.AttributeConverter;
 
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -107,4 +108,16 @@ public final class PopulationWriter implements MatsimWriter {
 		writer.putAttributeConverters( attributeConverters );
 		writer.writeV6(filename);
 	}
+
+	/**
+	 * Writes the population in the most current format to the stream, which is not compressed any further, and closes it.
+	 *
+	 * @param outputStream
+	 */
+	public void write(final OutputStream outputStream) {
+		final org.matsim.core.population.io.PopulationWriter writer =
+				new org.matsim.core.population.io.PopulationWriter( transformation , this.population, this.network);
+		writer.putAttributeConverters( attributeConverters );
+		writer.writeV6(outputStream);
+	}
 }
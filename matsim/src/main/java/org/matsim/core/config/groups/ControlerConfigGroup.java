@@ -41,6 +41,8 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 
 	public enum EventsFileFormat {xml}
 
+	public enum CompressionType {gzip, zst}
+
 	public static final String GROUP_NAME = "controler";
 
 	private static final String OUTPUT_DIRECTORY = "outputDirectory";
@@ -56,6 +58,14 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private static final String OVERWRITE_FILE = "overwriteFiles";
 	private static final String CREATE_GRAPHS = "createGraphs";
 	private static final String DUMP_DATA_AT_END = "dumpDataAtEnd";
+	private static final String COMPRESSION_TYPE = "compressionType";
+	private static final String ZSTD_COMPRESSION_LEVEL = "zstdCompressionLevel";
+	private static final String WRITE_OUTPUT_IN_BACKGROUND = "writeOutputInBackground";
+	private static final String WRITE_METRICS_INTERVAL = "writeMetricsInterval";
+	private static final String EXPOSE_METRICS_VIA_JMX = "exposeMetricsViaJmx";
+	private static final String SAMPLED_ITERATIONS_FRACTION = "sampledIterationsFraction";
+	private static final String FULL_ITERATIONS_INTERVAL = "fullIterationsInterval";
+	private static final String OVERLAP_REPLANNING_WITH_ITERATION_ENDS = "overlapReplanningWithIterationEnds";
 
 	/*package*/ static final String MOBSIM = "mobsim";
 	public enum MobsimType {qsim, JDEQSim}
@@ -81,6 +91,14 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private int writeSnapshotsInterval = 1;
 	private boolean createGraphs = true;
 	private boolean dumpDataAtEnd = true;
+	private CompressionType compressionType = CompressionType.gzip;
+	private int zstdCompressionLevel = 3;
+	private boolean writeOutputInBackground = false;
+	private int writeMetricsInterval = 0;
+	private boolean exposeMetricsViaJmx = false;
+	private double sampledIterationsFraction = 1.0;
+	private int fullIterationsInterval = 10;
+	private boolean overlapReplanningWithIterationEnds = false;
 	private OverwriteFileSetting overwriteFileSetting = OverwriteFileSetting.failIfDirectoryExists;
 
 	public ControlerConfigGroup() {
@@ -120,6 +138,28 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 		map.put(WRITE_SNAPSHOTS_INTERVAL, "iterationNumber % " + WRITE_SNAPSHOTS_INTERVAL + " == 0 defines in which iterations snapshots are written " +
 				"to a file. `0' disables snapshots writing completely");
 		map.put(DUMP_DATA_AT_END, "true if at the end of a run, plans, network, config etc should be dumped to a file");
+		map.put(COMPRESSION_TYPE, "Default=" + CompressionType.gzip + "; the compression of the output files. Possible values: " +
+				CompressionType.gzip + ", " + CompressionType.zst + ". With " + CompressionType.zst + ", the events, plans " +
+				"and link statistics are written with the ending .zst instead of .gz, which is several times faster to write and read.");
+		map.put(ZSTD_COMPRESSION_LEVEL, "Default=3; the compression level used for zstd-compressed (.zst) files, " +
+				"from 1 (fastest) to 19 (smallest).");
+		map.put(WRITE_OUTPUT_IN_BACKGROUND, "Default=false; if true, plans, link stats and some analyses are written in a background " +
+				"thread, while the next iteration already starts. This needs memory for a copy of the plans.");
+		map.put(WRITE_METRICS_INTERVAL, "Default=0; iterationNumber % " + WRITE_METRICS_INTERVAL + " == 0 defines in which iterations " +
+				"the performance metrics (run times of the mobsim engines, routing, replanning, scoring etc.) are written to metrics.csv " +
+				"and the iteration's metrics.json. `0' disables writing the metrics.");
+		map.put(EXPOSE_METRICS_VIA_JMX, "Default=false; if true, the metrics of the last iteration are published as the MBean " +
+				"org.matsim:type=Metrics, e.g. for jconsole or a JMX exporter.");
+		map.put(SAMPLED_ITERATIONS_FRACTION, "Default=1.0; if smaller than 1.0, only a sample of this size, stratified by subpopulation, " +
+				"is replanned, simulated and scored in most iterations, with the flow and storage capacities of the qsim network scaled " +
+				"accordingly and the volumes for the link stats and counts comparisons scaled back up. Useful for calibration runs with " +
+				"many iterations.");
+		map.put(FULL_ITERATIONS_INTERVAL, "Default=10; with a " + SAMPLED_ITERATIONS_FRACTION + " smaller than 1.0, the first, the " +
+				"last and every n-th iteration run with the full population; only these update the travel times for the router. " +
+				"A new sample is drawn after every full iteration.");
+		map.put(OVERLAP_REPLANNING_WITH_ITERATION_ENDS, "Default=false; if true, iteration ends listeners which declare that they " +
+				"do not read the population (e.g. leg histogram, link stats) are notified in a background thread, while the next " +
+				"iteration already starts and replans. They are finished before the next mobsim starts.");
 		return map;
 	}
 
@@ -342,6 +382,86 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	public void setDumpDataAtEnd(boolean dumpDataAtEnd) {
 		this.dumpDataAtEnd = dumpDataAtEnd;
 	}
+
+	@StringGetter(COMPRESSION_TYPE)
+	public CompressionType getCompressionType() {
+		return this.compressionType;
+	}
+
+	@StringSetter(COMPRESSION_TYPE)
+	public void setCompressionType(final CompressionType compressionType) {
+		this.compressionType = compressionType;
+	}
+
+	@StringGetter(ZSTD_COMPRESSION_LEVEL)
+	public int getZstdCompressionLevel() {
+		return this.zstdCompressionLevel;
+	}
+
+	@StringSetter(ZSTD_COMPRESSION_LEVEL)
+	public void setZstdCompressionLevel(final int zstdCompressionLevel) {
+		this.zstdCompressionLevel = zstdCompressionLevel;
+	}
+
+	@StringGetter(WRITE_OUTPUT_IN_BACKGROUND)
+	public boolean isWritingOutputInBackground() {
+		return this.writeOutputInBackground;
+	}
+
+	@StringSetter(WRITE_OUTPUT_IN_BACKGROUND)
+	public void setWritingOutputInBackground(final boolean writeOutputInBackground) {
+		this.writeOutputInBackground = writeOutputInBackground;
+	}
+
+	@StringGetter(WRITE_METRICS_INTERVAL)
+	public int getWriteMetricsInterval() {
+		return this.writeMetricsInterval;
+	}
+
+	@StringSetter(WRITE_METRICS_INTERVAL)
+	public void setWriteMetricsInterval(final int writeMetricsInterval) {
+		this.writeMetricsInterval = writeMetricsInterval;
+	}
+
+	@StringGetter(EXPOSE_METRICS_VIA_JMX)
+	public boolean isExposingMetricsViaJmx() {
+		return this.exposeMetricsViaJmx;
+	}
+
+	@StringSetter(EXPOSE_METRICS_VIA_JMX)
+	public void setExposingMetricsViaJmx(final boolean exposeMetricsViaJmx) {
+		this.exposeMetricsViaJmx = exposeMetricsViaJmx;
+	}
+
+	@StringGetter(SAMPLED_ITERATIONS_FRACTION)
+	public double getSampledIterationsFraction() {
+		return this.sampledIterationsFraction;
+	}
+
+	@StringSetter(SAMPLED_ITERATIONS_FRACTION)
+	public void setSampledIterationsFraction(final double sampledIterationsFraction) {
+		this.sampledIterationsFraction = sampledIterationsFraction;
+	}
+
+	@StringGetter(FULL_ITERATIONS_INTERVAL)
+	public int getFullIterationsInterval() {
+		return this.fullIterationsInterval;
+	}
+
+	@StringSetter(FULL_ITERATIONS_INTERVAL)
+	public void setFullIterationsInterval(final int fullIterationsInterval) {
+		this.fullIterationsInterval = fullIterationsInterval;
+	}
+
+	@StringGetter(OVERLAP_REPLANNING_WITH_ITERATION_ENDS)
+	public boolean isOverlappingReplanningWithIterationEnds() {
+		return this.overlapReplanningWithIterationEnds;
+	}
+
+	@StringSetter(OVERLAP_REPLANNING_WITH_ITERATION_ENDS)
+	public void setOverlappingReplanningWithIterationEnds(final boolean overlapReplanningWithIterationEnds) {
+		this.overlapReplanningWithIterationEnds = overlapReplanningWithIterationEnds;
+	}
 	// ---
 	int writePlansUntilIteration = 1 ;
 	public int getWritePlansUntilIteration() {
@@ -360,6 +480,12 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	}
 	@Override 
 	protected void checkConsistency(Config config) {
+		if ( this.sampledIterationsFraction <= 0. || this.sampledIterationsFraction > 1. ) {
+			throw new RuntimeException( SAMPLED_ITERATIONS_FRACTION + " must be larger than 0 and at most 1, but is " + this.sampledIterationsFraction );
+		}
+		if ( this.sampledIterationsFraction < 1. && this.fullIterationsInterval < 1 ) {
+			throw new RuntimeException( FULL_ITERATIONS_INTERVAL + " must be at least 1 if " + SAMPLED_ITERATIONS_FRACTION + " is used" );
+		}
 		if ( config.controler().getOverwriteFileSetting() == OverwriteFileSetting.overwriteExistingFiles ) {
 			log.warn( "setting overwriting behavior to "+overwriteFileSetting );
 			log.warn( "this is not recommended, as it might result in a directory containing output from several model runs" );
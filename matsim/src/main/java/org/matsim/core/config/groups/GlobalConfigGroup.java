@@ -40,10 +40,14 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 	private static final String RANDOM_SEED = "randomSeed";
 	private static final String NUMBER_OF_THREADS = "numberOfThreads";
 	private static final String COORDINATE_SYSTEM = "coordinateSystem";
+	private static final String BALANCE_REPLANNING_LOAD = "balanceReplanningLoad";
+	private static final String SCENARIO_SNAPSHOT_FILE = "scenarioSnapshotFile";
 
 	private long randomSeed = 4711L;
 	private int numberOfThreads = 2;
 	private String coordinateSystem = "Atlantis";
+	private boolean balanceReplanningLoad = false;
+	private String scenarioSnapshotFile = null;
 	
 	@Override
 	public Map<String, String> getComments() {
@@ -51,6 +55,12 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		map.put(NUMBER_OF_THREADS, "\"global\" number of threads.  "
 				+ "This number is used, e.g., for replanning, but NOT in the mobsim.  "
 				+ "This can typically be set to as many cores as you have available, or possibly even slightly more.") ;
+		map.put(BALANCE_REPLANNING_LOAD, "If true, multi-threaded replanning modules hand plans to whichever thread is idle, "
+				+ "instead of distributing them equally to all threads.  Faster if plans differ a lot in the effort needed, "
+				+ "but runs are no longer reproducible if more than one thread is used.") ;
+		map.put(SCENARIO_SNAPSHOT_FILE, "Binary file in which network, facilities and population are stored after they were read from the input files.  "
+				+ "Later runs read them from this file instead, as long as the content of the input files has not changed.  "
+				+ "Relative paths are resolved against the directory of the config file.  Not used if not set.") ;
 		return map ;
 	}
 
@@ -75,6 +85,15 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		this.numberOfThreads = numberOfThreads;
 	}
 
+	@StringGetter( BALANCE_REPLANNING_LOAD )
+	public boolean isBalanceReplanningLoad() {
+		return this.balanceReplanningLoad;
+	}
+	@StringSetter( BALANCE_REPLANNING_LOAD )
+	public void setBalanceReplanningLoad(final boolean balanceReplanningLoad) {
+		this.balanceReplanningLoad = balanceReplanningLoad;
+	}
+
 	@StringGetter( COORDINATE_SYSTEM )
 	public String getCoordinateSystem() {
 		return this.coordinateSystem;
@@ -84,6 +103,15 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		this.coordinateSystem = coordinateSystem;
 	}
 	
+	@StringGetter( SCENARIO_SNAPSHOT_FILE )
+	public String getScenarioSnapshotFile() {
+		return this.scenarioSnapshotFile;
+	}
+	@StringSetter( SCENARIO_SNAPSHOT_FILE )
+	public void setScenarioSnapshotFile(final String scenarioSnapshotFile) {
+		this.scenarioSnapshotFile = scenarioSnapshotFile;
+	}
+
 	private static final String INSITING_ON_DEPRECATED_CONFIG_VERSION = "insistingOnDeprecatedConfigVersion" ;
 	@StringGetter( INSITING_ON_DEPRECATED_CONFIG_VERSION )
 	public final boolean isInsistingOnDeprecatedConfigVersion() { return this.insistingOnDeprecatedConfigVersion ; }
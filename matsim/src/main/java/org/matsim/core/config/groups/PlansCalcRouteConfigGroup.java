@@ -78,6 +78,13 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 	private static final String RANDOMNESS = "routingRandomness" ;
 	private double routingRandomness = 3. ;
 	
+	// ---
+	
+	private static final String ROUTE_CACHE_SIZE = "routeCacheSize" ;
+	private static final String ROUTE_CACHE_TIME_BIN_SIZE = "routeCacheTimeBinSize" ;
+	private int routeCacheSize = 0 ;
+	private double routeCacheTimeBinSize = 900. ;
+	
 	// ---
 
 	public static class ModeRoutingParams extends ReflectiveConfigGroup implements MatsimParameters {
@@ -385,6 +392,10 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 			setTeleportedModeSpeed(UNDEFINED, Double.parseDouble(value));
 		} else if (NETWORK_MODES.equals(key)) {
 			setNetworkModes(Arrays.asList(CollectionUtils.stringToArray(value)));
+		} else if (ROUTE_CACHE_SIZE.equals(key)) {
+			setRouteCacheSize(Integer.parseInt(value));
+		} else if (ROUTE_CACHE_TIME_BIN_SIZE.equals(key)) {
+			setRouteCacheTimeBinSize(Double.parseDouble(value));
 		} else if (key.startsWith(TELEPORTED_MODE_SPEEDS)) {
 			setTeleportedModeSpeed(key.substring(TELEPORTED_MODE_SPEEDS.length()), Double.parseDouble(value));
 		} else if (key.startsWith(TELEPORTED_MODE_FREESPEED_FACTORS)) {
@@ -398,6 +409,8 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 	public final Map<String, String> getParams() {
 		Map<String, String> map = super.getParams();
 		map.put( NETWORK_MODES, CollectionUtils.arrayToString(this.networkModes.toArray(new String[this.networkModes.size()])));
+		map.put( ROUTE_CACHE_SIZE, Integer.toString(this.routeCacheSize) );
+		map.put( ROUTE_CACHE_TIME_BIN_SIZE, Double.toString(this.routeCacheTimeBinSize) );
 
 		//		map.put( BEELINE_DISTANCE_FACTOR, Double.toString(this.getBeelineDistanceFactor()) );
 
@@ -423,6 +436,10 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 	        map.put(RANDOMNESS, "strength of the randomness for the utility of money in routing under toll.  "
 	          		+ "Leads to Pareto-optimal route with randomly drawn money-vs-other-attributes tradeoff. "
 	          		+ "Technically the width parameter of a log-normal distribution. 3.0 seems to be a good value. " ) ;
+		map.put(ROUTE_CACHE_SIZE, "Maximum number of network routes kept in the route cache per network mode.  Routes are cached by "
+				+ "(from node, to node, departure time bin) and reused for all persons within one iteration, i.e. person-specific "
+				+ "routing (e.g. " + RANDOMNESS + ") is no longer person-specific for cached routes.  0 (default) disables the cache.") ;
+		map.put(ROUTE_CACHE_TIME_BIN_SIZE, "Size of the departure time bins (in seconds) used as part of the route cache key.") ;
 		return map;
 	}
 
@@ -522,6 +539,22 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 		this.routingRandomness = routingRandomness;
 	}
 
+	public int getRouteCacheSize() {
+		return this.routeCacheSize;
+	}
+	public void setRouteCacheSize(int routeCacheSize) {
+		testForLocked() ;
+		this.routeCacheSize = routeCacheSize;
+	}
+
+	public double getRouteCacheTimeBinSize() {
+		return this.routeCacheTimeBinSize;
+	}
+	public void setRouteCacheTimeBinSize(double routeCacheTimeBinSize) {
+		testForLocked() ;
+		this.routeCacheTimeBinSize = routeCacheTimeBinSize;
+	}
+
 	@Override protected void checkConsistency(Config config) {
 		super.checkConsistency(config);
 //		if ( this.insertingAccessEgressWalk ) {
@@ -34,8 +34,11 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 	public abstract static class NetworkRouteType {
 		public static final String LinkNetworkRoute = "LinkNetworkRoute";
 		public static final String CompressedNetworkRoute = "CompressedNetworkRoute";
+		public static final String CompactNetworkRoute = "CompactNetworkRoute";
 	}
 
+	public enum PopulationStorage { objects, columnar, columnarOffHeap }
+
 	public enum ActivityDurationInterpretation { minOfDurationAndEndTime, tryEndTimeThenDuration, @Deprecated endTimeOnly }
 	private static final String INPUT_FILE = "inputPlansFile";
 	private static final String INPUT_PERSON_ATTRIBUTES_FILE = "inputPersonAttributesFile";
@@ -67,7 +70,8 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 				NETWORK_ROUTE_TYPE,
 				"Defines how routes are stored in memory. Currently supported: " +
 				NetworkRouteType.LinkNetworkRoute + ", " +
-				NetworkRouteType.CompressedNetworkRoute + ".");
+				NetworkRouteType.CompressedNetworkRoute + ", " +
+				NetworkRouteType.CompactNetworkRoute + ".");
 		comments.put(
 				INPUT_PERSON_ATTRIBUTES_FILE,
 				"Path to a file containing person attributes (required file format: ObjectAttributes).");
@@ -87,6 +91,10 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 		comments.put(REMOVING_UNNECESSARY_PLAN_ATTRIBUTES, "(not tested) will remove plan attributes that are presumably not used, such as " +
                 "activityStartTime. default=false. Use with Caution!");
 
+		comments.put(POPULATION_STORAGE, "Defines how plans are stored in memory. " + PopulationStorage.objects + " (default): one object per activity and leg. " +
+				PopulationStorage.columnar + ": activities and legs are stored in arrays, which uses much less memory for large populations. " +
+				PopulationStorage.columnarOffHeap + ": same, but the arrays are stored outside of the java heap.");
+
 		comments.put( INPUT_CRS , "The Coordinates Reference System in which the coordinates are expressed in the input file." +
 				" At import, the coordinates will be converted to the coordinate system defined in \"global\", and will" +
 				"be converted back at export. If not specified, no conversion happens." );
@@ -177,6 +185,19 @@ public final class PlansConfigGroup extends ReflectiveConfigGroup {
 		this.removingUnneccessaryPlanAttributes = removingUnneccessaryPlanAttributes;
 	}
 
+	// ---
+
+	private static final String POPULATION_STORAGE = "populationStorage";
+	private PopulationStorage populationStorage = PopulationStorage.objects;
+	@StringGetter(POPULATION_STORAGE)
+	public PopulationStorage getPopulationStorage() {
+		return this.populationStorage;
+	}
+	@StringSetter(POPULATION_STORAGE)
+	public void setPopulationStorage(final PopulationStorage populationStorage) {
+		testForLocked();
+		this.populationStorage = populationStorage;
+	}
 
 	@StringGetter( INPUT_CRS )
 	public String getInputCRS() {
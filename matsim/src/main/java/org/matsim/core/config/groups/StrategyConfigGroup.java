@@ -100,6 +100,7 @@ public final class StrategyConfigGroup extends ConfigGroup {
 			
 			StringBuilder strats = new StringBuilder() ;
 			strats.append( DefaultStrategy.ReRoute ) ;
+			strats.append( DefaultStrategy.ReRouteIncremental ) ;
 			strats.append( DefaultStrategy.TimeAllocationMutator ) ;
 			strats.append( DefaultStrategy.TimeAllocationMutator_ReRoute ) ;
 			strats.append( DefaultStrategy.ChangeSingleTripMode ) ;
@@ -277,6 +278,11 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TMP_FILE_ROOT_DIR, "root directory for temporary files generated by the external executable. Provided as a service; "
 				+ "I don't think this is used by MATSim.") ;
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TIME_OUT, "time out value (in seconds) after which matsim will consider the external strategy as failed") ;
+		map.put(ReflectiveDelegate.PARALLEL_PLAN_SELECTION, "if true, plans removal, strategy choice and plan selection run in parallel over chunks of persons, "
+				+ "using global.numberOfThreads threads.  Every person gets its own random stream, so results do not depend on the number of threads, "
+				+ "but they differ from the results with this switched off.  The strategy modules still get the plans in the order of the population.") ;
+		map.put(ReflectiveDelegate.INCREMENTAL_RE_ROUTE_THRESHOLD, "relative change of the car travel time on a link, compared to the previous iteration, above which "
+				+ "the strategy ReRouteIncremental considers the link as changed.  That strategy only reroutes plans using at least one changed link.") ;
 		return map ;
 	}
 
@@ -389,6 +395,22 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		delegate.setFractionOfIterationsToDisableInnovation(fraction);
 	}
 
+	public boolean isParallelPlanSelection() {
+		return delegate.isParallelPlanSelection();
+	}
+
+	public void setParallelPlanSelection(boolean parallelPlanSelection) {
+		delegate.setParallelPlanSelection(parallelPlanSelection);
+	}
+
+	public double getIncrementalReRouteThreshold() {
+		return delegate.getIncrementalReRouteThreshold();
+	}
+
+	public void setIncrementalReRouteThreshold(double incrementalReRouteThreshold) {
+		delegate.setIncrementalReRouteThreshold(incrementalReRouteThreshold);
+	}
+
 	@Override
 	public final Map<String, String> getParams() {
 		return delegate.getParams();
@@ -401,6 +423,8 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		 static final String EXTERNAL_EXE_TIME_OUT = "ExternalExeTimeOut";
 		 static final String ITERATION_FRACTION_TO_DISABLE_INNOVATION = "fractionOfIterationsToDisableInnovation" ;
 		 static final String PLAN_SELECTOR_FOR_REMOVAL = "planSelectorForRemoval" ;
+		 static final String PARALLEL_PLAN_SELECTION = "parallelPlanSelection" ;
+		 static final String INCREMENTAL_RE_ROUTE_THRESHOLD = "incrementalReRouteThreshold" ;
 
 		private int maxAgentPlanMemorySize = 5;
 		private String externalExeConfigTemplate = null;
@@ -412,6 +436,8 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		//---
 		private double fraction = Double.POSITIVE_INFINITY ;
 		//---
+		private boolean parallelPlanSelection = false ;
+		private double incrementalReRouteThreshold = 0.05 ;
 
 		public ReflectiveDelegate() {
 			super( StrategyConfigGroup.GROUP_NAME );
@@ -477,6 +503,26 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		public void setFractionOfIterationsToDisableInnovation(double fraction) {
 			this.fraction = fraction;
 		}
+
+		@StringGetter( PARALLEL_PLAN_SELECTION )
+		public boolean isParallelPlanSelection() {
+			return parallelPlanSelection;
+		}
+
+		@StringSetter( PARALLEL_PLAN_SELECTION )
+		public void setParallelPlanSelection(boolean parallelPlanSelection) {
+			this.parallelPlanSelection = parallelPlanSelection;
+		}
+
+		@StringGetter( INCREMENTAL_RE_ROUTE_THRESHOLD )
+		public double getIncrementalReRouteThreshold() {
+			return incrementalReRouteThreshold;
+		}
+
+		@StringSetter( INCREMENTAL_RE_ROUTE_THRESHOLD )
+		public void setIncrementalReRouteThreshold(double incrementalReRouteThreshold) {
+			this.incrementalReRouteThreshold = incrementalReRouteThreshold;
+		}
 	}
 }
 
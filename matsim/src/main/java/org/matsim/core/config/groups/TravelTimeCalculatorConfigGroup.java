@@ -46,6 +46,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String ANALYZEDMODES = "analyzedModes";
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
+	private static final String TRAVEL_TIME_SNAPSHOT = "useTravelTimeSnapshot";
 
 	private TravelTimeCalculatorType travelTimeCalculator = TravelTimeCalculatorType.TravelTimeCalculatorArray;
 	private String travelTimeAggregator = "optimistic";
@@ -59,6 +60,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private String analyzedModes = TransportMode.car;
 	private boolean filterModes = false;
 	private boolean separateModes = false;
+	private boolean useTravelTimeSnapshot = false;
 
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
@@ -79,6 +81,8 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 				"includes also busses from the pt simulation module. Use this parameter in combination with 'filterModes' = true!");
 		map.put(FILTERMODES, "If true, link travel times from legs performed on modes not included in the 'analyzedModes' parameter are ignored.");
 		map.put(SEPARATEMODES, "If true, link travel times are measured and calculated separately for each mode in analyzedModes. Other modes are ignored. If true, filterModes has no effect.");
+		map.put(TRAVEL_TIME_SNAPSHOT, "If true, the router uses a copy of the link travel times that is created after each mobsim and stored in "
+				+ "an array per link. Faster, but during the mobsim the router sees the travel times of the previous iteration.");
 		// === 
 		StringBuilder str = new StringBuilder();
 		for ( TravelTimeCalculatorType type : TravelTimeCalculatorType.values() ) {
@@ -204,4 +208,15 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 		this.separateModes = separateModes;
 	}
 
+	@StringGetter(TRAVEL_TIME_SNAPSHOT)
+	public boolean isUseTravelTimeSnapshot() {
+		return this.useTravelTimeSnapshot;
+	}
+
+	@StringSetter(TRAVEL_TIME_SNAPSHOT)
+	public void setUseTravelTimeSnapshot(boolean useTravelTimeSnapshot) {
+		testForLocked();
+		this.useTravelTimeSnapshot = useTravelTimeSnapshot;
+	}
+
 }
@@ -24,6 +24,7 @@ import org.matsim.analysis.IterationStopWatch;
 import org.matsim.core.config.Config;
 import org.matsim.core.controler.listener.ControlerListener;
 import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.utils.metrics.FlightRecorderEvents;
 
 /*package*/ abstract class AbstractController {
     // we already had one case where a method of this was removed, causing downstream failures; better just not
@@ -155,7 +156,8 @@ import org.matsim.core.gbl.MatsimRandom;
             @Override
             public void run() {
                 log.info(MARKER + "ITERATION " + iteration + " fires iteration end event");
-                controlerListenerManagerImpl.fireControlerIterationEndsEvent(iteration);
+                controlerListenerManagerImpl.fireControlerIterationEndsEvent(iteration,
+                        config.controler().isOverlappingReplanningWithIterationEnds());
             }
         });
 
@@ -226,7 +228,9 @@ import org.matsim.core.gbl.MatsimRandom;
 
     private void iterationStep(String iterationStepName, Runnable iterationStep) throws MatsimRuntimeModifications.UnexpectedShutdownException {
         this.getStopwatch().beginOperation(iterationStepName);
+        FlightRecorderEvents.Span span = FlightRecorderEvents.CONTROLER_PHASE.begin();
         iterationStep.run();
+        if (span != null) span.end(this.thisIteration, iterationStepName);
         this.getStopwatch().endOperation(iterationStepName);
         if (Thread.interrupted()) {
             throw new MatsimRuntimeModifications.UnexpectedShutdownException();
@@ -0,0 +1,160 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.log4j.Logger;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+
+/**
+ * Writes output files in the background, so that the next iteration does not have to wait for the serialization
+ * and compression of the data.  The submitted tasks must only use data which is not modified afterwards, typically
+ * a snapshot of the data to be written.
+ * <p></p>
+ * The tasks are executed one after the other, in the order they were submitted; the compression of the files is
+ * already done on several threads.  As every waiting task holds its snapshot in memory, submitting blocks while
+ * too many tasks are waiting.  Failures of a task are thrown when the next task is submitted or at {@link #flush()}.
+ * The background thread is stopped by {@link #shutdown()}.
+ * <p></p>
+ * If writing in the background is switched off (see {@link ControlerConfigGroup#isWritingOutputInBackground()}),
+ * the tasks are executed immediately when they are submitted.
+ */
+@Singleton
+public final class BackgroundOutputWriter {
+
+	private static final Logger log = Logger.getLogger(BackgroundOutputWriter.class);
+
+	private static final int MAX_PENDING_TASKS = 2;
+
+	private final boolean inBackground;
+	private final Semaphore permits = new Semaphore(MAX_PENDING_TASKS);
+	private final Deque<Task> tasks = new ArrayDeque<>();
+	private ExecutorService executor = null;
+
+	@Inject
+	BackgroundOutputWriter(final ControlerConfigGroup config) {
+		this(config.isWritingOutputInBackground());
+	}
+
+	public BackgroundOutputWriter(final boolean inBackground) {
+		this.inBackground = inBackground;
+	}
+
+	/**
+	 * @return whether the tasks are executed in the background.  If not, they may use the data directly instead of a
+	 * snapshot, as they are done when {@link #submit(String, Runnable)} returns.
+	 */
+	public boolean isInBackground() {
+		return this.inBackground;
+	}
+
+	/**
+	 * @param description used in log and error messages, e.g. the name of the file
+	 */
+	public synchronized void submit(final String description, final Runnable task) {
+		if (!this.inBackground) {
+			task.run();
+			return;
+		}
+		// pass on failures of finished tasks
+		while (!this.tasks.isEmpty() && this.tasks.peek().future.isDone()) {
+			this.tasks.poll().await();
+		}
+		try {
+			this.permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		if (this.executor == null) {
+			this.executor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, BackgroundOutputWriter.class.getSimpleName());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		this.tasks.add(new Task(description, this.executor.submit(() -> {
+			try {
+				task.run();
+			} finally {
+				this.permits.release();
+			}
+		})));
+	}
+
+	/**
+	 * Waits until all submitted tasks are done.
+	 */
+	public synchronized void flush() {
+		if (!this.tasks.isEmpty()) {
+			log.info("waiting for " + this.tasks.size() + " output writing task(s) to finish...");
+		}
+		while (!this.tasks.isEmpty()) {
+			this.tasks.poll().await();
+		}
+	}
+
+	/**
+	 * Waits until all submitted tasks are done, like {@link #flush()}, and stops the background thread.
+	 * Tasks submitted afterwards are executed on a new thread.
+	 */
+	public synchronized void shutdown() {
+		try {
+			flush();
+		} finally {
+			if (this.executor != null) {
+				this.executor.shutdown();
+				this.executor = null;
+			}
+		}
+	}
+
+	private static final class Task {
+		final String description;
+		final Future<?> future;
+
+		Task(final String description, final Future<?> future) {
+			this.description = description;
+			this.future = future;
+		}
+
+		void await() {
+			try {
+				this.future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("writing " + this.description + " failed.", e.getCause());
+			}
+		}
+	}
+
+}
@@ -46,6 +46,7 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new CharyparNagelScoringFunctionModule());
         install(new TripRouterModule());
         install(new StrategyManagerModule());
+        install(new PopulationSampleModule());
     
         // I think that the ones coming here are all for analysis only, and thus not central to the iterations. kai, apr'18
         install(new ExperiencedPlansModule());
@@ -60,6 +61,7 @@ public final class ControlerDefaultsModule extends AbstractModule {
         install(new PtCountsModule());
         install(new VspPlansCleanerModule());
         install(new SnapshotWritersModule());
+        install(new MetricsModule());
 
     	/* Comment by kai (mz thinks it is not helpful): The framework eventually calls the above method, which calls the include 
         * methods , which (fairly quickly) call their own install methods, etc.  Eventually, everything is resolved down to the
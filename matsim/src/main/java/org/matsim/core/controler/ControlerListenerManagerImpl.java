@@ -26,6 +26,15 @@ import org.matsim.core.controler.listener.*;
 import org.matsim.core.utils.misc.ClassUtils;
 
 import javax.swing.event.EventListenerList;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Class encapsulating all behavior concerning the ControlerEvents/Listeners
@@ -51,6 +60,10 @@ public final class ControlerListenerManagerImpl implements ControlerListenerMana
 	private final EventListenerList coreListenerList = new EventListenerList();
 	private final EventListenerList listenerList = new EventListenerList();
 
+	/** notifications of {@link DataDependentListener}s which are still running in the background */
+	private final Map<ControlerListener, Future<?>> backgroundNotifications = new IdentityHashMap<>();
+	private ExecutorService backgroundExecutor = null;
+
 	
 	/**
 	 * Add a core ControlerListener to the Controler instance
@@ -115,6 +128,20 @@ public final class ControlerListenerManagerImpl implements ControlerListenerMana
 	 * @param unexpected Whether the shutdown is unexpected or not.
 	 */
 	public void fireControlerShutdownEvent(final boolean unexpected) {
+		try {
+			awaitBackgroundNotifications();
+		} catch (RuntimeException e) {
+			if (!unexpected) {
+				throw e;
+			}
+			// do not hide the original problem
+			log.error("notifying a listener in the background failed.", e);
+		} finally {
+			if (this.backgroundExecutor != null) {
+				this.backgroundExecutor.shutdown();
+				this.backgroundExecutor = null;
+			}
+		}
 		ShutdownEvent event = new ShutdownEvent(this.controler, unexpected);
         ShutdownListener[] listener = this.coreListenerList.getListeners(ShutdownListener.class);
         for (ShutdownListener aListener : listener) {
@@ -137,11 +164,13 @@ public final class ControlerListenerManagerImpl implements ControlerListenerMana
 		IterationStartsEvent event = new IterationStartsEvent(this.controler, iteration);
 		IterationStartsListener[] listener = this.coreListenerList.getListeners(IterationStartsListener.class);
         for (IterationStartsListener aListener : listener) {
+            awaitBackgroundNotification(aListener);
             log.info("calling notifyIterationStarts on " + aListener.getClass().getName());
             aListener.notifyIterationStarts(event);
         }
 		listener = this.listenerList.getListeners(IterationStartsListener.class);
         for (IterationStartsListener aListener : listener) {
+            awaitBackgroundNotification(aListener);
             log.info("calling notifyIterationStarts on " + aListener.getClass().getName());
             aListener.notifyIterationStarts(event);
         }
@@ -153,10 +182,25 @@ public final class ControlerListenerManagerImpl implements ControlerListenerMana
 	 *
 	 */
 	public void fireControlerIterationEndsEvent(final int iteration) {
+		fireControlerIterationEndsEvent(iteration, false);
+	}
+
+	/**
+	 * Notifies all ControlerIterationEndsListeners
+	 *
+	 * @param overlapWithReplanning if true, listeners which do not depend on the population are notified in a
+	 * background thread, after all other listeners.  See {@link DataDependentListener}.
+	 */
+	void fireControlerIterationEndsEvent(final int iteration, final boolean overlapWithReplanning) {
 		IterationEndsEvent event = new IterationEndsEvent(this.controler, iteration);
+		List<IterationEndsListener> inBackground = new ArrayList<>();
 		{
 			IterationEndsListener[] listener = this.coreListenerList.getListeners(IterationEndsListener.class);
             for (IterationEndsListener aListener : listener) {
+                if (overlapWithReplanning && isIndependentOfPopulation(aListener)) {
+                    inBackground.add(aListener);
+                    continue;
+                }
                 log.info("calling notifyIterationEnds on " + aListener.getClass().getName());
                 aListener.notifyIterationEnds(event);
             }
@@ -164,13 +208,75 @@ public final class ControlerListenerManagerImpl implements ControlerListenerMana
 		{
 			IterationEndsListener[] listener = this.listenerList.getListeners(IterationEndsListener.class);
             for (IterationEndsListener aListener : listener) {
+                if (overlapWithReplanning && isIndependentOfPopulation(aListener)) {
+                    inBackground.add(aListener);
+                    continue;
+                }
                 log.info("calling notifyIterationEnds on " + aListener.getClass().getName());
                 aListener.notifyIterationEnds(event);
             }
 		}
+		for (IterationEndsListener aListener : inBackground) {
+			log.info("calling notifyIterationEnds on " + aListener.getClass().getName() + " in the background");
+			notifyInBackground(aListener, () -> aListener.notifyIterationEnds(event));
+		}
 		log.info("[it." + iteration + "] all ControlerIterationEndsListeners called.");
 	}
 
+	private static boolean isIndependentOfPopulation(final ControlerListener listener) {
+		return listener instanceof DataDependentListener
+				&& !((DataDependentListener) listener).getDataDependencies().contains(DataDependentListener.Data.POPULATION);
+	}
+
+	private void notifyInBackground(final ControlerListener listener, final Runnable notification) {
+		if (this.backgroundExecutor == null) {
+			this.backgroundExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "ControlerListeners");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		this.backgroundNotifications.put(listener, this.backgroundExecutor.submit(notification));
+	}
+
+	/**
+	 * Waits until the notification of the listener in the background, if any, is finished.
+	 */
+	private void awaitBackgroundNotification(final ControlerListener listener) {
+		if (this.backgroundNotifications.isEmpty()) {
+			return;
+		}
+		Future<?> future = this.backgroundNotifications.remove(listener);
+		if (future != null) {
+			await(listener, future);
+		}
+	}
+
+	/**
+	 * Waits until all notifications in the background are finished.
+	 */
+	private void awaitBackgroundNotifications() {
+		while (!this.backgroundNotifications.isEmpty()) {
+			Iterator<Map.Entry<ControlerListener, Future<?>>> iterator = this.backgroundNotifications.entrySet().iterator();
+			Map.Entry<ControlerListener, Future<?>> entry = iterator.next();
+			ControlerListener listener = entry.getKey();
+			Future<?> future = entry.getValue();
+			iterator.remove();
+			await(listener, future);
+		}
+	}
+
+	private static void await(final ControlerListener listener, final Future<?> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("notifying " + listener.getClass().getName() + " in the background failed.", e.getCause());
+		}
+	}
+
 	/**
 	 * Notifies all ControlerScoringListeners
 	 *
@@ -202,11 +308,13 @@ public final class ControlerListenerManagerImpl implements ControlerListenerMana
 		ReplanningEvent event = new ReplanningEvent(this.controler, iteration);
 		ReplanningListener[] listener = this.coreListenerList.getListeners(ReplanningListener.class);
         for (ReplanningListener aListener : listener) {
+            awaitBackgroundNotification(aListener);
             log.info("calling notifyReplanning on " + aListener.getClass().getName());
             aListener.notifyReplanning(event);
         }
 		listener = this.listenerList.getListeners(ReplanningListener.class);
         for (ReplanningListener aListener : listener) {
+            awaitBackgroundNotification(aListener);
             log.info("calling notifyReplanning on " + aListener.getClass().getName());
             aListener.notifyReplanning(event);
         }
@@ -218,6 +326,8 @@ public final class ControlerListenerManagerImpl implements ControlerListenerMana
 	 *
 	 */
 	public void fireControlerBeforeMobsimEvent(final int iteration) {
+		// the mobsim resets the events handlers and travel times the listeners in the background may still read
+		awaitBackgroundNotifications();
 		BeforeMobsimEvent event = new BeforeMobsimEvent(this.controler, iteration);
 		BeforeMobsimListener[] listener = this.coreListenerList.getListeners(BeforeMobsimListener.class);
         for (BeforeMobsimListener aListener : listener) {
@@ -18,13 +18,17 @@
  * *********************************************************************** */
 package org.matsim.core.controler;
 
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
 import org.apache.log4j.Logger;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigWriter;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.ControlerConfigGroup.CompressionType;
 import org.matsim.core.gbl.Gbl;
+import org.matsim.core.utils.io.IOUtils;
 
 /**
  * @author nagel
@@ -66,6 +70,26 @@ public final class ControlerUtils {
 	    log.info("Checking consistency of config done.");
 	}
 
+	/**
+	 * Returns the name of an output file that is named with the ending ".gz", with the ending of the
+	 * {@link ControlerConfigGroup#getCompressionType() configured compression} instead. This is only used
+	 * for the events, plans and link statistics; all other output files keep their ".gz" ending.
+	 */
+	public static String getCompressedOutputFilename(final String filename, final ControlerConfigGroup config) {
+		if (config.getCompressionType() == CompressionType.zst && filename.endsWith(".gz")) {
+			return filename.substring(0, filename.length() - 3) + ".zst";
+		}
+		return filename;
+	}
+
+	/**
+	 * Opens a file named by {@link #getCompressedOutputFilename(String, ControlerConfigGroup)} for writing,
+	 * using the {@link ControlerConfigGroup#getZstdCompressionLevel() configured zstd compression level}.
+	 */
+	public static OutputStream getCompressedOutputStream(final String filename, final ControlerConfigGroup config) {
+		return IOUtils.getOutputStream(filename, false, config.getZstdCompressionLevel());
+	}
+
 	@Deprecated // use 	OutputDirectoryLogging.catchLogEntries() directly.  kai, mar'18
 	public static final void initializeOutputLogging() {
 		OutputDirectoryLogging.catchLogEntries();
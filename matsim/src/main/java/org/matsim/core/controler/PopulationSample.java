@@ -0,0 +1,162 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.PlansConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.gbl.MatsimRandom;
+
+/**
+ * Decides which persons take part in an iteration if {@link ControlerConfigGroup#getSampledIterationsFraction()} is
+ * smaller than one.  The first, the last and every {@link ControlerConfigGroup#getFullIterationsInterval() n-th}
+ * iteration are run with the full population.  In between, only a sample of the persons is replanned, simulated and
+ * scored.  The sample is stratified by subpopulation and re-drawn after every full iteration.
+ * <p></p>
+ * In sampled iterations, the qsim network scales its flow and storage capacities by the {@link #getScaleFactor() sample
+ * fraction}, without changing the config, and the link stats and counts comparisons scale the volumes back up.  The
+ * travel times for the router are only updated after full iterations, see
+ * {@link org.matsim.core.trafficmonitoring.TravelTimeSnapshot}.
+ * <p></p>
+ * Only bound if sampled iterations are configured, so components ask for it with optional injection.
+ */
+public final class PopulationSample implements IterationStartsListener {
+
+	private static final Logger log = Logger.getLogger(PopulationSample.class);
+
+	private final ControlerConfigGroup controlerConfig;
+	private final PlansConfigGroup plansConfig;
+	private final Population population;
+
+	private boolean fullIteration = true;
+	private List<Person> sample = null;
+	private Set<Id<Person>> sampleIds = Collections.emptySet();
+
+	@Inject
+	PopulationSample(final ControlerConfigGroup controlerConfig, final PlansConfigGroup plansConfig, final Population population) {
+		this.controlerConfig = controlerConfig;
+		this.plansConfig = plansConfig;
+		this.population = population;
+	}
+
+	/**
+	 * @return whether the current iteration runs with the full population
+	 */
+	public boolean isFullIteration() {
+		return this.fullIteration;
+	}
+
+	/**
+	 * @return the sample fraction in sampled iterations, 1.0 in full iterations.  Capacities of the current iteration are
+	 * multiplied by this factor, volumes are divided by it to be comparable to the ones of full iterations.
+	 */
+	public double getScaleFactor() {
+		return this.fullIteration ? 1.0 : this.controlerConfig.getSampledIterationsFraction();
+	}
+
+	/**
+	 * Like {@link #getScaleFactor()}, but for the given iteration and independent of the iteration currently started.
+	 * To be used by listeners which may be notified of the end of an iteration in the background, while the next
+	 * iteration already starts.
+	 */
+	public double getScaleFactor(final int iteration) {
+		return isFullIteration(iteration, this.controlerConfig) ? 1.0 : this.controlerConfig.getSampledIterationsFraction();
+	}
+
+	/**
+	 * @return whether the person takes part in the current iteration
+	 */
+	public boolean contains(final Id<Person> personId) {
+		return this.fullIteration || this.sampleIds.contains(personId);
+	}
+
+	/**
+	 * @return the persons which take part in the current iteration, in the order of the population
+	 */
+	public Collection<? extends Person> getPersons() {
+		return this.fullIteration ? this.population.getPersons().values() : this.sample;
+	}
+
+	/*package*/ static boolean isFullIteration(final int iteration, final ControlerConfigGroup config) {
+		return iteration == config.getFirstIteration() || iteration == config.getLastIteration()
+				|| (iteration - config.getFirstIteration()) % config.getFullIterationsInterval() == 0;
+	}
+
+	@Override
+	public void notifyIterationStarts(final IterationStartsEvent event) {
+		this.fullIteration = isFullIteration(event.getIteration(), this.controlerConfig);
+		if (this.fullIteration) {
+			this.sample = null;
+			this.sampleIds = Collections.emptySet();
+		} else if (this.sample == null) {
+			drawSample();
+		}
+		log.info("iteration " + event.getIteration() + " runs with " + (this.fullIteration ? "the full population"
+				: "a sample of " + this.sample.size() + " of " + this.population.getPersons().size() + " persons"));
+	}
+
+	private void drawSample() {
+		// MatsimRandom was reset for this iteration
+		Random random = MatsimRandom.getLocalInstance();
+		String subpopulationAttribute = this.plansConfig.getSubpopulationAttributeName();
+		Map<Object, List<Person>> strata = new LinkedHashMap<>();
+		for (Person person : this.population.getPersons().values()) {
+			Object subpopulation = subpopulationAttribute == null ? null
+					: this.population.getPersonAttributes().getAttribute(person.getId().toString(), subpopulationAttribute);
+			strata.computeIfAbsent(subpopulation, k -> new ArrayList<>()).add(person);
+		}
+		double fraction = this.controlerConfig.getSampledIterationsFraction();
+		Set<Id<Person>> ids = new HashSet<>();
+		for (List<Person> stratum : strata.values()) {
+			int size = Math.max(1, (int) Math.round(fraction * stratum.size()));
+			Collections.shuffle(stratum, random);
+			for (Person person : stratum.subList(0, size)) {
+				ids.add(person.getId());
+			}
+		}
+		List<Person> persons = new ArrayList<>(ids.size());
+		for (Person person : this.population.getPersons().values()) {
+			if (ids.contains(person.getId())) {
+				persons.add(person);
+			}
+		}
+		this.sample = persons;
+		this.sampleIds = ids;
+	}
+
+}
@@ -31,7 +31,9 @@ import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigWriter;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.VspExperimentalConfigGroup;
+import org.matsim.core.controler.BackgroundOutputWriter;
 import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.ControlerUtils;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.ShutdownListener;
@@ -110,6 +112,9 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 	@Inject
 	private OutputDirectoryHierarchy controlerIO;
 
+	@Inject
+	private BackgroundOutputWriter outputWriter;
+
 	@Inject
 	private Map<Class<?>,AttributeConverter<?>> attributeConverters = Collections.emptyMap();
 
@@ -118,6 +123,8 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 		if ( event.isUnexpected() ) {
 			return ;
 		}
+		// the files of the last iteration must be complete before they are copied
+		outputWriter.flush();
 		dumpPlans();
 		dumpNetwork();
 		dumpConfig();
@@ -140,8 +147,9 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 
 	private void dumpOutputEvents() {
 		try {
-			File toFile = new File(	controlerIO.getOutputFilename(Controler.OUTPUT_PREFIX + Controler.FILENAME_EVENTS_XML));
-			File fromFile = new File(controlerIO.getIterationFilename(controlerConfigGroup.getLastIteration(), Controler.FILENAME_EVENTS_XML));
+			String eventsFilename = ControlerUtils.getCompressedOutputFilename(Controler.FILENAME_EVENTS_XML, controlerConfigGroup);
+			File toFile = new File(	controlerIO.getOutputFilename(Controler.OUTPUT_PREFIX + eventsFilename));
+			File fromFile = new File(controlerIO.getIterationFilename(controlerConfigGroup.getLastIteration(), eventsFilename));
 			try {
 				Files.copy(fromFile.toPath(), toFile.toPath(),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.COPY_ATTRIBUTES);
 			} catch (IOException e) {
@@ -277,7 +285,9 @@ final class DumpDataAtEndImpl implements DumpDataAtEnd, ShutdownListener {
 
 		final PopulationWriter writer = new PopulationWriter(population, network);
 		writer.putAttributeConverters( attributeConverters );
-		writer.write(controlerIO.getOutputFilename(Controler.OUTPUT_PREFIX + Controler.FILENAME_POPULATION));
+		final String plansFilename = controlerIO.getOutputFilename(Controler.OUTPUT_PREFIX
+				+ ControlerUtils.getCompressedOutputFilename(Controler.FILENAME_POPULATION, controlerConfigGroup));
+		writer.write(ControlerUtils.getCompressedOutputStream(plansFilename, controlerConfigGroup));
 
 		final ObjectAttributes personAttributes = population.getPersonAttributes();
 		if ( personAttributes!=null ) {
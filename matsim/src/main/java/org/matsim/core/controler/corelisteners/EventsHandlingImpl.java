@@ -28,7 +28,9 @@ import org.apache.log4j.Logger;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.ControlerConfigGroup.EventsFileFormat;
+import org.matsim.core.controler.BackgroundOutputWriter;
 import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.ControlerUtils;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.BeforeMobsimEvent;
 import org.matsim.core.controler.events.IterationEndsEvent;
@@ -58,19 +60,26 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 	
 	private OutputDirectoryHierarchy controlerIO ;
 
+	private final BackgroundOutputWriter outputWriter;
+
 	private int writeMoreUntilIteration;
 
+	private final ControlerConfigGroup config;
+
 	@Inject
 	EventsHandlingImpl(
 			final EventsManager eventsManager,
 			final ControlerConfigGroup config,
-			final OutputDirectoryHierarchy controlerIO) {
+			final OutputDirectoryHierarchy controlerIO,
+			final BackgroundOutputWriter outputWriter) {
 		this.eventsManager = eventsManager;
 		this.writeEventsInterval = config.getWriteEventsInterval();
 		this.lastIteration = config.getLastIteration() ;
 		this.eventsFileFormats = config.getEventsFileFormats();
 		this.controlerIO = controlerIO;
+		this.outputWriter = outputWriter;
 		this.writeMoreUntilIteration = config.getWriteEventsUntilIteration() ;
+		this.config = config;
 	}
 
 	@Override
@@ -85,8 +94,9 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 			for (EventsFileFormat format : eventsFileFormats) {
 				switch (format) {
 				case xml:
-					this.eventWriters.add(new EventWriterXML(controlerIO.getIterationFilename(event.getIteration(), 
-							Controler.FILENAME_EVENTS_XML)));
+					String filename = controlerIO.getIterationFilename(event.getIteration(),
+							ControlerUtils.getCompressedOutputFilename(Controler.FILENAME_EVENTS_XML, this.config));
+					this.eventWriters.add(new EventWriterXML(ControlerUtils.getCompressedOutputStream(filename, this.config)));
 					break;
 				default:
 					log.warn("Unknown events file format specified: " + format.toString() + ".");
@@ -105,8 +115,9 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 		 * module, should also be written to the events file.
 		 */
 		for (EventWriter writer : this.eventWriters) {
-			writer.closeFile();
 			this.eventsManager.removeHandler(writer);
+			// finishing the compression of the file does not need to delay the next iteration
+			this.outputWriter.submit("events", writer::closeFile);
 		}
 		this.eventWriters.clear();
 	}
@@ -27,10 +27,13 @@ import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationWriter;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.controler.BackgroundOutputWriter;
 import org.matsim.core.controler.Controler;
+import org.matsim.core.controler.ControlerUtils;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
 import org.matsim.core.controler.events.BeforeMobsimEvent;
 import org.matsim.core.controler.listener.BeforeMobsimListener;
+import org.matsim.core.population.PopulationUtils;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -56,6 +59,7 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 	@Inject private Population population;
 	@Inject private IterationStopWatch stopwatch;
 	@Inject private OutputDirectoryHierarchy controlerIO;
+	@Inject private BackgroundOutputWriter outputWriter;
 	private int writePlansInterval ;
 
 	private int writeMoreUntilIteration;
@@ -66,6 +70,10 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 		this.writeMoreUntilIteration = config.getWritePlansUntilIteration() ;
 	}
 
+	/**
+	 * The plans are written by the {@link BackgroundOutputWriter}; if it writes in the background, from a snapshot taken
+	 * before the mobsim.
+	 */
 	@Override
 	public void notifyBeforeMobsim(final BeforeMobsimEvent event) {
 		final boolean writingPlansAtAll = writePlansInterval > 0;
@@ -76,9 +84,15 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 			log.info("dumping plans...");
 			final String inputCRS = config.plans().getInputCRS();
 			final String internalCRS = config.global().getCoordinateSystem();
+			final ControlerConfigGroup controlerConfig = config.controler();
+			final String filename = controlerIO.getIterationFilename(event.getIteration(),
+					ControlerUtils.getCompressedOutputFilename(Controler.FILENAME_POPULATION, controlerConfig));
+			// in the background, the plans are modified by the following iterations while they are written
+			final Population snapshot = outputWriter.isInBackground() ? PopulationUtils.createSnapshot(population) : population;
 
 			if ( inputCRS == null ) {
-				new PopulationWriter(population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.FILENAME_POPULATION));
+				outputWriter.submit(filename, () -> new PopulationWriter(snapshot, network)
+						.write(ControlerUtils.getCompressedOutputStream(filename, controlerConfig)));
 			}
 			else {
 				log.info( "re-projecting population from "+internalCRS+" back to "+inputCRS+" for export" );
@@ -88,7 +102,8 @@ final class PlansDumpingImpl implements PlansDumping, BeforeMobsimListener {
 								internalCRS,
 								inputCRS );
 
-				new PopulationWriter(transformation, population, network).write(controlerIO.getIterationFilename(event.getIteration(), Controler.FILENAME_POPULATION));
+				outputWriter.submit(filename, () -> new PopulationWriter(transformation, snapshot, network)
+						.write(ControlerUtils.getCompressedOutputStream(filename, controlerConfig)));
 			}
 			log.info("finished plans dump.");
 			stopwatch.endOperation("dump all plans");
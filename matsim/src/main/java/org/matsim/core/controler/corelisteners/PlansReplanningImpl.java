@@ -21,8 +21,11 @@
 package org.matsim.core.controler.corelisteners;
 
 import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.controler.PopulationSample;
 import org.matsim.core.controler.events.ReplanningEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.ReplanningListener;
+import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.replanning.StrategyManager;
 
@@ -40,11 +43,13 @@ import javax.inject.Provider;
  * @author mrieser
  */
 @Singleton
-final class PlansReplanningImpl implements PlansReplanning, ReplanningListener {
+final class PlansReplanningImpl implements PlansReplanning, ReplanningListener, ShutdownListener {
 
 	private final Provider<ReplanningContext> replanningContextProvider;
 	private Population population;
 	private StrategyManager strategyManager;
+	@Inject(optional = true)
+	private PopulationSample populationSample = null;
 	
 	@Inject
 	PlansReplanningImpl(StrategyManager strategyManager, Population pop, Provider<ReplanningContext> replanningContextProvider) {
@@ -55,7 +60,17 @@ final class PlansReplanningImpl implements PlansReplanning, ReplanningListener {
 
 	@Override
 	public void notifyReplanning(final ReplanningEvent event) {
-		strategyManager.run(population, event.getIteration(), replanningContextProvider.get());
+		if (populationSample == null || populationSample.isFullIteration()) {
+			strategyManager.run(population, event.getIteration(), replanningContextProvider.get());
+		} else {
+			strategyManager.run(population, populationSample.getPersons(), event.getIteration(), replanningContextProvider.get());
+		}
+	}
+
+	@Override
+	public void notifyShutdown(final ShutdownEvent event) {
+		// the strategy modules keep their threads for the next iteration
+		strategyManager.shutdown();
 	}
 
 }
@@ -0,0 +1,52 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler.listener;
+
+import java.util.Set;
+
+/**
+ * May be implemented by an {@link IterationEndsListener} to declare which data of the iteration it reads.  If the
+ * replanning is overlapped with the iteration ends (see
+ * {@link org.matsim.core.config.groups.ControlerConfigGroup#isOverlappingReplanningWithIterationEnds()}), listeners
+ * that do not depend on the {@link Data#POPULATION} are notified in a background thread, while the next iteration
+ * already starts and replans.  The framework guarantees that
+ * <ul>
+ * <li> all other listeners of the iteration ends are notified before, and
+ * <li> the notification is finished before the listener itself is notified again, before the next mobsim starts,
+ * and before the shutdown.
+ * </ul>
+ * Such a listener must thus not read anything else than the declared data and its own state, and must not write data
+ * used by others.  Listeners which do not implement this interface are always notified in the controler thread.
+ */
+public interface DataDependentListener extends ControlerListener {
+
+	enum Data {
+		/** the plans and scores of the persons; changed by the replanning of the next iteration */
+		POPULATION,
+		/** data collected by events handlers during the mobsim, e.g. link volumes; reset before the next mobsim */
+		EVENTS,
+		/** the travel times collected during the mobsim; reset before the next mobsim */
+		TRAVEL_TIMES
+	}
+
+	Set<Data> getDataDependencies();
+
+}
@@ -1,5 +1,7 @@
 package org.matsim.core.events;
 
+import com.google.inject.Singleton;
+import org.matsim.analysis.AnalysisEventsHub;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.events.handler.EventHandler;
@@ -23,6 +25,8 @@ public final class EventsManagerModule extends AbstractModule {
 			bindEventsManager().to(SimStepParallelEventsManagerImpl.class).asEagerSingleton();
 		}
 		bind(EventHandlerRegistrator.class).asEagerSingleton();
+		// (only created, and registered as event handler, if one of the analyses uses it)
+		bind(AnalysisEventsHub.class).in(Singleton.class);
 	}
 
 	private static class EventHandlerRegistrator {
@@ -36,6 +36,7 @@ import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.events.handler.EventHandler;
 import org.matsim.core.gbl.Gbl;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 import org.matsim.core.utils.misc.Time;
 
 import javax.inject.Inject;
@@ -64,6 +65,9 @@ public final class ParallelEventsManager implements EventsManager {
 	private final int numOfThreads;
 	
 	private boolean parallelMode = false;
+
+	/** number of events not yet taken by the distributor at the end of each sim step */
+	private final MetricsRegistry.Histogram queueDepth = MetricsRegistry.getInstance().histogram("events.queueDepth");
 		
 	private final AtomicBoolean hadException;
 	private ExceptionHandler uncaughtExceptionHandler;
@@ -279,6 +283,9 @@ public final class ParallelEventsManager implements EventsManager {
 		if (this.hadException.get()) {
 			return;
 		}
+		if (this.parallelMode && MetricsRegistry.getInstance().isEnabled()) {
+			this.queueDepth.record(this.distributor.inputQueue.size());
+		}
 		if (syncOnTimeSteps) {
 			this.processedEventsChecker.setTime(time);
 			this.processEvent(new LastEventOfSimStep(time));
@@ -24,9 +24,11 @@ import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.utils.io.IOUtils;
 import org.matsim.core.utils.io.UncheckedIOException;
+import org.matsim.core.utils.metrics.FlightRecorderEvents;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
@@ -35,6 +37,12 @@ import java.util.Map;
 public class EventWriterXML implements EventWriter, BasicEventHandler {
 	private final BufferedWriter out;
 
+	/** number of events per flight recorder event, so that recording costs next to nothing compared to writing */
+	private static final int EVENTS_PER_SPAN = 10000;
+	private FlightRecorderEvents.Span span = null;
+	private int eventsInSpan = 0;
+	private double lastTime = Double.NaN;
+
 	public EventWriterXML(final String outfilename) {
 		this.out = IOUtils.getBufferedWriter(outfilename);
 		this.writeHeader();
@@ -50,6 +58,15 @@ public class EventWriterXML implements EventWriter, BasicEventHandler {
 		this.writeHeader();
 	}
 
+	/**
+	 * Writes the events to the given stream, e.g. one opened with a specific compression. The stream is closed by
+	 * {@link #closeFile()}.
+	 */
+	public EventWriterXML(final OutputStream stream) {
+		this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+		this.writeHeader();
+	}
+
 	private void writeHeader() {
 		try {
 			this.out.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<events version=\"1.0\">\n");
@@ -60,6 +77,7 @@ public class EventWriterXML implements EventWriter, BasicEventHandler {
 
 	@Override
 	public void closeFile() {
+		endSpan();
 		try {
 			this.out.write("</events>");
 			// I added a "\n" to make it look nicer on the console.  Can't say if this may have unintended side
@@ -78,6 +96,11 @@ public class EventWriterXML implements EventWriter, BasicEventHandler {
 
 	@Override
 	public void handleEvent(final Event event) {
+		if (this.eventsInSpan == 0) {
+			this.span = FlightRecorderEvents.EVENTS_WRITING.begin();
+		}
+		this.eventsInSpan++;
+		this.lastTime = event.getTime();
 		try {
 			this.out.append("\t<event ");
 			Map<String, String> attr = event.getAttributes();
@@ -91,6 +114,17 @@ public class EventWriterXML implements EventWriter, BasicEventHandler {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		if (this.eventsInSpan == EVENTS_PER_SPAN) {
+			endSpan();
+		}
+	}
+
+	private void endSpan() {
+		if (this.span != null) {
+			this.span.end(getClass().getSimpleName(), this.eventsInSpan, this.lastTime);
+			this.span = null;
+		}
+		this.eventsInSpan = 0;
 	}
 
 	// the following method was taken from MatsimXmlWriter in order to correctly encode attributes, but
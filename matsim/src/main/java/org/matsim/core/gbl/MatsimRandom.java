@@ -73,10 +73,46 @@ public abstract class MatsimRandom {
 		getRandom().setSeed(seed);
 //		prepareRNG(random);
 	}
+	/**
+	 * @return the global random number generator, or, if called from a {@link ThreadWithOwnRandom}, the generator set
+	 * for that thread.
+	 */
 	public static Random getRandom() {
+		Thread thread = Thread.currentThread();
+		if (thread instanceof ThreadWithOwnRandom) {
+			Random r = ((ThreadWithOwnRandom) thread).random;
+			if (r != null) {
+				return r;
+			}
+		}
 		return random;
 	}
 
+	/**
+	 * A thread in which {@link MatsimRandom#getRandom()} returns a random number generator of its own, so that code
+	 * which only knows about the global generator can be run deterministically in parallel.  All other threads
+	 * always get the global generator.
+	 */
+	public static final class ThreadWithOwnRandom extends Thread {
+
+		private Random random = null;
+
+		public ThreadWithOwnRandom(final Runnable target, final String name) {
+			super(target, name);
+		}
+
+		/**
+		 * @param rng the generator to use in this thread from now on, or <code>null</code> to use the global one again.
+		 * @throws IllegalStateException if not called from within this thread.
+		 */
+		public void setRandom(final Random rng) {
+			if (Thread.currentThread() != this) {
+				throw new IllegalStateException("the random number generator can only be set from within the thread itself.");
+			}
+			this.random = rng;
+		}
+	}
+
 	/** Returns an instance of a random number generator, which can be used
 	 * locally, e.g. in threads.
 	 *
@@ -89,6 +125,21 @@ public abstract class MatsimRandom {
 		return r;
 	}
 
+	/** Returns an instance of a random number generator which only depends on the last used seed
+	 * and the given key, but not on how many generators were created before.  This allows
+	 * to give e.g. every person its own random stream, independent of the order in which the
+	 * persons are handled.
+	 *
+	 * @return pseudo random number generator
+	 */
+	public static Random getLocalInstance(final long key) {
+		// mix the bits (splitmix64 finalizer), as java.util.Random produces correlated first numbers for similar seeds
+		long z = lastUsedSeed + (key + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new Random(z ^ (z >>> 31));
+	}
+
 	/**
 	 * Draw some random numbers to better initialize the pseudo-random number generator.
 	 *
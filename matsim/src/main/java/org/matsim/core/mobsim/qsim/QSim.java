@@ -44,6 +44,8 @@ import org.matsim.core.mobsim.qsim.qnetsimengine.NetsimEngine;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngine;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicle;
 import org.matsim.core.network.NetworkChangeEvent;
+import org.matsim.core.utils.metrics.FlightRecorderEvents;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vis.snapshotwriters.AgentSnapshotInfo;
@@ -132,6 +134,9 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		else this.mobsimEngineRunTimes = null;
 	}
 
+	/** run times of the engines' sim steps, for the per-iteration metrics */
+	private final Map<MobsimEngine, MetricsRegistry.Timer> mobsimEngineTimers = new IdentityHashMap<>();
+
 	/*package (for tests)*/ final InternalInterface internalInterface = new InternalInterface() {
 
 		// These methods must be synchronized, because they are called back
@@ -337,6 +342,7 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 	 */
 	/*package*/ boolean doSimStep() {
 		if (analyzeRunTimes) this.startTime = System.nanoTime();
+		FlightRecorderEvents.Span span = FlightRecorderEvents.SIM_STEP.begin();
 
 		final double now = this.getSimTimer().getTimeOfDay();
 
@@ -350,7 +356,10 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		 */
 		if (this.withindayEngine != null) {
 			if (analyzeRunTimes) startTime = System.nanoTime();
+			MetricsRegistry.Timer engineTimer = this.mobsimEngineTimers.get(this.withindayEngine);
+			long engineStart = engineTimer.start();
 			this.withindayEngine.doSimStep(now);
+			engineTimer.stop(engineStart);
 			if (analyzeRunTimes) this.mobsimEngineRunTimes.get(this.withindayEngine).addAndGet(System.nanoTime() - this.startTime);
 		}
 
@@ -361,7 +370,10 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 			// withindayEngine.doSimStep(time) has already been called
 			if (mobsimEngine == this.withindayEngine) continue;
 
+			MetricsRegistry.Timer engineTimer = this.mobsimEngineTimers.get(mobsimEngine);
+			long engineStart = engineTimer.start();
 			mobsimEngine.doSimStep(now);
+			engineTimer.stop(engineStart);
 			
 			if (analyzeRunTimes) this.mobsimEngineRunTimes.get(mobsimEngine).addAndGet(System.nanoTime() - this.startTime);
 		}
@@ -388,6 +400,10 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		}
 		
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startTime;
+		if (span != null) {
+			int activeLinks = this.netEngine instanceof QNetsimEngine ? ((QNetsimEngine) this.netEngine).getNumberOfSimulatedLinks() : -1;
+			span.end(now, activeLinks, this.agentCounter.getLiving());
+		}
 
 		return doContinue;
 	}
@@ -570,6 +586,9 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		}
 		mobsimEngine.setInternalInterface(this.internalInterface);
 		this.mobsimEngines.add(mobsimEngine);
+		String engineName = mobsimEngine.getClass().getSimpleName();
+		this.mobsimEngineTimers.put(mobsimEngine, MetricsRegistry.getInstance().timer("qsim.engine."
+				+ (engineName.isEmpty() ? mobsimEngine.getClass().getName() : engineName)));
 		
 		if (analyzeRunTimes) this.mobsimEngineRunTimes.put(mobsimEngine, new AtomicLong());
 	}
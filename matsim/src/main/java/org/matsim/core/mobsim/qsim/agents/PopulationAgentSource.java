@@ -26,6 +26,7 @@ import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.*;
 import org.matsim.core.config.Config;
+import org.matsim.core.controler.PopulationSample;
 import org.matsim.core.controler.PrepareForSimImpl;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.mobsim.framework.AgentSource;
@@ -45,6 +46,8 @@ public final class PopulationAgentSource implements AgentSource {
 	private final QSim qsim;
 	private final Collection<String> mainModes;
 	private Map<Id<Vehicle>,Id<Link>> seenVehicleIds = new HashMap<>() ;
+	@com.google.inject.Inject(optional = true)
+	private PopulationSample populationSample = null;
 
 	@Inject
 	public PopulationAgentSource(Population population, AgentFactory agentFactory, QSim qsim ) {
@@ -56,11 +59,13 @@ public final class PopulationAgentSource implements AgentSource {
 
 	@Override
 	public void insertAgentsIntoMobsim() {
-		for (Person p : population.getPersons().values()) {
+		// in sampled iterations, only the persons of the sample are simulated
+		Collection<? extends Person> persons = this.populationSample == null ? population.getPersons().values() : this.populationSample.getPersons();
+		for (Person p : persons) {
 			MobsimAgent agent = this.agentFactory.createMobsimAgentFromPerson(p);
 			qsim.insertAgentIntoMobsim(agent);
 		}
-		for (Person p : population.getPersons().values()) {
+		for (Person p : persons) {
 			insertVehicles(p);
 		}
 	}
@@ -85,7 +85,7 @@ public final class DefaultQNetworkFactory extends QNetworkFactory {
 		AbstractAgentSnapshotInfoBuilder agentSnapshotInfoBuilder = QNetsimEngine.createAgentSnapshotInfoBuilder( scenario, linkWidthCalculator );
 
 		context = new NetsimEngineContext( events, effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, scenario.getConfig().qsim(), 
-				mobsimTimer, linkWidthCalculator );
+				mobsimTimer, linkWidthCalculator, getCapacityScaleFactor() );
 	}
 	@Override
 	QLinkI createNetsimLink(final Link link, final QNodeI toQueueNode) {
@@ -14,10 +14,22 @@ public class NetsimEngineContext {
 	final QSimConfigGroup qsimConfig;
 	private final MobsimTimer mobsimTimer;
 	final SnapshotLinkWidthCalculator linkWidthCalculator;
+	final double flowCapFactor;
+	final double storageCapFactor;
 
 	public NetsimEngineContext(EventsManager events, double effectiveCellSize, AgentCounter agentCounter,
 			AbstractAgentSnapshotInfoBuilder snapshotInfoBuilder, QSimConfigGroup qsimConfig, MobsimTimer mobsimTimer, 
 			SnapshotLinkWidthCalculator linkWidthCalculator) {
+		this(events, effectiveCellSize, agentCounter, snapshotInfoBuilder, qsimConfig, mobsimTimer, linkWidthCalculator, 1.0);
+	}
+
+	/**
+	 * @param capacityScaleFactor multiplies the flow and storage capacity factors of the qsim config, e.g. if only a
+	 * {@link org.matsim.core.controler.PopulationSample} is simulated.  The config itself is not changed.
+	 */
+	public NetsimEngineContext(EventsManager events, double effectiveCellSize, AgentCounter agentCounter,
+			AbstractAgentSnapshotInfoBuilder snapshotInfoBuilder, QSimConfigGroup qsimConfig, MobsimTimer mobsimTimer,
+			SnapshotLinkWidthCalculator linkWidthCalculator, double capacityScaleFactor) {
 		this.events = events;
 		this.effectiveCellSize = effectiveCellSize;
 		this.agentCounter = agentCounter;
@@ -25,6 +37,8 @@ public class NetsimEngineContext {
 		this.qsimConfig = qsimConfig;
 		this.mobsimTimer = mobsimTimer ;
 		this.linkWidthCalculator = linkWidthCalculator;
+		this.flowCapFactor = qsimConfig.getFlowCapFactor() * capacityScaleFactor;
+		this.storageCapFactor = qsimConfig.getStorageCapFactor() * capacityScaleFactor;
 	}
 
 	MobsimTimer getSimTimer() {
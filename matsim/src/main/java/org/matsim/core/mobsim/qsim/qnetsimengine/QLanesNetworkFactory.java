@@ -79,7 +79,10 @@ public class QLanesNetworkFactory extends QNetworkFactory {
 			linkWidthCalculator.setLaneWidth( network.getEffectiveLaneWidth() );
 		}
 		AbstractAgentSnapshotInfoBuilder agentSnapshotInfoBuilder = QNetsimEngine.createAgentSnapshotInfoBuilder( scenario, linkWidthCalculator );
-		context = new NetsimEngineContext( events, effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, qsimConfig, mobsimTimer, linkWidthCalculator );
+		context = new NetsimEngineContext( events, effectiveCellSize, agentCounter, agentSnapshotInfoBuilder, qsimConfig, mobsimTimer, linkWidthCalculator,
+				getCapacityScaleFactor() );
+		// (the delegate is not injected)
+		delegate.populationSample = this.populationSample;
 		delegate.initializeFactory(agentCounter, mobsimTimer, netsimEngine1);
 	}
 
@@ -43,6 +43,7 @@ import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimVehicle;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimNetwork;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
@@ -447,6 +448,9 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 				thread.setDaemon(true);	// make the Thread Daemons so they will terminate automatically
 				thread.start();
 			}
+			if (MetricsRegistry.getInstance().isEnabled()) {
+				engine.setLoadTimer(MetricsRegistry.getInstance().timer("qsim.runner." + i));
+			}
 			this.engines.add(engine);
 		}
 
@@ -22,6 +22,7 @@ package org.matsim.core.mobsim.qsim.qnetsimengine;
 
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 
 import java.util.*;
 import java.util.concurrent.Callable;
@@ -82,6 +83,9 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 		if (QSim.analyzeRunTimes) runTimes = new long[QNetsimEngine.numObservedTimeSteps];
 		else runTimes = null;
 	}
+
+	/** busy time per sim step (per phase with the thread pool), without waiting at the barriers, to see how evenly the load is distributed */
+	private MetricsRegistry.Timer loadTimer = null;
 	
 	/*package*/ QNetsimEngineRunner(Phaser startBarrier, Phaser separationBarrier, Phaser endBarrier) {
 		this.startBarrier = startBarrier;
@@ -96,6 +100,10 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 		this.endBarrier = null;
 	}
 
+	/*package*/ void setLoadTimer(final MetricsRegistry.Timer loadTimer) {
+		this.loadTimer = loadTimer;
+	}
+
 	/*package*/ void setTime(final double t) {
 		time = t;
 	}
@@ -116,11 +124,13 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 			return false;
 		}
 
+		long start = this.loadTimer != null ? this.loadTimer.start() : 0;
 		if (this.movingNodes) {
 			moveNodes();
 		} else {
 			moveLinks();
 		}
+		if (this.loadTimer != null) this.loadTimer.stop(start);
 		return true ;
 	}
 
@@ -144,12 +154,16 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 				return;
 			}
 
+			long start = this.loadTimer != null ? System.nanoTime() : 0;
 			moveNodes();
+			long busyTime = this.loadTimer != null ? System.nanoTime() - start : 0;
 
 			// After moving the QNodes all we use a Phaser to synchronize the threads.
 			this.separationBarrier.arriveAndAwaitAdvance();
 
+			start = this.loadTimer != null ? System.nanoTime() : 0;
 			moveLinks();
+			if (this.loadTimer != null) this.loadTimer.record(busyTime + System.nanoTime() - start);
 
 			if (QSim.analyzeRunTimes) {
 				long end = System.nanoTime();
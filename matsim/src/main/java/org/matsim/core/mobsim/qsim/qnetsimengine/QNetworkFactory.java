@@ -23,6 +23,7 @@ package org.matsim.core.mobsim.qsim.qnetsimengine;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.api.internal.MatsimFactory;
+import org.matsim.core.controler.PopulationSample;
 import org.matsim.core.mobsim.framework.MobsimTimer;
 import org.matsim.core.mobsim.qsim.QSimModule;
 import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
@@ -45,6 +46,9 @@ import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEngine.NetsimInternalInt
  */
 public abstract class QNetworkFactory implements MatsimFactory {
 
+	@com.google.inject.Inject(optional = true)
+	/* package */ PopulationSample populationSample = null;
+
 	/**
 	 * I need info from the mobsim.  However, as long as the factory is injected, it cannot get to "the" mobsim; at best, it
 	 * can get an instance of the mobsim which is, however, not the same mobsim it will be working with.  So "initializeFactory"
@@ -55,6 +59,14 @@ public abstract class QNetworkFactory implements MatsimFactory {
 	 */
 	abstract void initializeFactory( AgentCounter agentCounter, MobsimTimer mobsimTimer, NetsimInternalInterface simEngine1 ) ;
 
+	/**
+	 * @return the factor for the flow and storage capacities of the next mobsim, smaller than one if only a
+	 * {@link PopulationSample} is simulated
+	 */
+	final double getCapacityScaleFactor() {
+		return this.populationSample == null ? 1.0 : this.populationSample.getScaleFactor();
+	}
+
 	abstract QNodeI createNetsimNode(Node node);
 
 	abstract QLinkI createNetsimLink(Link link, QNodeI queueNode);
@@ -308,7 +308,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		flowCapacityPerTimeStep = this.unscaledFlowCapacity_s ;
 //		flowCapacityPerTimeStep = this.qLink.getLink().getFlowCapacityPerSec(now) ;
 		// we need the flow capacity per sim-tick and multiplied with flowCapFactor
-		flowCapacityPerTimeStep = flowCapacityPerTimeStep * context.qsimConfig.getTimeStepSize() * context.qsimConfig.getFlowCapFactor() ;
+		flowCapacityPerTimeStep = flowCapacityPerTimeStep * context.qsimConfig.getTimeStepSize() * context.flowCapFactor ;
 		inverseFlowCapacityPerTimeStep = 1.0 / flowCapacityPerTimeStep;
 		
 		switch (context.qsimConfig.getTrafficDynamics()) {
@@ -347,7 +347,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 //		double now = context.getSimTimer().getTimeOfDay() ;
 		
 		// first guess at storageCapacity:
-		storageCapacity = this.length * this.effectiveNumberOfLanes / context.effectiveCellSize * context.qsimConfig.getStorageCapFactor() ;
+		storageCapacity = this.length * this.effectiveNumberOfLanes / context.effectiveCellSize * context.storageCapFactor ;
 //		storageCapacity = this.length * this.qLink.getLink().getNumberOfLanes(now) / context.effectiveCellSize * context.qsimConfig.getStorageCapFactor() ;
 
 		// storage capacity needs to be at least enough to handle the cap_per_time_step:
@@ -59,10 +59,11 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 	private Id<Link> linkId = null;
 	private Id<ActivityFacility> facilityId = null;
 
-	private final Attributes attributes = new Attributes();
+	/** created on first access, as most instances have no attributes */
+	private Attributes attributes = null;
 	
 	/*package*/ ActivityImpl(final String type) {
-		this.type = type.intern();
+		this.type = type;
 	}
 
 	@Override
@@ -98,7 +99,7 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 
 	@Override
 	public final void setType(final String type) {
-		this.type = type.intern();
+		this.type = type;
 	}
 
 	@Override
@@ -157,7 +158,15 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 
 	@Override
 	public Attributes getAttributes() {
-		return attributes;
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
+		return this.attributes;
+	}
+
+	@Override
+	public Attributes getAttributesForReading() {
+		return this.attributes == null ? Attributes.EMPTY : this.attributes;
 	}
 
 //	private boolean locked = false ;
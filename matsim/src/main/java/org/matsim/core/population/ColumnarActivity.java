@@ -0,0 +1,149 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * View of an activity stored in a {@link ColumnarPlanStore}.  Views are created whenever an activity is accessed,
+ * two views of the same activity are equal.
+ */
+final class ColumnarActivity implements Activity {
+
+	private final ColumnarPlanStore store;
+	private final int row;
+
+	ColumnarActivity(final ColumnarPlanStore store, final int row) {
+		this.store = store;
+		this.row = row;
+	}
+
+	@Override
+	public double getEndTime() {
+		return this.store.getActEndTime(this.row);
+	}
+
+	@Override
+	public void setEndTime(final double seconds) {
+		this.store.setActEndTime(this.row, seconds);
+	}
+
+	@Override
+	public String getType() {
+		return this.store.getActType(this.row);
+	}
+
+	@Override
+	public void setType(final String type) {
+		this.store.setActType(this.row, type.intern());
+	}
+
+	@Override
+	public Coord getCoord() {
+		return this.store.getActCoord(this.row);
+	}
+
+	@Override
+	public void setCoord(final Coord coord) {
+		this.store.setActCoord(this.row, coord);
+	}
+
+	@Override
+	public double getStartTime() {
+		return this.store.getActStartTime(this.row);
+	}
+
+	@Override
+	public void setStartTime(final double seconds) {
+		this.store.setActStartTime(this.row, seconds);
+	}
+
+	@Override
+	public double getMaximumDuration() {
+		return this.store.getActMaxDuration(this.row);
+	}
+
+	@Override
+	public void setMaximumDuration(final double seconds) {
+		this.store.setActMaxDuration(this.row, seconds);
+	}
+
+	@Override
+	public Id<Link> getLinkId() {
+		return this.store.getActLinkId(this.row);
+	}
+
+	@Override
+	public void setLinkId(final Id<Link> id) {
+		this.store.setActLinkId(this.row, id);
+	}
+
+	@Override
+	public Id<ActivityFacility> getFacilityId() {
+		return this.store.getActFacilityId(this.row);
+	}
+
+	@Override
+	public void setFacilityId(final Id<ActivityFacility> id) {
+		this.store.setActFacilityId(this.row, id);
+	}
+
+	@Override
+	public Attributes getAttributes() {
+		return this.store.getActAttributes(this.row, true);
+	}
+
+	@Override
+	public Attributes getAttributesForReading() {
+		return this.store.getActAttributes(this.row, false);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (!(obj instanceof ColumnarActivity)) {
+			return false;
+		}
+		ColumnarActivity other = (ColumnarActivity) obj;
+		return other.store == this.store && other.row == this.row;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.row;
+	}
+
+	@Override
+	public String toString() {
+		return "[type=" + this.getType() + "]" +
+				"[coord=" + this.getCoord() + "]" +
+				"[linkId=" + this.getLinkId() + "]" +
+				"[startTime=" + Time.writeTime(this.getStartTime()) + "]" +
+				"[endTime=" + Time.writeTime(this.getEndTime()) + "]" +
+				"[duration=" + Time.writeTime(this.getMaximumDuration()) + "]" +
+				"[facilityId=" + this.getFacilityId() + "]" ;
+	}
+
+}
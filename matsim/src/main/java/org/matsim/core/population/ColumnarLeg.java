@@ -0,0 +1,114 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * View of a leg stored in a {@link ColumnarPlanStore}.  Views are created whenever a leg is accessed, two views
+ * of the same leg are equal.
+ */
+final class ColumnarLeg implements Leg {
+
+	private final ColumnarPlanStore store;
+	private final int row;
+
+	ColumnarLeg(final ColumnarPlanStore store, final int row) {
+		this.store = store;
+		this.row = row;
+	}
+
+	@Override
+	public String getMode() {
+		return this.store.getLegMode(this.row);
+	}
+
+	@Override
+	public void setMode(final String mode) {
+		this.store.setLegMode(this.row, mode);
+	}
+
+	@Override
+	public Route getRoute() {
+		return this.store.getLegRoute(this.row);
+	}
+
+	@Override
+	public void setRoute(final Route route) {
+		this.store.setLegRoute(this.row, route);
+	}
+
+	@Override
+	public double getDepartureTime() {
+		return this.store.getLegDepartureTime(this.row);
+	}
+
+	@Override
+	public void setDepartureTime(final double seconds) {
+		this.store.setLegDepartureTime(this.row, seconds);
+	}
+
+	@Override
+	public double getTravelTime() {
+		return this.store.getLegTravelTime(this.row);
+	}
+
+	@Override
+	public void setTravelTime(final double seconds) {
+		this.store.setLegTravelTime(this.row, seconds);
+	}
+
+	@Override
+	public Attributes getAttributes() {
+		return this.store.getLegAttributes(this.row, true);
+	}
+
+	@Override
+	public Attributes getAttributesForReading() {
+		return this.store.getLegAttributes(this.row, false);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (!(obj instanceof ColumnarLeg)) {
+			return false;
+		}
+		ColumnarLeg other = (ColumnarLeg) obj;
+		return other.store == this.store && other.row == this.row;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.row;
+	}
+
+	@Override
+	public String toString() {
+		return "[mode=" + this.getMode() + "]" +
+				"[depTime=" + Time.writeTime(this.getDepartureTime()) + "]" +
+				"[travTime=" + Time.writeTime(this.getTravelTime()) + "]" +
+				"[arrTime=" + Time.writeTime(this.getDepartureTime() + this.getTravelTime()) + "]" +
+				"[route=" + this.getRoute() + "]";
+	}
+
+}
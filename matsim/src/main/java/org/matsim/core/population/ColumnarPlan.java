@@ -0,0 +1,234 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.matsim.api.core.v01.Customizable;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.scenario.CustomizableUtils;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * A plan whose elements are stored in a {@link ColumnarPlanStore}.
+ * <p></p>
+ * The values of the elements can be changed in the store, but as soon as elements are added or removed, the plan
+ * keeps a list of its elements (the views of the stored ones, and the added ones) until it is packed into the store
+ * again by {@link ColumnarPopulation#compact()}.
+ */
+final class ColumnarPlan implements Plan {
+
+	private ColumnarPlanStore store;
+	private int firstElement;
+	private int elementCount;
+	/** not <code>null</code> if elements were added or removed since the plan was packed */
+	private List<PlanElement> changedElements = null;
+
+	private Double score = null;
+	private Person person = null;
+	private String type = null;
+	private Customizable customizableDelegate;
+	private Attributes attributes = null;
+
+	ColumnarPlan(final ColumnarPlanStore store, final int firstElement, final int elementCount) {
+		this.store = store;
+		this.firstElement = firstElement;
+		this.elementCount = elementCount;
+	}
+
+	/**
+	 * Stores the elements of this plan in new rows of the given store, if they were changed or are in another store.
+	 *
+	 * @return whether the elements are stored in the given store
+	 */
+	boolean pack(final ColumnarPlanStore target) {
+		if (this.changedElements == null && target == this.store) {
+			return true;
+		}
+		List<PlanElement> elements = this.changedElements == null ? this.store.getElements(this.firstElement, this.elementCount) : this.changedElements;
+		int first = target.append(elements);
+		if (first < 0) {
+			return false;
+		}
+		this.store = target;
+		this.firstElement = first;
+		this.elementCount = elements.size();
+		this.changedElements = null;
+		return true;
+	}
+
+	/**
+	 * @return the number of elements this plan uses in its store
+	 */
+	int getStoredElementCount(final ColumnarPlanStore target) {
+		return this.changedElements == null && target == this.store ? this.elementCount : 0;
+	}
+
+	void setAttributes(final Attributes attributes) {
+		this.attributes = attributes;
+	}
+
+	private List<PlanElement> getChangedElements() {
+		if (this.changedElements == null) {
+			this.changedElements = this.store.getElements(this.firstElement, this.elementCount);
+		}
+		return this.changedElements;
+	}
+
+	@Override
+	public List<PlanElement> getPlanElements() {
+		return new PlanElements();
+	}
+
+	@Override
+	public void addLeg(final Leg leg) {
+		getChangedElements().add(leg);
+	}
+
+	@Override
+	public void addActivity(final Activity act) {
+		getChangedElements().add(act);
+	}
+
+	@Override
+	public Double getScore() {
+		return this.score;
+	}
+
+	@Override
+	public void setScore(final Double score) {
+		this.score = score;
+	}
+
+	@Override
+	public String getType() {
+		return this.type;
+	}
+
+	@Override
+	public void setType(final String type) {
+		this.type = type;
+	}
+
+	@Override
+	public Person getPerson() {
+		return this.person;
+	}
+
+	@Override
+	public void setPerson(final Person person) {
+		this.person = person;
+	}
+
+	@Override
+	public Map<String, Object> getCustomAttributes() {
+		if (this.customizableDelegate == null) {
+			this.customizableDelegate = CustomizableUtils.createCustomizable();
+		}
+		return this.customizableDelegate.getCustomAttributes();
+	}
+
+	@Override
+	public Attributes getAttributes() {
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
+		return this.attributes;
+	}
+
+	@Override
+	public Attributes getAttributesForReading() {
+		return this.attributes == null ? Attributes.EMPTY : this.attributes;
+	}
+
+	@Override
+	public String toString() {
+		String scoreString = "undefined";
+		if (this.getScore() != null) {
+			scoreString = this.getScore().toString();
+		}
+		String personIdString = "undefined" ;
+		if ( this.getPerson() != null ) {
+			personIdString = this.getPerson().getId().toString() ;
+		}
+
+		return "[score=" + scoreString + "]" +
+				"[nof_acts_legs=" + getPlanElements().size() + "]" +
+				"[type=" + this.type + "]" +
+				"[personId=" + personIdString + "]" ;
+	}
+
+	/**
+	 * Reads the elements from the store as long as none are added or removed.
+	 */
+	private final class PlanElements extends AbstractList<PlanElement> implements RandomAccess {
+
+		@Override
+		public PlanElement get(final int index) {
+			if (ColumnarPlan.this.changedElements != null) {
+				return ColumnarPlan.this.changedElements.get(index);
+			}
+			if (index < 0 || index >= ColumnarPlan.this.elementCount) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + ColumnarPlan.this.elementCount);
+			}
+			return ColumnarPlan.this.store.getElement(ColumnarPlan.this.firstElement + index);
+		}
+
+		@Override
+		public int size() {
+			if (ColumnarPlan.this.changedElements != null) {
+				return ColumnarPlan.this.changedElements.size();
+			}
+			return ColumnarPlan.this.elementCount;
+		}
+
+		@Override
+		public PlanElement set(final int index, final PlanElement element) {
+			return getChangedElements().set(index, element);
+		}
+
+		@Override
+		public void add(final int index, final PlanElement element) {
+			getChangedElements().add(index, element);
+			this.modCount++;
+		}
+
+		@Override
+		public PlanElement remove(final int index) {
+			PlanElement removed = getChangedElements().remove(index);
+			this.modCount++;
+			return removed;
+		}
+
+		@Override
+		public void clear() {
+			getChangedElements().clear();
+			this.modCount++;
+		}
+	}
+
+}
@@ -0,0 +1,514 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.population.routes.CompactNetworkRouteFactory;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * Stores the plan elements of a {@link ColumnarPopulation} in columns of primitive values instead of one object per
+ * activity or leg: activity types, modes, link and facility ids are stored as <code>int</code> codes, coordinates
+ * and times as <code>double</code>s.  The columns consist of chunks which are either arrays on the heap, or direct
+ * buffers outside of the heap.
+ * <p></p>
+ * Rows are only ever appended, so the {@link ColumnarActivity} and {@link ColumnarLeg} views of a row stay valid
+ * even if the plan they belonged to is changed.  Rows which are no longer used by any plan are only freed by
+ * copying all plans to a new store, see {@link ColumnarPopulation#compact()}.
+ * <p></p>
+ * The values of existing rows may be changed concurrently for different rows (as in replanning), but rows may only
+ * be appended by one thread at a time.
+ */
+final class ColumnarPlanStore {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	/** one bit of an element code is used to distinguish activities from legs */
+	private static final int MAX_ROWS = Integer.MAX_VALUE >>> 1;
+	private static final int NONE = -1;
+
+	private final CompactNetworkRouteFactory routeFactory;
+
+	private final Dictionary<String> actTypes = new Dictionary<>();
+	private final Dictionary<String> modes = new Dictionary<>();
+	private final Dictionary<Id<Link>> linkIds = new Dictionary<>();
+	private final Dictionary<Id<ActivityFacility>> facilityIds = new Dictionary<>();
+
+	/** the elements of all plans, each one the row of an activity <code>&lt;&lt; 1</code>, or the row of a leg <code>&lt;&lt; 1 | 1</code> */
+	private final IntColumn elements;
+	private int elementCount = 0;
+
+	private final IntColumn actType;
+	private final IntColumn actLink;
+	private final IntColumn actFacility;
+	private final DoubleColumn actX;
+	private final DoubleColumn actY;
+	private final DoubleColumn actStartTime;
+	private final DoubleColumn actEndTime;
+	private final DoubleColumn actMaxDuration;
+	private int actCount = 0;
+	/** the few coordinates with a z value are not stored in columns */
+	private final Map<Integer, Coord> actCoords3d = new ConcurrentHashMap<>();
+	private final Map<Integer, Attributes> actAttributes = new ConcurrentHashMap<>();
+
+	private final IntColumn legMode;
+	private final DoubleColumn legDepartureTime;
+	private final DoubleColumn legTravelTime;
+	private final ObjectColumn<Route> legRoute = new ObjectColumn<>();
+	private int legCount = 0;
+	private final Map<Integer, Attributes> legAttributes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param routeFactory used to convert network routes to routes which share their links; may be <code>null</code>,
+	 * then routes are stored as they are.
+	 * @param offHeap whether the columns are stored outside of the java heap
+	 */
+	ColumnarPlanStore(final CompactNetworkRouteFactory routeFactory, final boolean offHeap) {
+		this.routeFactory = routeFactory;
+		this.elements = new IntColumn(offHeap);
+		this.actType = new IntColumn(offHeap);
+		this.actLink = new IntColumn(offHeap);
+		this.actFacility = new IntColumn(offHeap);
+		this.actX = new DoubleColumn(offHeap);
+		this.actY = new DoubleColumn(offHeap);
+		this.actStartTime = new DoubleColumn(offHeap);
+		this.actEndTime = new DoubleColumn(offHeap);
+		this.actMaxDuration = new DoubleColumn(offHeap);
+		this.legMode = new IntColumn(offHeap);
+		this.legDepartureTime = new DoubleColumn(offHeap);
+		this.legTravelTime = new DoubleColumn(offHeap);
+	}
+
+	boolean isOffHeap() {
+		return this.elements.offHeap;
+	}
+
+	CompactNetworkRouteFactory getRouteFactory() {
+		return this.routeFactory;
+	}
+
+	/**
+	 * @return the number of plan elements stored, including the ones no plan uses any longer
+	 */
+	int getElementCount() {
+		return this.elementCount;
+	}
+
+	/**
+	 * Copies the given plan elements to new rows of this store.
+	 *
+	 * @return the index of the first of the elements, or <code>-1</code> if the elements cannot be stored because
+	 * they are neither activities nor legs.
+	 */
+	synchronized int append(final List<PlanElement> planElements) {
+		for (PlanElement pe : planElements) {
+			if (!(pe instanceof Activity) && !(pe instanceof Leg)) {
+				return NONE;
+			}
+		}
+		if (this.elementCount + planElements.size() > MAX_ROWS) {
+			throw new IllegalStateException("Cannot store more than " + MAX_ROWS + " plan elements.");
+		}
+		int first = this.elementCount;
+		this.elements.ensureCapacity(first + planElements.size());
+		for (PlanElement pe : planElements) {
+			int code = pe instanceof Activity ? appendActivity((Activity) pe) << 1 : (appendLeg((Leg) pe) << 1) | 1;
+			this.elements.set(this.elementCount++, code);
+		}
+		return first;
+	}
+
+	private int appendActivity(final Activity act) {
+		int row = this.actCount++;
+		if (row == CHUNK_SIZE * this.actType.chunks()) {
+			int capacity = row + 1;
+			this.actType.ensureCapacity(capacity);
+			this.actLink.ensureCapacity(capacity);
+			this.actFacility.ensureCapacity(capacity);
+			this.actX.ensureCapacity(capacity);
+			this.actY.ensureCapacity(capacity);
+			this.actStartTime.ensureCapacity(capacity);
+			this.actEndTime.ensureCapacity(capacity);
+			this.actMaxDuration.ensureCapacity(capacity);
+		}
+		setActType(row, act.getType());
+		setActCoord(row, act.getCoord());
+		setActLinkId(row, act.getLinkId());
+		setActFacilityId(row, act.getFacilityId());
+		setActStartTime(row, act.getStartTime());
+		setActEndTime(row, act.getEndTime());
+		setActMaxDuration(row, act.getMaximumDuration());
+		Attributes attributes = act.getAttributesForReading();
+		if (attributes.size() > 0) {
+			this.actAttributes.put(row, attributes);
+		}
+		return row;
+	}
+
+	private int appendLeg(final Leg leg) {
+		int row = this.legCount++;
+		if (row == CHUNK_SIZE * this.legMode.chunks()) {
+			int capacity = row + 1;
+			this.legMode.ensureCapacity(capacity);
+			this.legDepartureTime.ensureCapacity(capacity);
+			this.legTravelTime.ensureCapacity(capacity);
+			this.legRoute.ensureCapacity(capacity);
+		}
+		setLegMode(row, leg.getMode());
+		setLegDepartureTime(row, leg.getDepartureTime());
+		setLegTravelTime(row, leg.getTravelTime());
+		setLegRoute(row, leg.getRoute());
+		Attributes attributes = leg.getAttributesForReading();
+		if (attributes.size() > 0) {
+			this.legAttributes.put(row, attributes);
+		}
+		return row;
+	}
+
+	/**
+	 * @return a new view of the plan element with the given index
+	 */
+	PlanElement getElement(final int index) {
+		int code = this.elements.get(index);
+		if ((code & 1) == 0) {
+			return new ColumnarActivity(this, code >>> 1);
+		}
+		return new ColumnarLeg(this, code >>> 1);
+	}
+
+	List<PlanElement> getElements(final int first, final int count) {
+		List<PlanElement> list = new ArrayList<>(Math.max(count, 10));
+		for (int i = 0; i < count; i++) {
+			list.add(getElement(first + i));
+		}
+		return list;
+	}
+
+	// activities
+
+	String getActType(final int row) {
+		return this.actTypes.get(this.actType.get(row));
+	}
+
+	void setActType(final int row, final String type) {
+		this.actType.set(row, this.actTypes.getIndex(type));
+	}
+
+	Coord getActCoord(final int row) {
+		double x = this.actX.get(row);
+		if (Double.isNaN(x)) {
+			return this.actCoords3d.get(row);
+		}
+		return new Coord(x, this.actY.get(row));
+	}
+
+	void setActCoord(final int row, final Coord coord) {
+		if (coord == null || coord.hasZ()) {
+			this.actX.set(row, Double.NaN);
+			this.actY.set(row, Double.NaN);
+			if (coord == null) {
+				this.actCoords3d.remove(row);
+			} else {
+				this.actCoords3d.put(row, coord);
+			}
+		} else {
+			this.actX.set(row, coord.getX());
+			this.actY.set(row, coord.getY());
+			this.actCoords3d.remove(row);
+		}
+	}
+
+	Id<Link> getActLinkId(final int row) {
+		return this.linkIds.get(this.actLink.get(row));
+	}
+
+	void setActLinkId(final int row, final Id<Link> linkId) {
+		this.actLink.set(row, this.linkIds.getIndex(linkId));
+	}
+
+	Id<ActivityFacility> getActFacilityId(final int row) {
+		return this.facilityIds.get(this.actFacility.get(row));
+	}
+
+	void setActFacilityId(final int row, final Id<ActivityFacility> facilityId) {
+		this.actFacility.set(row, this.facilityIds.getIndex(facilityId));
+	}
+
+	double getActStartTime(final int row) {
+		return this.actStartTime.get(row);
+	}
+
+	void setActStartTime(final int row, final double time) {
+		this.actStartTime.set(row, time);
+	}
+
+	double getActEndTime(final int row) {
+		return this.actEndTime.get(row);
+	}
+
+	void setActEndTime(final int row, final double time) {
+		this.actEndTime.set(row, time);
+	}
+
+	double getActMaxDuration(final int row) {
+		return this.actMaxDuration.get(row);
+	}
+
+	void setActMaxDuration(final int row, final double duration) {
+		this.actMaxDuration.set(row, duration);
+	}
+
+	Attributes getActAttributes(final int row, final boolean create) {
+		if (create) {
+			return this.actAttributes.computeIfAbsent(row, r -> new Attributes());
+		}
+		Attributes attributes = this.actAttributes.get(row);
+		return attributes == null ? Attributes.EMPTY : attributes;
+	}
+
+	// legs
+
+	String getLegMode(final int row) {
+		return this.modes.get(this.legMode.get(row));
+	}
+
+	void setLegMode(final int row, final String mode) {
+		this.legMode.set(row, this.modes.getIndex(mode));
+	}
+
+	double getLegDepartureTime(final int row) {
+		return this.legDepartureTime.get(row);
+	}
+
+	void setLegDepartureTime(final int row, final double time) {
+		this.legDepartureTime.set(row, time);
+	}
+
+	double getLegTravelTime(final int row) {
+		return this.legTravelTime.get(row);
+	}
+
+	void setLegTravelTime(final int row, final double time) {
+		this.legTravelTime.set(row, time);
+	}
+
+	Route getLegRoute(final int row) {
+		return this.legRoute.get(row);
+	}
+
+	void setLegRoute(final int row, final Route route) {
+		this.legRoute.set(row, this.routeFactory == null ? route : this.routeFactory.compact(route));
+	}
+
+	Attributes getLegAttributes(final int row, final boolean create) {
+		if (create) {
+			return this.legAttributes.computeIfAbsent(row, r -> new Attributes());
+		}
+		Attributes attributes = this.legAttributes.get(row);
+		return attributes == null ? Attributes.EMPTY : attributes;
+	}
+
+	/**
+	 * Numbers the values of a column, so the column only needs to store an <code>int</code> per row.
+	 * <code>null</code> is stored as <code>-1</code>.
+	 */
+	private static final class Dictionary<T> {
+
+		private final Map<T, Integer> indices = new ConcurrentHashMap<>();
+		private volatile Object[] values = new Object[16];
+		private int count = 0;
+
+		int getIndex(final T value) {
+			if (value == null) {
+				return NONE;
+			}
+			Integer index = this.indices.get(value);
+			return index == null ? add(value) : index;
+		}
+
+		@SuppressWarnings("unchecked")
+		T get(final int index) {
+			return index == NONE ? null : (T) this.values[index];
+		}
+
+		private synchronized int add(final T value) {
+			Integer index = this.indices.get(value);
+			if (index != null) {
+				return index;
+			}
+			int newIndex = this.count++;
+			Object[] array = this.values;
+			if (newIndex == array.length) {
+				array = Arrays.copyOf(array, array.length * 2);
+			}
+			array[newIndex] = value;
+			this.values = array;
+			// the value must be stored before the index can be found by other threads
+			this.indices.put(value, newIndex);
+			return newIndex;
+		}
+	}
+
+	private static final class IntColumn {
+
+		private final boolean offHeap;
+		private volatile int[][] arrays = new int[0][];
+		private volatile IntBuffer[] buffers = new IntBuffer[0];
+
+		IntColumn(final boolean offHeap) {
+			this.offHeap = offHeap;
+		}
+
+		int chunks() {
+			return this.offHeap ? this.buffers.length : this.arrays.length;
+		}
+
+		int get(final int row) {
+			if (this.offHeap) {
+				return this.buffers[row >>> CHUNK_BITS].get(row & CHUNK_MASK);
+			}
+			return this.arrays[row >>> CHUNK_BITS][row & CHUNK_MASK];
+		}
+
+		void set(final int row, final int value) {
+			if (this.offHeap) {
+				this.buffers[row >>> CHUNK_BITS].put(row & CHUNK_MASK, value);
+			} else {
+				this.arrays[row >>> CHUNK_BITS][row & CHUNK_MASK] = value;
+			}
+		}
+
+		void ensureCapacity(final int rows) {
+			int chunks = (rows + CHUNK_MASK) >>> CHUNK_BITS;
+			int existing = chunks();
+			if (chunks <= existing) {
+				return;
+			}
+			if (this.offHeap) {
+				IntBuffer[] newBuffers = Arrays.copyOf(this.buffers, chunks);
+				for (int i = existing; i < chunks; i++) {
+					newBuffers[i] = ByteBuffer.allocateDirect(CHUNK_SIZE * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+				}
+				this.buffers = newBuffers;
+			} else {
+				int[][] newArrays = Arrays.copyOf(this.arrays, chunks);
+				for (int i = existing; i < chunks; i++) {
+					newArrays[i] = new int[CHUNK_SIZE];
+				}
+				this.arrays = newArrays;
+			}
+		}
+	}
+
+	private static final class DoubleColumn {
+
+		private final boolean offHeap;
+		private volatile double[][] arrays = new double[0][];
+		private volatile DoubleBuffer[] buffers = new DoubleBuffer[0];
+
+		DoubleColumn(final boolean offHeap) {
+			this.offHeap = offHeap;
+		}
+
+		double get(final int row) {
+			if (this.offHeap) {
+				return this.buffers[row >>> CHUNK_BITS].get(row & CHUNK_MASK);
+			}
+			return this.arrays[row >>> CHUNK_BITS][row & CHUNK_MASK];
+		}
+
+		void set(final int row, final double value) {
+			if (this.offHeap) {
+				this.buffers[row >>> CHUNK_BITS].put(row & CHUNK_MASK, value);
+			} else {
+				this.arrays[row >>> CHUNK_BITS][row & CHUNK_MASK] = value;
+			}
+		}
+
+		void ensureCapacity(final int rows) {
+			int chunks = (rows + CHUNK_MASK) >>> CHUNK_BITS;
+			if (this.offHeap) {
+				int existing = this.buffers.length;
+				if (chunks > existing) {
+					DoubleBuffer[] newBuffers = Arrays.copyOf(this.buffers, chunks);
+					for (int i = existing; i < chunks; i++) {
+						newBuffers[i] = ByteBuffer.allocateDirect(CHUNK_SIZE * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+					}
+					this.buffers = newBuffers;
+				}
+			} else {
+				int existing = this.arrays.length;
+				if (chunks > existing) {
+					double[][] newArrays = Arrays.copyOf(this.arrays, chunks);
+					for (int i = existing; i < chunks; i++) {
+						newArrays[i] = new double[CHUNK_SIZE];
+					}
+					this.arrays = newArrays;
+				}
+			}
+		}
+	}
+
+	/** routes are objects, so they always remain on the heap */
+	private static final class ObjectColumn<T> {
+
+		private volatile Object[][] arrays = new Object[0][];
+
+		@SuppressWarnings("unchecked")
+		T get(final int row) {
+			return (T) this.arrays[row >>> CHUNK_BITS][row & CHUNK_MASK];
+		}
+
+		void set(final int row, final T value) {
+			this.arrays[row >>> CHUNK_BITS][row & CHUNK_MASK] = value;
+		}
+
+		void ensureCapacity(final int rows) {
+			int chunks = (rows + CHUNK_MASK) >>> CHUNK_BITS;
+			int existing = this.arrays.length;
+			if (chunks > existing) {
+				Object[][] newArrays = Arrays.copyOf(this.arrays, chunks);
+				for (int i = existing; i < chunks; i++) {
+					newArrays[i] = new Object[CHUNK_SIZE];
+				}
+				this.arrays = newArrays;
+			}
+		}
+	}
+
+}
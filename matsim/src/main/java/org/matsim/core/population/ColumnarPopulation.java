@@ -0,0 +1,163 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.population.routes.CompactNetworkRouteFactory;
+import org.matsim.core.scenario.Lockable;
+import org.matsim.utils.objectattributes.ObjectAttributes;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+/**
+ * A population for very large scenarios, which stores the activities and legs of all plans in a
+ * {@link ColumnarPlanStore} instead of one object per activity and leg.  Network routes are stored as routes
+ * of a {@link CompactNetworkRouteFactory}, which share their links.
+ * <p></p>
+ * Plans are packed into the store when a person is added, and by {@link #compact()}, which is called before
+ * each mobsim.  In between, changed or new plans remain on the heap, so replanning works as with the default
+ * population.  Only persons of the default implementation are packed.
+ */
+final class ColumnarPopulation implements Population, Lockable {
+	private static final Logger log = Logger.getLogger(ColumnarPopulation.class);
+
+	private final PopulationImpl delegate;
+	private ColumnarPlanStore store;
+
+	ColumnarPopulation(final PopulationFactory populationFactory, final CompactNetworkRouteFactory routeFactory, final boolean offHeap) {
+		this.delegate = new PopulationImpl(populationFactory);
+		this.store = new ColumnarPlanStore(routeFactory, offHeap);
+	}
+
+	@Override
+	public void addPerson(final Person p) {
+		this.delegate.addPerson(p);
+		pack(p, this.store);
+	}
+
+	@Override
+	public Person removePerson(final Id<Person> personId) {
+		return this.delegate.removePerson(personId);
+	}
+
+	@Override
+	public Map<Id<Person>, ? extends Person> getPersons() {
+		return this.delegate.getPersons();
+	}
+
+	@Override
+	public ObjectAttributes getPersonAttributes() {
+		return this.delegate.getPersonAttributes();
+	}
+
+	@Override
+	public PopulationFactory getFactory() {
+		return this.delegate.getFactory();
+	}
+
+	@Override
+	public String getName() {
+		return this.delegate.getName();
+	}
+
+	@Override
+	public void setName(final String name) {
+		this.delegate.setName(name);
+	}
+
+	@Override
+	public Attributes getAttributes() {
+		return this.delegate.getAttributes();
+	}
+
+	@Override
+	public void setLocked() {
+		this.delegate.setLocked();
+	}
+
+	/**
+	 * Packs all plans which were added or changed since the last call into the store.  If most of the stored
+	 * elements are no longer used, all plans are copied to a new store, so the old one can be garbage collected.
+	 * <p></p>
+	 * Views of activities and legs obtained before remain valid, but are no longer part of their plan.  Thus, this
+	 * must not be called while other code works with the plans, e.g. during replanning or in the mobsim.
+	 */
+	synchronized void compact() {
+		long usedElements = 0;
+		for (Person person : this.delegate.getPersons().values()) {
+			for (Plan plan : person.getPlans()) {
+				if (plan instanceof ColumnarPlan) {
+					usedElements += ((ColumnarPlan) plan).getStoredElementCount(this.store);
+				}
+			}
+		}
+		ColumnarPlanStore target = this.store;
+		if (usedElements < this.store.getElementCount() / 2) {
+			log.info("rebuilding plan store, " + usedElements + " of " + this.store.getElementCount() + " plan elements are in use.");
+			target = new ColumnarPlanStore(this.store.getRouteFactory(), this.store.isOffHeap());
+		}
+		for (Person person : this.delegate.getPersons().values()) {
+			pack(person, target);
+		}
+		this.store = target;
+	}
+
+	private static void pack(final Person person, final ColumnarPlanStore target) {
+		if (!(person instanceof PersonImpl)) {
+			return;
+		}
+		@SuppressWarnings("unchecked")
+		List<Plan> plans = (List<Plan>) person.getPlans();
+		for (int i = 0; i < plans.size(); i++) {
+			Plan plan = plans.get(i);
+			if (plan instanceof ColumnarPlan) {
+				((ColumnarPlan) plan).pack(target);
+			} else {
+				int first = target.append(plan.getPlanElements());
+				if (first >= 0) {
+					ColumnarPlan packed = new ColumnarPlan(target, first, plan.getPlanElements().size());
+					packed.setScore(plan.getScore());
+					packed.setType(plan.getType());
+					packed.setPerson(person);
+					Attributes attributes = plan.getAttributesForReading();
+					if (attributes.size() > 0) {
+						packed.setAttributes(attributes);
+					}
+					Map<String, Object> customAttributes = plan.getCustomAttributes();
+					if (!customAttributes.isEmpty()) {
+						packed.getCustomAttributes().putAll(customAttributes);
+					}
+					plans.set(i, packed);
+					if (person.getSelectedPlan() == plan) {
+						person.setSelectedPlan(packed);
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -33,7 +33,8 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 	private double travTime = Time.UNDEFINED_TIME;
 	private String mode;
 
-	private final Attributes attributes = new Attributes();
+	/** created on first access, as most instances have no attributes */
+	private Attributes attributes = null;
 
 	/* deliberately package */  LegImpl(final String transportMode) {
 		this.mode = transportMode;
@@ -90,7 +91,15 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 
 	@Override
 	public Attributes getAttributes() {
-		return attributes;
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
+		return this.attributes;
+	}
+
+	@Override
+	public Attributes getAttributesForReading() {
+		return this.attributes == null ? Attributes.EMPTY : this.attributes;
 	}
 
 	//	private boolean locked;
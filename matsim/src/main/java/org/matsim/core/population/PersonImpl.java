@@ -47,7 +47,8 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 	private Customizable customizableDelegate;
 	private boolean locked;
 
-	private final Attributes attributes = new Attributes();
+	/** created on first access, as most instances have no attributes */
+	private Attributes attributes = null;
 
 	/* deliberately package */ PersonImpl(final Id<Person> id) {
 		this.id = id;
@@ -139,7 +140,15 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 
 	@Override
 	public Attributes getAttributes() {
-		return attributes;
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
+		return this.attributes;
+	}
+
+	@Override
+	public Attributes getAttributesForReading() {
+		return this.attributes == null ? Attributes.EMPTY : this.attributes;
 	}
 
 	@Override
@@ -48,13 +48,22 @@ import org.matsim.utils.objectattributes.attributable.Attributes;
 
 	private Customizable customizableDelegate;
 	
-	private final Attributes attributes = new Attributes();
+	/** created on first access, as most instances have no attributes */
+	private Attributes attributes = null;
 	
 	@Override
 	public final Attributes getAttributes() {
+		if (this.attributes == null) {
+			this.attributes = new Attributes();
+		}
 		return this.attributes;
 	}
 
+	@Override
+	public final Attributes getAttributesForReading() {
+		return this.attributes == null ? Attributes.EMPTY : this.attributes;
+	}
+
 	/* package */ PlanImpl() {}
 
 //	@Override
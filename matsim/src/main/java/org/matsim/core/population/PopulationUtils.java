@@ -55,6 +55,7 @@ import org.matsim.core.gbl.Gbl;
 import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.io.PopulationWriter;
 import org.matsim.core.population.io.StreamingPopulationReader;
+import org.matsim.core.population.routes.CompactNetworkRouteFactory;
 import org.matsim.core.population.routes.CompressedNetworkRouteFactory;
 import org.matsim.core.population.routes.LinkNetworkRouteFactory;
 import org.matsim.core.population.routes.NetworkRoute;
@@ -119,13 +120,31 @@ public final class PopulationUtils {
 			factory = new LinkNetworkRouteFactory();
 		} else if (PlansConfigGroup.NetworkRouteType.CompressedNetworkRoute.equals(networkRouteType) && network != null) {
 			factory = new CompressedNetworkRouteFactory(network);
+		} else if (PlansConfigGroup.NetworkRouteType.CompactNetworkRoute.equals(networkRouteType)) {
+			factory = new CompactNetworkRouteFactory(network);
 		} else {
 			throw new IllegalArgumentException("The type \"" + networkRouteType + "\" is not a supported type for network routes.");
 		}
 		routeFactory.setRouteFactory(NetworkRoute.class, factory);
+		if (!PlansConfigGroup.PopulationStorage.objects.equals(plansConfigGroup.getPopulationStorage())) {
+			CompactNetworkRouteFactory storeRouteFactory = factory instanceof CompactNetworkRouteFactory ? (CompactNetworkRouteFactory) factory : new CompactNetworkRouteFactory(network);
+			boolean offHeap = PlansConfigGroup.PopulationStorage.columnarOffHeap.equals(plansConfigGroup.getPopulationStorage());
+			return new ColumnarPopulation(new PopulationFactoryImpl(routeFactory), storeRouteFactory, offHeap);
+		}
 		return new PopulationImpl(new PopulationFactoryImpl(routeFactory));
 	}
 
+	/**
+	 * Packs the plans which were changed since the last call in populations which store their plans in columns
+	 * (see {@link PlansConfigGroup#getPopulationStorage()}); does nothing for other populations.  Must not be called
+	 * while other code works with the plans of the population.
+	 */
+	public static void compactPopulation(Population population) {
+		if (population instanceof ColumnarPopulation) {
+			((ColumnarPopulation) population).compact();
+		}
+	}
+
 	//	public static Population createStreamingPopulation(PlansConfigGroup plansConfigGroup, Network network) {
 	//		// yyyy my intuition would be to rather get this out of a standard scenario. kai, jun'16
 	//		RouteFactories routeFactory = new RouteFactories();
@@ -201,6 +220,11 @@ public final class PopulationUtils {
 			// attributes should be made unmodifiable
 			return delegate.getAttributes();
 		}
+
+		@Override
+		public Attributes getAttributesForReading() {
+			return delegate.getAttributesForReading();
+		}
 	}
 
 	public static Activity unmodifiableActivity( Activity act ) {
@@ -292,6 +316,11 @@ public final class PopulationUtils {
 			// attributes should be made unmodifiable
 			return delegate.getAttributes();
 		}
+
+		@Override
+		public Attributes getAttributesForReading() {
+			return delegate.getAttributesForReading();
+		}
 	}
 
 	/**
@@ -374,6 +403,11 @@ public final class PopulationUtils {
 			// TODO yyyy should be made unmodifiable.  kai, jan'17
 			return delegate.getAttributes() ;
 		}
+
+		@Override
+		public Attributes getAttributesForReading() {
+			return delegate.getAttributesForReading();
+		}
 	}
 
 	/**
@@ -799,6 +833,30 @@ public final class PopulationUtils {
 
 	// --- static copy methods:
 
+	/**
+	 * Creates a deep copy of the persons and their plans, e.g. to write them out in the background while the
+	 * iterations go on modifying the original population.
+	 */
+	public static Population createSnapshot(final Population population) {
+		Population snapshot = createPopulation(new PlansConfigGroup(), null);
+		snapshot.setName(population.getName());
+		AttributesUtils.copyAttributesFromTo(population, snapshot);
+		for (Person person : population.getPersons().values()) {
+			Person copy = snapshot.getFactory().createPerson(person.getId());
+			AttributesUtils.copyAttributesFromTo(person, copy);
+			for (Plan plan : person.getPlans()) {
+				Plan planCopy = snapshot.getFactory().createPlan();
+				copyFromTo(plan, planCopy);
+				copy.addPlan(planCopy);
+				if (plan == person.getSelectedPlan()) {
+					copy.setSelectedPlan(planCopy);
+				}
+			}
+			snapshot.addPerson(copy);
+		}
+		return snapshot;
+	}
+
 	/** loads a copy of an existing plan, but keeps the person reference
 	 * 
 	 * @param in a plan who's data will be loaded into this plan
@@ -0,0 +1,280 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.population.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.population.algorithms.ParallelPersonAlgorithmUtils.PersonAlgorithmProvider;
+import org.matsim.core.utils.misc.Counter;
+
+/**
+ * Runs a sequence of {@link PersonAlgorithm}s as stages of a pipeline, each stage on its own thread(s), such that
+ * persons can be handled while further persons are still being read, e.g. by the
+ * {@link org.matsim.core.population.io.StreamingPopulationReader}.
+ * <p></p>
+ * A stage added with {@link #addStage(PersonAlgorithm)} runs on a single thread and gets the persons in the order
+ * in which they were given to {@link #run(Person)}, even if a parallel stage before it has mixed them up.  A stage
+ * added with {@link #addParallelStage(int, PersonAlgorithmProvider)} runs on several threads and gets the persons
+ * in no particular order.  A typical pipeline thus consists of some parallel stages, e.g. with
+ * {@link PersonPrepareForSim} or {@link XY2Links}, followed by a {@link org.matsim.core.population.io.StreamingPopulationWriter}
+ * as ordered stage.
+ * <p></p>
+ * At most <code>capacity</code> persons are in the pipeline at any time; {@link #run(Person)} blocks until there is
+ * space again.  So memory use does not depend on the number of persons handled.
+ * <p></p>
+ * After the last person, {@link #finish()} must be called, which waits until all persons have been handled.
+ * If a stage fails, all further persons are dropped and the exception is thrown from {@link #run(Person)} or
+ * {@link #finish()}.
+ */
+public final class PersonAlgorithmPipeline implements PersonAlgorithm {
+	private static final Logger log = Logger.getLogger(PersonAlgorithmPipeline.class);
+
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	private static final Item END = new Item(-1, null);
+
+	private final List<Stage> stages = new ArrayList<>();
+	private final List<Thread> threads = new ArrayList<>();
+	private final Semaphore capacity;
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private final Counter counter = new Counter("[PersonAlgorithmPipeline] handled person # ");
+	private long nextSequenceNumber = 0;
+	private boolean started = false;
+	private boolean finished = false;
+
+	public PersonAlgorithmPipeline() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public PersonAlgorithmPipeline(final int capacity) {
+		this.capacity = new Semaphore(capacity);
+	}
+
+	/**
+	 * Adds a stage which handles the persons one after the other, in the order in which they entered the pipeline.
+	 */
+	public PersonAlgorithmPipeline addStage(final PersonAlgorithm algorithm) {
+		return addStage(new Stage(1, true, () -> algorithm));
+	}
+
+	/**
+	 * Adds a stage which handles the persons on <code>numberOfThreads</code> threads, in no particular order.
+	 * The provider is asked for a new algorithm for each thread, so the algorithms need not be thread-safe.
+	 */
+	public PersonAlgorithmPipeline addParallelStage(final int numberOfThreads, final PersonAlgorithmProvider provider) {
+		return addStage(new Stage(Math.max(numberOfThreads, 1), false, provider));
+	}
+
+	private synchronized PersonAlgorithmPipeline addStage(final Stage stage) {
+		if (this.started) {
+			throw new IllegalStateException("cannot add stages once persons are handled.");
+		}
+		if (!this.stages.isEmpty()) {
+			this.stages.get(this.stages.size() - 1).next = stage;
+		}
+		this.stages.add(stage);
+		return this;
+	}
+
+	/**
+	 * Hands the person to the first stage, blocking while the pipeline is full.
+	 */
+	@Override
+	public synchronized void run(final Person person) {
+		start();
+		try {
+			while (!this.capacity.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		} catch (InterruptedException e) {
+			abort();
+			throw new RuntimeException(e);
+		}
+		checkFailure();
+		Item item = new Item(this.nextSequenceNumber++, person);
+		if (this.stages.isEmpty()) {
+			handled();
+		} else {
+			this.stages.get(0).queue.add(item);
+		}
+	}
+
+	/**
+	 * Waits until all persons have been handled by all stages, and stops the threads.
+	 */
+	public synchronized void finish() {
+		if (this.finished) {
+			return;
+		}
+		start();
+		this.finished = true;
+		if (!this.stages.isEmpty()) {
+			this.stages.get(0).end();
+		}
+		try {
+			for (Thread thread : this.threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			abort();
+			throw new RuntimeException(e);
+		}
+		this.counter.printCounter();
+		checkFailure();
+	}
+
+	/**
+	 * Stops all threads without waiting for the persons in the pipeline to be handled, e.g. because reading the
+	 * persons failed.
+	 */
+	public synchronized void abort() {
+		this.finished = true;
+		for (Thread thread : this.threads) {
+			thread.interrupt();
+		}
+	}
+
+	private void start() {
+		if (this.started) {
+			return;
+		}
+		if (this.finished) {
+			throw new IllegalStateException("the pipeline was already finished.");
+		}
+		this.started = true;
+		for (int s = 0; s < this.stages.size(); s++) {
+			final Stage stage = this.stages.get(s);
+			final String name = "PersonAlgorithmPipeline." + s + ".";
+			for (int i = 0; i < stage.numberOfThreads; i++) {
+				PersonAlgorithm algorithm = stage.provider.getPersonAlgorithm();
+				Thread thread = new Thread(() -> stage.work(algorithm), name + algorithm.getClass().getSimpleName() + "." + i);
+				thread.setDaemon(true);
+				this.threads.add(thread);
+			}
+		}
+		for (Thread thread : this.threads) {
+			thread.start();
+		}
+	}
+
+	private void checkFailure() {
+		Throwable t = this.failure.get();
+		if (t != null) {
+			abort();
+			throw new RuntimeException("Exception while processing persons. Cannot guarantee that all persons have been fully processed.", t);
+		}
+	}
+
+	private void handled() {
+		this.capacity.release();
+		this.counter.incCounter();
+	}
+
+	private static final class Item {
+		final long sequenceNumber;
+		final Person person;
+
+		Item(final long sequenceNumber, final Person person) {
+			this.sequenceNumber = sequenceNumber;
+			this.person = person;
+		}
+	}
+
+	private final class Stage {
+		final int numberOfThreads;
+		final boolean ordered;
+		final PersonAlgorithmProvider provider;
+		/* not bounded itself, as the number of persons in the whole pipeline is limited */
+		final BlockingQueue<Item> queue = new LinkedBlockingQueue<>();
+		final AtomicInteger runningThreads;
+		Stage next = null;
+
+		Stage(final int numberOfThreads, final boolean ordered, final PersonAlgorithmProvider provider) {
+			this.numberOfThreads = numberOfThreads;
+			this.ordered = ordered;
+			this.provider = provider;
+			this.runningThreads = new AtomicInteger(numberOfThreads);
+		}
+
+		void end() {
+			for (int i = 0; i < this.numberOfThreads; i++) {
+				this.queue.add(END);
+			}
+		}
+
+		void work(final PersonAlgorithm algorithm) {
+			Map<Long, Item> pending = new HashMap<>();
+			long nextSequenceNumber = 0;
+			try {
+				while (true) {
+					Item item = this.queue.take();
+					if (item == END) {
+						break;
+					}
+					if (!this.ordered) {
+						handle(algorithm, item);
+						continue;
+					}
+					// items overtook each other in a parallel stage before, bring them back into their order
+					pending.put(item.sequenceNumber, item);
+					while ((item = pending.remove(nextSequenceNumber)) != null) {
+						handle(algorithm, item);
+						nextSequenceNumber++;
+					}
+				}
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (this.runningThreads.decrementAndGet() == 0 && this.next != null) {
+				this.next.end();
+			}
+		}
+
+		private void handle(final PersonAlgorithm algorithm, final Item item) {
+			if (failure.get() == null) {
+				try {
+					algorithm.run(item.person);
+				} catch (Throwable t) {
+					log.error("Thread " + Thread.currentThread().getName() + " got exception while handling person " + item.person.getId(), t);
+					failure.compareAndSet(null, t);
+				}
+			}
+			if (failure.get() != null || this.next == null) {
+				// persons are dropped after a failure, as the pipeline will not produce a complete result anyway
+				handled();
+			} else {
+				this.next.queue.add(item);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,252 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Stack;
+import java.util.function.Consumer;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.scenario.ProjectionUtils;
+import org.matsim.core.utils.io.ParallelXmlElementParser;
+import org.matsim.facilities.ActivityFacilities;
+import org.matsim.households.Households;
+import org.matsim.lanes.Lanes;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.matsim.utils.objectattributes.ObjectAttributes;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.vehicles.Vehicles;
+
+/**
+ * Parallel implementation of the {@link PopulationReaderMatsimV6}.  The reading thread only records the xml data of
+ * the persons, which is interpreted by worker threads, each with its own {@link PopulationReaderMatsimV6}.  The
+ * persons are added to the population by the reading thread, in the same order as in the file.
+ */
+/* deliberately package */ final class ParallelPopulationReaderMatsimV6 extends PopulationReaderMatsimV6 {
+
+	private final static String POPULATION = "population";
+	private final static String PERSON = "person";
+	private final static String ATTRIBUTES = "attributes";
+
+	private final String targetCRS;
+	private final Scenario scenario;
+	private final int numThreads;
+	private final Map<Class<?>, AttributeConverter<?>> attributeConverters = new HashMap<>();
+
+	/** the crs of the coordinates in the file, may be overridden by the attributes of the population */
+	private String inputCRS;
+	private ParallelXmlElementParser<Person> personParser = null;
+
+	ParallelPopulationReaderMatsimV6(
+			final String inputCRS,
+			final String targetCRS,
+			final Scenario scenario,
+			final int numThreads) {
+		super(inputCRS, targetCRS, scenario);
+		this.inputCRS = inputCRS;
+		this.targetCRS = targetCRS;
+		this.scenario = scenario;
+		this.numThreads = numThreads;
+	}
+
+	@Override
+	public void putAttributeConverter(final Class<?> clazz, final AttributeConverter<?> converter) {
+		super.putAttributeConverter(clazz, converter);
+		this.attributeConverters.put(clazz, converter);
+	}
+
+	@Override
+	public void putAttributeConverters(final Map<Class<?>, AttributeConverter<?>> converters) {
+		super.putAttributeConverters(converters);
+		this.attributeConverters.putAll(converters);
+	}
+
+	@Override
+	public void startTag(final String name, final org.xml.sax.Attributes atts, final Stack<String> context) {
+		if (this.personParser == null && PERSON.equals(name)) {
+			this.personParser = createPersonParser();
+		}
+		if (this.personParser != null && this.personParser.startTag(name, atts, context)) {
+			return;
+		}
+		super.startTag(name, atts, context);
+	}
+
+	@Override
+	public void endTag(final String name, final String content, final Stack<String> context) {
+		if (this.personParser != null && this.personParser.endTag(name, content, context)) {
+			return;
+		}
+		if (POPULATION.equals(name) && this.personParser != null) {
+			this.personParser.finish();
+			this.personParser = null;
+		}
+		if (ATTRIBUTES.equals(name) && POPULATION.equals(context.peek())) {
+			// the same as in PopulationReaderMatsimV6, but before the crs is replaced by the target crs
+			String fileCRS = ProjectionUtils.getCRS(this.scenario.getPopulation());
+			if (fileCRS != null && this.targetCRS != null) {
+				this.inputCRS = fileCRS;
+			}
+		}
+		super.endTag(name, content, context);
+	}
+
+	private ParallelXmlElementParser<Person> createPersonParser() {
+		final String crs = this.inputCRS;
+		return new ParallelXmlElementParser<>(PERSON, this.numThreads,
+				sink -> {
+					PopulationReaderMatsimV6 reader = new PopulationReaderMatsimV6(crs, this.targetCRS, new CollectorScenario(this.scenario, sink));
+					reader.putAttributeConverters(this.attributeConverters);
+					return reader;
+				},
+				person -> this.scenario.getPopulation().addPerson(person));
+	}
+
+	/**
+	 * Passes the persons created by a worker on to its sink.
+	 */
+	private static final class CollectorPopulation implements Population {
+
+		private final Population population;
+		private final Consumer<Person> sink;
+		/** only written by the worker when setting the crs, which the reading thread did already */
+		private final Attributes attributes = new Attributes();
+
+		CollectorPopulation(final Population population, final Consumer<Person> sink) {
+			this.population = population;
+			this.sink = sink;
+		}
+
+		@Override
+		public PopulationFactory getFactory() {
+			return this.population.getFactory();
+		}
+
+		@Override
+		public void addPerson(final Person p) {
+			this.sink.accept(p);
+		}
+
+		@Override
+		public Attributes getAttributes() {
+			return this.attributes;
+		}
+
+		@Override
+		public ObjectAttributes getPersonAttributes() {
+			throw new RuntimeException("Calls to this method are not expected to happen...");
+		}
+
+		@Override
+		public String getName() {
+			throw new RuntimeException("Calls to this method are not expected to happen...");
+		}
+
+		@Override
+		public void setName(final String name) {
+			throw new RuntimeException("Calls to this method are not expected to happen...");
+		}
+
+		@Override
+		public Map<Id<Person>, ? extends Person> getPersons() {
+			throw new RuntimeException("Calls to this method are not expected to happen...");
+		}
+
+		@Override
+		public Person removePerson(final Id<Person> personId) {
+			throw new RuntimeException("Calls to this method are not expected to happen...");
+		}
+	}
+
+	private static final class CollectorScenario implements Scenario {
+
+		private final Scenario delegate;
+		private final CollectorPopulation population;
+
+		CollectorScenario(final Scenario scenario, final Consumer<Person> sink) {
+			this.delegate = scenario;
+			this.population = new CollectorPopulation(scenario.getPopulation(), sink);
+		}
+
+		@Override
+		public Network getNetwork() {
+			return this.delegate.getNetwork();
+		}
+
+		@Override
+		public Population getPopulation() {
+			return this.population;
+		}
+
+		@Override
+		public ActivityFacilities getActivityFacilities() {
+			return this.delegate.getActivityFacilities();
+		}
+
+		@Override
+		public TransitSchedule getTransitSchedule() {
+			return this.delegate.getTransitSchedule();
+		}
+
+		@Override
+		public Config getConfig() {
+			return this.delegate.getConfig();
+		}
+
+		@Override
+		public void addScenarioElement(final String name, final Object o) {
+			throw new RuntimeException("Calls to this method are not expected to happen...");
+		}
+
+		@Override
+		public Object getScenarioElement(final String name) {
+			return this.delegate.getScenarioElement(name);
+		}
+
+		@Override
+		public Vehicles getTransitVehicles() {
+			return this.delegate.getTransitVehicles();
+		}
+
+		@Override
+		public Households getHouseholds() {
+			return this.delegate.getHouseholds();
+		}
+
+		@Override
+		public Lanes getLanes() {
+			return this.delegate.getLanes();
+		}
+
+		@Override
+		public Vehicles getVehicles() {
+			return this.delegate.getVehicles();
+		}
+	}
+
+}
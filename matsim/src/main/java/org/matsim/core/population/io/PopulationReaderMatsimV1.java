@@ -71,6 +71,8 @@ import org.xml.sax.Attributes;
 	private final Population plans;
 	private final Network network;
 
+	private final StringCache strings = new StringCache();
+
 	private Person currperson = null;
 
 	private Plan currplan = null;
@@ -189,14 +191,14 @@ import org.xml.sax.Attributes;
 		Activity act = null;
 		if (atts.getValue("link") != null) {
 			final Id<Link> linkId = Id.create(atts.getValue("link"), Link.class);
-			act = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, atts.getValue("type"), linkId);
+			act = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, this.strings.get(atts.getValue("type")), linkId);
 			if (atts.getValue(ATTR_X100) != null && atts.getValue(ATTR_Y100) != null) {
 				final Coord coord = parseCoord( atts );
 				act.setCoord(coord);
 			}
 		} else if (atts.getValue(ATTR_X100) != null && atts.getValue(ATTR_Y100) != null) {
 			final Coord coord = parseCoord( atts );
-			act = PopulationUtils.createAndAddActivityFromCoord(this.currplan, atts.getValue("type"), coord);
+			act = PopulationUtils.createAndAddActivityFromCoord(this.currplan, this.strings.get(atts.getValue("type")), coord);
 		} else {
 			throw new IllegalArgumentException("Either the coords or the link must be specified for an Act.");
 		}
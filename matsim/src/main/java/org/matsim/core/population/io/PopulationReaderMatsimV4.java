@@ -85,6 +85,8 @@ import org.xml.sax.Attributes;
 	private final Network network;
 	private final ActivityFacilities facilities;
 
+	private final StringCache strings = new StringCache();
+
 	/*package*/ Person currperson = null;
 	private String curracttype = null;
 	private ActivityOption curractivity = null;
@@ -263,14 +265,14 @@ import org.xml.sax.Attributes;
 		if (atts.getValue("link") != null) {
 			Id<Link> linkId = Id.create(atts.getValue("link"), Link.class);
 			final Id<Link> linkId1 = linkId;
-			this.curract = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, atts.getValue(ATTR_TYPE), linkId1);
+			this.curract = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, this.strings.get(atts.getValue(ATTR_TYPE)), linkId1);
 			if ((atts.getValue("x") != null) && (atts.getValue("y") != null)) {
 				final Coord coord = parseCoord( atts );
 				this.curract.setCoord(coord);
 			}
 		} else if ((atts.getValue("x") != null) && (atts.getValue("y") != null)) {
 			final Coord coord = parseCoord( atts );
-			this.curract = PopulationUtils.createAndAddActivityFromCoord(this.currplan, atts.getValue(ATTR_TYPE), coord);
+			this.curract = PopulationUtils.createAndAddActivityFromCoord(this.currplan, this.strings.get(atts.getValue(ATTR_TYPE)), coord);
 		} else {
 			throw new IllegalArgumentException(
 					"In this version of MATSim either the coords or the link must be specified for an Act.");
@@ -97,6 +97,8 @@ import org.xml.sax.Attributes;
 	private final Scenario scenario;
 	private final Population plans;
 
+	private final StringCache strings = new StringCache();
+
 	private Person currperson = null;
 	private Plan currplan = null;
 	private Activity curract = null;
@@ -202,7 +204,7 @@ import org.xml.sax.Attributes;
 
 		String type = atts.getValue(ATTR_PLAN_TYPE);
 		if (type != null) {
-			this.currplan.setType(type);
+			this.currplan.setType(this.strings.get(type));
 		}
 	}
 
@@ -210,14 +212,14 @@ import org.xml.sax.Attributes;
 		if (atts.getValue(ATTR_ACT_LINK) != null) {
 			Id<Link> linkId = Id.create(atts.getValue(ATTR_ACT_LINK), Link.class);
 			final Id<Link> linkId1 = linkId;
-			this.curract = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, atts.getValue(ATTR_ACT_TYPE), linkId1);
+			this.curract = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, this.strings.get(atts.getValue(ATTR_ACT_TYPE)), linkId1);
 			if ((atts.getValue(ATTR_ACT_X) != null) && (atts.getValue(ATTR_ACT_Y) != null)) {
 				final Coord coord = parseCoord( atts );
 				this.curract.setCoord(coord);
 			}
 		} else if ((atts.getValue(ATTR_ACT_X) != null) && (atts.getValue(ATTR_ACT_Y) != null)) {
 			final Coord coord = parseCoord( atts );
-			this.curract = PopulationUtils.createAndAddActivityFromCoord(this.currplan, atts.getValue(ATTR_ACT_TYPE), coord);
+			this.curract = PopulationUtils.createAndAddActivityFromCoord(this.currplan, this.strings.get(atts.getValue(ATTR_ACT_TYPE)), coord);
 		} else {
 			throw new IllegalArgumentException("In this version of MATSim either the coords or the link must be specified for an Act.");
 		}
@@ -311,7 +313,7 @@ import org.xml.sax.Attributes;
 		if (VALUE_UNDEF.equals(mode)) {
 			mode = "undefined";
 		}
-		this.currleg = PopulationUtils.createAndAddLeg( this.currplan, mode.intern() );
+		this.currleg = PopulationUtils.createAndAddLeg( this.currplan, this.strings.get(mode) );
 		this.currleg.setDepartureTime(Time.parseTime(atts.getValue(ATTR_LEG_DEPTIME)));
 		this.currleg.setTravelTime(Time.parseTime(atts.getValue(ATTR_LEG_TRAVTIME)));
 //		LegImpl r = this.currleg;
@@ -100,6 +100,8 @@ import java.util.Stack;
 	private final Population plans;
 	private final String externalInputCRS;
 
+	private final StringCache strings = new StringCache();
+
 	private Person currperson = null;
 	private Plan currplan = null;
 	private Activity curract = null;
@@ -259,7 +261,7 @@ import java.util.Stack;
 
 		String type = atts.getValue(ATTR_PLAN_TYPE);
 		if (type != null) {
-			this.currplan.setType(type);
+			this.currplan.setType(this.strings.get(type));
 		}
 	}
 
@@ -267,14 +269,14 @@ import java.util.Stack;
 		if (atts.getValue(ATTR_ACT_LINK) != null) {
 			Id<Link> linkId = Id.create(atts.getValue(ATTR_ACT_LINK), Link.class);
 			final Id<Link> linkId1 = linkId;
-			this.curract = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, atts.getValue(ATTR_ACT_TYPE), linkId1);
+			this.curract = PopulationUtils.createAndAddActivityFromLinkId(this.currplan, this.strings.get(atts.getValue(ATTR_ACT_TYPE)), linkId1);
 			if ((atts.getValue(ATTR_ACT_X) != null) && (atts.getValue(ATTR_ACT_Y) != null)) {
 				final Coord coord = parseCoord( atts );
 				this.curract.setCoord(coord);
 			}
 		} else if ((atts.getValue(ATTR_ACT_X) != null) && (atts.getValue(ATTR_ACT_Y) != null)) {
 			final Coord coord = parseCoord( atts );
-			this.curract = PopulationUtils.createAndAddActivityFromCoord(this.currplan, atts.getValue(ATTR_ACT_TYPE), coord);
+			this.curract = PopulationUtils.createAndAddActivityFromCoord(this.currplan, this.strings.get(atts.getValue(ATTR_ACT_TYPE)), coord);
 		} else {
 			throw new IllegalArgumentException("In this version of MATSim either the coords or the link must be specified for an Act.");
 		}
@@ -380,7 +382,7 @@ import java.util.Stack;
 		if (VALUE_UNDEF.equals(mode)) {
 			mode = "undefined";
 		}
-		this.currleg = PopulationUtils.createAndAddLeg( this.currplan, mode.intern() );
+		this.currleg = PopulationUtils.createAndAddLeg( this.currplan, this.strings.get(mode) );
 		this.currleg.setDepartureTime(Time.parseTime(atts.getValue(ATTR_LEG_DEPTIME)));
 		this.currleg.setTravelTime(Time.parseTime(atts.getValue(ATTR_LEG_TRAVTIME)));
 //		LegImpl r = this.currleg;
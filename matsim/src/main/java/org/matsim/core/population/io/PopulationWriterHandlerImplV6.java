@@ -72,7 +72,7 @@ import java.util.Map;
 		}
 		out.write(">\n\n");
 
-		this.attributesWriter.writeAttributes( "\t" , out , plans.getAttributes() );
+		this.attributesWriter.writeAttributes( "\t" , out , plans.getAttributesForReading() );
 
 		out.write("\n\n");
 	}
@@ -117,7 +117,7 @@ import java.util.Map;
 		out.write(person.getId().toString());
 		out.write("\"");
 		out.write(">\n");
-		this.attributesWriter.writeAttributes( "\t\t" , out , person.getAttributes() );
+		this.attributesWriter.writeAttributes( "\t\t" , out , person.getAttributesForReading() );
 	}
 
 	private static void endPerson(final BufferedWriter out) throws IOException {
@@ -142,7 +142,7 @@ import java.util.Map;
 		}
 		out.write(">\n");
 		
-		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , plan.getAttributes() );
+		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , plan.getAttributesForReading() );
 
 	}
 
@@ -195,7 +195,7 @@ import java.util.Map;
 		}
 		out.write(" >\n");
 
-		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , act.getAttributes() );
+		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , act.getAttributesForReading() );
 
 		out.write("\t\t\t</activity>\n");
 	}
@@ -226,7 +226,7 @@ import java.util.Map;
 
 		out.write(">\n");
 
-		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , leg.getAttributes() );
+		this.attributesWriter.writeAttributes( "\t\t\t\t" , out , leg.getAttributesForReading() );
 	}
 
 	private static void endLeg(final BufferedWriter out) throws IOException {
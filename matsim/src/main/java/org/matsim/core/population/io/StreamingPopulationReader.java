@@ -34,7 +34,9 @@ import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.core.api.internal.MatsimReader;
 import org.matsim.core.config.Config;
 import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.algorithms.ParallelPersonAlgorithmUtils.PersonAlgorithmProvider;
 import org.matsim.core.population.algorithms.PersonAlgorithm;
+import org.matsim.core.population.algorithms.PersonAlgorithmPipeline;
 import org.matsim.core.scenario.MutableScenario;
 import org.matsim.core.utils.geometry.CoordinateTransformation;
 import org.matsim.core.utils.geometry.transformations.IdentityTransformation;
@@ -50,6 +52,11 @@ public final class StreamingPopulationReader implements MatsimReader {
 
 	// algorithms over plans
 	private final ArrayList<PersonAlgorithm> personAlgos = new ArrayList<>();
+	private boolean hasParallelAlgos = false;
+	private int pipelineCapacity = PersonAlgorithmPipeline.DEFAULT_CAPACITY;
+
+	/** set while parsing if there are parallel algorithms */
+	private PersonAlgorithmPipeline pipeline = null;
 
 	public StreamingPopulationReader(Scenario scenario ) {
 	    // should we convert to global by default or not? Optimal seems to depend on usecase...
@@ -69,14 +76,64 @@ public final class StreamingPopulationReader implements MatsimReader {
 		return pop ;
 	}
 	@Override public void readFile(String filename) {
-		reader.readFile(filename);
+		startPipeline();
+		try {
+			reader.readFile(filename);
+		} catch (RuntimeException e) {
+			abortPipeline();
+			throw e;
+		}
+		finishPipeline();
 	}
 	public void parse(InputStream is) {
-		reader.parse(is);
+		startPipeline();
+		try {
+			reader.parse(is);
+		} catch (RuntimeException e) {
+			abortPipeline();
+			throw e;
+		}
+		finishPipeline();
 	}
 
 	public void parse(URL url) {
-		reader.parse( url );
+		startPipeline();
+		try {
+			reader.parse( url );
+		} catch (RuntimeException e) {
+			abortPipeline();
+			throw e;
+		}
+		finishPipeline();
+	}
+
+	private void startPipeline() {
+		if (!this.hasParallelAlgos) {
+			return;
+		}
+		this.pipeline = new PersonAlgorithmPipeline(this.pipelineCapacity);
+		for (PersonAlgorithm algo : this.personAlgos) {
+			if (algo instanceof ParallelAlgorithm) {
+				this.pipeline.addParallelStage(((ParallelAlgorithm) algo).numberOfThreads, ((ParallelAlgorithm) algo).provider);
+			} else {
+				this.pipeline.addStage(algo);
+			}
+		}
+	}
+
+	private void finishPipeline() {
+		if (this.pipeline != null) {
+			PersonAlgorithmPipeline pipeline = this.pipeline;
+			this.pipeline = null;
+			pipeline.finish();
+		}
+	}
+
+	private void abortPipeline() {
+		if (this.pipeline != null) {
+			this.pipeline.abort();
+			this.pipeline = null;
+		}
 	}
 
 	//////////////////////////////////////////////////////////////////////
@@ -85,11 +142,52 @@ public final class StreamingPopulationReader implements MatsimReader {
 
 	public final void clearAlgorithms() {
 		this.personAlgos.clear();
+		this.hasParallelAlgos = false;
 	}
 	public final void addAlgorithm(final PersonAlgorithm algo) {
 		this.personAlgos.add(algo);
 	}
 
+	/**
+	 * Adds an algorithm which handles the persons on <code>numberOfThreads</code> threads, with an algorithm
+	 * from the provider for each thread.
+	 * <p></p>
+	 * As soon as there is such an algorithm, all algorithms run as stages of a {@link PersonAlgorithmPipeline}
+	 * instead of on the thread that reads the file: The algorithms added with {@link #addAlgorithm(PersonAlgorithm)}
+	 * run on a thread of their own each, and still get the persons in the order of the file, so that e.g. a
+	 * {@link StreamingPopulationWriter} keeps that order.  Note that the persons are then no longer contained in
+	 * the population while the algorithms run.
+	 */
+	public final void addParallelAlgorithm(final int numberOfThreads, final PersonAlgorithmProvider provider) {
+		this.personAlgos.add(new ParallelAlgorithm(numberOfThreads, provider));
+		this.hasParallelAlgos = true;
+	}
+
+	/**
+	 * Sets how many persons may be in the pipeline at the same time, if there are parallel algorithms.
+	 */
+	public final void setPipelineCapacity(final int capacity) {
+		this.pipelineCapacity = capacity;
+	}
+
+	/**
+	 * Placeholder for a parallel algorithm in the list of algorithms, only run as part of the pipeline.
+	 */
+	private static final class ParallelAlgorithm implements PersonAlgorithm {
+		final int numberOfThreads;
+		final PersonAlgorithmProvider provider;
+
+		ParallelAlgorithm(final int numberOfThreads, final PersonAlgorithmProvider provider) {
+			this.numberOfThreads = numberOfThreads;
+			this.provider = provider;
+		}
+
+		@Override
+		public void run(final Person person) {
+			throw new IllegalStateException("parallel algorithms only run within a pipeline.");
+		}
+	}
+
 
 	//////////////////////////////////////////////////////////////////////
 	// get methods
@@ -130,6 +228,11 @@ public final class StreamingPopulationReader implements MatsimReader {
 			
 			cnt++ ;
 
+			if (pipeline != null) {
+				pipeline.run(p);
+				return;
+			}
+
 //			if (!this.isStreaming) {
 //				// streaming is off, just add the person to our list
 //				pop.addPerson(p);
@@ -177,6 +280,11 @@ public final class StreamingPopulationReader implements MatsimReader {
 		public Attributes getAttributes() {
 			return delegate.getAttributes();
 		}
+
+		@Override
+		public Attributes getAttributesForReading() {
+			return delegate.getAttributesForReading();
+		}
 	}
 
 	@Deprecated // do not use from outside; will be removed as public functionality eventually yy
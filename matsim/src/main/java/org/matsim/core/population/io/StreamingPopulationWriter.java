@@ -151,6 +151,10 @@ public final class StreamingPopulationWriter implements PersonAlgorithm {
 				//A stream written Population cannot contain Population Attributes, only Person Attributes.
 				return new Attributes();
 			}
+			@Override
+			public Attributes getAttributesForReading() {
+				return Attributes.EMPTY;
+			}
 
 		} ;
 		try {
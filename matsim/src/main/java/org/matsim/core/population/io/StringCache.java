@@ -0,0 +1,48 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.io;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Activity types, modes and plan types are the same few strings for all persons, so the population readers keep only
+ * one (interned) instance of each.  Looking them up here is cheaper than calling {@link String#intern()} for every
+ * element.
+ * <p></p>
+ * Not thread-safe; each reader has its own instance.
+ */
+/* package */ final class StringCache {
+
+	private final Map<String, String> cache = new HashMap<>();
+
+	/* package */ String get(final String string) {
+		if (string == null) {
+			return null;
+		}
+		String s = this.cache.get(string);
+		if (s == null) {
+			s = string.intern();
+			this.cache.put(s, s);
+		}
+		return s;
+	}
+
+}
@@ -0,0 +1,72 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.routes;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Route;
+
+/**
+ * Creates {@link NetworkRoute}s which store their links as <code>int</code>s, and share them with all other routes
+ * created by this factory that have the same links.
+ */
+public final class CompactNetworkRouteFactory implements RouteFactory {
+
+	private final CompactNetworkRouteStore store;
+
+	/**
+	 * @param network used to number the links in the order of the network; may be <code>null</code>, then the links
+	 * are numbered when they are first used in a route.
+	 */
+	public CompactNetworkRouteFactory(final Network network) {
+		this.store = new CompactNetworkRouteStore(network);
+	}
+
+	@Override
+	public Route createRoute(final Id<Link> startLinkId, final Id<Link> endLinkId) {
+		return new CompactNetworkRouteImpl(startLinkId, endLinkId, this.store);
+	}
+
+	@Override
+	public String getCreatedRouteType() {
+		return LinkNetworkRouteImpl.ROUTE_TYPE;
+	}
+
+	/**
+	 * Converts a route created by the {@link LinkNetworkRouteFactory} to a route of this factory, so that it shares
+	 * its links with the other routes of this factory.  Other routes are returned unchanged, as they may be of
+	 * a special implementation that must not be replaced.
+	 */
+	public Route compact(final Route route) {
+		if (!(route instanceof LinkNetworkRouteImpl)) {
+			return route;
+		}
+		NetworkRoute original = (NetworkRoute) route;
+		CompactNetworkRouteImpl compact = new CompactNetworkRouteImpl(original.getStartLinkId(), original.getEndLinkId(), this.store);
+		compact.setLinkIds(original.getStartLinkId(), original.getLinkIds(), original.getEndLinkId());
+		compact.setDistance(original.getDistance());
+		compact.setTravelTime(original.getTravelTime());
+		compact.setTravelCost(original.getTravelCost());
+		compact.setVehicleId(original.getVehicleId());
+		return compact;
+	}
+
+}
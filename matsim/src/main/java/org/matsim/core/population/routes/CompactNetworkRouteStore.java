@@ -0,0 +1,200 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.routes;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+
+/**
+ * The data shared by all {@link CompactNetworkRouteImpl}s created by one {@link CompactNetworkRouteFactory}:
+ * <ul>
+ * <li>an index for link ids, so routes can store an <code>int</code> per link instead of a reference to the id,</li>
+ * <li>the link sequences of all routes, so that routes with the same links (e.g. in copies of a plan, or of agents
+ * with the same origin and destination) share one array.</li>
+ * </ul>
+ * Link sequences are only referenced weakly, so sequences no route uses any longer are garbage collected.
+ * <p></p>
+ * Thread-safe, as routes are created concurrently in replanning.
+ */
+final class CompactNetworkRouteStore {
+
+	private static final int SEGMENTS = 16;
+
+	private final Map<Id<Link>, Integer> linkIndices = new ConcurrentHashMap<>();
+	private volatile Id<Link>[] linkIds;
+	private int linkCount = 0;
+
+	private final LinkSequence emptySequence = new LinkSequence(this, new int[0]);
+	private final List<Map<LinkSequence, WeakReference<LinkSequence>>> sequences;
+
+	CompactNetworkRouteStore(final Network network) {
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Id<Link>[] ids = new Id[network == null ? 1024 : Math.max(network.getLinks().size(), 16)];
+		this.linkIds = ids;
+		if (network != null) {
+			// links of a route are often close to each other in the network file as well
+			for (Id<Link> linkId : network.getLinks().keySet()) {
+				getIndex(linkId);
+			}
+		}
+		this.sequences = new ArrayList<>(SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++) {
+			this.sequences.add(new WeakHashMap<>());
+		}
+	}
+
+	int getIndex(final Id<Link> linkId) {
+		Integer index = this.linkIndices.get(linkId);
+		return index == null ? addLinkId(linkId) : index;
+	}
+
+	/**
+	 * @return the index of the link id, or -1 if it is not known yet.  Unlike {@link #getIndex(Id)}, unknown ids are not added.
+	 */
+	int findIndex(final Id<Link> linkId) {
+		Integer index = this.linkIndices.get(linkId);
+		return index == null ? -1 : index;
+	}
+
+	Id<Link> getLinkId(final int index) {
+		return this.linkIds[index];
+	}
+
+	private synchronized int addLinkId(final Id<Link> linkId) {
+		Integer index = this.linkIndices.get(linkId);
+		if (index != null) {
+			return index;
+		}
+		int newIndex = this.linkCount++;
+		Id<Link>[] ids = this.linkIds;
+		if (newIndex == ids.length) {
+			ids = Arrays.copyOf(ids, ids.length * 2);
+			ids[newIndex] = linkId;
+			this.linkIds = ids;
+		} else {
+			ids[newIndex] = linkId;
+		}
+		// the id must be stored before the index can be found by other threads
+		this.linkIndices.put(linkId, newIndex);
+		return newIndex;
+	}
+
+	/**
+	 * @return the shared sequence for the given links
+	 */
+	LinkSequence getSequence(final List<Id<Link>> links) {
+		if (links == null || links.isEmpty()) {
+			return this.emptySequence;
+		}
+		if (links instanceof LinkSequence && ((LinkSequence) links).store == this) {
+			return (LinkSequence) links;
+		}
+		int[] indices = new int[links.size()];
+		int i = 0;
+		for (Id<Link> linkId : links) {
+			indices[i++] = getIndex(linkId);
+		}
+		return intern(new LinkSequence(this, indices));
+	}
+
+	LinkSequence getSubSequence(final LinkSequence sequence, final int fromIndex, final int toIndex) {
+		if (fromIndex >= toIndex) {
+			return this.emptySequence;
+		}
+		if (fromIndex == 0 && toIndex == sequence.indices.length) {
+			return sequence;
+		}
+		return intern(new LinkSequence(this, Arrays.copyOfRange(sequence.indices, fromIndex, toIndex)));
+	}
+
+	private LinkSequence intern(final LinkSequence sequence) {
+		Map<LinkSequence, WeakReference<LinkSequence>> segment = this.sequences.get((sequence.hash & 0x7fffffff) % SEGMENTS);
+		synchronized (segment) {
+			WeakReference<LinkSequence> ref = segment.get(sequence);
+			LinkSequence existing = ref == null ? null : ref.get();
+			if (existing != null) {
+				return existing;
+			}
+			segment.put(sequence, new WeakReference<>(sequence));
+			return sequence;
+		}
+	}
+
+	/**
+	 * An immutable list of link ids, stored as indices into the link ids of the store.  Accessing a link
+	 * by its position does not allocate any objects.
+	 */
+	static final class LinkSequence extends AbstractList<Id<Link>> implements RandomAccess {
+
+		private final CompactNetworkRouteStore store;
+		/*package*/ final int[] indices;
+		private final int hash;
+
+		LinkSequence(final CompactNetworkRouteStore store, final int[] indices) {
+			this.store = store;
+			this.indices = indices;
+			// same as List.hashCode(), so this is still a valid list
+			int h = 1;
+			for (int index : indices) {
+				h = 31 * h + store.getLinkId(index).hashCode();
+			}
+			this.hash = h;
+		}
+
+		@Override
+		public Id<Link> get(final int index) {
+			return this.store.getLinkId(this.indices[index]);
+		}
+
+		@Override
+		public int size() {
+			return this.indices.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (o instanceof LinkSequence && ((LinkSequence) o).store == this.store) {
+				LinkSequence other = (LinkSequence) o;
+				return other.hash == this.hash && Arrays.equals(other.indices, this.indices);
+			}
+			return super.equals(o);
+		}
+	}
+
+}
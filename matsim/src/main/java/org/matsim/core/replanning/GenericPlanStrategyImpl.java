@@ -21,9 +21,11 @@ package org.matsim.core.replanning;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.BasicPlan;
 import org.matsim.api.core.v01.population.HasPlansAndId;
+import org.matsim.core.replanning.modules.AbstractMultithreadedModule;
 import org.matsim.core.replanning.modules.GenericPlanStrategyModule;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomUnscoredPlanSelector;
+import org.matsim.core.utils.metrics.FlightRecorderEvents;
 
 import java.util.ArrayList;
 
@@ -31,7 +33,7 @@ import java.util.ArrayList;
  * @author nagel
  *
  */
-public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericPlanStrategy<T, I> {
+public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericPlanStrategy<T, I>, ShutdownableStrategy {
 
 	private PlanSelector<T, I> planSelector = null;
 	private GenericPlanStrategyModule<T> firstModule = null;
@@ -66,8 +68,16 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	
 	@Override
 	public void run(final HasPlansAndId<T, I> person) {
-		this.counter++;
-		
+		handleSelectedPlan(selectPlan(person));
+	}
+
+	/**
+	 * Selects a plan of the person, and makes a copy of it if it is to be handled by the modules.  Only touches
+	 * the given person, and may thus be called in parallel for different persons.
+	 *
+	 * @return the plan to be handed to {@link #handleSelectedPlan(BasicPlan)}
+	 */
+	/* package */ final T selectPlan(final HasPlansAndId<T, I> person) {
 		// if there is at least one unscored plan, find that one:
 		T plan = new RandomUnscoredPlanSelector<T, I>().selectPlan(person) ;
 		
@@ -89,14 +99,24 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 			
 			// set the working plan to a copy of the selected plan:
 			plan = person.createCopyOfSelectedPlanAndMakeSelected();
-			
+		}
+		return plan;
+	}
+
+	/**
+	 * Hands the plan returned by {@link #selectPlan(HasPlansAndId)} to the modules.  Must be called for the persons
+	 * one after the other, as the modules expect this.
+	 */
+	/* package */ final void handleSelectedPlan(final T plan) {
+		this.counter++;
+
+		if (this.firstModule != null) {
 			// add new plan to container that contains the plans that are handled by this PlanStrategy:
 			this.plans.add(plan);
 
 			// start working on this new plan:
 			this.firstModule.handlePlan(plan);
 		}
-
 	}
 
 	@Override
@@ -111,14 +131,18 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	public void finish() {
 		if (this.firstModule != null) {
 			// finish the first module
-				this.firstModule.finishReplanning();
+			FlightRecorderEvents.Span span = FlightRecorderEvents.STRATEGY_MODULE.begin();
+			this.firstModule.finishReplanning();
+			if (span != null) span.end(this.toString(), this.firstModule.getClass().getSimpleName(), this.plans.size());
 			// now work through the others
 			for (GenericPlanStrategyModule<T> module : this.modules) {
+				span = FlightRecorderEvents.STRATEGY_MODULE.begin();
 				module.prepareReplanning(replanningContext);
 				for (T plan : this.plans) {
 					module.handlePlan(plan);
 				}
 				module.finishReplanning();
+				if (span != null) span.end(this.toString(), module.getClass().getSimpleName(), this.plans.size());
 			}
 		}
 		this.plans.clear();
@@ -126,6 +150,21 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 		this.counter = 0;
 	}
 
+	/**
+	 * Stops the threads of the modules which have their own, see {@link AbstractMultithreadedModule#shutdown()}.
+	 */
+	@Override
+	public final void shutdown() {
+		if (this.firstModule instanceof AbstractMultithreadedModule) {
+			((AbstractMultithreadedModule) this.firstModule).shutdown();
+		}
+		for (GenericPlanStrategyModule<T> module : this.modules) {
+			if (module instanceof AbstractMultithreadedModule) {
+				((AbstractMultithreadedModule) module).shutdown();
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder name = new StringBuilder(20);
@@ -25,7 +25,15 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.BasicPlan;
@@ -36,6 +44,7 @@ import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.GenericWorstPlanForRemovalSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
 import org.matsim.core.replanning.selectors.WorstPlanForRemovalSelector;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 import org.matsim.utils.objectattributes.ObjectAttributes;
 
 /**
@@ -72,10 +81,26 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 	private PlanSelector<PL, AG> removalPlanSelector = new GenericWorstPlanForRemovalSelector<>();
 
 	private String subpopulationAttributeName = null;
+
+	private int numberOfThreadsForSelection = 0;
+	private ExecutorService selectionExecutor = null;
 	
 	public GenericStrategyManager() {
 	}
 
+	/**
+	 * If set to a value larger than zero, removing plans, choosing the strategy and selecting the plan is done in parallel
+	 * by the given number of threads, with a random stream for every person so that the results do not depend on the number
+	 * of threads.  The strategy modules still receive the plans one after the other, in the order of the persons.  The
+	 * default of zero uses the global random number generator in the calling thread, as before.
+	 */
+	public final void setNumberOfThreadsForSelection(final int numberOfThreads) {
+		if (numberOfThreads != this.numberOfThreadsForSelection) {
+			stopSelectionThreads();
+		}
+		this.numberOfThreadsForSelection = numberOfThreads;
+	}
+
 	/**
 	 * @param name the name of the subpopulation attribute
 	 * in the person's object attributes.
@@ -193,34 +218,181 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 			strategy.init(replanningContext);
 		}
 
-		// then go through the population and ...
-		for (HasPlansAndId<PL, AG> person : persons ) {
-
-			// ... reduce the number of plans to the allowed maximum (in evol comp lang this is "selection")
-			if ((this.maxPlansPerAgent > 0) && (person.getPlans().size() > this.maxPlansPerAgent)) {
-				removePlans( person, this.maxPlansPerAgent);
+		MetricsRegistry metrics = MetricsRegistry.getInstance();
+		MetricsRegistry.Timer selectionTimer = metrics.timer("replanning.selection");
+		long start = selectionTimer.start();
+		if (this.numberOfThreadsForSelection > 0) {
+			runParallelSelection(persons, subPopLookup, replanningContext);
+		} else {
+			// then go through the population and ...
+			for (HasPlansAndId<PL, AG> person : persons ) {
+				GenericPlanStrategy<PL, AG> strategy = prepareAndChooseStrategy(person, subPopLookup);
+
+				// ... and run the strategy:
+				strategy.run(person);
 			}
+		}
+		selectionTimer.stop(start);
 
-			// ... choose the strategy to be used for this person (in evol comp lang this would be the choice of the mutation operator)
-			String subpopName = null;
-			if (this.subpopulationAttributeName != null) {
-				subpopName = (String) subPopLookup.getAttribute(person.getId().toString(), this.subpopulationAttributeName);
+		// finally make sure all strategies have finished there work
+		for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
+			// most modules do their actual work here, so this is what the strategy costs
+			MetricsRegistry.Timer strategyTimer = metrics.timer("replanning.strategy." + strategy);
+			start = strategyTimer.start();
+			strategy.finish();
+			strategyTimer.stop(start);
+		}
+
+	}
+
+	private GenericPlanStrategy<PL, AG> prepareAndChooseStrategy(final HasPlansAndId<PL, AG> person, final ObjectAttributes subPopLookup) {
+		// ... reduce the number of plans to the allowed maximum (in evol comp lang this is "selection")
+		if ((this.maxPlansPerAgent > 0) && (person.getPlans().size() > this.maxPlansPerAgent)) {
+			removePlans( person, this.maxPlansPerAgent);
+		}
+
+		// ... choose the strategy to be used for this person (in evol comp lang this would be the choice of the mutation operator)
+		String subpopName = null;
+		if (this.subpopulationAttributeName != null) {
+			subpopName = (String) subPopLookup.getAttribute(person.getId().toString(), this.subpopulationAttributeName);
+		}
+		GenericPlanStrategy<PL, AG> strategy = this.chooseStrategy(person, subpopName);
+
+		if (strategy==null) {
+			throw new RuntimeException("No strategy found! Have you defined at least one replanning strategy per subpopulation?");
+		}
+		return strategy;
+	}
+
+	/**
+	 * First removes plans, chooses the strategy and lets it select (and copy) a plan for chunks of persons in parallel,
+	 * then hands the plans to the strategy modules in the order of the persons.  Strategies which are not a
+	 * {@link GenericPlanStrategyImpl} are completely run in the second step.
+	 */
+	private void runParallelSelection(
+			final Iterable<? extends HasPlansAndId<PL, AG>> persons,
+			final ObjectAttributes subPopLookup,
+			final ReplanningContext replanningContext) {
+		final List<HasPlansAndId<PL, AG>> personList = new ArrayList<>();
+		for (HasPlansAndId<PL, AG> person : persons) {
+			personList.add(person);
+		}
+		final int size = personList.size();
+		final List<GenericPlanStrategy<PL, AG>> chosenStrategies = new ArrayList<>(Collections.<GenericPlanStrategy<PL, AG>>nCopies(size, null));
+		final List<PL> selectedPlans = new ArrayList<>(Collections.<PL>nCopies(size, null));
+		final long iteration = replanningContext == null ? 0 : replanningContext.getIteration();
+		final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
+
+		int numberOfChunks = Math.max(1, Math.min(this.numberOfThreadsForSelection, size));
+		List<Future<?>> futures = new ArrayList<>(numberOfChunks);
+		for (int t = 0; t < numberOfChunks; t++) {
+			final int from = (int) ((long) size * t / numberOfChunks);
+			final int to = (int) ((long) size * (t + 1) / numberOfChunks);
+			futures.add(getSelectionExecutor().submit(() -> {
+				MatsimRandom.ThreadWithOwnRandom thread = (MatsimRandom.ThreadWithOwnRandom) Thread.currentThread();
+				try {
+					for (int i = from; i < to && hadException.get() == null; i++) {
+						HasPlansAndId<PL, AG> person = personList.get(i);
+						thread.setRandom(getRandomForPerson(person, iteration));
+						GenericPlanStrategy<PL, AG> strategy = prepareAndChooseStrategy(person, subPopLookup);
+						chosenStrategies.set(i, strategy);
+						if (isSplittable(strategy)) {
+							selectedPlans.set(i, ((GenericPlanStrategyImpl<PL, AG>) strategy).selectPlan(person));
+						}
+					}
+				} catch (Throwable e) {
+					hadException.compareAndSet(null, e);
+				} finally {
+					thread.setRandom(null);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				hadException.compareAndSet(null, e.getCause());
 			}
-			GenericPlanStrategy<PL, AG> strategy = this.chooseStrategy(person, subpopName);
+		}
+		Throwable throwable = hadException.get();
+		if (throwable != null) {
+			throw new RuntimeException("Plan selection failed in at least one thread.", throwable);
+		}
 
-			if (strategy==null) {
-				throw new RuntimeException("No strategy found! Have you defined at least one replanning strategy per subpopulation?");
+		for (int i = 0; i < size; i++) {
+			GenericPlanStrategy<PL, AG> strategy = chosenStrategies.get(i);
+			if (isSplittable(strategy)) {
+				((GenericPlanStrategyImpl<PL, AG>) strategy).handleSelectedPlan(selectedPlans.get(i));
+			} else {
+				strategy.run(personList.get(i));
 			}
-			
-			// ... and run the strategy:
-			strategy.run(person);
 		}
+	}
 
-		// finally make sure all strategies have finished there work
+	/**
+	 * Stops the threads kept by the parallel selection and by the strategies, see {@link ShutdownableStrategy}.  To be called when the replanning is
+	 * not needed anymore, i.e. at the end of the run.
+	 */
+	public final void shutdown() {
+		stopSelectionThreads();
 		for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
-			strategy.finish();
+			if (strategy instanceof ShutdownableStrategy) {
+				((ShutdownableStrategy) strategy).shutdown();
+			}
+		}
+	}
+
+	private void stopSelectionThreads() {
+		if (this.selectionExecutor != null) {
+			this.selectionExecutor.shutdown();
+			try {
+				this.selectionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			this.selectionExecutor = null;
 		}
+	}
+
+	private static boolean isSplittable(final GenericPlanStrategy<?, ?> strategy) {
+		// subclasses might override run(), in which case the strategy must be run as a whole
+		return strategy.getClass() == GenericPlanStrategyImpl.class || strategy.getClass() == PlanStrategyImpl.class;
+	}
+
+	/**
+	 * The threads are created once, with a random number generator of their own, and kept until {@link #shutdown()}.
+	 */
+	private ExecutorService getSelectionExecutor() {
+		if (this.selectionExecutor == null) {
+			final AtomicInteger threadCounter = new AtomicInteger(0);
+			this.selectionExecutor = Executors.newFixedThreadPool(this.numberOfThreadsForSelection, runnable -> {
+				Thread thread = new MatsimRandom.ThreadWithOwnRandom(runnable, "PlanSelection." + threadCounter.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.selectionExecutor;
+	}
+
+	/* package (for a test) */ static Random getRandomForPerson(final HasPlansAndId<?, ?> person, final long iteration) {
+		// a 64 bit hash of the whole id, as String.hashCode() collides too often (e.g. "Aa" and "BB")
+		String id = person.getId().toString();
+		long hash = 0xcbf29ce484222325L; // FNV-1a
+		for (int i = 0; i < id.length(); i++) {
+			hash ^= id.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return MatsimRandom.getLocalInstance(mix64(hash) ^ mix64(iteration + 0x9E3779B97F4A7C15L));
+	}
 
+	/** the splitmix64 finalizer */
+	private static long mix64(final long value) {
+		long z = value;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
 	}
 
 	private Collection<GenericPlanStrategy<PL, AG>> distinctStrategies() {
@@ -0,0 +1,34 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning;
+
+/**
+ * A strategy which keeps resources, e.g. the threads of its modules, from one iteration to the next.  The
+ * {@link GenericStrategyManager} calls {@link #shutdown()} when the replanning is not needed anymore.
+ * Strategies wrapping other strategies should forward the call to them.
+ */
+public interface ShutdownableStrategy {
+
+	/**
+	 * Releases the resources kept across iterations.  The strategy must not be used afterwards.
+	 */
+	void shutdown();
+
+}
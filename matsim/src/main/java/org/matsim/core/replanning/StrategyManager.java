@@ -26,6 +26,7 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.api.internal.MatsimManager;
 import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.config.groups.PlansConfigGroup;
 import org.matsim.core.config.groups.StrategyConfigGroup;
 import org.matsim.core.replanning.selectors.PlanSelector;
@@ -33,6 +34,7 @@ import org.matsim.core.replanning.selectors.WorstPlanForRemovalSelector;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -51,11 +53,14 @@ public class StrategyManager implements MatsimManager {
 
 	@Inject
 	StrategyManager(StrategyConfigGroup strategyConfigGroup, PlansConfigGroup plansConfigGroup,
-					ControlerConfigGroup controlerConfigGroup,
+					ControlerConfigGroup controlerConfigGroup, GlobalConfigGroup globalConfigGroup,
 					Map<StrategyConfigGroup.StrategySettings, PlanStrategy> planStrategies) {
 
 		this();
 		setMaxPlansPerAgent(strategyConfigGroup.getMaxAgentPlanMemorySize());
+		if (strategyConfigGroup.isParallelPlanSelection()) {
+			setNumberOfThreadsForSelection(Math.max(1, globalConfigGroup.getNumberOfThreads()));
+		}
 
 		int globalInnovationDisableAfter = (int) ((controlerConfigGroup.getLastIteration() - controlerConfigGroup.getFirstIteration())
 				* strategyConfigGroup.getFractionOfIterationsToDisableInnovation() + controlerConfigGroup.getFirstIteration());
@@ -173,6 +178,18 @@ public class StrategyManager implements MatsimManager {
 		run(population, replanningContext);
 	}
 
+	/**
+	 * Like {@link #run(Population, int, ReplanningContext)}, but only for some persons of the population, e.g. the ones
+	 * of a {@link org.matsim.core.controler.PopulationSample}.
+	 */
+	public final void run(final Population population, final Collection<? extends Person> persons, final int iteration,
+			final ReplanningContext replanningContext) {
+		delegate.handleChangeRequests(iteration);
+		beforePopulationRunHook(population, replanningContext);
+		delegate.run(persons, population.getPersonAttributes(), replanningContext);
+		afterRunHook(population);
+	}
+
 	/**
 	 * @param population  
 	 * @param replanningContext 
@@ -222,6 +239,20 @@ public class StrategyManager implements MatsimManager {
 		delegate.setMaxPlansPerAgent(maxPlansPerAgent);
 	}
 
+	/**
+	 * @see GenericStrategyManager#setNumberOfThreadsForSelection(int)
+	 */
+	public final void setNumberOfThreadsForSelection(final int numberOfThreads) {
+		delegate.setNumberOfThreadsForSelection(numberOfThreads);
+	}
+
+	/**
+	 * @see GenericStrategyManager#shutdown()
+	 */
+	public final void shutdown() {
+		delegate.shutdown();
+	}
+
 	public final int getMaxPlansPerAgent() {
 		return delegate.getMaxPlansPerAgent();
 	}
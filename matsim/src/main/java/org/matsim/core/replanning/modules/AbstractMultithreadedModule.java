@@ -28,9 +28,11 @@ import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.replanning.ReplanningContext;
 import org.matsim.core.utils.misc.Counter;
 
-import java.lang.Thread.UncaughtExceptionHandler;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -40,15 +42,19 @@ import java.util.concurrent.atomic.AtomicReference;
  * Just overwrite getPlanAlgoInstance() to return an instance of your plan
  * algorithm.
  * <p></p>
- * <code>initThreads()</code> creates the threads, but does not yet start them.
+ * The threads are created once and re-used in every iteration.  <code>prepareReplanning()</code> gets a new
+ * plan algorithm instance for each thread.
  * <p></p>
- * <code>handlePlan(Plan)</code> distributes the plans equally to all threads.
+ * <code>handlePlan(Plan)</code> collects the plans in small chunks and hands them to the threads, which start
+ * working on them right away, i.e. while the strategy manager still selects plans for the next persons.
+ * By default, the chunks are distributed equally to all threads, so every plan is handled by the same plan
+ * algorithm instance in every run.  This helps building reproducible runs, as the instances often have their own
+ * random number generator.  If {@link GlobalConfigGroup#isBalanceReplanningLoad()} is set, any idle thread takes the
+ * next chunk instead, which avoids waiting for one slow thread if plans differ a lot in the effort needed, but is not
+ * reproducible.
  * <p></p>
- * <code>finishReplanning()</code> finally starts the threads and waits for all threads to be finished.
- * <p></p>
- * While this approach does not lead to optimal performance gains ("slow threads" vs.
- * "fast threads"), it helps building reproducible runs.  Additionally, as the threads are only
- * started after all to-be-handled plans are added, we can use unsynchronized data structures.
+ * <code>finishReplanning()</code> waits until all threads have handled all their plans.  The threads keep waiting
+ * for the next iteration until {@link #shutdown()} is called, which the strategy manager does at the end of the run.
  * <p></p>
  * Design comments/questions:<ul>
  * <li> As a consequence of the design, the instances that getPlanAlgoInstance() returns, need to be thread-safe.  kai, dec'12
@@ -58,17 +64,26 @@ import java.util.concurrent.atomic.AtomicReference;
  * @author mrieser
  */
 abstract public class AbstractMultithreadedModule implements PlanStrategyModule {
+	private static final int CHUNK_SIZE = 16;
+	/** tells a thread to stop */
+	private static final List<Plan> STOP = new ArrayList<>(0);
+
 	private final int numOfThreads;
+	private final boolean balanceLoad;
 
 	private PlanAlgoThread[] algothreads = null;
 	private Thread[] threads = null;
+	/** the queue all threads take their chunks from if the load is balanced */
+	private final BlockingQueue<List<Plan>> sharedQueue = new LinkedBlockingQueue<>();
+	private List<List<Plan>> chunks = null;
+	/** the number of chunks handed to the threads, but not yet handled */
+	private final AtomicInteger pendingChunks = new AtomicInteger(0);
 	private PlanAlgorithm directAlgo = null;
 	private String name = null;
 
 	private int count = 0;
 
 	private final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
-	private final ExceptionHandler exceptionHandler = new ExceptionHandler(this.hadException);
 
 	private ReplanningContext replanningContext;
 
@@ -83,11 +98,16 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	abstract public PlanAlgorithm getPlanAlgoInstance();
 
 	public AbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
-		this.numOfThreads = globalConfigGroup.getNumberOfThreads();
+		this(globalConfigGroup.getNumberOfThreads(), globalConfigGroup.isBalanceReplanningLoad());
 	}
 
 	public AbstractMultithreadedModule(final int numOfThreads) {
+		this(numOfThreads, false);
+	}
+
+	public AbstractMultithreadedModule(final int numOfThreads, final boolean balanceLoad) {
 		this.numOfThreads = numOfThreads;
+		this.balanceLoad = balanceLoad;
 	}
 	
 	protected void beforePrepareReplanningHook(@SuppressWarnings("unused") ReplanningContext replanningContextTmp) {
@@ -118,7 +138,12 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	@Override
 	public final void handlePlan(final Plan plan) {
 		if (this.directAlgo == null) {
-			this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
+			int index = this.balanceLoad ? 0 : this.count % this.numOfThreads;
+			List<Plan> chunk = this.chunks.get(index);
+			chunk.add(plan);
+			if (chunk.size() == CHUNK_SIZE) {
+				submitChunk(index);
+			}
 			this.count++;
 		} else {
 			this.directAlgo.run(plan);
@@ -136,103 +161,169 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	public final void finishReplanning() {
 		this.beforeFinishReplanningHook();
 		
-		if (this.directAlgo == null) {
-			// only try to start threads if we did not directly work on all the plans
-			log.info("[" + this.name + "] starting " + this.threads.length + " threads, handling " + this.count + " plans");
-
-			// start threads
-			for (Thread thread : this.threads) {
-				thread.start();
-			}
+		try {
+			if (this.directAlgo == null) {
+				// hand the remaining plans to the threads
+				for (int i = 0; i < this.chunks.size(); i++) {
+					if (!this.chunks.get(i).isEmpty()) {
+						submitChunk(i);
+					}
+				}
 
-			// wait until each thread is finished
-			try {
-				for (Thread thread : this.threads) {
-					thread.join();
+				// wait until all plans are handled
+				try {
+					synchronized (this.pendingChunks) {
+						while (this.pendingChunks.get() > 0) {
+							this.pendingChunks.wait();
+						}
+					}
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				log.info("[" + this.name + "] all " + this.threads.length + " threads finished, handled " + this.count + " plans.");
+				for (PlanAlgoThread algothread : this.algothreads) {
+					algothread.planAlgo = null;
+				}
+				Throwable throwable = this.hadException.get();
+				if (throwable != null) {
+					throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
 				}
-			} catch (InterruptedException e) {
-				throw new RuntimeException(e);
-			}
-			log.info("[" + this.name + "] all " + this.threads.length + " threads finished.");
-			Throwable throwable = this.hadException.get();
-			if (throwable != null) {
-				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
 			}
+		} finally {
+			// reset, also if some thread crashed, so that the module can still be shut down
+			resetReplanningState();
 		}
-		// reset
-		this.algothreads = null;
-		this.threads = null;
-		this.replanningContext = null;
-		this.count = 0;
 		
 		this.afterFinishReplanningHook();
 	}
 
+	private void resetReplanningState() {
+		this.chunks = null;
+		this.directAlgo = null;
+		this.replanningContext = null;
+		this.count = 0;
+	}
+
 	private void initThreads() {
-		if (this.threads != null) {
+		if (this.chunks != null) {
 			throw new RuntimeException("threads are already initialized");
 		}
 
 		this.hadException.set(null);
-		this.threads = new Thread[this.numOfThreads];
-		this.algothreads = new PlanAlgoThread[this.numOfThreads];
+		int numberOfQueues = this.balanceLoad ? 1 : this.numOfThreads;
+		this.chunks = new ArrayList<>(numberOfQueues);
+		for (int i = 0; i < numberOfQueues; i++) {
+			this.chunks.add(new ArrayList<>(CHUNK_SIZE));
+		}
 
 		Counter counter = null;
-		// setup threads
+		if (this.threads == null) {
+			this.threads = new Thread[this.numOfThreads];
+			this.algothreads = new PlanAlgoThread[this.numOfThreads];
+		}
+		// setup threads, they are only created the first time
 		for (int i = 0; i < this.numOfThreads; i++) {
 			PlanAlgorithm algo = getPlanAlgoInstance();
 			if (i == 0) {
 				this.name = algo.getClass().getSimpleName();
 				counter = new Counter("[" + this.name + "] handled plan # ");
 			}
-			PlanAlgoThread algothread = new PlanAlgoThread(algo, counter);
-			Thread thread = new Thread(algothread, this.name + "." + i);
-			thread.setUncaughtExceptionHandler(this.exceptionHandler);
-			this.threads[i] = thread;
-			this.algothreads[i] = algothread;
+			if (this.threads[i] == null) {
+				PlanAlgoThread algothread = new PlanAlgoThread(this.balanceLoad ? this.sharedQueue : new LinkedBlockingQueue<>(),
+						this.pendingChunks, this.hadException);
+				Thread thread = new Thread(algothread, this.name + "." + i);
+				thread.setDaemon(true);
+				this.threads[i] = thread;
+				this.algothreads[i] = algothread;
+				thread.start();
+			}
+			// the queue makes sure the thread sees these values before it gets the first plan
+			this.algothreads[i].planAlgo = algo;
+			this.algothreads[i].counter = counter;
 		}
 	}
 
-	/* package (for a test) */ final int getNumOfThreads() {
-		return numOfThreads;
+	private void submitChunk(final int index) {
+		List<Plan> chunk = this.chunks.set(index, new ArrayList<>(CHUNK_SIZE));
+		this.pendingChunks.incrementAndGet();
+		this.algothreads[index].queue.add(chunk);
 	}
 
-	private final static class ExceptionHandler implements UncaughtExceptionHandler {
-
-		private final AtomicReference<Throwable> hadException;
-
-		public ExceptionHandler(final AtomicReference<Throwable> hadException) {
-			this.hadException = hadException;
+	/**
+	 * Stops the threads and waits until they are gone.  They are created again if the module is used afterwards.
+	 * <p></p>
+	 * If replanning was not finished, e.g. because some other module crashed, the plans already handed to the threads
+	 * are still handled, the others are dropped.
+	 */
+	public final void shutdown() {
+		if (this.chunks != null) {
+			log.warn("[" + this.name + "] shutting down during replanning, " + this.count + " plans may not have been handled.");
+			resetReplanningState();
 		}
-
-		@Override
-		public void uncaughtException(Thread t, Throwable e) {
-			log.error("Thread " + t.getName() + " died with exception. Will stop after all threads finished.", e);
-			this.hadException.set(e);
+		if (this.threads == null) {
+			return;
+		}
+		for (PlanAlgoThread algothread : this.algothreads) {
+			algothread.queue.add(STOP);
+		}
+		for (Thread thread : this.threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
 		}
+		this.threads = null;
+		this.algothreads = null;
+	}
 
+	/* package (for a test) */ final int getNumOfThreads() {
+		return numOfThreads;
 	}
 
 	private final static class PlanAlgoThread implements Runnable {
 
-		private final PlanAlgorithm planAlgo;
-		private final List<Plan> plans = new LinkedList<>();
-		private final Counter counter;
-
-		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter) {
-			this.planAlgo = algo;
-			this.counter = counter;
-		}
+		private final BlockingQueue<List<Plan>> queue;
+		private final AtomicInteger pendingChunks;
+		private final AtomicReference<Throwable> hadException;
+		private PlanAlgorithm planAlgo;
+		private Counter counter;
 
-		public void addPlanToThread(final Plan plan) {
-			this.plans.add(plan);
+		public PlanAlgoThread(final BlockingQueue<List<Plan>> queue, final AtomicInteger pendingChunks,
+				final AtomicReference<Throwable> hadException) {
+			this.queue = queue;
+			this.pendingChunks = pendingChunks;
+			this.hadException = hadException;
 		}
 
 		@Override
 		public void run() {
-			for (Plan plan : this.plans) {
-				this.planAlgo.run(plan);
-				this.counter.incCounter();
+			try {
+				while (true) {
+					List<Plan> plans = this.queue.take();
+					if (plans == STOP) {
+						return;
+					}
+					// if some thread crashed, the results are not used anyway
+					if (this.hadException.get() == null) {
+						try {
+							for (Plan plan : plans) {
+								this.planAlgo.run(plan);
+								this.counter.incCounter();
+							}
+						} catch (Throwable e) {
+							log.error("Thread " + Thread.currentThread().getName() + " crashed with exception. Will stop after all threads finished.", e);
+							this.hadException.compareAndSet(null, e);
+						}
+					}
+					if (this.pendingChunks.decrementAndGet() == 0) {
+						synchronized (this.pendingChunks) {
+							this.pendingChunks.notifyAll();
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				log.info("Thread " + Thread.currentThread().getName() + " was interrupted and stops.");
 			}
 		}
 	}
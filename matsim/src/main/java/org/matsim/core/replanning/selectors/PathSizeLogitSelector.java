@@ -21,9 +21,12 @@
 package org.matsim.core.replanning.selectors;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Link;
@@ -31,26 +34,32 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.PlanElement;
-import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.population.routes.NetworkRoute;
-import org.matsim.core.population.routes.RouteUtils;
-
-import javax.inject.Inject;
 
 /**
  * select an existing Plan according to the Path Size Logit (e.g. Frejinger, E. and Bierlaire, M.: Capturing Correlation
  * with subnetworks in route choice models, Transportation Research Part B (2006), doi:10.1016/j.trb.2006.06.003.)
  * If there are unscored plans one of it will be chosen randomly (optimistic strategy).
+ * <p></p>
+ * The links of every route are memorized as a sorted array of <code>int</code>s, so that the overlap of two routes
+ * can be computed by walking through both arrays once.  Such a fingerprint is kept as long as the route has the
+ * same links; it is thus only computed again for new or changed routes.
  *
  * @author laemmel
  */
 public final class PathSizeLogitSelector extends AbstractPlanSelector {
 
+	/** legs where the departure time differs more than this are not compared to each other */
+	private static final double TIME_WINDOW = 3600;
+
 	private final double pathSizeLogitExponent;
 	private final double logitScaleFactor;
 	private Network network;
 
+	private final Map<Id<Link>, Integer> linkIndices = new HashMap<>();
+	private final Map<NetworkRoute, RouteFingerprint> fingerprints = Collections.synchronizedMap(new WeakHashMap<NetworkRoute, RouteFingerprint>());
+
 	public PathSizeLogitSelector( final double pathSizeLogitExponent, final double logitScaleFactor, final Network network ) {
 		this.pathSizeLogitExponent = pathSizeLogitExponent ;
 		this.logitScaleFactor = logitScaleFactor ;
@@ -70,79 +79,62 @@ public final class PathSizeLogitSelector extends AbstractPlanSelector {
 
 		double maxScore = Double.NEGATIVE_INFINITY;
 
-		HashMap<Id<Link>, ArrayList<Double>> linksInTime = new HashMap<>();
-		// (a data structure that memorizes possible leg start times for link utilization (??))
-		
-		HashMap<Integer,Double> planLength = new HashMap<Integer, Double>();
-		// (a data structure that memorizes the total travel distance of each plan)
-		// (yyyy is it obvious that no two plans can have the same hash code?  what happens if they do?  kai, oct'12)
-		// (why not just <Plan,Double>?????)
-		
 		//this gets the choice sets C_n
 		//TODO [GL] since the lack of information in Route(),
 		//the very first and the very last link of a path will be ignored - gl
 		//dg, 09-2013: as first and last link are equal for all routes between to activities this is no major issue
 
-		for (Plan plan : plans) {
-
+		List<RouteFingerprint> legRoutes = new ArrayList<>();
+		List<Double> legDepartureTimes = new ArrayList<>();
+		int[] firstLegOfPlan = new int[plans.size() + 1];
+		for (int p = 0; p < plans.size(); p++) {
+			Plan plan = plans.get(p);
 			if (plan.getScore() > maxScore) maxScore = plan.getScore();
 
-			double pathSize = 0;
-			double currentEndTime = 0.0;
+			firstLegOfPlan[p] = legRoutes.size();
 			for (PlanElement pe : plan.getPlanElements()) {
 				if (pe instanceof Leg) {
 					Leg leg = (Leg) pe;
-					currentEndTime = leg.getDepartureTime();
-
-					NetworkRoute r = (NetworkRoute) leg.getRoute();
+					legRoutes.add(getFingerprint((NetworkRoute) leg.getRoute()));
 					// (yyyy this will fail when the route is not a network route.  kai, oct'12)
-
-					pathSize += RouteUtils.calcDistanceExcludingStartEndLink(r, network);
-					// (i.e. pathSize will be the sum over all routes of the plan)
-					
-					for (Id<Link> linkId : r.getLinkIds()){
-						ArrayList<Double> lit = linksInTime.get(linkId);
-						if (lit == null){
-							lit = new ArrayList<Double>();
-							linksInTime.put(linkId, lit);
-						}
-						lit.add(currentEndTime);
-					}
+					legDepartureTimes.add(leg.getDepartureTime());
 				}
 			}
-			planLength.put(plan.hashCode(), pathSize);
 		}
+		firstLegOfPlan[plans.size()] = legRoutes.size();
 
-		for (Plan plan : plans) {
+		for (int p = 0; p < plans.size(); p++) {
+			Plan plan = plans.get(p);
 
 			double tmp = 0;
-			for (PlanElement pe : plan.getPlanElements()) {
-				if (pe instanceof Leg) {
-					Leg leg = (Leg) pe;
-					double currentTime = leg.getDepartureTime();
-					NetworkRoute route = (NetworkRoute) leg.getRoute();
-					for (Id<Link> linkId : route.getLinkIds()){
-						double denominator = 0;
-						for (double dbl : linksInTime.get(linkId)){
-							//TODO this is just for testing (those legs where the departure time differs more then 3600 seconds will not compared to each other) - need a
-							//little bit to brood on it - gl
-							// An alternative might be to use a kernal, e.g. a Gaussian.  Something like
-							// denominator += exp( (dbl-currentTime)^2 / sigma^2 ) .  kai, oct'12
-							if (Math.abs(dbl - currentTime) <= 3600)
-								denominator++;
-						}
-						// (the meaning seems to be: for each link that the plan uses, it checks how many other times the
-						// same link is used by a leg that has roughly the same departure time (*))
-
-						Link link = network.getLinks().get(linkId);
-						tmp += link.getLength() / denominator;
-						// (for a plan, the weight of a link is divided by the number of times it is used)
+			double planLength = 0;
+			for (int a = firstLegOfPlan[p]; a < firstLegOfPlan[p + 1]; a++) {
+				RouteFingerprint route = legRoutes.get(a);
+				double currentTime = legDepartureTimes.get(a);
+
+				// for each link of the route, count how many times the same link is used by a leg that has roughly the same
+				// departure time (including this leg itself):
+				int[] denominators = new int[route.sortedLinks.length];
+				for (int b = 0; b < legRoutes.size(); b++) {
+					//TODO this is just for testing (those legs where the departure time differs more then 3600 seconds will not compared to each other) - need a
+					//little bit to brood on it - gl
+					// An alternative might be to use a kernal, e.g. a Gaussian.  Something like
+					// denominator += exp( (dbl-currentTime)^2 / sigma^2 ) .  kai, oct'12
+					if (Math.abs(legDepartureTimes.get(b) - currentTime) <= TIME_WINDOW) {
+						route.addOverlap(legRoutes.get(b), denominators);
 					}
 				}
+
+				// (for a plan, the weight of a link is divided by the number of times it is used)
+				for (int i = 0; i < route.lengths.length; i++) {
+					tmp += route.lengths[i] / denominators[route.sortedPositions[i]];
+				}
+				planLength += route.totalLength;
+				// (i.e. planLength will be the sum over all routes of the plan)
 			}
 			// tmp is now a number that contains the ``reduced'' travel distance of the plan.  Divide it by the full travel distance
 			// of the plan, and take to the power of this.beta:
-			double PSi = Math.pow(tmp/planLength.get(plan.hashCode()), this.pathSizeLogitExponent);
+			double PSi = Math.pow(tmp/planLength, this.pathSizeLogitExponent);
 			
 			double weight;
 			if (Double.isInfinite(maxScore)) {
@@ -171,4 +163,100 @@ public final class PathSizeLogitSelector extends AbstractPlanSelector {
 		return weights ;
 	}
 
+	private RouteFingerprint getFingerprint(final NetworkRoute route) {
+		List<Id<Link>> linkIds = route.getLinkIds();
+		RouteFingerprint fingerprint = this.fingerprints.get(route);
+		if (fingerprint == null || !fingerprint.hasLinks(linkIds)) {
+			fingerprint = createFingerprint(linkIds);
+			this.fingerprints.put(route, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	private RouteFingerprint createFingerprint(final List<Id<Link>> linkIds) {
+		int n = linkIds.size();
+		List<Id<Link>> links = new ArrayList<>(linkIds);
+		double[] lengths = new double[n];
+		long[] keys = new long[n];
+		synchronized (this.linkIndices) {
+			for (int i = 0; i < n; i++) {
+				Integer index = this.linkIndices.get(links.get(i));
+				if (index == null) {
+					index = this.linkIndices.size();
+					this.linkIndices.put(links.get(i), index);
+				}
+				keys[i] = ((long) index << 32) | i;
+			}
+		}
+		double totalLength = 0;
+		for (int i = 0; i < n; i++) {
+			lengths[i] = this.network.getLinks().get(links.get(i)).getLength();
+			totalLength += lengths[i];
+		}
+		// sort by link index, remembering where each link of the route ended up:
+		Arrays.sort(keys);
+		int[] sortedLinks = new int[n];
+		int[] sortedPositions = new int[n];
+		for (int i = 0; i < n; i++) {
+			sortedLinks[i] = (int) (keys[i] >>> 32);
+			sortedPositions[(int) keys[i]] = i;
+		}
+		return new RouteFingerprint(links, lengths, totalLength, sortedLinks, sortedPositions);
+	}
+
+	private static final class RouteFingerprint {
+		/** the links in the order of the route, to find out whether the route has changed */
+		final List<Id<Link>> links;
+		/** the lengths of the links, in the order of the route */
+		final double[] lengths;
+		/** the length of the route, excluding start and end link */
+		final double totalLength;
+		/** the indices of the links, sorted */
+		final int[] sortedLinks;
+		/** for each link of the route, its position in sortedLinks */
+		final int[] sortedPositions;
+
+		RouteFingerprint(final List<Id<Link>> links, final double[] lengths, final double totalLength, final int[] sortedLinks,
+				final int[] sortedPositions) {
+			this.links = links;
+			this.lengths = lengths;
+			this.totalLength = totalLength;
+			this.sortedLinks = sortedLinks;
+			this.sortedPositions = sortedPositions;
+		}
+
+		boolean hasLinks(final List<Id<Link>> linkIds) {
+			return this.links.equals(linkIds);
+		}
+
+		/**
+		 * Adds to each entry in <code>counts</code> how often the corresponding link in {@link #sortedLinks} is used by
+		 * the other route.
+		 */
+		void addOverlap(final RouteFingerprint other, final int[] counts) {
+			int[] mine = this.sortedLinks;
+			int[] theirs = other.sortedLinks;
+			int i = 0;
+			int j = 0;
+			while (i < mine.length && j < theirs.length) {
+				if (mine[i] < theirs[j]) {
+					i++;
+				} else if (mine[i] > theirs[j]) {
+					j++;
+				} else {
+					int link = mine[i];
+					int occurrences = 0;
+					while (j < theirs.length && theirs[j] == link) {
+						occurrences++;
+						j++;
+					}
+					while (i < mine.length && mine[i] == link) {
+						counts[i] += occurrences;
+						i++;
+					}
+				}
+			}
+		}
+	}
+
 }
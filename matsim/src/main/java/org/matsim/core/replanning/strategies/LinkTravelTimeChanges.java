@@ -0,0 +1,126 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.replanning.strategies;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Memorizes the travel times of all links at some times of the day, and finds the links where they changed by more
+ * than a relative threshold since the last {@link #update()}.  Plans are then looked up link by link against the
+ * changed links.
+ */
+/* package */ final class LinkTravelTimeChanges {
+
+	private final TravelTime travelTime;
+	private final double threshold;
+	private final double sampleInterval;
+	private final int numberOfSamples;
+	private final Link[] links;
+	private final Map<Id<Link>, Integer> linkIndices = new HashMap<>();
+
+	private float[] previousTravelTimes = null;
+	private final BitSet changedLinks = new BitSet();
+
+	/**
+	 * @param threshold relative change of the travel time above which a link counts as changed
+	 * @param sampleInterval the travel times are compared every <code>sampleInterval</code> seconds
+	 * @param maxTime the travel times are compared up to this time of day
+	 */
+	LinkTravelTimeChanges(final Network network, final TravelTime travelTime, final double threshold,
+			final double sampleInterval, final double maxTime) {
+		this.travelTime = travelTime;
+		this.threshold = threshold;
+		this.sampleInterval = sampleInterval;
+		this.numberOfSamples = Math.max(1, (int) Math.ceil(maxTime / sampleInterval));
+		this.links = network.getLinks().values().toArray(new Link[network.getLinks().size()]);
+		for (int i = 0; i < this.links.length; i++) {
+			this.linkIndices.put(this.links[i].getId(), i);
+		}
+	}
+
+	/**
+	 * Reads the current travel times and compares them to the ones of the last call.  After the first call, all links
+	 * count as changed.
+	 */
+	void update() {
+		float[] travelTimes = new float[this.links.length * this.numberOfSamples];
+		this.changedLinks.clear();
+		for (int l = 0; l < this.links.length; l++) {
+			for (int s = 0; s < this.numberOfSamples; s++) {
+				int pos = l * this.numberOfSamples + s;
+				travelTimes[pos] = (float) this.travelTime.getLinkTravelTime(this.links[l], s * this.sampleInterval, null, null);
+				if (this.previousTravelTimes == null
+						|| Math.abs(travelTimes[pos] - this.previousTravelTimes[pos]) > this.threshold * this.previousTravelTimes[pos]) {
+					this.changedLinks.set(l);
+				}
+			}
+		}
+		this.previousTravelTimes = travelTimes;
+	}
+
+	int getNumberOfChangedLinks() {
+		return this.changedLinks.cardinality();
+	}
+
+	boolean isChanged(final Id<Link> linkId) {
+		Integer index = this.linkIndices.get(linkId);
+		return index == null || this.changedLinks.get(index);
+	}
+
+	/**
+	 * @return <code>true</code> if the plan has a leg without route, or a network route using a changed link.
+	 * Other routes are assumed not to depend on the link travel times.
+	 */
+	boolean isAffected(final Plan plan) {
+		for (PlanElement pe : plan.getPlanElements()) {
+			if (pe instanceof Leg) {
+				Route route = ((Leg) pe).getRoute();
+				if (route == null) {
+					return true;
+				}
+				if (route instanceof NetworkRoute) {
+					for (Id<Link> linkId : ((NetworkRoute) route).getLinkIds()) {
+						if (isChanged(linkId)) {
+							return true;
+						}
+					}
+					if (isChanged(route.getEndLinkId())) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,167 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.replanning.strategies;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.HasPlansAndId;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.StrategyConfigGroup;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.gbl.MatsimRandom;
+import org.matsim.core.replanning.PlanStrategy;
+import org.matsim.core.replanning.PlanStrategyImpl;
+import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.replanning.ShutdownableStrategy;
+import org.matsim.core.replanning.modules.ReRoute;
+import org.matsim.core.replanning.selectors.PlanSelector;
+import org.matsim.core.replanning.selectors.RandomPlanSelector;
+import org.matsim.core.router.TripRouter;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.facilities.ActivityFacilities;
+
+/**
+ * Like {@link org.matsim.core.replanning.strategies.ReRoute}, but only reroutes plans which use at least one link where the
+ * car travel time changed by more than {@link StrategyConfigGroup#getIncrementalReRouteThreshold()} since the last
+ * iteration.  If a person has no such plan, a random plan is selected without copying and rerouting it, as the
+ * new route would most likely be the same.
+ */
+public class ReRouteIncremental implements Provider<PlanStrategy> {
+
+	@Inject private GlobalConfigGroup globalConfigGroup;
+	@Inject private StrategyConfigGroup strategyConfigGroup;
+	@Inject private TravelTimeCalculatorConfigGroup travelTimeCalculatorConfigGroup;
+	@Inject private ActivityFacilities facilities;
+	@Inject private Provider<TripRouter> tripRouterProvider;
+	@Inject private Network network;
+	@Inject private Map<String, TravelTime> travelTimes;
+
+	@Override
+	public PlanStrategy get() {
+		TravelTime travelTime = this.travelTimes.get(TransportMode.car);
+		if (travelTime == null) {
+			throw new RuntimeException("ReRouteIncremental needs the travel times of mode " + TransportMode.car);
+		}
+		// comparing the travel times more often than every hour does not add much, but costs a lot of memory
+		double sampleInterval = Math.max(this.travelTimeCalculatorConfigGroup.getTraveltimeBinSize(), 3600);
+		LinkTravelTimeChanges changes = new LinkTravelTimeChanges(this.network, travelTime,
+				this.strategyConfigGroup.getIncrementalReRouteThreshold(), sampleInterval, this.travelTimeCalculatorConfigGroup.getMaxTime());
+
+		PlanStrategy reRoute = new PlanStrategyImpl.Builder(new AffectedPlanSelector(changes))
+				.addStrategyModule(new ReRoute(this.facilities, this.tripRouterProvider, this.globalConfigGroup))
+				.build();
+		PlanStrategy selectOnly = new PlanStrategyImpl.Builder(new RandomPlanSelector<Plan, Person>()).build();
+		return new IncrementalReRouteStrategy(changes, reRoute, selectOnly);
+	}
+
+	/* package */ static final class IncrementalReRouteStrategy implements PlanStrategy, ShutdownableStrategy {
+		private static final Logger log = Logger.getLogger(IncrementalReRouteStrategy.class);
+
+		private final LinkTravelTimeChanges changes;
+		private final PlanStrategy reRoute;
+		private final PlanStrategy selectOnly;
+
+		IncrementalReRouteStrategy(final LinkTravelTimeChanges changes, final PlanStrategy reRoute, final PlanStrategy selectOnly) {
+			this.changes = changes;
+			this.reRoute = reRoute;
+			this.selectOnly = selectOnly;
+		}
+
+		@Override
+		public void init(final ReplanningContext replanningContext) {
+			this.changes.update();
+			log.info(this.changes.getNumberOfChangedLinks() + " links with changed travel times.");
+			this.reRoute.init(replanningContext);
+			this.selectOnly.init(replanningContext);
+		}
+
+		@Override
+		public void run(final HasPlansAndId<Plan, Person> person) {
+			for (Plan plan : person.getPlans()) {
+				if (this.changes.isAffected(plan)) {
+					this.reRoute.run(person);
+					return;
+				}
+			}
+			this.selectOnly.run(person);
+		}
+
+		@Override
+		public void finish() {
+			this.reRoute.finish();
+			this.selectOnly.finish();
+		}
+
+		@Override
+		public void shutdown() {
+			// the ReRoute module of the wrapped strategy keeps its threads until it is shut down
+			shutdown(this.reRoute);
+			shutdown(this.selectOnly);
+		}
+
+		private static void shutdown(final PlanStrategy strategy) {
+			if (strategy instanceof ShutdownableStrategy) {
+				((ShutdownableStrategy) strategy).shutdown();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "ReRouteIncremental";
+		}
+	}
+
+	/**
+	 * Selects one of the plans using a changed link at random.
+	 */
+	private static final class AffectedPlanSelector implements PlanSelector<Plan, Person> {
+		private final LinkTravelTimeChanges changes;
+
+		AffectedPlanSelector(final LinkTravelTimeChanges changes) {
+			this.changes = changes;
+		}
+
+		@Override
+		public Plan selectPlan(final HasPlansAndId<Plan, Person> person) {
+			List<Plan> affected = new ArrayList<>();
+			for (Plan plan : person.getPlans()) {
+				if (this.changes.isAffected(plan)) {
+					affected.add(plan);
+				}
+			}
+			if (affected.isEmpty()) {
+				return null;
+			}
+			return affected.get(MatsimRandom.getRandom().nextInt(affected.size()));
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+import org.matsim.core.config.groups.PlansCalcRouteConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.router.util.LeastCostPathCache;
+
+/**
+ * Holds one {@link LeastCostPathCache} per routing mode, shared by all routing threads.  Since the travel times
+ * the cached paths were computed with change between iterations, all caches are cleared at iteration start.
+ */
+public final class LeastCostPathCaches implements IterationStartsListener {
+	private static final Logger log = Logger.getLogger(LeastCostPathCaches.class);
+
+	private final Map<String, LeastCostPathCache> caches = new ConcurrentHashMap<>();
+	private final int maxSize;
+	private final double timeBinSize;
+
+	@Inject
+	LeastCostPathCaches(final PlansCalcRouteConfigGroup config) {
+		this.maxSize = config.getRouteCacheSize();
+		this.timeBinSize = config.getRouteCacheTimeBinSize();
+	}
+
+	/**
+	 * @return the cache for the given routing mode, or <code>null</code> if route caching is switched off
+	 */
+	public LeastCostPathCache getCache(final String routingMode) {
+		if (this.maxSize <= 0) {
+			return null;
+		}
+		return this.caches.computeIfAbsent(routingMode, m -> new LeastCostPathCache(this.maxSize, this.timeBinSize));
+	}
+
+	@Override
+	public void notifyIterationStarts(final IterationStartsEvent event) {
+		for (Map.Entry<String, LeastCostPathCache> e : this.caches.entrySet()) {
+			LeastCostPathCache cache = e.getValue();
+			if (cache.getHits() + cache.getMisses() > 0) {
+				log.info("route cache for mode " + e.getKey() + ": size=" + cache.size() + " hits=" + cache.getHits()
+						+ " misses=" + cache.getMisses() + " evictions=" + cache.getEvictions()
+						+ " hitRate=" + cache.getHitRate());
+			}
+			cache.clear();
+			cache.resetStatistics();
+		}
+	}
+
+}
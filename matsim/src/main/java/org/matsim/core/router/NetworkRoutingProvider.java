@@ -8,6 +8,8 @@ import org.matsim.core.config.groups.PlansCalcRouteConfigGroup;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
 import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
+import org.matsim.core.router.util.CachingLeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCache;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.TravelTime;
@@ -42,6 +44,9 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 
 	@Inject
     LeastCostPathCalculatorFactory leastCostPathCalculatorFactory;
+
+	@Inject
+	LeastCostPathCaches leastCostPathCaches;
 	
 	/**
 	 * This is the older (and still more standard) constructor, where the routingMode and the resulting mode were the
@@ -106,6 +111,12 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 						travelDisutilityFactory.createTravelDisutility(travelTime),
 						travelTime);
 
+		// the cache also refers to the routing mode, since this is what determines the travel times:
+		LeastCostPathCache cache = leastCostPathCaches.getCache(routingMode);
+		if (cache != null) {
+			routeAlgo = new CachingLeastCostPathCalculator(routeAlgo, cache);
+		}
+
 		// the following again refers to the (transport)mode, since it will determine the mode of the leg on the network:
 		if ( plansCalcRouteConfigGroup.isInsertingAccessEgressWalk() ) {
 			return DefaultRoutingModules.createAccessEgressNetworkRouter(mode, populationFactory, filteredNetwork, routeAlgo,
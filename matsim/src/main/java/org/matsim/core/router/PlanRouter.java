@@ -33,6 +33,7 @@ import org.matsim.core.population.algorithms.PersonAlgorithm;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.router.TripStructureUtils.Trip;
+import org.matsim.core.utils.metrics.FlightRecorderEvents;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.facilities.ActivityFacilities;
 import org.matsim.facilities.Facility;
@@ -84,6 +85,7 @@ public class PlanRouter implements PlanAlgorithm, PersonAlgorithm {
 
 	@Override
 	public void run(final Plan plan) {
+		FlightRecorderEvents.Span span = FlightRecorderEvents.PLAN_ROUTING.begin();
 		final List<Trip> trips = TripStructureUtils.getTrips( plan , tripRouter.getStageActivityTypes() );
 
 		for (Trip oldTrip : trips) {
@@ -101,6 +103,7 @@ public class PlanRouter implements PlanAlgorithm, PersonAlgorithm {
 					newTrip,
 					oldTrip.getDestinationActivity());
 		}
+		if ( span != null ) span.end( plan.getPerson() == null ? null : plan.getPerson().getId().toString(), trips.size() );
 	}
 
 	/**
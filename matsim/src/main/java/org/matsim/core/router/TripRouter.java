@@ -38,6 +38,7 @@ import org.matsim.core.api.internal.MatsimExtensionPoint;
 import org.matsim.core.config.Config;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.facilities.Facility;
 
@@ -62,6 +63,7 @@ public final class TripRouter implements MatsimExtensionPoint {
 	private static final Logger log = Logger.getLogger(TripRouter.class );
 	
 	private final Map<String, RoutingModule> routingModules = new HashMap<>();
+	private final Map<String, MetricsRegistry.Timer> routingTimers = new HashMap<>();
 	
 	private final CompositeStageActivityTypes checker = new CompositeStageActivityTypes();
 
@@ -219,12 +221,16 @@ public final class TripRouter implements MatsimExtensionPoint {
 		RoutingModule module = routingModules.get( mainMode );
 		
 		if (module != null) {
+			MetricsRegistry.Timer timer = routingTimers.computeIfAbsent( mainMode,
+					mode -> MetricsRegistry.getInstance().timer( "routing."+mode ) );
+			long start = timer.start();
 			final List<? extends PlanElement> trip =
 					module.calcRoute(
 						fromFacility,
 						toFacility,
 						departureTime,
 						person);
+			timer.stop( start );
 
 			if ( trip == null ) {
 				throw new NullPointerException( "Routing module "+module+" returned a null Trip for main mode "+mainMode );
@@ -0,0 +1,62 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.util;
+
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Wraps any {@link LeastCostPathCalculator} and memoizes its results in a {@link LeastCostPathCache}.
+ * <p></p>
+ * Note that the cache key consists of the from node, the to node and the departure time bin only.  Person and vehicle
+ * are ignored, i.e. if the travel disutility is person-specific (e.g. randomized), all persons with the same origin,
+ * destination and departure time bin will get the route of whoever asked first.
+ * <p></p>
+ * The wrapped calculator is typically not thread-safe, so there should be one instance of this class per routing thread,
+ * while the cache itself can be shared.
+ */
+public final class CachingLeastCostPathCalculator implements LeastCostPathCalculator {
+
+	private final LeastCostPathCalculator delegate;
+	private final LeastCostPathCache cache;
+
+	public CachingLeastCostPathCalculator(final LeastCostPathCalculator delegate, final LeastCostPathCache cache) {
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+
+	@Override
+	public Path calcLeastCostPath(final Node fromNode, final Node toNode, final double starttime, final Person person, final Vehicle vehicle) {
+		Path path = this.cache.get(fromNode, toNode, starttime);
+		if (path == null) {
+			path = this.delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+			if (path != null) {
+				this.cache.put(fromNode, toNode, starttime, path);
+			}
+		}
+		return path;
+	}
+
+	public LeastCostPathCache getCache() {
+		return this.cache;
+	}
+
+}
@@ -0,0 +1,206 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+
+/**
+ * A thread-safe, size-bounded cache of least cost paths, keyed by (from node, to node, departure time bin).
+ * <p></p>
+ * The cache is split into a number of segments, each of which is a small LRU map guarded by its own lock, so
+ * that routing threads sharing one cache do not all contend for the same monitor.  When a segment is full,
+ * its least recently used entry is evicted.
+ * <p></p>
+ * Cached paths are shared between all callers and must be treated as read-only.  The cache does not know
+ * when the underlying travel times change; whoever owns it needs to call {@link #clear()} in that case.
+ *
+ * @see CachingLeastCostPathCalculator
+ */
+public final class LeastCostPathCache {
+
+	private static final int N_SEGMENTS = 16;
+
+	private final double timeBinSize;
+	private final Segment[] segments;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	/**
+	 * @param maxSize the maximum number of paths kept in the cache (approximately, since it is split into segments)
+	 * @param timeBinSize departure times within the same bin of this size (in seconds) share the same cache entry
+	 */
+	public LeastCostPathCache(final int maxSize, final double timeBinSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive, but is " + maxSize);
+		}
+		if (timeBinSize <= 0) {
+			throw new IllegalArgumentException("timeBinSize must be positive, but is " + timeBinSize);
+		}
+		this.timeBinSize = timeBinSize;
+		int segmentSize = Math.max(1, maxSize / N_SEGMENTS);
+		this.segments = new Segment[N_SEGMENTS];
+		for (int i = 0; i < N_SEGMENTS; i++) {
+			this.segments[i] = new Segment(segmentSize);
+		}
+	}
+
+	/**
+	 * @return the cached path, or <code>null</code> if there is none
+	 */
+	public Path get(final Node fromNode, final Node toNode, final double departureTime) {
+		Key key = new Key(fromNode.getId(), toNode.getId(), getTimeBin(departureTime));
+		Segment segment = getSegment(key);
+		Path path;
+		synchronized (segment) {
+			path = segment.get(key);
+		}
+		if (path == null) {
+			this.misses.incrementAndGet();
+		} else {
+			this.hits.incrementAndGet();
+		}
+		return path;
+	}
+
+	public void put(final Node fromNode, final Node toNode, final double departureTime, final Path path) {
+		Key key = new Key(fromNode.getId(), toNode.getId(), getTimeBin(departureTime));
+		Segment segment = getSegment(key);
+		synchronized (segment) {
+			segment.put(key, path);
+		}
+	}
+
+	/**
+	 * Removes all cached paths.  The statistics are <em>not</em> reset, see {@link #resetStatistics()} for that.
+	 */
+	public void clear() {
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : this.segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	/**
+	 * @return the share of lookups that could be answered from the cache, or 0 if there were no lookups yet
+	 */
+	public double getHitRate() {
+		long h = this.hits.get();
+		long total = h + this.misses.get();
+		return total == 0 ? 0.0 : (double) h / total;
+	}
+
+	public void resetStatistics() {
+		this.hits.set(0);
+		this.misses.set(0);
+		this.evictions.set(0);
+	}
+
+	private int getTimeBin(final double time) {
+		return (int) (time / this.timeBinSize);
+	}
+
+	private Segment getSegment(final Key key) {
+		int h = key.hashCode();
+		h ^= (h >>> 16);
+		return this.segments[h & (N_SEGMENTS - 1)];
+	}
+
+	private final class Segment extends LinkedHashMap<Key, Path> {
+		private static final long serialVersionUID = 1L;
+		private final int maxSize;
+
+		Segment(final int maxSize) {
+			super(16, 0.75f, true); // access order, i.e. LRU
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<Key, Path> eldest) {
+			if (size() > this.maxSize) {
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private static final class Key {
+		private final Id<Node> fromNodeId;
+		private final Id<Node> toNodeId;
+		private final int timeBin;
+		private final int hash;
+
+		Key(final Id<Node> fromNodeId, final Id<Node> toNodeId, final int timeBin) {
+			this.fromNodeId = fromNodeId;
+			this.toNodeId = toNodeId;
+			this.timeBin = timeBin;
+			this.hash = 31 * (31 * fromNodeId.hashCode() + toNodeId.hashCode()) + timeBin;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.timeBin == other.timeBin && this.fromNodeId.equals(other.fromNodeId) && this.toNodeId.equals(other.toNodeId);
+		}
+	}
+
+}
@@ -33,6 +33,7 @@ import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.io.PopulationReader;
 import org.matsim.core.utils.io.IOUtils;
 import org.matsim.core.utils.io.UncheckedIOException;
+import org.matsim.facilities.FacilitiesUtils;
 import org.matsim.facilities.MatsimFacilitiesReader;
 import org.matsim.households.HouseholdsReaderV10;
 import org.matsim.lanes.LanesReader;
@@ -41,7 +42,12 @@ import org.matsim.utils.objectattributes.AttributeConverter;
 import org.matsim.utils.objectattributes.ObjectAttributesXmlReader;
 import org.matsim.vehicles.VehicleReaderV1;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -75,6 +81,9 @@ class ScenarioLoaderImpl {
 
 	private Map<Class<?>, AttributeConverter<?>> attributeConverters = Collections.emptyMap();
 
+	/** true if network, facilities and population were read from the scenario snapshot instead of from their files */
+	private boolean loadedFromSnapshot = false;
+
 	@Inject
 	public void setAttributeConverters(Map<Class<?>, AttributeConverter<?>> attributeConverters) {
 		log.debug( "setting "+attributeConverters );
@@ -103,9 +112,18 @@ class ScenarioLoaderImpl {
 //		log.info("loading scenario from base directory: " + currentDir);
 		// the above is not used and thus only causing confusion in the log output.  kai, sep'18
 
+		Path snapshotFile = this.getScenarioSnapshotFile();
+		byte[] snapshotHash = null;
+		if (snapshotFile != null) {
+			snapshotHash = ScenarioSnapshot.computeHash(this.config);
+			this.loadedFromSnapshot = this.readScenarioSnapshot(snapshotFile, snapshotHash);
+		}
 		this.loadNetwork();
 		this.loadActivityFacilities();
 		this.loadPopulation();
+		if (snapshotFile != null && !this.loadedFromSnapshot) {
+			this.writeScenarioSnapshot(snapshotFile, snapshotHash);
+		}
 		this.loadHouseholds(); // tests internally if the file is there
 		this.loadTransit(); // tests internally if the file is there
 		this.loadTransitVehicles(); // tests internally if the file is there
@@ -118,22 +136,70 @@ class ScenarioLoaderImpl {
 		return this.scenario;
 	}
 
+	private Path getScenarioSnapshotFile() {
+		String filename = this.config.global().getScenarioSnapshotFile();
+		if (filename == null) {
+			return null;
+		}
+		URL url = ConfigGroup.getInputFileURL(this.config.getContext(), filename);
+		try {
+			return Paths.get(url.toURI());
+		} catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+			log.warn("scenario snapshot " + url + " is not a local file, not using it.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * The snapshot is only a cache: if it cannot be read, the input files are read instead and the snapshot is replaced.
+	 */
+	private boolean readScenarioSnapshot(final Path snapshotFile, final byte[] hash) {
+		log.info("loading network, facilities and population from scenario snapshot " + snapshotFile);
+		try {
+			boolean loaded = new ScenarioSnapshot(this.attributeConverters).read(snapshotFile, hash, this.scenario);
+			if (loaded) {
+				log.info("scenario snapshot loaded.");
+			}
+			return loaded;
+		} catch (IOException | RuntimeException e) {
+			log.warn("could not read scenario snapshot " + snapshotFile + ", reading the input files instead. " +
+					"The snapshot will be replaced.", e);
+			// start again with empty containers, as the snapshot may have been read partly
+			this.scenario.setNetwork(NetworkUtils.createNetwork(this.config));
+			this.scenario.setActivityFacilities(FacilitiesUtils.createActivityFacilities());
+			this.scenario.setPopulation(PopulationUtils.createPopulation(this.config, this.scenario.getNetwork()));
+			return false;
+		}
+	}
+
+	private void writeScenarioSnapshot(final Path snapshotFile, final byte[] hash) {
+		log.info("writing scenario snapshot " + snapshotFile);
+		try {
+			new ScenarioSnapshot(this.attributeConverters).write(snapshotFile, hash, this.scenario);
+		} catch (IOException e) {
+			// the scenario is loaded anyway, the next run will just have to read the input files again
+			log.warn("could not write scenario snapshot " + snapshotFile, e);
+		}
+	}
+
 	/**
 	 * Loads the network into the scenario of this class
 	 */
 	private void loadNetwork() {
 		if ((this.config.network() != null) && (this.config.network().getInputFile() != null)) {
-			URL networkUrl = this.config.network().getInputFileURL(this.config.getContext());
-			log.info("loading network from " + networkUrl);
-			String inputCRS = config.network().getInputCRS();
-
-			MatsimNetworkReader reader =
-					new MatsimNetworkReader(
-							inputCRS,
-							config.global().getCoordinateSystem(),
-							this.scenario.getNetwork());
-            reader.putAttributeConverters( attributeConverters );
-            reader.parse(networkUrl);
+			if (!this.loadedFromSnapshot) {
+				URL networkUrl = this.config.network().getInputFileURL(this.config.getContext());
+				log.info("loading network from " + networkUrl);
+				String inputCRS = config.network().getInputCRS();
+
+				MatsimNetworkReader reader =
+						new MatsimNetworkReader(
+								inputCRS,
+								config.global().getCoordinateSystem(),
+								this.scenario.getNetwork());
+				reader.putAttributeConverters( attributeConverters );
+				reader.parse(networkUrl);
+			}
 
 			if ((this.config.network().getChangeEventsInputFile()!= null) && this.config.network().isTimeVariantNetwork()) {
 				log.info("loading network change events from " + this.config.network().getChangeEventsInputFileUrl(this.config.getContext()).getFile());
@@ -147,19 +213,22 @@ class ScenarioLoaderImpl {
 	}
 
 	private void loadActivityFacilities() {
-		if ((this.config.facilities() != null) && (this.config.facilities().getInputFile() != null)) {
+		if ((this.config.facilities() != null) && (this.config.facilities().getInputFile() != null) && !this.loadedFromSnapshot) {
 			URL facilitiesFileName = this.config.facilities().getInputFileURL(config.getContext());
 			log.info("loading facilities from " + facilitiesFileName);
 
 			final String inputCRS = config.facilities().getInputCRS();
 			final String internalCRS = config.global().getCoordinateSystem();
 
-            MatsimFacilitiesReader reader = new MatsimFacilitiesReader(inputCRS, internalCRS, this.scenario.getActivityFacilities());
+            MatsimFacilitiesReader reader = new MatsimFacilitiesReader(inputCRS, internalCRS, this.scenario.getActivityFacilities(), config.global().getNumberOfThreads());
             reader.putAttributeConverters(attributeConverters);
             reader.parse(facilitiesFileName);
 
 			log.info("loaded " + this.scenario.getActivityFacilities().getFacilities().size() + " facilities from " + facilitiesFileName);
 		}
+		else if (this.loadedFromSnapshot) {
+			log.info("loaded " + this.scenario.getActivityFacilities().getFacilities().size() + " facilities from the scenario snapshot");
+		}
 		else {
 			log.info("no facilities file set in config, therefore not loading any facilities.  This is not a problem except if you are using facilities");
 		}
@@ -176,7 +245,10 @@ class ScenarioLoaderImpl {
 	}
 
 	private void loadPopulation() {
-		if ((this.config.plans() != null) && (this.config.plans().getInputFile() != null)) {
+		if (this.loadedFromSnapshot) {
+			PopulationUtils.printPlansCount(this.scenario.getPopulation()) ;
+		}
+		else if ((this.config.plans() != null) && (this.config.plans().getInputFile() != null)) {
 			URL populationFileName = this.config.plans().getInputFileURL(this.config.getContext());
 			log.info("loading population from " + populationFileName);
 
@@ -209,7 +281,7 @@ class ScenarioLoaderImpl {
 		if ( (this.config.households() != null) && (this.config.households().getInputFile() != null) ) {
 			URL householdsFile = this.config.households().getInputFileURL(this.config.getContext());
 			log.info("loading households from " + householdsFile);
-			new HouseholdsReaderV10(this.scenario.getHouseholds()).parse(householdsFile);
+			new HouseholdsReaderV10(this.scenario.getHouseholds(), this.config.global().getNumberOfThreads()).parse(householdsFile);
 			log.info("households loaded.");
 		}
 		else {
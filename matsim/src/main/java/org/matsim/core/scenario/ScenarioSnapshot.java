@@ -0,0 +1,686 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.scenario;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteFactories;
+import org.matsim.core.utils.io.UncheckedIOException;
+import org.matsim.facilities.ActivityFacilities;
+import org.matsim.facilities.ActivityFacilitiesFactory;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.facilities.ActivityFacilityImpl;
+import org.matsim.facilities.ActivityOption;
+import org.matsim.facilities.OpeningTime;
+import org.matsim.facilities.OpeningTimeImpl;
+import org.matsim.utils.objectattributes.AttributeConverter;
+import org.matsim.utils.objectattributes.ObjectAttributesConverter;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Stores network, facilities and population of a scenario in a compact binary file, so that later runs with the
+ * same input files do not need to parse the xml files again.
+ * <p></p>
+ * The snapshot starts with a hash over the content of the input files and the settings that influence how they
+ * are read (see {@link #computeHash(Config)}), and is only used if that hash still matches.  All strings (ids,
+ * modes, activity types, ...) are stored once in a string table which is built while writing, and are afterwards
+ * referenced by their index.  Network routes store their links as such indices instead of as route description.
+ * The file is read through memory mapping.
+ * <p></p>
+ * Attribute values are stored as strings, using the same converters as the xml readers and writers.
+ * The transit schedule, households, vehicles and lanes are not part of the snapshot.
+ */
+/* package */ final class ScenarioSnapshot {
+	private static final Logger log = Logger.getLogger(ScenarioSnapshot.class);
+
+	private static final int MAGIC = 0x4d415453; // "MATS"
+	private static final int VERSION = 3;
+
+	private static final int NULL_STRING = -1;
+	private static final int NEW_STRING = -2;
+
+	private static final byte ACTIVITY = 0;
+	private static final byte LEG = 1;
+
+	private static final byte NO_ROUTE = 0;
+	private static final byte GENERIC_ROUTE = 1;
+	private static final byte NETWORK_ROUTE = 2;
+
+	private final ObjectAttributesConverter attributesConverter;
+
+	private DataOutputStream out;
+	private Map<String, Integer> writtenStrings;
+	private DataInputStream in;
+	private List<String> readStrings;
+
+	ScenarioSnapshot(final Map<Class<?>, AttributeConverter<?>> attributeConverters) {
+		this.attributesConverter = new ObjectAttributesConverter(attributeConverters);
+	}
+
+	/**
+	 * @return a hash over the content of the network, facilities and population files set in the config, and over
+	 * the coordinate systems they are read with.
+	 */
+	static byte[] computeHash(final Config config) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		update(digest, Integer.toString(VERSION));
+		update(digest, config.global().getCoordinateSystem());
+		update(digest, config.network().getInputCRS());
+		update(digest, config.facilities().getInputCRS());
+		updateWithContent(digest, config, config.network().getInputFile());
+		updateWithContent(digest, config, config.facilities().getInputFile());
+		updateWithContent(digest, config, config.plans().getInputFile());
+		return digest.digest();
+	}
+
+	private static void update(final MessageDigest digest, final String value) {
+		if (value == null) {
+			digest.update((byte) 0);
+		} else {
+			digest.update((byte) 1);
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+	}
+
+	private static void updateWithContent(final MessageDigest digest, final Config config, final String filename) {
+		if (filename == null) {
+			digest.update((byte) 0);
+			return;
+		}
+		digest.update((byte) 1);
+		URL url = ConfigGroup.getInputFileURL(config.getContext(), filename);
+		byte[] buffer = new byte[1 << 16];
+		long length = 0;
+		try (InputStream is = url.openStream()) {
+			int n;
+			while ((n = is.read(buffer)) >= 0) {
+				digest.update(buffer, 0, n);
+				length += n;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("could not read " + url + " to compute the hash of the scenario snapshot", e);
+		}
+		update(digest, Long.toString(length));
+	}
+
+	/**
+	 * Writes the snapshot to a temporary file first, which replaces <code>file</code> only once it is complete.
+	 */
+	void write(final Path file, final byte[] hash, final Scenario scenario) throws IOException {
+		Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+		this.writtenStrings = new HashMap<>();
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile), 1 << 16))) {
+			this.out = out;
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(hash.length);
+			out.write(hash);
+			writeNetwork(scenario.getNetwork());
+			writeFacilities(scenario.getActivityFacilities());
+			writePopulation(scenario.getPopulation());
+		} finally {
+			this.out = null;
+			this.writtenStrings = null;
+		}
+		Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Reads network, facilities and population from the snapshot into the scenario, which is expected to not
+	 * contain any of them yet.
+	 *
+	 * @return <code>false</code> if the file does not exist or has another hash, in which case nothing is read.
+	 */
+	boolean read(final Path file, final byte[] hash, final Scenario scenario) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return false;
+		}
+		this.readStrings = new ArrayList<>();
+		try (DataInputStream in = new DataInputStream(new MappedInputStream(FileChannel.open(file, StandardOpenOption.READ)))) {
+			this.in = in;
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				log.info("scenario snapshot " + file + " has an unknown format and will be replaced.");
+				return false;
+			}
+			byte[] storedHash = new byte[in.readInt()];
+			in.readFully(storedHash);
+			if (!Arrays.equals(hash, storedHash)) {
+				log.info("scenario snapshot " + file + " does not match the input files and will be replaced.");
+				return false;
+			}
+			readNetwork(scenario.getNetwork());
+			readFacilities(scenario.getActivityFacilities());
+			readPopulation(scenario.getPopulation());
+			return true;
+		} finally {
+			this.in = null;
+			this.readStrings = null;
+		}
+	}
+
+	/* network */
+
+	@SuppressWarnings("deprecation") // the network readers and writers still support the type and origId of nodes
+	private void writeNetwork(final Network network) throws IOException {
+		writeString(network.getName());
+		this.out.writeDouble(network.getCapacityPeriod());
+		this.out.writeDouble(network.getEffectiveCellSize());
+		this.out.writeDouble(network.getEffectiveLaneWidth());
+		writeAttributes(network.getAttributes());
+		this.out.writeInt(network.getNodes().size());
+		for (Node node : network.getNodes().values()) {
+			writeString(node.getId().toString());
+			writeCoord(node.getCoord());
+			writeString(NetworkUtils.getType(node));
+			writeString(NetworkUtils.getOrigId(node));
+			writeAttributes(node.getAttributes());
+		}
+		this.out.writeInt(network.getLinks().size());
+		for (Link link : network.getLinks().values()) {
+			writeString(link.getId().toString());
+			writeString(link.getFromNode().getId().toString());
+			writeString(link.getToNode().getId().toString());
+			this.out.writeDouble(link.getLength());
+			this.out.writeDouble(link.getFreespeed());
+			this.out.writeDouble(link.getCapacity());
+			this.out.writeDouble(link.getNumberOfLanes());
+			this.out.writeInt(link.getAllowedModes().size());
+			for (String mode : link.getAllowedModes()) {
+				writeString(mode);
+			}
+			writeAttributes(link.getAttributes());
+		}
+	}
+
+	@SuppressWarnings("deprecation")
+	private void readNetwork(final Network network) throws IOException {
+		NetworkFactory factory = network.getFactory();
+		network.setName(readString());
+		network.setCapacityPeriod(this.in.readDouble());
+		network.setEffectiveCellSize(this.in.readDouble());
+		network.setEffectiveLaneWidth(this.in.readDouble());
+		readAttributes(network.getAttributes());
+		int nodeCount = this.in.readInt();
+		for (int i = 0; i < nodeCount; i++) {
+			Node node = factory.createNode(Id.create(readString(), Node.class), readCoord());
+			network.addNode(node);
+			NetworkUtils.setType(node, readString());
+			String origId = readString();
+			if (origId != null) {
+				NetworkUtils.setOrigId(node, origId);
+			}
+			readAttributes(node.getAttributes());
+		}
+		int linkCount = this.in.readInt();
+		for (int i = 0; i < linkCount; i++) {
+			Id<Link> id = Id.create(readString(), Link.class);
+			Node fromNode = network.getNodes().get(Id.create(readString(), Node.class));
+			Node toNode = network.getNodes().get(Id.create(readString(), Node.class));
+			Link link = factory.createLink(id, fromNode, toNode);
+			link.setLength(this.in.readDouble());
+			link.setFreespeed(this.in.readDouble());
+			link.setCapacity(this.in.readDouble());
+			link.setNumberOfLanes(this.in.readDouble());
+			int modeCount = this.in.readInt();
+			Set<String> modes = new HashSet<>();
+			for (int m = 0; m < modeCount; m++) {
+				modes.add(readString().intern());
+			}
+			link.setAllowedModes(modes);
+			network.addLink(link);
+			readAttributes(link.getAttributes());
+		}
+	}
+
+	/* facilities */
+
+	private void writeFacilities(final ActivityFacilities facilities) throws IOException {
+		writeString(facilities.getName());
+		writeAttributes(facilities.getAttributes());
+		this.out.writeInt(facilities.getFacilities().size());
+		for (ActivityFacility facility : facilities.getFacilities().values()) {
+			writeString(facility.getId().toString());
+			writeCoord(facility.getCoord());
+			writeId(facility.getLinkId());
+			writeString(facility instanceof ActivityFacilityImpl ? ((ActivityFacilityImpl) facility).getDesc() : null);
+			writeAttributes(facility.getAttributes());
+			this.out.writeInt(facility.getActivityOptions().size());
+			for (ActivityOption option : facility.getActivityOptions().values()) {
+				writeString(option.getType());
+				this.out.writeDouble(option.getCapacity());
+				this.out.writeInt(option.getOpeningTimes().size());
+				for (OpeningTime openingTime : option.getOpeningTimes()) {
+					this.out.writeDouble(openingTime.getStartTime());
+					this.out.writeDouble(openingTime.getEndTime());
+				}
+			}
+		}
+	}
+
+	private void readFacilities(final ActivityFacilities facilities) throws IOException {
+		ActivityFacilitiesFactory factory = facilities.getFactory();
+		facilities.setName(readString());
+		readAttributes(facilities.getAttributes());
+		int facilityCount = this.in.readInt();
+		for (int i = 0; i < facilityCount; i++) {
+			Id<ActivityFacility> id = Id.create(readString(), ActivityFacility.class);
+			Coord coord = readCoord();
+			Id<Link> linkId = readId(Link.class);
+			ActivityFacility facility = factory.createActivityFacility(id, coord, linkId);
+			facilities.addActivityFacility(facility);
+			String desc = readString();
+			if (facility instanceof ActivityFacilityImpl) {
+				((ActivityFacilityImpl) facility).setDesc(desc);
+			}
+			readAttributes(facility.getAttributes());
+			int optionCount = this.in.readInt();
+			for (int o = 0; o < optionCount; o++) {
+				ActivityOption option = factory.createActivityOption(readString());
+				option.setCapacity(this.in.readDouble());
+				int openingTimeCount = this.in.readInt();
+				for (int t = 0; t < openingTimeCount; t++) {
+					option.addOpeningTime(new OpeningTimeImpl(this.in.readDouble(), this.in.readDouble()));
+				}
+				facility.addActivityOption(option);
+			}
+		}
+	}
+
+	/* population */
+
+	private void writePopulation(final Population population) throws IOException {
+		writeString(population.getName());
+		writeAttributes(population.getAttributes());
+		this.out.writeInt(population.getPersons().size());
+		for (Person person : population.getPersons().values()) {
+			writeString(person.getId().toString());
+			writeAttributes(person.getAttributesForReading());
+			this.out.writeInt(person.getPlans().size());
+			this.out.writeInt(person.getPlans().indexOf(person.getSelectedPlan()));
+			for (Plan plan : person.getPlans()) {
+				writePlan(plan);
+			}
+		}
+	}
+
+	private void writePlan(final Plan plan) throws IOException {
+		Double score = plan.getScore();
+		this.out.writeBoolean(score != null);
+		if (score != null) {
+			this.out.writeDouble(score);
+		}
+		writeString(plan.getType());
+		writeAttributes(plan.getAttributesForReading());
+		this.out.writeInt(plan.getPlanElements().size());
+		for (PlanElement pe : plan.getPlanElements()) {
+			if (pe instanceof Activity) {
+				Activity act = (Activity) pe;
+				this.out.writeByte(ACTIVITY);
+				writeString(act.getType());
+				writeId(act.getLinkId());
+				writeId(act.getFacilityId());
+				writeCoord(act.getCoord());
+				this.out.writeDouble(act.getStartTime());
+				this.out.writeDouble(act.getMaximumDuration());
+				this.out.writeDouble(act.getEndTime());
+				writeAttributes(act.getAttributesForReading());
+			} else {
+				Leg leg = (Leg) pe;
+				this.out.writeByte(LEG);
+				writeString(leg.getMode());
+				this.out.writeDouble(leg.getDepartureTime());
+				this.out.writeDouble(leg.getTravelTime());
+				writeAttributes(leg.getAttributesForReading());
+				writeRoute(leg.getRoute());
+			}
+		}
+	}
+
+	private void writeRoute(final Route route) throws IOException {
+		if (route == null) {
+			this.out.writeByte(NO_ROUTE);
+			return;
+		}
+		this.out.writeByte(route instanceof NetworkRoute ? NETWORK_ROUTE : GENERIC_ROUTE);
+		writeString(route.getRouteType());
+		writeId(route.getStartLinkId());
+		writeId(route.getEndLinkId());
+		this.out.writeDouble(route.getTravelTime());
+		this.out.writeDouble(route.getDistance());
+		if (route instanceof NetworkRoute) {
+			NetworkRoute networkRoute = (NetworkRoute) route;
+			writeId(networkRoute.getVehicleId());
+			List<Id<Link>> linkIds = networkRoute.getLinkIds();
+			this.out.writeInt(linkIds.size());
+			for (Id<Link> linkId : linkIds) {
+				writeString(linkId.toString());
+			}
+		} else {
+			writeText(route.getRouteDescription());
+		}
+	}
+
+	private void readPopulation(final Population population) throws IOException {
+		PopulationFactory factory = population.getFactory();
+		population.setName(readString());
+		readAttributes(population.getAttributes());
+		int personCount = this.in.readInt();
+		for (int i = 0; i < personCount; i++) {
+			Person person = factory.createPerson(Id.create(readString(), Person.class));
+			readAttributes(person.getAttributes());
+			int planCount = this.in.readInt();
+			int selectedIndex = this.in.readInt();
+			for (int p = 0; p < planCount; p++) {
+				Plan plan = readPlan(factory);
+				person.addPlan(plan);
+				if (p == selectedIndex) {
+					person.setSelectedPlan(plan);
+				}
+			}
+			population.addPerson(person);
+		}
+	}
+
+	private Plan readPlan(final PopulationFactory factory) throws IOException {
+		Plan plan = factory.createPlan();
+		if (this.in.readBoolean()) {
+			plan.setScore(this.in.readDouble());
+		}
+		plan.setType(readString());
+		readAttributes(plan.getAttributes());
+		int elementCount = this.in.readInt();
+		for (int e = 0; e < elementCount; e++) {
+			if (this.in.readByte() == ACTIVITY) {
+				Activity act = factory.createActivityFromLinkId(readString(), readId(Link.class));
+				act.setFacilityId(readId(ActivityFacility.class));
+				act.setCoord(readCoord());
+				act.setStartTime(this.in.readDouble());
+				act.setMaximumDuration(this.in.readDouble());
+				act.setEndTime(this.in.readDouble());
+				readAttributes(act.getAttributes());
+				plan.addActivity(act);
+			} else {
+				Leg leg = factory.createLeg(readString());
+				leg.setDepartureTime(this.in.readDouble());
+				leg.setTravelTime(this.in.readDouble());
+				readAttributes(leg.getAttributes());
+				leg.setRoute(readRoute(factory.getRouteFactories()));
+				plan.addLeg(leg);
+			}
+		}
+		return plan;
+	}
+
+	private Route readRoute(final RouteFactories routeFactories) throws IOException {
+		byte kind = this.in.readByte();
+		if (kind == NO_ROUTE) {
+			return null;
+		}
+		String routeType = readString();
+		Id<Link> startLinkId = readId(Link.class);
+		Id<Link> endLinkId = readId(Link.class);
+		Route route = routeFactories.createRoute(routeFactories.getRouteClassForType(routeType), startLinkId, endLinkId);
+		route.setTravelTime(this.in.readDouble());
+		route.setDistance(this.in.readDouble());
+		if (kind == NETWORK_ROUTE) {
+			Id<Vehicle> vehicleId = readId(Vehicle.class);
+			int linkCount = this.in.readInt();
+			List<Id<Link>> linkIds = new ArrayList<>(linkCount);
+			for (int i = 0; i < linkCount; i++) {
+				linkIds.add(Id.create(readString(), Link.class));
+			}
+			if (route instanceof NetworkRoute) {
+				((NetworkRoute) route).setLinkIds(startLinkId, linkIds, endLinkId);
+				((NetworkRoute) route).setVehicleId(vehicleId);
+			} else {
+				// the route type is now created by another factory, fall back to the format of the route description
+				StringBuilder description = new StringBuilder(String.valueOf(startLinkId));
+				for (Id<Link> linkId : linkIds) {
+					description.append(' ').append(linkId);
+				}
+				route.setRouteDescription(description.append(' ').append(endLinkId).toString());
+			}
+		} else {
+			String description = readText();
+			if (description != null) {
+				route.setRouteDescription(description);
+			}
+		}
+		return route;
+	}
+
+	/* basic types */
+
+	private void writeAttributes(final Attributes attributes) throws IOException {
+		List<String[]> converted = new ArrayList<>(attributes.size());
+		for (Map.Entry<String, Object> e : attributes.getAsMap().entrySet()) {
+			String value = this.attributesConverter.convertToString(e.getValue());
+			if (value != null) {
+				converted.add(new String[] { e.getKey(), e.getValue().getClass().getName(), value });
+			}
+		}
+		this.out.writeInt(converted.size());
+		for (String[] attribute : converted) {
+			writeString(attribute[0]);
+			writeString(attribute[1]);
+			writeText(attribute[2]);
+		}
+	}
+
+	private void readAttributes(final Attributes attributes) throws IOException {
+		int count = this.in.readInt();
+		for (int i = 0; i < count; i++) {
+			String name = readString();
+			String className = readString();
+			Object value = this.attributesConverter.convert(className, readText());
+			if (value != null) {
+				attributes.putAttribute(name, value);
+			}
+		}
+	}
+
+	private void writeCoord(final Coord coord) throws IOException {
+		if (coord == null) {
+			this.out.writeByte(0);
+		} else if (coord.hasZ()) {
+			this.out.writeByte(3);
+			this.out.writeDouble(coord.getX());
+			this.out.writeDouble(coord.getY());
+			this.out.writeDouble(coord.getZ());
+		} else {
+			this.out.writeByte(2);
+			this.out.writeDouble(coord.getX());
+			this.out.writeDouble(coord.getY());
+		}
+	}
+
+	private Coord readCoord() throws IOException {
+		byte dimensions = this.in.readByte();
+		if (dimensions == 0) {
+			return null;
+		}
+		double x = this.in.readDouble();
+		double y = this.in.readDouble();
+		return dimensions == 3 ? new Coord(x, y, this.in.readDouble()) : new Coord(x, y);
+	}
+
+	private void writeId(final Id<?> id) throws IOException {
+		writeString(id == null ? null : id.toString());
+	}
+
+	private <T> Id<T> readId(final Class<T> type) throws IOException {
+		String id = readString();
+		return id == null ? null : Id.create(id, type);
+	}
+
+	/** Writes a string as index into the string table, adding it to the table when it is written the first time. */
+	private void writeString(final String s) throws IOException {
+		if (s == null) {
+			this.out.writeInt(NULL_STRING);
+			return;
+		}
+		Integer index = this.writtenStrings.get(s);
+		if (index == null) {
+			this.writtenStrings.put(s, this.writtenStrings.size());
+			this.out.writeInt(NEW_STRING);
+			writeText(s);
+		} else {
+			this.out.writeInt(index);
+		}
+	}
+
+	private String readString() throws IOException {
+		int index = this.in.readInt();
+		if (index == NULL_STRING) {
+			return null;
+		}
+		if (index == NEW_STRING) {
+			String s = readText();
+			this.readStrings.add(s);
+			return s;
+		}
+		return this.readStrings.get(index);
+	}
+
+	/** Writes a string that is not added to the string table, e.g. because it is unlikely to occur again. */
+	private void writeText(final String s) throws IOException {
+		if (s == null) {
+			this.out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		this.out.writeInt(bytes.length);
+		this.out.write(bytes);
+	}
+
+	private String readText() throws IOException {
+		int length = this.in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		this.in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a file by mapping it into memory, in windows of at most 1 GB as a single mapping is limited to 2 GB.
+	 */
+	private static final class MappedInputStream extends InputStream {
+		private static final long WINDOW_SIZE = 1L << 30;
+
+		private final FileChannel channel;
+		private final long size;
+		private long position = 0;
+		private MappedByteBuffer buffer = null;
+
+		MappedInputStream(final FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+		}
+
+		private boolean ensureAvailable() throws IOException {
+			if (this.buffer != null && this.buffer.hasRemaining()) {
+				return true;
+			}
+			if (this.position >= this.size) {
+				return false;
+			}
+			long length = Math.min(WINDOW_SIZE, this.size - this.position);
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length);
+			this.position += length;
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException {
+			return ensureAvailable() ? (this.buffer.get() & 0xff) : -1;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			if (len == 0) {
+				return 0;
+			}
+			if (!ensureAvailable()) {
+				return -1;
+			}
+			int n = Math.min(len, this.buffer.remaining());
+			this.buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			this.buffer = null;
+			this.channel.close();
+		}
+	}
+
+}
@@ -21,9 +21,8 @@
  package org.matsim.core.scoring;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.events.ActivityEndEvent;
@@ -59,7 +58,9 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
 	    void handleActivity(PersonExperiencedActivity activity);
 	}
 
-    private Map<Id<Person>, Activity> activities = new HashMap<>();
+    private final PersonIndex personIndex = new PersonIndex();
+    /** the current activity of each person, indexed by the {@link PersonIndex} */
+    private Activity[] activities = new Activity[1024];
     private List<ActivityHandler> activityHandlers = new ArrayList<>();
 
     public EventsToActivities() {
@@ -79,7 +80,8 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
 
     @Override
     public void handleEvent(ActivityEndEvent event) {
-        Activity activity = activities.get(event.getPersonId());
+        int index = personIndex.getIndex(event.getPersonId());
+        Activity activity = index < activities.length ? activities[index] : null;
         if (activity == null) {
             Activity firstActivity = PopulationUtils.createActivityFromLinkId(event.getActType(), event.getLinkId());
             firstActivity.setFacilityId(event.getFacilityId());
@@ -89,7 +91,9 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
         for (ActivityHandler activityHandler : activityHandlers) {
             activityHandler.handleActivity(new PersonExperiencedActivity(event.getPersonId(), activity));
         }
-        activities.remove(event.getPersonId());
+        if (index < activities.length) {
+            activities[index] = null;
+        }
     }
 
     @Override
@@ -97,12 +101,16 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
         Activity activity = PopulationUtils.createActivityFromLinkId(event.getActType(), event.getLinkId());
         activity.setFacilityId(event.getFacilityId());
         activity.setStartTime(event.getTime());
-        activities.put(event.getPersonId(), activity);
+        int index = personIndex.getIndex(event.getPersonId());
+        if (index >= activities.length) {
+            activities = Arrays.copyOf(activities, Math.max(index + 1, 2 * activities.length));
+        }
+        activities[index] = activity;
     }
 
     @Override
     public void reset(int iteration) {
-        activities.clear();
+        Arrays.fill(activities, null);
     }
 
     public void addActivityHandler(ActivityHandler activityHandler) {
@@ -110,9 +118,14 @@ public final class EventsToActivities implements ActivityStartEventHandler, Acti
     }
 
     public void finish() {
-        for (Map.Entry<Id<Person>, Activity> entry : activities.entrySet()) {
+        for (int i = 0, n = Math.min(personIndex.size(), activities.length); i < n; i++) {
+            Activity activity = activities[i];
+            if (activity == null) {
+                continue;
+            }
+            Id<Person> personId = personIndex.getPersonId(i);
             for (ActivityHandler activityHandler : activityHandlers) {
-                activityHandler.handleActivity(new PersonExperiencedActivity(entry.getKey(), entry.getValue()));
+                activityHandler.handleActivity(new PersonExperiencedActivity(personId, activity));
             }
         }
     }
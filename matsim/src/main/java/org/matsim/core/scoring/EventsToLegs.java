@@ -62,6 +62,7 @@ import org.matsim.pt.transitSchedule.api.TransitStopFacility;
 import org.matsim.vehicles.Vehicle;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -86,14 +87,36 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 
 	private Vehicle2DriverEventHandler delegate = new Vehicle2DriverEventHandler();
 
-	private static class PendingTransitTravel {
+	/**
+	 * What is known about the current leg of a person.  One instance per person, re-used for all legs in all
+	 * iterations, so that building the legs creates hardly any garbage besides the legs themselves.
+	 */
+	private static final class PersonState {
 
-		final Id<Vehicle> vehicleId;
-		final Id<TransitStopFacility> accessStop;
+		/** the current leg, <code>null</code> if the person is not traveling */
+		Leg leg = null;
 
-		public PendingTransitTravel(Id<Vehicle> vehicleId, Id<TransitStopFacility> accessStop) {
-			this.vehicleId = vehicleId;
-			this.accessStop = accessStop;
+		/** the links entered so far, starting with the departure link; copied into the route at arrival */
+		final List<Id<Link>> experiencedRoute = new ArrayList<>();
+
+		double relPosOnDepartureLink = Double.NaN;
+		double relPosOnArrivalLink = Double.NaN;
+
+		/** from the teleportation arrival event, NaN if there was none */
+		double teleportationDistance = Double.NaN;
+
+		/** set if the person has entered a transit vehicle */
+		Id<Vehicle> transitVehicleId = null;
+		Id<TransitStopFacility> accessStop = null;
+
+		void reset() {
+			this.leg = null;
+			this.experiencedRoute.clear();
+			this.relPosOnDepartureLink = Double.NaN;
+			this.relPosOnArrivalLink = Double.NaN;
+			this.teleportationDistance = Double.NaN;
+			this.transitVehicleId = null;
+			this.accessStop = null;
 		}
 
 	}
@@ -133,12 +156,8 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 	public void setTransitSchedule(TransitSchedule transitSchedule) {
 		this.transitSchedule = transitSchedule;
 	}
-	private Map<Id<Person>, Leg> legs = new HashMap<>();
-	private Map<Id<Person>, List<Id<Link>>> experiencedRoutes = new HashMap<>();
-	private Map<Id<Person>, Double> relPosOnDepartureLinkPerPerson = new HashMap<>();
-	private Map<Id<Person>, Double> relPosOnArrivalLinkPerPerson = new HashMap<>();
-	private Map<Id<Person>, TeleportationArrivalEvent> routelessTravels = new HashMap<>();
-	private Map<Id<Person>, PendingTransitTravel> transitTravels = new HashMap<>();
+	private final PersonIndex personIndex = new PersonIndex();
+	private PersonState[] personStates = new PersonState[1024];
 	private Map<Id<Vehicle>, LineAndRoute> transitVehicle2currentRoute = new HashMap<>();
 	private List<LegHandler> legHandlers = new ArrayList<>();
 
@@ -160,10 +179,9 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 
 	@Override
 	public void reset(int iteration) {
-		legs.clear();
-		experiencedRoutes.clear();
-		transitTravels.clear();
-		routelessTravels.clear();
+		for (int i = 0, n = personIndex.size(); i < n; i++) {
+			personStates[i].reset();
+		}
 		transitVehicle2currentRoute.clear();
 
 		delegate.reset(iteration);
@@ -171,15 +189,28 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 
 
 
+	private PersonState getPersonState(Id<Person> personId) {
+		int index = personIndex.getIndex(personId);
+		if (index >= personStates.length) {
+			personStates = Arrays.copyOf(personStates, Math.max(index + 1, 2 * personStates.length));
+		}
+		PersonState state = personStates[index];
+		if (state == null) {
+			state = new PersonState();
+			personStates[index] = state;
+		}
+		return state;
+	}
+
 	@Override
 	public void handleEvent(PersonDepartureEvent event) {
 		Leg leg = PopulationUtils.createLeg(event.getLegMode());
 		leg.setDepartureTime(event.getTime());
-		legs.put(event.getPersonId(), leg);
+		PersonState state = getPersonState(event.getPersonId());
+		state.leg = leg;
 
-		List<Id<Link>> route = new ArrayList<>();
-		route.add(event.getLinkId());
-		experiencedRoutes.put(event.getPersonId(), route);
+		state.experiencedRoute.clear();
+		state.experiencedRoute.add(event.getLinkId());
 	}
 
 	@Override
@@ -187,7 +218,9 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 		LineAndRoute lineAndRoute = transitVehicle2currentRoute.get(event.getVehicleId());
 		if (lineAndRoute != null
 				&& !event.getPersonId().equals(lineAndRoute.driverId)) { // transit drivers are not considered to travel by transit
-			transitTravels.put(event.getPersonId(), new PendingTransitTravel(event.getVehicleId(), lineAndRoute.lastFacilityId));
+			PersonState state = getPersonState(event.getPersonId());
+			state.transitVehicleId = event.getVehicleId();
+			state.accessStop = lineAndRoute.lastFacilityId;
 		}
 	}
 
@@ -199,13 +232,13 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 	@Override
 	public void handleEvent(LinkEnterEvent event) {
 		Id<Person> driverOfVehicle = delegate.getDriverOfVehicle(event.getVehicleId());
-		List<Id<Link>> route = experiencedRoutes.get(driverOfVehicle);
-		route.add(event.getLinkId());
+		Gbl.assertNotNull(driverOfVehicle);
+		getPersonState(driverOfVehicle).experiencedRoute.add(event.getLinkId());
 	}
 
 	@Override
 	public void handleEvent(TeleportationArrivalEvent travelEvent) {
-		routelessTravels.put(travelEvent.getPersonId(), travelEvent);
+		getPersonState(travelEvent.getPersonId()).teleportationDistance = travelEvent.getDistance();
 	}
 
 	@Override
@@ -218,13 +251,16 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 
 	@Override
 	public void handleEvent(PersonArrivalEvent event) {
-		Leg leg = legs.get(event.getPersonId());
+		PersonState state = getPersonState(event.getPersonId());
+		Leg leg = state.leg;
+		state.leg = null;
 		leg.setTravelTime( event.getTime() - leg.getDepartureTime() );
 		double travelTime = leg.getDepartureTime() + leg.getTravelTime() - leg.getDepartureTime();
 		leg.setTravelTime(travelTime);
-		List<Id<Link>> experiencedRoute = experiencedRoutes.get(event.getPersonId());
+		List<Id<Link>> experiencedRoute = state.experiencedRoute;
 		assert experiencedRoute.size() >= 1  ;
-		PendingTransitTravel pendingTransitTravel;
+		Id<Vehicle> transitVehicleId = state.transitVehicleId;
+		state.transitVehicleId = null;
 		if (experiencedRoute.size() > 1) { // different links processed
 			NetworkRoute networkRoute = RouteUtils.createNetworkRoute(experiencedRoute, null);
 			networkRoute.setTravelTime(travelTime);
@@ -233,20 +269,20 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 			 * to calculate the correct route distance including the first/last link. 
 			 * (see MATSIM-227) tt feb'16
 			 */
-			double relPosOnDepartureLink = relPosOnDepartureLinkPerPerson.get(event.getPersonId());
-			Double relPosOnArrivalLink = relPosOnArrivalLinkPerPerson.get(event.getPersonId());
-			Gbl.assertNotNull( relPosOnArrivalLink );
+			double relPosOnDepartureLink = state.relPosOnDepartureLink;
+			double relPosOnArrivalLink = state.relPosOnArrivalLink;
+			Gbl.assertIf( !Double.isNaN( relPosOnArrivalLink ) );
 			networkRoute.setDistance(RouteUtils.calcDistance(networkRoute, relPosOnDepartureLink, 
 					relPosOnArrivalLink, network));
 
 			leg.setRoute(networkRoute);
-		} else if ((pendingTransitTravel = transitTravels.remove(event.getPersonId())) != null) {
+		} else if (transitVehicleId != null) {
 			// i.e. experiencedRoute.size()==1 && pending transit travel (= person has entered a vehicle)
 
-			final LineAndRoute lineAndRoute = transitVehicle2currentRoute.get(pendingTransitTravel.vehicleId);
+			final LineAndRoute lineAndRoute = transitVehicle2currentRoute.get(transitVehicleId);
 			assert lineAndRoute!=null ;
 
-			final TransitStopFacility accessFacility = transitSchedule.getFacilities().get(pendingTransitTravel.accessStop);
+			final TransitStopFacility accessFacility = transitSchedule.getFacilities().get(state.accessStop);
 			assert accessFacility!=null ;
 
 			final TransitLine line = transitSchedule.getTransitLines().get(lineAndRoute.transitLineId);
@@ -275,11 +311,12 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 		} else {
 			// i.e. experiencedRoute.size()==1 and no pendingTransitTravel
 
-			TeleportationArrivalEvent travelEvent = routelessTravels.remove(event.getPersonId());
+			double teleportationDistance = state.teleportationDistance;
+			state.teleportationDistance = Double.NaN;
 			Route genericRoute = RouteUtils.createGenericRouteImpl(experiencedRoute.get(0), event.getLinkId());
 			genericRoute.setTravelTime(travelTime);
-			if (travelEvent != null) {
-				genericRoute.setDistance(travelEvent.getDistance());
+			if (!Double.isNaN(teleportationDistance)) {
+				genericRoute.setDistance(teleportationDistance);
 			} else {
 				genericRoute.setDistance(0.0);
 			}
@@ -305,7 +342,7 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 		delegate.handleEvent(event);
 
 		// remember the relative position on the link
-		relPosOnDepartureLinkPerPerson.put(event.getPersonId(), event.getRelativePositionOnLink());
+		getPersonState(event.getPersonId()).relPosOnDepartureLink = event.getRelativePositionOnLink();
 	}
 
 	@Override
@@ -313,7 +350,7 @@ TeleportationArrivalEventHandler, TransitDriverStartsEventHandler, PersonEntersV
 		delegate.handleEvent(event);
 
 		// remember the relative position on the link
-		relPosOnArrivalLinkPerPerson.put(event.getPersonId(), event.getRelativePositionOnLink());
+		getPersonState(event.getPersonId()).relPosOnArrivalLink = event.getRelativePositionOnLink();
 	}
 
 }
@@ -121,6 +121,8 @@ public final class EventsToScore implements BasicEventHandler {
 		}
 		controlerListenerManager.fireControlerAfterMobsimEvent(iteration);
 		scoringFunctionsForPopulation.finishScoringFunctions();
+		// there is no shutdown without a controler, so the threads are stopped here; they are restarted by beginIteration()
+		scoringFunctionsForPopulation.stopShardThreads();
 		newScoreAssigner.assignNewScores(this.iteration, scoringFunctionsForPopulation, population);
 		finished = true;
 	}
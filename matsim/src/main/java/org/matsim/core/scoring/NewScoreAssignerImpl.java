@@ -9,6 +9,7 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 
 import javax.inject.Inject;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,9 +34,17 @@ class NewScoreAssignerImpl implements NewScoreAssigner {
 	}
 
 	public void assignNewScores(int iteration, ScoringFunctionsForPopulation scoringFunctionsForPopulation, Population population) {
+		assignNewScores(iteration, scoringFunctionsForPopulation, population.getPersons().values());
+	}
+
+	/**
+	 * Like {@link #assignNewScores(int, ScoringFunctionsForPopulation, Population)}, but only for the given persons,
+	 * e.g. the ones of a {@link org.matsim.core.controler.PopulationSample}.
+	 */
+	void assignNewScores(int iteration, ScoringFunctionsForPopulation scoringFunctionsForPopulation, Collection<? extends Person> persons) {
 		log.info("it: " + iteration + " msaStart: " + this.scoreMSAstartsAtIteration );
 
-		for (Person person : population.getPersons().values()) {
+		for (Person person : persons) {
 			ScoringFunction sf = scoringFunctionsForPopulation.getScoringFunctionForAgent(person.getId());
 			double score = sf.getScore();
 			Plan plan = person.getSelectedPlan();
@@ -0,0 +1,60 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.scoring;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+
+/**
+ * Numbers persons consecutively, so that state per person can be kept in arrays and re-used in every iteration.
+ * Persons are numbered in the order they are first asked for.  Not thread-safe.
+ * <p></p>
+ * Finding the number of a person is still one map lookup; only the state itself is no longer kept in maps.
+ */
+/* package */ final class PersonIndex {
+
+	private final Map<Id<Person>, Integer> indices = new HashMap<>();
+	private final List<Id<Person>> personIds = new ArrayList<>();
+
+	int getIndex(final Id<Person> personId) {
+		Integer index = this.indices.get(personId);
+		if (index == null) {
+			index = this.personIds.size();
+			this.indices.put(personId, index);
+			this.personIds.add(personId);
+		}
+		return index;
+	}
+
+	Id<Person> getPersonId(final int index) {
+		return this.personIds.get(index);
+	}
+
+	int size() {
+		return this.personIds.size();
+	}
+
+}
@@ -28,12 +28,15 @@ import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.PopulationSample;
 import org.matsim.core.controler.corelisteners.PlansScoring;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.ScoringEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.controler.listener.ScoringListener;
 
+import java.util.Collection;
+
 
 /**
  * A {@link org.matsim.core.controler.listener.ControlerListener} that manages the
@@ -52,12 +55,14 @@ final class PlansScoringImpl implements PlansScoring, ScoringListener, Iteration
 	@Inject private OutputDirectoryHierarchy controlerIO;
 	@Inject private ScoringFunctionsForPopulation scoringFunctionsForPopulation;
 	@Inject private ExperiencedPlansService experiencedPlansService;
+	@Inject(optional = true) private PopulationSample populationSample = null;
 
 	@Override
 	public void notifyScoring(final ScoringEvent event) {
 		scoringFunctionsForPopulation.finishScoringFunctions();
 		NewScoreAssignerImpl newScoreAssigner = new NewScoreAssignerImpl(this.planCalcScoreConfigGroup, this.controlerConfigGroup);
-		newScoreAssigner.assignNewScores(event.getIteration(), this.scoringFunctionsForPopulation, this.population);
+		// in sampled iterations, the persons outside of the sample were not simulated and keep their scores
+		newScoreAssigner.assignNewScores(event.getIteration(), this.scoringFunctionsForPopulation, getScoredPersons());
 	}
 
 	@Override
@@ -73,7 +78,7 @@ final class PlansScoringImpl implements PlansScoring, ScoringListener, Iteration
 			}
 		}
 		if (planCalcScoreConfigGroup.isMemorizingExperiencedPlans() ) {
-			for ( Person person : this.population.getPersons().values() ) {
+			for ( Person person : getScoredPersons() ) {
 				Plan experiencedPlan = this.experiencedPlansService.getExperiencedPlans().get( person.getId() ) ;
 				if ( experiencedPlan==null ) {
 					throw new RuntimeException("experienced plan is null; I don't think this should happen") ;
@@ -84,4 +89,8 @@ final class PlansScoringImpl implements PlansScoring, ScoringListener, Iteration
 		}
 	}
 
+	private Collection<? extends Person> getScoredPersons() {
+		return this.populationSample == null ? this.population.getPersons().values() : this.populationSample.getPersons();
+	}
+
 }
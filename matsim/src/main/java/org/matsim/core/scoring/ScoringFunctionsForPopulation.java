@@ -22,10 +22,16 @@ package org.matsim.core.scoring;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.log4j.Logger;
@@ -42,12 +48,16 @@ import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.internal.HasPersonId;
+import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.controler.ControlerListenerManager;
 import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.events.algorithms.Vehicle2DriverEventHandler;
 import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.metrics.MetricsRegistry;
 import org.matsim.vehicles.Vehicle;
 
 import com.google.inject.Inject;
@@ -60,6 +70,15 @@ import gnu.trove.list.array.TDoubleArrayList;
  * This class helps EventsToScore by keeping ScoringFunctions for the entire Population - one per Person -, and dispatching Activities
  * and Legs to the ScoringFunctions. It also gives out the ScoringFunctions, so they can be given other events by EventsToScore.
  * It is not independently useful. Please do not make public.
+ * <p></p>
+ * The persons are distributed over as many shards as there are (global) threads.  Each shard keeps the scoring functions of
+ * its persons and handles their events, legs and activities on a thread of its own, so that the scoring of different
+ * persons does not wait for each other.  The events, legs and activities are collected per shard and handed over to the
+ * shard's thread whenever the time of the events changes, i.e. once per sim step.  The threads are started in the first
+ * iteration and stopped at shutdown, or by {@link EventsToScore#finish()} if it is used without a controler; they are
+ * started again when another iteration begins.  The events of a single person are still handled one after the other, in the order
+ * in which they arrive.  Thus scoring functions of different persons may be called concurrently; if they share any state,
+ * they need to synchronize it themselves.
  * 
  * @author michaz
  *
@@ -83,10 +102,17 @@ import gnu.trove.list.array.TDoubleArrayList;
 	 * should be faster and reduce the memory overhead.
 	 *
 	 * cdobler, nov'15
+	 *
+	 * The maps are now kept per shard; the deterministic order of the output files is kept in 'personIds'.
 	 */
-	private final Map<Id<Person>, ScoringFunction> agentScorers = new HashMap<>();
-	private final Map<Id<Person>, TDoubleCollection> partialScores = new LinkedHashMap<>();
+	private final Shard[] shards;
+	private final Set<Id<Person>> personIds = new LinkedHashSet<>();
 	private final AtomicReference<Throwable> exception = new AtomicReference<>();
+
+	/** true while the shards handle their persons on their own threads */
+	private volatile boolean shardThreadsRunning = false;
+	/** the time of the last event, the collected tasks are handed over to the shard threads when it changes */
+	private double lastEventTime = Double.NEGATIVE_INFINITY;
 	
 //	/**
 //	 * For something like the bicycle scoring, we need to know individual links at the level of the scoring function.  This is a first sketch how this could be implemented.
@@ -97,16 +123,39 @@ import gnu.trove.list.array.TDoubleArrayList;
 	private Vehicle2DriverEventHandler vehicles2Drivers = new Vehicle2DriverEventHandler();
 
 	@Inject
+	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+								  Population population, ScoringFunctionFactory scoringFunctionFactory, GlobalConfigGroup globalConfigGroup) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, globalConfigGroup.getNumberOfThreads());
+	}
+
+	/**
+	 * Handles all persons in a single shard, on the threads delivering the events.
+	 */
 	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
 								  Population population, ScoringFunctionFactory scoringFunctionFactory) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, 1);
+	}
+
+	ScoringFunctionsForPopulation(ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+								  Population population, ScoringFunctionFactory scoringFunctionFactory, int numberOfShards) {
 		controlerListenerManager.addControlerListener(new IterationStartsListener() {
 			@Override
 			public void notifyIterationStarts(IterationStartsEvent event) {
 				init();
 			}
 		});
+		controlerListenerManager.addControlerListener(new ShutdownListener() {
+			@Override
+			public void notifyShutdown(ShutdownEvent event) {
+				stopShardThreads();
+			}
+		});
 		this.population = population;
 		this.scoringFunctionFactory = scoringFunctionFactory;
+		this.shards = new Shard[Math.max(numberOfShards, 1)];
+		for (int i = 0; i < this.shards.length; i++) {
+			this.shards[i] = new Shard();
+		}
 		eventsManager.addHandler(this);
 		eventsToActivities.addActivityHandler(this);
 		eventsToLegs.addLegHandler(this);
@@ -116,38 +165,70 @@ import gnu.trove.list.array.TDoubleArrayList;
 	}
 
 	private void init() {
+		// the shard threads are kept from the previous iteration; they must not use the maps while they are filled
+		awaitShards();
 		for (Person person : population.getPersons().values()) {
 			ScoringFunction data = scoringFunctionFactory.createNewScoringFunction(person);
-			this.agentScorers.put(person.getId(), data);
-			this.partialScores.put(person.getId(), new TDoubleArrayList());
+			Shard shard = getShard(person.getId());
+			shard.agentScorers.put(person.getId(), data);
+			shard.partialScores.put(person.getId(), new TDoubleArrayList());
+			this.personIds.add(person.getId());
+		}
+		if (this.shards.length > 1) {
+			startShardThreads();
+		}
+	}
+
+	private Shard getShard(final Id<Person> personId) {
+		return this.shards[Math.floorMod(personId.hashCode(), this.shards.length)];
+	}
+
+	/**
+	 * Hands the event, leg or activity to the shard of the person, either to be handled on the shard's thread with the
+	 * next batch, or immediately if the shards have no threads running.
+	 */
+	private void dispatch(final Id<Person> personId, final Object task) {
+		Shard shard = getShard(personId);
+		synchronized (shard) {
+			if (this.shardThreadsRunning) {
+				shard.batch.add(personId, task);
+			} else {
+				handle(personId, task);
+			}
+		}
+	}
+
+	private void handle(final Id<Person> personId, final Object task) {
+		if (task instanceof Event) {
+			scoreEvent(personId, (Event) task);
+		} else if (task instanceof Leg) {
+			scoreLeg(personId, (Leg) task);
+		} else {
+			scoreActivity(personId, (Activity) task);
 		}
 	}
 
 	@Override
-	synchronized public void handleEvent(Event o) {
+	public void handleEvent(Event o) {
 		// this is for the stuff that is directly based on events.
 		// note that this passes on _all_ person events, even those which are aggregated into legs and activities.
 		// for the time being, not all PersonEvents may "implement HasPersonId".
 		// link enter/leave events are NOT passed on, for performance reasons.
 		// kai/dominik, dec'12
+		if (this.shardThreadsRunning && o.getTime() != this.lastEventTime) {
+			// a new sim step begins
+			handOverBatches();
+			this.lastEventTime = o.getTime();
+		}
 		if (o instanceof HasPersonId) {
-			ScoringFunction scoringFunction = getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
-			if (scoringFunction != null) {
-				if (o instanceof PersonStuckEvent) {
-					scoringFunction.agentStuck(o.getTime());
-				} else if (o instanceof PersonMoneyEvent) {
-					scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
-					// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
-					// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
-				} 
-//				else {
-					scoringFunction.handleEvent(o);
-					// passing this on in any case, see comment above.  kai, mar'17
-//				}
+			Id<Person> personId = ((HasPersonId) o).getPersonId();
+			if (personId != null) {
+				dispatch(personId, o);
 			}
 		}
 //		if ( passLinkEventsToPerson ) {
 			// Establish and end connection between driver and vehicle
+			// (this is done here, on the thread delivering the events, as it needs the events of all persons in their order)
 			if (o instanceof VehicleEntersTrafficEvent) {
 				vehicles2Drivers.handleEvent((VehicleEntersTrafficEvent) o);
 			}
@@ -158,10 +239,10 @@ import gnu.trove.list.array.TDoubleArrayList;
 			if ( o instanceof LinkEnterEvent ) {
 				Id<Vehicle> vehicleId = ((LinkEnterEvent)o).getVehicleId() ;
 				Id<Person> driverId = vehicles2Drivers.getDriverOfVehicle(vehicleId) ;
-				ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
 				// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
-				if (scoringFunction != null) {
-					scoringFunction.handleEvent(o) ;
+				if (driverId != null) {
+					// (a link enter event is neither a stuck nor a money event, so it is only passed to handleEvent)
+					dispatch(driverId, o);
 				}
 			}
 			/*
@@ -174,26 +255,47 @@ import gnu.trove.list.array.TDoubleArrayList;
 //		}
 	}
 
+	private void scoreEvent(Id<Person> personId, Event o) {
+		ScoringFunction scoringFunction = getScoringFunctionForAgent(personId);
+		if (scoringFunction != null) {
+			if (o instanceof PersonStuckEvent) {
+				scoringFunction.agentStuck(o.getTime());
+			} else if (o instanceof PersonMoneyEvent) {
+				scoringFunction.addMoney(((PersonMoneyEvent) o).getAmount());
+				// yy looking at this, I am a bit skeptic if it truly makes sense to not pass this additionally into the general events handling function below.
+				// A use case might be different utilities of money by money transaction type (e.g. toll, fare, reimbursement, ...).  kai, mar'17
+			} 
+//			else {
+				scoringFunction.handleEvent(o);
+				// passing this on in any case, see comment above.  kai, mar'17
+//			}
+		}
+	}
+
 	@Override
-	synchronized public void handleLeg(PersonExperiencedLeg o) {
-		Id<Person> agentId = o.getAgentId();
-		Leg leg = o.getLeg();
-		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
+	public void handleLeg(PersonExperiencedLeg o) {
+		dispatch(o.getAgentId(), o.getLeg());
+	}
+
+	private void scoreLeg(Id<Person> agentId, Leg leg) {
+		ScoringFunction scoringFunction = getScoringFunctionForAgent(agentId);
 		if (scoringFunction != null) {
 			scoringFunction.handleLeg(leg);
-			TDoubleCollection partialScoresForAgent = partialScores.get(agentId);
+			TDoubleCollection partialScoresForAgent = getShard(agentId).partialScores.get(agentId);
 			partialScoresForAgent.add(scoringFunction.getScore());
 		}
 	}
 
 	@Override
-	synchronized public void handleActivity(PersonExperiencedActivity o) {
-		Id<Person> agentId = o.getAgentId();
-		Activity activity = o.getActivity();
-		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
+	public void handleActivity(PersonExperiencedActivity o) {
+		dispatch(o.getAgentId(), o.getActivity());
+	}
+
+	private void scoreActivity(Id<Person> agentId, Activity activity) {
+		ScoringFunction scoringFunction = getScoringFunctionForAgent(agentId);
 		if (scoringFunction != null) {
 			scoringFunction.handleActivity(activity);
-			TDoubleCollection partialScoresForAgent = partialScores.get(agentId);
+			TDoubleCollection partialScoresForAgent = getShard(agentId).partialScores.get(agentId);
 			partialScoresForAgent.add(scoringFunction.getScore());
 		}
 	}
@@ -203,16 +305,23 @@ import gnu.trove.list.array.TDoubleArrayList;
 	 * already has a scoring function, that one is returned. If the agent does
 	 * not yet have a scoring function, a new one is created and assigned to the
 	 * agent and returned.
+	 * <p></p>
+	 * While the shards handle their persons on their own threads, i.e. between the start of the iteration and
+	 * {@link #finishScoringFunctions()}, the returned scoring function may be in use concurrently.  The shard threads
+	 * keep running between iterations, but have nothing to do then.
 	 *
 	 * @param agentId
 	 *            The id of the agent the scoring function is requested for.
 	 * @return The scoring function for the specified agent.
 	 */
 	public ScoringFunction getScoringFunctionForAgent(final Id<Person> agentId) {
-		return this.agentScorers.get(agentId);
+		return getShard(agentId).agentScorers.get(agentId);
 	}
 
 	public void finishScoringFunctions() {
+		MetricsRegistry.Timer timer = MetricsRegistry.getInstance().timer("scoring.finish");
+		long start = timer.start();
+		awaitShards();
 		// Rethrow an exception in a scoring function (user code) if there was one.
 		Throwable throwable = exception.get();
 		if (throwable != null) {
@@ -222,19 +331,152 @@ import gnu.trove.list.array.TDoubleArrayList;
 				throw new RuntimeException(throwable);
 			}
 		}
-		for (ScoringFunction sf : this.agentScorers.values()) {
-			sf.finish();
+		for (Shard shard : this.shards) {
+			for (ScoringFunction sf : shard.agentScorers.values()) {
+				sf.finish();
+			}
+			for (Entry<Id<Person>, TDoubleCollection> entry : shard.partialScores.entrySet()) {
+				entry.getValue().add(shard.agentScorers.get(entry.getKey()).getScore());
+			}
+		}
+		timer.stop(start);
+	}
+
+	private void startShardThreads() {
+		if (this.shardThreadsRunning) {
+			return;
 		}
-		for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
-			entry.getValue().add(this.getScoringFunctionForAgent(entry.getKey()).getScore());
+		for (int i = 0; i < this.shards.length; i++) {
+			Thread thread = new Thread(this.shards[i], "ScoringFunctionsForPopulation." + i);
+			thread.setDaemon(true);
+			this.shards[i].thread = thread;
+			thread.start();
+		}
+		this.shardThreadsRunning = true;
+	}
+
+	/**
+	 * Hands the collected events, legs and activities over to the shard threads.
+	 */
+	private void handOverBatches() {
+		for (Shard shard : this.shards) {
+			synchronized (shard) {
+				if (!shard.batch.isEmpty()) {
+					shard.queue.add(shard.batch);
+					shard.batch = new Batch(null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits until the shards have handled everything they got so far.
+	 */
+	private void awaitShards() {
+		if (!this.shardThreadsRunning) {
+			return;
+		}
+		handOverBatches();
+		this.lastEventTime = Double.NEGATIVE_INFINITY;
+		CountDownLatch done = new CountDownLatch(this.shards.length);
+		for (Shard shard : this.shards) {
+			shard.queue.add(new Batch(done));
+		}
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Waits until the shards have handled everything they got so far, and stops their threads.
+	 */
+	void stopShardThreads() {
+		if (!this.shardThreadsRunning) {
+			return;
+		}
+		handOverBatches();
+		this.shardThreadsRunning = false;
+		try {
+			for (Shard shard : this.shards) {
+				shard.queue.add(STOP);
+				shard.thread.join();
+				shard.thread = null;
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static final Batch STOP = new Batch(null);
+
+	/**
+	 * The events, legs and activities of the persons of a shard, in the order in which they arrived.
+	 */
+	private static final class Batch {
+		final List<Id<Person>> personIds = new ArrayList<>();
+		final List<Object> tasks = new ArrayList<>();
+		/** counted down when the shard thread reaches this batch, if not <code>null</code> */
+		final CountDownLatch done;
+
+		Batch(final CountDownLatch done) {
+			this.done = done;
+		}
+
+		void add(final Id<Person> personId, final Object task) {
+			this.personIds.add(personId);
+			this.tasks.add(task);
+		}
+
+		boolean isEmpty() {
+			return this.tasks.isEmpty();
+		}
+	}
+
+	private final class Shard implements Runnable {
+		final Map<Id<Person>, ScoringFunction> agentScorers = new HashMap<>();
+		final Map<Id<Person>, TDoubleCollection> partialScores = new HashMap<>();
+		final BlockingQueue<Batch> queue = new LinkedBlockingQueue<>();
+		/** collects the tasks until they are handed over to the queue; guarded by the shard */
+		Batch batch = new Batch(null);
+		Thread thread = null;
+
+		@Override
+		public void run() {
+			try {
+				while (true) {
+					Batch batch = this.queue.take();
+					if (batch == STOP) {
+						return;
+					}
+					if (batch.done != null) {
+						batch.done.countDown();
+						continue;
+					}
+					if (exception.get() != null) {
+						// the scores are useless anyway, the exception is rethrown when finishing
+						continue;
+					}
+					try {
+						for (int i = 0; i < batch.tasks.size(); i++) {
+							handle(batch.personIds.get(i), batch.tasks.get(i));
+						}
+					} catch (Throwable t) {
+						exception.compareAndSet(null, t);
+					}
+				}
+			} catch (InterruptedException e) {
+				exception.compareAndSet(null, e);
+			}
 		}
 	}
 
 	public void writePartialScores(String iterationFilename) {
 		try ( BufferedWriter out = IOUtils.getBufferedWriter(iterationFilename) ) {
-			for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
-				out.write(entry.getKey().toString());
-				TDoubleIterator iterator = entry.getValue().iterator();
+			for (Id<Person> personId : this.personIds) {
+				out.write(personId.toString());
+				TDoubleIterator iterator = getShard(personId).partialScores.get(personId).iterator();
 				while (iterator.hasNext()) {
 					out.write('\t' + String.valueOf(iterator.next()));
 				}
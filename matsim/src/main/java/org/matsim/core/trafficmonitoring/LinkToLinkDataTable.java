@@ -0,0 +1,124 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculator.DataContainer;
+import org.matsim.core.utils.collections.Tuple;
+
+/**
+ * Stores the {@link DataContainer}s for link-to-link travel times.  All turns of the network, i.e. all pairs of a link
+ * and one of the out-links of its to-node, get a fixed slot in one array, with the turns of a from-link stored consecutively.
+ * Looking up a turn is thus one map lookup for the from-link and a short linear search over its out-links, without
+ * allocating a key object.  Pairs of links which are not connected in the network (should not happen, but the events
+ * might say so) are stored in a map as before.
+ * <p></p>
+ * Thread-safe: data containers are created lazily with compare-and-set, so routing threads may query concurrently.
+ */
+final class LinkToLinkDataTable {
+
+	private final Map<Id<Link>, Integer> fromLinkIndices;
+	private final int[] turnsStart;
+	private final List<Id<Link>> turnToLinks;
+	private final AtomicReferenceArray<DataContainer> turnData;
+	private final Map<Tuple<Id<Link>, Id<Link>>, DataContainer> otherData = new ConcurrentHashMap<>();
+	/** the factory can be changed on the {@link TravelTimeCalculator} after construction, so it is looked up when needed */
+	private final Supplier<TravelTimeDataFactory> factoryProvider;
+
+	LinkToLinkDataTable(final Network network, final Supplier<TravelTimeDataFactory> factoryProvider) {
+		this.factoryProvider = factoryProvider;
+		int linkCount = network.getLinks().size();
+		this.fromLinkIndices = new HashMap<>((int) (linkCount / 0.75) + 1);
+		this.turnsStart = new int[linkCount + 1];
+		ArrayList<Id<Link>> toLinks = new ArrayList<>();
+		int index = 0;
+		for (Link link : network.getLinks().values()) {
+			this.fromLinkIndices.put(link.getId(), index);
+			this.turnsStart[index] = toLinks.size();
+			for (Link outLink : link.getToNode().getOutLinks().values()) {
+				toLinks.add(outLink.getId());
+			}
+			index++;
+		}
+		this.turnsStart[linkCount] = toLinks.size();
+		toLinks.trimToSize();
+		this.turnToLinks = toLinks;
+		this.turnData = new AtomicReferenceArray<>(toLinks.size());
+	}
+
+	DataContainer getData(final Id<Link> fromLinkId, final Id<Link> toLinkId, final boolean createIfMissing) {
+		int turn = findTurn(fromLinkId, toLinkId);
+		if (turn < 0) {
+			Tuple<Id<Link>, Id<Link>> key = new Tuple<>(fromLinkId, toLinkId);
+			DataContainer data = this.otherData.get(key);
+			if (data == null && createIfMissing) {
+				data = this.otherData.computeIfAbsent(key, k -> createData(fromLinkId));
+			}
+			return data;
+		}
+		DataContainer data = this.turnData.get(turn);
+		if (data == null && createIfMissing) {
+			this.turnData.compareAndSet(turn, null, createData(fromLinkId));
+			data = this.turnData.get(turn);
+		}
+		return data;
+	}
+
+	void forEach(final Consumer<DataContainer> action) {
+		for (int i = 0; i < this.turnData.length(); i++) {
+			DataContainer data = this.turnData.get(i);
+			if (data != null) {
+				action.accept(data);
+			}
+		}
+		this.otherData.values().forEach(action);
+	}
+
+	private int findTurn(final Id<Link> fromLinkId, final Id<Link> toLinkId) {
+		Integer fromIndex = this.fromLinkIndices.get(fromLinkId);
+		if (fromIndex == null) {
+			return -1;
+		}
+		int end = this.turnsStart[fromIndex + 1];
+		for (int turn = this.turnsStart[fromIndex]; turn < end; turn++) {
+			Id<Link> candidate = this.turnToLinks.get(turn);
+			if (candidate == toLinkId || candidate.equals(toLinkId)) {
+				return turn;
+			}
+		}
+		return -1;
+	}
+
+	private DataContainer createData(final Id<Link> fromLinkId) {
+		return new DataContainer(this.factoryProvider.get().createTravelTimeData(fromLinkId));
+	}
+
+}
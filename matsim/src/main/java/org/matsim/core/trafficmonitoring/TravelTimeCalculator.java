@@ -19,7 +19,7 @@
  * *********************************************************************** */
 package org.matsim.core.trafficmonitoring;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -47,7 +47,6 @@ import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.collections.CollectionUtils;
-import org.matsim.core.utils.collections.Tuple;
 import org.matsim.vehicles.Vehicle;
 
 import com.google.inject.Inject;
@@ -63,6 +62,10 @@ import com.google.inject.Inject;
  * use {@link TravelTimeDataHashMap} (see {@link #setTravelTimeDataFactory(TravelTimeDataFactory)}
  * as that one does not use any memory to time bins where no traffic occurred. By default,
  * {@link TravelTimeDataArray} is used.
+ * <br>
+ * The state of vehicles currently on a link (time and link of the last link enter event, whether the vehicle is
+ * ignored because of its mode) is stored in arrays indexed by a vehicle index assigned on first sight, and
+ * link-to-link data in a {@link LinkToLinkDataTable}, so handling an event does not allocate any objects.
  * 
  * @author dgrether
  * @author mrieser
@@ -82,13 +85,16 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 
 	private Map<Id<Link>, DataContainer> linkData;
 
-	private Map<Tuple<Id<Link>, Id<Link>>, DataContainer> linkToLinkData;
+	private LinkToLinkDataTable linkToLinkData;
 
 	private final DataContainerProvider dataContainerProvider;
-	
-	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
 
-	private final Set<Id<Vehicle>> vehiclesToIgnore;
+	private final Map<Id<Vehicle>, Integer> vehicleIndices = new ConcurrentHashMap<>();
+	private int vehicleCount = 0;
+	/** the link the vehicle entered last, or <code>null</code> if the vehicle is not on a link currently */
+	private Id<Link>[] enterLinkIds;
+	private double[] enterTimes;
+	private boolean[] vehiclesToIgnore;
 	private final Set<String> analyzedModes;
 
 	private final boolean filterAnalyzedModes;
@@ -191,14 +197,16 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 			this.dataContainerProvider = new ArrayBasedDataContainerProvider(linkData, ttDataFactory, network);
 		} else this.dataContainerProvider = null;
 		if (this.calculateLinkToLinkTravelTimes){
-			// assume that every link has 2 outgoing links as default
-			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
+			this.linkToLinkData = new LinkToLinkDataTable(network, () -> this.ttDataFactory);
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Id<Link>[] linkIds = new Id[64];
+		this.enterLinkIds = linkIds;
+		this.enterTimes = new double[64];
 
 		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
 		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
+		this.vehiclesToIgnore = new boolean[64];
 
 
 		this.reset(0);
@@ -209,25 +217,26 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 	public void handleEvent(final LinkEnterEvent e) {
 		/* if only some modes are analyzed, we check whether the vehicles
 		 * performs a trip with one of those modes. if not, we skip the event. */
-		if (filterAnalyzedModes && vehiclesToIgnore.contains(e.getVehicleId())) return;
+		int index = getVehicleIndex(e.getVehicleId());
+		if (filterAnalyzedModes && this.vehiclesToIgnore[index]) return;
 
-		LinkEnterEvent oldEvent = this.linkEnterEvents.remove(e.getVehicleId());
-		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
-			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
-			DataContainer data = getLinkToLinkTravelTimeData(fromToLink, true);
-			this.aggregator.addTravelTime(data.ttData, oldEvent.getTime(), e.getTime());
+		Id<Link> oldLinkId = this.enterLinkIds[index];
+		if ((oldLinkId != null) && this.calculateLinkToLinkTravelTimes) {
+			DataContainer data = this.linkToLinkData.getData(oldLinkId, e.getLinkId(), true);
+			this.aggregator.addTravelTime(data.ttData, this.enterTimes[index], e.getTime());
 			data.needsConsolidation = true;
 		}
-		this.linkEnterEvents.put(e.getVehicleId(), e);
+		this.enterLinkIds[index] = e.getLinkId();
+		this.enterTimes[index] = e.getTime();
 	}
 
 	@Override
 	public void handleEvent(final LinkLeaveEvent e) {
 		if (this.calculateLinkTravelTimes) {
-			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
-			if (oldEvent != null) {
+			int index = findVehicleIndex(e.getVehicleId());
+			if (index >= 0 && this.enterLinkIds[index] != null) {
 				DataContainer data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
-				this.aggregator.addTravelTime(data.ttData, oldEvent.getTime(), e.getTime());
+				this.aggregator.addTravelTime(data.ttData, this.enterTimes[index], e.getTime());
 				data.needsConsolidation = true;
 			}
 		}
@@ -239,19 +248,22 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		 * starts a leg on a non analyzed transport mode, add the vehicle 
 		 * to the filtered vehicles set. */
 		if (filterAnalyzedModes && !analyzedModes.contains(event.getNetworkMode())) { 
-			this.vehiclesToIgnore.add(event.getVehicleId());
+			this.vehiclesToIgnore[getVehicleIndex(event.getVehicleId())] = true;
 		}
 	}
 
 	@Override
 	public void handleEvent(final VehicleLeavesTrafficEvent event) {
+		int index = findVehicleIndex(event.getVehicleId());
+		if (index < 0) return;
+
 		/* remove EnterEvents from list when a vehicle arrives.
 		 * otherwise, the activity duration would counted as travel time, when the
 		 * vehicle departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		this.enterLinkIds[index] = null;
 
 		// try to remove vehicles from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.vehiclesToIgnore[index] = false;
 	}
 
 	@Override
@@ -259,16 +271,21 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		/* remove EnterEvents from list when a bus stops on a link.
 		 * otherwise, the stop time would counted as travel time, when the
 		 * bus departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		int index = findVehicleIndex(event.getVehicleId());
+		if (index >= 0) this.enterLinkIds[index] = null;
 	}
 
 	@Override
 	public void handleEvent(VehicleAbortsEvent event) {
-		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
-		if (e != null) {
-			DataContainer data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
+		int index = findVehicleIndex(event.getVehicleId());
+		if (index < 0) return;
+
+		Id<Link> enterLinkId = this.enterLinkIds[index];
+		if (enterLinkId != null) {
+			this.enterLinkIds[index] = null;
+			DataContainer data = this.dataContainerProvider.getTravelTimeData(enterLinkId, true);
 			data.needsConsolidation = true;
-			this.aggregator.addStuckEventTravelTime(data.ttData, e.getTime(), event.getTime());
+			this.aggregator.addStuckEventTravelTime(data.ttData, this.enterTimes[index], event.getTime());
 			if (this.calculateLinkToLinkTravelTimes 
 					&& event.getTime() < qsimConfig.getEndTime() 
 					// (we think that this only makes problems when the abort is not just because of mobsim end time. kai & theresa, jan'17) 
@@ -279,18 +296,35 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		}
 
 		// try to remove vehicle from set with filtered vehicles
-		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
+		if (filterAnalyzedModes) this.vehiclesToIgnore[index] = false;
 	}
 
-	private DataContainer getLinkToLinkTravelTimeData(Tuple<Id<Link>, Id<Link>> fromLinkToLink, final boolean createIfMissing) {
-		DataContainer data = this.linkToLinkData.get(fromLinkToLink);
-		if ((null == data) && createIfMissing) {
-			data = new DataContainer(this.ttDataFactory.createTravelTimeData(fromLinkToLink.getFirst()));
-			this.linkToLinkData.put(fromLinkToLink, data);
+	/**
+	 * @return the index of the vehicle in the per-vehicle arrays; assigns a new index if the vehicle was not seen before.
+	 */
+	private int getVehicleIndex(final Id<Vehicle> vehicleId) {
+		Integer index = this.vehicleIndices.get(vehicleId);
+		if (index == null) {
+			index = this.vehicleCount++;
+			this.vehicleIndices.put(vehicleId, index);
+			if (index == this.enterTimes.length) {
+				int newLength = 2 * index;
+				this.enterLinkIds = Arrays.copyOf(this.enterLinkIds, newLength);
+				this.enterTimes = Arrays.copyOf(this.enterTimes, newLength);
+				this.vehiclesToIgnore = Arrays.copyOf(this.vehiclesToIgnore, newLength);
+			}
 		}
-		return data;
+		return index;
 	}
-	
+
+	/**
+	 * @return the index of the vehicle in the per-vehicle arrays, or -1 if the vehicle was not seen before.
+	 */
+	private int findVehicleIndex(final Id<Vehicle> vehicleId) {
+		Integer index = this.vehicleIndices.get(vehicleId);
+		return index == null ? -1 : index;
+	}
+
 	/*
 	 * Use the link as argument here! In case the DataContainer is array-based and the link is from a routing network,
 	 * the DataContainer uses the link's index to access its data structures instead of performing a map lookup, which
@@ -338,12 +372,35 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 				"if calculation is switched off by config option!");
 	}
 
+	/**
+	 * @return the consolidated travel time data of the link, or <code>null</code> if no vehicle has traveled on the link
+	 * yet; no data container is created for such links.
+	 */
+	/*package*/ TravelTimeData getConsolidatedTravelTimeData(final Link link) {
+		if (!this.calculateLinkTravelTimes) {
+			throw new IllegalStateException("No link travel time is available " +
+					"if calculation is switched off by config option!");
+		}
+		DataContainer data = this.dataContainerProvider.getTravelTimeData(link, false);
+		if (data == null) {
+			return null;
+		}
+		if (data.needsConsolidation) {
+			consolidateData(data);
+		}
+		return data.ttData;
+	}
+
+	/*package*/ boolean isInterpolatingTravelTimes() {
+		return this.aggregator.getTravelTimeGetter() instanceof LinearInterpolatingTravelTimeGetter;
+	}
+
 	public double getLinkToLinkTravelTime(final Id<Link> fromLinkId, final Id<Link> toLinkId, double time) {
 		if (!this.calculateLinkToLinkTravelTimes) {
 			throw new IllegalStateException("No link to link travel time is available " +
 					"if calculation is switched off by config option!");
 		}
-		DataContainer data = this.getLinkToLinkTravelTimeData(new Tuple<>(fromLinkId, toLinkId), true);
+		DataContainer data = this.linkToLinkData.getData(fromLinkId, toLinkId, true);
 		if (data.needsConsolidation) {
 			consolidateData(data);
 		}
@@ -359,13 +416,13 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 			}
 		}
 		if (this.calculateLinkToLinkTravelTimes){
-			for (DataContainer data : this.linkToLinkData.values()){
+			this.linkToLinkData.forEach(data -> {
 				data.ttData.resetTravelTimes();
 				data.needsConsolidation = false;
-			}
+			});
 		}
-		this.linkEnterEvents.clear();
-		this.vehiclesToIgnore.clear();
+		Arrays.fill(this.enterLinkIds, null);
+		Arrays.fill(this.vehiclesToIgnore, false);
 	}
 
 	public void setTravelTimeDataFactory(final TravelTimeDataFactory factory) {
@@ -31,6 +31,7 @@ import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
 import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.PopulationSample;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.collections.CollectionUtils;
@@ -50,6 +51,9 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 
 	@Override
 	public void install() {
+		// sampled iterations must not change the travel times for the router, which only the snapshot can ensure
+		boolean useSnapshot = getConfig().travelTimeCalculator().isUseTravelTimeSnapshot()
+				|| getConfig().controler().getSampledIterationsFraction() < 1.0;
 		if (getConfig().travelTimeCalculator().getSeparateModes()) {
 			if (getConfig().travelTimeCalculator().isCalculateLinkToLinkTravelTimes()) {
 				throw new RuntimeException("separate modes together with link2link routing currently not implemented. doesn't look difficult, "
@@ -62,6 +66,13 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 				bind(TravelTimeCalculator.class).annotatedWith(Names.named(mode)).toProvider(new SingleModeTravelTimeCalculatorProvider(mode)).in(Singleton.class);
 
 				// bind the observer to travel time provider (for router):
+				if (useSnapshot) {
+					Key<TravelTimeSnapshot> snapshotKey = Key.get(TravelTimeSnapshot.class, Names.named(mode));
+					bind(snapshotKey).toProvider(new TravelTimeSnapshotProvider(Key.get(TravelTimeCalculator.class, Names.named(mode)))).in(Singleton.class);
+					addControlerListenerBinding().to(snapshotKey);
+					addTravelTimeBinding(mode).to(snapshotKey);
+					continue;
+				}
 				addTravelTimeBinding(mode).toProvider(new Provider<TravelTime>() {
 					@Inject Injector injector;
 					@Override public TravelTime get() {
@@ -76,7 +87,14 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			bind(TravelTimeCalculator.class).in(Singleton.class);
 			
 			// bind the TravelTime objects.  In this case, this just passes on the same information from TravelTimeCalculator to each individual mode:
-			if (getConfig().travelTimeCalculator().isCalculateLinkTravelTimes()) {
+			if (getConfig().travelTimeCalculator().isCalculateLinkTravelTimes() && useSnapshot) {
+				// (the router gets a copy of the travel times, which is updated after each mobsim)
+				bind(TravelTimeSnapshot.class).toProvider(new TravelTimeSnapshotProvider(Key.get(TravelTimeCalculator.class))).in(Singleton.class);
+				addControlerListenerBinding().to(TravelTimeSnapshot.class);
+				for (String mode : CollectionUtils.stringToSet(getConfig().travelTimeCalculator().getAnalyzedModes())) {
+					addTravelTimeBinding(mode).to(TravelTimeSnapshot.class);
+				}
+			} else if (getConfig().travelTimeCalculator().isCalculateLinkTravelTimes()) {
 				for (String mode : CollectionUtils.stringToSet(getConfig().travelTimeCalculator().getAnalyzedModes())) {
 					addTravelTimeBinding(mode).toProvider(ObservedLinkTravelTimes.class);
 				}
@@ -87,6 +105,26 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 		}
 	}
 
+	private static class TravelTimeSnapshotProvider implements Provider<TravelTimeSnapshot> {
+
+		@Inject Injector injector;
+		@Inject Network network;
+		@com.google.inject.Inject(optional = true) PopulationSample populationSample = null;
+
+		private final Key<TravelTimeCalculator> calculatorKey;
+
+		TravelTimeSnapshotProvider(Key<TravelTimeCalculator> calculatorKey) {
+			this.calculatorKey = calculatorKey;
+		}
+
+		@Override
+		public TravelTimeSnapshot get() {
+			TravelTimeSnapshot snapshot = new TravelTimeSnapshot(network, injector.getInstance(calculatorKey));
+			snapshot.setPopulationSample(populationSample);
+			return snapshot;
+		}
+	}
+
 	private static class SingleModeTravelTimeCalculatorProvider implements Provider<TravelTimeCalculator> {
 
 		@Inject TravelTimeCalculatorConfigGroup config;
@@ -0,0 +1,147 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.controler.PopulationSample;
+import org.matsim.core.controler.events.AfterMobsimEvent;
+import org.matsim.core.controler.listener.AfterMobsimListener;
+import org.matsim.core.router.priorityqueue.HasIndex;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * A frozen copy of the link travel times of a {@link TravelTimeCalculator}, stored as one <code>float</code> per link
+ * and time bin.  Looking up a travel time is an array access (or two, if the calculator interpolates linearly between
+ * time bins), instead of going through the data containers, aggregator and getter of the calculator.  A table is
+ * never modified after it was created, but replaced as a whole, so all routing threads can share the snapshot.
+ * <p></p>
+ * The snapshot is re-created from the calculator after every mobsim, i.e. it contains the travel times of the last
+ * iteration during replanning, like the calculator itself.  During the mobsim it still contains the travel times of the
+ * previous iteration, while the calculator would return the partial travel times of the current one.
+ * With a {@link PopulationSample}, the snapshot is only re-created after iterations with the full population.
+ */
+public final class TravelTimeSnapshot implements TravelTime, AfterMobsimListener {
+
+	private final TravelTimeCalculator calculator;
+	private final Link[] links;
+	private final Map<Id<Link>, Integer> linkIndices;
+	private final int binSize;
+	private final int numSlots;
+	private final double halfBinSize;
+
+	/** maps the array index of links of routing networks to the index of the link in this snapshot, plus one */
+	private final int[] routingLinkIndices;
+
+	private volatile float[][] travelTimes;
+	private volatile boolean interpolate;
+
+	private PopulationSample populationSample = null;
+
+	public TravelTimeSnapshot(final Network network, final TravelTimeCalculator calculator) {
+		this.calculator = calculator;
+		this.links = network.getLinks().values().toArray(new Link[network.getLinks().size()]);
+		this.linkIndices = new HashMap<>((int) (this.links.length / 0.75) + 1);
+		for (int i = 0; i < this.links.length; i++) {
+			this.linkIndices.put(this.links[i].getId(), i);
+		}
+		this.routingLinkIndices = new int[this.links.length];
+		this.binSize = calculator.getTimeSlice();
+		this.numSlots = calculator.getNumSlots();
+		this.halfBinSize = this.binSize / 2.0;
+		update();
+	}
+
+	/**
+	 * Re-creates the table from the current travel times of the calculator.
+	 */
+	public void update() {
+		float[][] table = new float[this.links.length][];
+		for (int i = 0; i < this.links.length; i++) {
+			TravelTimeData data = this.calculator.getConsolidatedTravelTimeData(this.links[i]);
+			float[] linkTimes = new float[this.numSlots];
+			for (int slot = 0; slot < this.numSlots; slot++) {
+				double time = slot * (double) this.binSize;
+				// without data, the calculator returns the free speed travel time, too
+				linkTimes[slot] = (float) (data == null ? this.links[i].getLength() / this.links[i].getFreespeed(time) : data.getTravelTime(slot, time));
+			}
+			table[i] = linkTimes;
+		}
+		this.interpolate = this.calculator.isInterpolatingTravelTimes();
+		this.travelTimes = table;
+	}
+
+	@Override
+	public void notifyAfterMobsim(final AfterMobsimEvent event) {
+		if (this.populationSample == null || this.populationSample.isFullIteration()) {
+			update();
+		}
+	}
+
+	/*package*/ void setPopulationSample(final PopulationSample populationSample) {
+		this.populationSample = populationSample;
+	}
+
+	@Override
+	public double getLinkTravelTime(final Link link, final double time, final Person person, final Vehicle vehicle) {
+		float[] linkTimes = this.travelTimes[getIndex(link)];
+		int slot = TimeBinUtils.getTimeBinIndex(time, this.binSize, this.numSlots);
+		if (!this.interpolate || time <= this.halfBinSize || time >= this.numSlots * this.binSize - this.halfBinSize) {
+			return linkTimes[slot];
+		}
+		// same as in LinearInterpolatingTravelTimeGetter
+		int firstSlot = (slot * this.binSize + this.halfBinSize > time) ? slot - 1 : slot;
+		double dx = time - (firstSlot * this.binSize + this.halfBinSize);
+		return linkTimes[firstSlot] + (linkTimes[firstSlot + 1] - linkTimes[firstSlot]) * dx / this.binSize;
+	}
+
+	private int getIndex(final Link link) {
+		if (link instanceof HasIndex) {
+			int arrayIndex = ((HasIndex) link).getArrayIndex();
+			if (arrayIndex < this.routingLinkIndices.length) {
+				int index = this.routingLinkIndices[arrayIndex] - 1;
+				// several routing networks (e.g. filtered by mode) may use the same array index for different links
+				if (index >= 0 && this.links[index].getId() == link.getId()) {
+					return index;
+				}
+				// racing writes are harmless, at worst the lookup is done more than once
+				index = lookupIndex(link);
+				this.routingLinkIndices[arrayIndex] = index + 1;
+				return index;
+			}
+		}
+		return lookupIndex(link);
+	}
+
+	private int lookupIndex(final Link link) {
+		Integer index = this.linkIndices.get(link.getId());
+		if (index == null) {
+			throw new IllegalArgumentException("link " + link.getId() + " is not part of the network of this travel time snapshot.");
+		}
+		return index;
+	}
+
+}
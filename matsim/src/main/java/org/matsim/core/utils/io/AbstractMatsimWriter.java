@@ -25,7 +25,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
-import java.util.zip.GZIPOutputStream;
 
 
 /**
@@ -79,14 +78,10 @@ public abstract class AbstractMatsimWriter {
 	 */
 	protected final void openOutputStream(OutputStream outputStream) {
 		assertNotAlreadyOpen();
-		try {
-			if (this.useCompression == null || this.useCompression) {
-				this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
-			} else {
-				this.writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(outputStream), StandardCharsets.UTF_8));
-			}
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
+		if (this.useCompression == null || this.useCompression) {
+			this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		} else {
+			this.writer = new BufferedWriter(new OutputStreamWriter(new ParallelGzipOutputStream(outputStream), StandardCharsets.UTF_8));
 		}
 	}
 
@@ -20,6 +20,8 @@
 
 package org.matsim.core.utils.io;
 
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
 import net.jpountz.lz4.LZ4BlockInputStream;
 import net.jpountz.lz4.LZ4BlockOutputStream;
 import org.apache.log4j.Logger;
@@ -48,14 +50,16 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Locale;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /** A class with some static utility functions for file-I/O. */
 public class IOUtils {
 
 	private static final String GZ = ".gz";
 	private static final String LZ4 = ".lz4";
+	private static final String ZST = ".zst";
+
+	/** The compression level used for zstd-compressed files if no other level is given, see {@link #getOutputStream(String, boolean, int)}. */
+	public static final int DEFAULT_ZSTD_COMPRESSION_LEVEL = 3;
 
 	public static final Charset CHARSET_UTF8 = StandardCharsets.UTF_8;
 	public static final Charset CHARSET_WINDOWS_ISO88591 = StandardCharsets.ISO_8859_1;
@@ -88,7 +92,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for reading and returns a BufferedReader for it.
-	 * Supports gzip-compressed files, such files are automatically decompressed.
+	 * Supports gzip- and zstd-compressed files (ending ".gz" or ".zst"), such files are automatically decompressed.
 	 * If the file is not found, a gzip-compressed version of the file with the
 	 * added ending ".gz" will be searched for and used if found. Assumes that the text
 	 * in the file is stored in UTF-8 (without BOM).
@@ -109,7 +113,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for reading and returns a BufferedReader for it.
-	 * Supports gzip-compressed files, such files are automatically decompressed.
+	 * Supports gzip- and zstd-compressed files (ending ".gz" or ".zst"), such files are automatically decompressed.
 	 * If the file is not found, a gzip-compressed version of the file with the
 	 * added ending ".gz" will be searched for and used if found.
 	 *
@@ -156,7 +160,8 @@ public class IOUtils {
 	 * Supports gzip-compression of the written data. The filename may contain the
 	 * ending ".gz". If no compression is to be used, the ending will be removed
 	 * from the filename. If compression is to be used and the filename does not yet
-	 * have the ending ".gz", the ending will be added to it.
+	 * have the ending ".gz" (or the ending of another supported compression, e.g. ".zst"),
+	 * the ending ".gz" will be added to it.
 	 *
 	 * @param filename The filename where to write the data.
 	 * @param useCompression whether the file should be gzip-compressed or not.
@@ -167,7 +172,7 @@ public class IOUtils {
 		if (filename == null) {
 			throw new UncheckedIOException(new FileNotFoundException("No filename given (filename == null)"));
 		}
-		if (useCompression && !filename.endsWith(GZ)) {
+		if (useCompression && !filename.endsWith(GZ) && !filename.endsWith(ZST) && !filename.endsWith(LZ4)) {
 			return getBufferedWriter(filename + GZ);
 		} else if (!useCompression && filename.endsWith(GZ)) {
 			return getBufferedWriter(filename.substring(0, filename.length() - 3));
@@ -179,7 +184,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for writing and returns a BufferedWriter for it.
-	 * If the filename ends with ".gz", data will be automatically gzip-compressed.
+	 * If the filename ends with ".gz" or ".zst", data will be automatically gzip- or zstd-compressed.
 	 * The data written will be encoded as UTF-8 (only relevant if you use Umlauts or
 	 * other characters not used in plain English).
 	 *
@@ -194,7 +199,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for writing and returns a BufferedWriter for it.
-	 * If the filename ends with ".gz", data will be automatically gzip-compressed.
+	 * If the filename ends with ".gz" or ".zst", data will be automatically gzip- or zstd-compressed.
 	 * The data written will be encoded as UTF-8 (only relevant if you use Umlauts or
 	 * other characters not used in plain English). If the file already exists, content
 	 * will not be overwritten, but new content be appended to the file.
@@ -210,7 +215,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for writing and returns a BufferedWriter for it.
-	 * If the filename ends with ".gz", data will be automatically gzip-compressed.
+	 * If the filename ends with ".gz" or ".zst", data will be automatically gzip- or zstd-compressed.
 	 *
 	 * @param filename The filename where to write the data.
 	 * @param charset the encoding to use to write the file.
@@ -224,7 +229,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for writing and returns a BufferedWriter for it.
-	 * If the filename ends with ".gz", data will be automatically gzip-compressed. If
+	 * If the filename ends with ".gz" or ".zst", data will be automatically gzip- or zstd-compressed. If
 	 * the file already exists, content will not be overwritten, but new content be
 	 * appended to the file.
 	 *
@@ -240,7 +245,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for writing and returns a BufferedWriter for it.
-	 * If the filename ends with ".gz", data will be automatically gzip-compressed.
+	 * If the filename ends with ".gz" or ".zst", data will be automatically gzip- or zstd-compressed.
 	 *
 	 * @param filename The filename where to write the data.
 	 * @param charset the encoding to use to write the file.
@@ -305,7 +310,7 @@ public class IOUtils {
 
 	/**
 	 * Tries to open the specified file for reading and returns an InputStream for it.
-	 * Supports gzip-compressed files, such files are automatically decompressed.
+	 * Supports gzip- and zstd-compressed files (ending ".gz" or ".zst"), such files are automatically decompressed.
 	 * If the file is not found, a gzip-compressed version of the file with the
 	 * added ending ".gz" will be searched for and used if found.
 	 *
@@ -324,20 +329,24 @@ public class IOUtils {
 			// search in file system
 			if (new File(filename).exists()) {
 				if (filename.endsWith(GZ)) {
-					inputStream = new GZIPInputStream(new FileInputStream(filename));
+					inputStream = new ParallelGzipInputStream(new FileInputStream(filename));
 				}else if (filename.endsWith(LZ4)) {
 					inputStream = new UnicodeInputStream(new LZ4BlockInputStream(new FileInputStream(filename)));
+				} else if (filename.endsWith(ZST)) {
+					inputStream = new ZstdInputStream(new FileInputStream(filename));
 				} else {
 					inputStream = new FileInputStream(filename);
 				}
 			} else if (new File(filename + GZ).exists()) {
-				inputStream = new GZIPInputStream(new FileInputStream(filename + GZ));
+				inputStream = new ParallelGzipInputStream(new FileInputStream(filename + GZ));
+			} else if (new File(filename + ZST).exists()) {
+				inputStream = new ZstdInputStream(new FileInputStream(filename + ZST));
 			}  else {
 				// search in classpath
 				InputStream stream = IOUtils.class.getClassLoader().getResourceAsStream(filename);
 				if (stream != null) {
 					if (filename.endsWith(GZ)) {
-						inputStream = new GZIPInputStream(stream);
+						inputStream = new ParallelGzipInputStream(stream);
 					}
 					else {
 						inputStream = stream;
@@ -345,7 +354,7 @@ public class IOUtils {
 				} else {
 					stream = IOUtils.class.getClassLoader().getResourceAsStream(filename + GZ);
 					if (stream != null) {
-						inputStream = new GZIPInputStream(stream);
+						inputStream = new ParallelGzipInputStream(stream);
 					}
 				}
 				if (inputStream != null) {
@@ -363,8 +372,10 @@ public class IOUtils {
 
 	public static InputStream getInputStream(URL url) throws UncheckedIOException {
 		try {
-			if (url.getFile().endsWith(".gz")) {
-				return new GZIPInputStream(url.openStream());
+			if (url.getFile().endsWith(GZ)) {
+				return new ParallelGzipInputStream(url.openStream());
+			} else if (url.getFile().endsWith(ZST)) {
+				return new ZstdInputStream(url.openStream());
 			} else {
 				return url.openStream();
 			}
@@ -380,13 +391,25 @@ public class IOUtils {
 	/**
 	 * Returns a buffered and optionally gzip-compressed output stream to the specified file.
 	 * If the given filename ends with ".gz", the written file content will be automatically 
-	 * compressed with the gzip-algorithm.
+	 * compressed with the gzip-algorithm, using several threads (see {@link ParallelGzipOutputStream}).
+	 * If it ends with ".zst", the content will be compressed with zstd, also using several threads,
+	 * at the {@link #DEFAULT_ZSTD_COMPRESSION_LEVEL default level}.
 	 * 
 	 * @throws UncheckedIOException if the file cannot be created.
 	 * 
 	 * <br> author mrieser
 	 */
 	public static OutputStream getOutputStream(final String filename, boolean append) throws UncheckedIOException {
+		return getOutputStream(filename, append, DEFAULT_ZSTD_COMPRESSION_LEVEL);
+	}
+
+	/**
+	 * Like {@link #getOutputStream(String, boolean)}, but files ending with ".zst" are compressed at the given
+	 * level, from 1 (fastest) to 19 (smallest). The level is ignored for all other files.
+	 *
+	 * @throws UncheckedIOException if the file cannot be created.
+	 */
+	public static OutputStream getOutputStream(final String filename, boolean append, final int zstdCompressionLevel) throws UncheckedIOException {
 		if (filename == null) {
 			throw new UncheckedIOException(new FileNotFoundException("No filename given (filename == null)"));
 		}
@@ -396,13 +419,19 @@ public class IOUtils {
 				if (append && f.exists() && (f.length() > 0)) {
 					throw new IllegalArgumentException("Appending to an existing gzip-compressed file is not supported.");
 				}
-				return new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(filename, append)));
+				return new BufferedOutputStream(new ParallelGzipOutputStream(new FileOutputStream(filename, append)));
 			} else if (filename.toLowerCase(Locale.ROOT).endsWith(LZ4)) {
 				File f = new File(filename);
 				if (append && f.exists() && (f.length() > 0)) {
 					throw new IllegalArgumentException("Appending to an existing lz4-compressed file is not supported.");
 				}
 				return new BufferedOutputStream(new LZ4BlockOutputStream(new FileOutputStream(filename)));
+			} else if (filename.toLowerCase(Locale.ROOT).endsWith(ZST)) {
+				File f = new File(filename);
+				if (append && f.exists() && (f.length() > 0)) {
+					throw new IllegalArgumentException("Appending to an existing zstd-compressed file is not supported.");
+				}
+				return new BufferedOutputStream(getZstdOutputStream(new FileOutputStream(filename), zstdCompressionLevel));
 			}else {
 				return new BufferedOutputStream(new FileOutputStream (filename, append));
 			}
@@ -411,6 +440,12 @@ public class IOUtils {
 		}
 	}
 
+	private static OutputStream getZstdOutputStream(final OutputStream out, final int level) throws IOException {
+		ZstdOutputStream zstdStream = new ZstdOutputStream(out, level);
+		zstdStream.setWorkers(Runtime.getRuntime().availableProcessors());
+		return zstdStream;
+	}
+
 	/**
 	 * Copy of getOutputStream and then changed to correspond to the PrintStream signature.  Device to hopefully reduce FindBugs warnings.  kai, may'17
 	 * 
@@ -423,7 +458,9 @@ public class IOUtils {
 		}
 		try {
 			if (filename.toLowerCase(Locale.ROOT).endsWith(GZ)) {
-				return new PrintStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(filename))));
+				return new PrintStream(new BufferedOutputStream(new ParallelGzipOutputStream(new FileOutputStream(filename))));
+			} else if (filename.toLowerCase(Locale.ROOT).endsWith(ZST)) {
+				return new PrintStream(new BufferedOutputStream(getZstdOutputStream(new FileOutputStream(filename), DEFAULT_ZSTD_COMPRESSION_LEVEL)));
 			} else {
 				return new PrintStream(new BufferedOutputStream(new FileOutputStream (filename))) ;
 			}
@@ -55,13 +55,21 @@ public class MatsimFileTypeGuesser extends DefaultHandler {
 	"end of the first part of the tuple used as value for xsi:schemaLocation.";
 
 
+	private static final String[] COMPRESSION_ENDINGS = {".gz", ".zst", ".lz4"};
+
 	private FileType fileType = null;
 	private String xmlPublicId = null;
 	private String xmlSystemId = null;
 
 	public MatsimFileTypeGuesser(final String fileName) throws UncheckedIOException {
 		String name = fileName.toLowerCase(Locale.ROOT);
-		if (name.endsWith(".xml.gz") || name.endsWith(".xml")) {
+		for (String compression : COMPRESSION_ENDINGS) {
+			if (name.endsWith(compression)) {
+				name = name.substring(0, name.length() - compression.length());
+				break;
+			}
+		}
+		if (name.endsWith(".xml")) {
 			guessFileTypeXml(fileName);
 			// I think the following would also be useful for the API, but with which name?
 			String shortSystemId = null;
@@ -92,11 +100,11 @@ public class MatsimFileTypeGuesser extends DefaultHandler {
 				}
 			}
 
-		} else if (name.endsWith(".txt.gz") || name.endsWith(".txt")) {
+		} else if (name.endsWith(".txt")) {
 			this.fileType = FileType.Events;
-		} else if (name.endsWith(".mvi.gz") || name.endsWith(".mvi")) {
+		} else if (name.endsWith(".mvi")) {
 			this.fileType = FileType.OTFVis;
-		} else if (name.endsWith(".veh.gz") || name.endsWith(".veh")) {
+		} else if (name.endsWith(".veh")) {
 			this.fileType = FileType.TransimsVehicle;
 		}
 	}
@@ -0,0 +1,210 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import static org.matsim.core.utils.io.ParallelGzipOutputStream.EXTRA_SUBFIELD_ID1;
+import static org.matsim.core.utils.io.ParallelGzipOutputStream.EXTRA_SUBFIELD_ID2;
+import static org.matsim.core.utils.io.ParallelGzipOutputStream.HEADER_LENGTH;
+import static org.matsim.core.utils.io.ParallelGzipOutputStream.TRAILER_LENGTH;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads gzip-compressed data.  Members written by the {@link ParallelGzipOutputStream} are decompressed in parallel,
+ * as their headers contain their compressed size.  As soon as a member without this information is encountered, e.g.
+ * in files written by other gzip implementations, the rest of the data is decompressed sequentially.
+ */
+public final class ParallelGzipInputStream extends InputStream {
+
+	private final PushbackInputStream in;
+	private final int maxPendingBlocks;
+	private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+	private byte[] block = null;
+	private int position = 0;
+	private boolean endOfMembers = false;
+	/** decompresses the remaining data if it does not consist of members of the {@link ParallelGzipOutputStream} */
+	private InputStream sequentialStream = null;
+
+	public ParallelGzipInputStream(final InputStream in) {
+		this.in = new PushbackInputStream(in, HEADER_LENGTH);
+		this.maxPendingBlocks = 2 * Runtime.getRuntime().availableProcessors();
+	}
+
+	@Override
+	public int read() throws IOException {
+		while (this.block == null || this.position == this.block.length) {
+			if (!nextBlock()) {
+				return this.sequentialStream == null ? -1 : this.sequentialStream.read();
+			}
+		}
+		return this.block[this.position++] & 0xff;
+	}
+
+	@Override
+	public int read(final byte[] b, final int off, final int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		while (this.block == null || this.position == this.block.length) {
+			if (!nextBlock()) {
+				return this.sequentialStream == null ? -1 : this.sequentialStream.read(b, off, len);
+			}
+		}
+		int count = Math.min(len, this.block.length - this.position);
+		System.arraycopy(this.block, this.position, b, off, count);
+		this.position += count;
+		return count;
+	}
+
+	@Override
+	public int available() throws IOException {
+		if (this.block != null && this.position < this.block.length) {
+			return this.block.length - this.position;
+		}
+		return this.sequentialStream == null ? 0 : this.sequentialStream.available();
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Future<byte[]> pendingBlock : this.pendingBlocks) {
+			pendingBlock.cancel(true);
+		}
+		this.pendingBlocks.clear();
+		this.block = null;
+		if (this.sequentialStream != null) {
+			this.sequentialStream.close();
+		} else {
+			this.in.close();
+		}
+	}
+
+	/**
+	 * @return <code>false</code> if there are no more blocks to be decompressed in parallel
+	 */
+	private boolean nextBlock() throws IOException {
+		submitMembers();
+		if (this.pendingBlocks.isEmpty()) {
+			return false;
+		}
+		try {
+			this.block = this.pendingBlocks.poll().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		this.position = 0;
+		submitMembers();
+		return true;
+	}
+
+	private void submitMembers() throws IOException {
+		while (!this.endOfMembers && this.pendingBlocks.size() < this.maxPendingBlocks) {
+			byte[] header = new byte[HEADER_LENGTH];
+			int headerLength = readFully(header, 0, HEADER_LENGTH);
+			if (headerLength == 0) {
+				this.endOfMembers = true;
+			} else if (headerLength < HEADER_LENGTH || !hasMemberSize(header)) {
+				this.in.unread(header, 0, headerLength);
+				this.sequentialStream = new GZIPInputStream(this.in);
+				this.endOfMembers = true;
+			} else {
+				final byte[] member = new byte[readInt(header, 16)];
+				System.arraycopy(header, 0, member, 0, HEADER_LENGTH);
+				if (readFully(member, HEADER_LENGTH, member.length - HEADER_LENGTH) < member.length - HEADER_LENGTH) {
+					throw new EOFException("Unexpected end of gzip-compressed data.");
+				}
+				this.pendingBlocks.add(ParallelGzipOutputStream.getExecutor().submit(() -> decompress(member)));
+			}
+		}
+	}
+
+	private int readFully(final byte[] b, final int off, final int len) throws IOException {
+		int total = 0;
+		while (total < len) {
+			int count = this.in.read(b, off + total, len - total);
+			if (count < 0) {
+				break;
+			}
+			total += count;
+		}
+		return total;
+	}
+
+	private static boolean hasMemberSize(final byte[] header) {
+		return (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b && header[2] == 8
+				&& header[3] == 4 && header[10] == 8 && header[11] == 0
+				&& header[12] == EXTRA_SUBFIELD_ID1 && header[13] == EXTRA_SUBFIELD_ID2 && header[14] == 4 && header[15] == 0
+				&& readInt(header, 16) >= HEADER_LENGTH + TRAILER_LENGTH;
+	}
+
+	static byte[] decompress(final byte[] member) throws IOException {
+		int trailer = member.length - TRAILER_LENGTH;
+		byte[] data = new byte[readInt(member, trailer + 4)];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(member, HEADER_LENGTH, trailer - HEADER_LENGTH);
+			int length = 0;
+			while (length < data.length && !inflater.finished()) {
+				int count = inflater.inflate(data, length, data.length - length);
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				length += count;
+			}
+			if (length != data.length || !inflater.finished() && inflater.inflate(new byte[1]) != 0) {
+				throw new ZipException("Corrupt gzip member: unexpected size of the data.");
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		if ((int) crc.getValue() != readInt(member, trailer)) {
+			throw new ZipException("Corrupt gzip member: wrong checksum.");
+		}
+		return data;
+	}
+
+	private static int readInt(final byte[] bytes, final int offset) {
+		return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+	}
+
+}
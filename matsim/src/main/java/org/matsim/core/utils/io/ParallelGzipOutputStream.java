@@ -0,0 +1,222 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes gzip-compressed data, compressing independent blocks of the data on several threads (like <code>pigz</code>).
+ * Every block is written as a gzip member of its own; the concatenated members are a valid gzip file which can
+ * be read by every gzip implementation.
+ * <p></p>
+ * The header of every member contains its compressed size in an extra field, which allows the
+ * {@link ParallelGzipInputStream} to decompress the members in parallel as well.
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+
+	static final int BLOCK_SIZE = 1 << 20;
+
+	/** the id of the extra field containing the size of the member: "MB", for MATSim block */
+	static final int EXTRA_SUBFIELD_ID1 = 'M';
+	static final int EXTRA_SUBFIELD_ID2 = 'B';
+	/** length of the header, including the extra field with the member size */
+	static final int HEADER_LENGTH = 10 + 2 + 8;
+	static final int TRAILER_LENGTH = 8;
+
+	private static ExecutorService executor = null;
+
+	private final OutputStream out;
+	private final int level;
+	private final int maxPendingBlocks;
+	private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+	private byte[] block = new byte[BLOCK_SIZE];
+	private int blockLength = 0;
+	private boolean anyBlockWritten = false;
+	private boolean closed = false;
+
+	public ParallelGzipOutputStream(final OutputStream out) {
+		this(out, Deflater.DEFAULT_COMPRESSION);
+	}
+
+	/**
+	 * @param level the compression level, see {@link Deflater}
+	 */
+	public ParallelGzipOutputStream(final OutputStream out, final int level) {
+		this.out = out;
+		this.level = level;
+		this.maxPendingBlocks = 2 * Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * @return the threads compressing or decompressing the blocks, shared by all streams.
+	 */
+	static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+				Thread thread = new Thread(runnable, "ParallelGzip");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	@Override
+	public void write(final int b) throws IOException {
+		if (this.blockLength == BLOCK_SIZE) {
+			submitBlock();
+		}
+		this.block[this.blockLength++] = (byte) b;
+	}
+
+	@Override
+	public void write(final byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (this.blockLength == BLOCK_SIZE) {
+				submitBlock();
+			}
+			int count = Math.min(len, BLOCK_SIZE - this.blockLength);
+			System.arraycopy(b, off, this.block, this.blockLength, count);
+			this.blockLength += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	/**
+	 * Writes all blocks compressed so far.  The data of the current block, which is not yet full, is not written
+	 * out, as many small members would compress badly.
+	 */
+	@Override
+	public void flush() throws IOException {
+		while (!this.pendingBlocks.isEmpty() && this.pendingBlocks.peek().isDone()) {
+			writeBlock(this.pendingBlocks.poll());
+		}
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		try {
+			if (this.blockLength > 0 || !this.anyBlockWritten) {
+				// an empty file still needs one member to be a valid gzip file
+				submitBlock();
+			}
+			while (!this.pendingBlocks.isEmpty()) {
+				writeBlock(this.pendingBlocks.poll());
+			}
+		} finally {
+			this.block = null;
+			this.out.close();
+		}
+	}
+
+	private void submitBlock() throws IOException {
+		final byte[] data = this.block;
+		final int length = this.blockLength;
+		final int level = this.level;
+		this.pendingBlocks.add(getExecutor().submit(() -> compress(data, length, level)));
+		this.anyBlockWritten = true;
+		this.block = new byte[BLOCK_SIZE];
+		this.blockLength = 0;
+		while (!this.pendingBlocks.isEmpty() && (this.pendingBlocks.peek().isDone() || this.pendingBlocks.size() > this.maxPendingBlocks)) {
+			writeBlock(this.pendingBlocks.poll());
+		}
+	}
+
+	private void writeBlock(final Future<byte[]> block) throws IOException {
+		try {
+			this.out.write(block.get());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * @return the complete gzip member of the data
+	 */
+	static byte[] compress(final byte[] data, final int length, final int level) {
+		Deflater deflater = new Deflater(level, true);
+		ByteArrayOutputStream member = new ByteArrayOutputStream(length / 4 + HEADER_LENGTH + TRAILER_LENGTH + 64);
+		byte[] buffer = new byte[64 * 1024];
+		try {
+			// the header, with the member size as yet unknown
+			member.write(new byte[HEADER_LENGTH], 0, HEADER_LENGTH);
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			while (!deflater.finished()) {
+				int count = deflater.deflate(buffer);
+				member.write(buffer, 0, count);
+			}
+		} finally {
+			deflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		byte[] trailer = new byte[TRAILER_LENGTH];
+		writeInt(trailer, 0, (int) crc.getValue());
+		writeInt(trailer, 4, length);
+		member.write(trailer, 0, TRAILER_LENGTH);
+
+		byte[] bytes = member.toByteArray();
+		bytes[0] = (byte) 0x1f; // magic number
+		bytes[1] = (byte) 0x8b;
+		bytes[2] = Deflater.DEFLATED;
+		bytes[3] = 4; // flags: FEXTRA
+		// bytes 4-7: modification time, not set
+		bytes[8] = 0; // extra flags
+		bytes[9] = (byte) 0xff; // operating system: unknown
+		bytes[10] = 8; // length of the extra field
+		bytes[11] = 0;
+		bytes[12] = (byte) EXTRA_SUBFIELD_ID1;
+		bytes[13] = (byte) EXTRA_SUBFIELD_ID2;
+		bytes[14] = 4; // length of the subfield
+		bytes[15] = 0;
+		writeInt(bytes, 16, bytes.length);
+		return bytes;
+	}
+
+	private static void writeInt(final byte[] bytes, final int offset, final int value) {
+		bytes[offset] = (byte) value;
+		bytes[offset + 1] = (byte) (value >>> 8);
+		bytes[offset + 2] = (byte) (value >>> 16);
+		bytes[offset + 3] = (byte) (value >>> 24);
+	}
+
+}
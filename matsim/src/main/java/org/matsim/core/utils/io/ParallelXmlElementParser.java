@@ -0,0 +1,222 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Helps readers of large files with many elements of the same kind (e.g. persons, facilities or households) to
+ * interpret the elements in parallel.  The reading thread only records the tags of these elements and hands them over
+ * to worker threads in batches.  Each worker thread has its own parser, which interprets the tags and hands the
+ * resulting objects to a sink.  The objects are then passed to the consumer in the reading thread, in the same
+ * order as the elements are in the file.
+ * <p></p>
+ * Usage in a {@link MatsimXmlParser}: forward every tag to {@link #startTag} and {@link #endTag} first, and only
+ * handle the tag if they return <code>false</code>.  Call {@link #finish()} at the end of the enclosing element.
+ * <p></p>
+ * The worker threads are stopped by {@link #finish()}, also if interpreting an element failed.  If the file cannot be
+ * parsed to the end and {@link #finish()} is never called, the idle worker threads stop by themselves after a few seconds.
+ *
+ * @param <T> the type of objects created from the elements
+ */
+public final class ParallelXmlElementParser<T> {
+
+	private static final int BATCH_SIZE = 100;
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 5;
+
+	private final String elementName;
+	private final Consumer<T> consumer;
+	private final ThreadPoolExecutor executor;
+	private final ThreadLocal<Worker<T>> workers;
+	private final int maxPendingBatches;
+	private final Deque<Future<List<T>>> pendingBatches = new ArrayDeque<>();
+
+	private Batch currentBatch = null;
+	/** the nesting level of the current tag within the element, 0 if outside of the elements */
+	private int depth = 0;
+
+	/**
+	 * @param elementName the name of the elements to be interpreted in parallel
+	 * @param numberOfThreads the number of worker threads
+	 * @param parserFactory creates the parser for a worker thread; the parser must hand all objects it creates to the
+	 * given sink.
+	 * @param consumer receives the created objects in the reading thread
+	 */
+	public ParallelXmlElementParser(final String elementName, final int numberOfThreads,
+			final Function<Consumer<T>, MatsimXmlParser> parserFactory, final Consumer<T> consumer) {
+		this.elementName = elementName;
+		this.consumer = consumer;
+		this.maxPendingBatches = 4 * numberOfThreads;
+		this.workers = ThreadLocal.withInitial(() -> new Worker<>(parserFactory));
+		this.executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, ParallelXmlElementParser.class.getSimpleName() + "[" + elementName + "]");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @return <code>true</code> if the tag belongs to one of the elements and is handled by a worker thread
+	 */
+	public boolean startTag(final String name, final Attributes atts, final Stack<String> context) {
+		if (this.depth == 0) {
+			if (!this.elementName.equals(name)) {
+				return false;
+			}
+			if (this.currentBatch == null) {
+				this.currentBatch = new Batch(context);
+			}
+			this.currentBatch.elements++;
+		}
+		this.depth++;
+		// the attributes must be copied, as the sax parser re-uses the object
+		this.currentBatch.tags.add(new Tag(name, new AttributesImpl(atts), null));
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code> if the tag belongs to one of the elements and is handled by a worker thread
+	 */
+	public boolean endTag(final String name, final String content, final Stack<String> context) {
+		if (this.depth == 0) {
+			return false;
+		}
+		this.depth--;
+		this.currentBatch.tags.add(new Tag(name, null, content));
+		if (this.depth == 0 && this.currentBatch.elements == BATCH_SIZE) {
+			submitCurrentBatch();
+		}
+		return true;
+	}
+
+	/**
+	 * Waits until all elements are interpreted, and passes the remaining objects to the consumer.
+	 */
+	public void finish() {
+		try {
+			if (this.currentBatch != null) {
+				submitCurrentBatch();
+			}
+			while (!this.pendingBatches.isEmpty()) {
+				consume(this.pendingBatches.poll());
+			}
+		} finally {
+			this.executor.shutdownNow();
+		}
+	}
+
+	private void submitCurrentBatch() {
+		Batch batch = this.currentBatch;
+		this.currentBatch = null;
+		this.pendingBatches.add(this.executor.submit(() -> this.workers.get().interpret(batch)));
+		// pass on the objects of finished batches, and limit the memory used by batches waiting to be interpreted
+		while (!this.pendingBatches.isEmpty() && (this.pendingBatches.peek().isDone() || this.pendingBatches.size() > this.maxPendingBatches)) {
+			consume(this.pendingBatches.poll());
+		}
+	}
+
+	private void consume(final Future<List<T>> batch) {
+		List<T> objects;
+		try {
+			objects = batch.get();
+		} catch (InterruptedException e) {
+			this.executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			this.executor.shutdownNow();
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException(e.getCause());
+		}
+		for (T object : objects) {
+			this.consumer.accept(object);
+		}
+	}
+
+	private static final class Tag {
+		final String name;
+		/** <code>null</code> for end tags */
+		final Attributes atts;
+		final String content;
+
+		Tag(final String name, final Attributes atts, final String content) {
+			this.name = name;
+			this.atts = atts;
+			this.content = content;
+		}
+	}
+
+	private static final class Batch {
+		/** the enclosing elements, which are the same for all elements of the batch */
+		final List<String> context;
+		final List<Tag> tags = new ArrayList<>();
+		int elements = 0;
+
+		Batch(final Stack<String> context) {
+			this.context = new ArrayList<>(context);
+		}
+	}
+
+	private static final class Worker<T> {
+		private final MatsimXmlParser parser;
+		private List<T> objects = null;
+
+		Worker(final Function<Consumer<T>, MatsimXmlParser> parserFactory) {
+			this.parser = parserFactory.apply(object -> this.objects.add(object));
+		}
+
+		List<T> interpret(final Batch batch) {
+			this.objects = new ArrayList<>(batch.elements);
+			Stack<String> context = new Stack<>();
+			context.addAll(batch.context);
+			for (Tag tag : batch.tags) {
+				if (tag.atts != null) {
+					this.parser.startTag(tag.name, tag.atts, context);
+					context.push(tag.name);
+				} else {
+					context.pop();
+					this.parser.endTag(tag.name, tag.content, context);
+				}
+			}
+			List<T> result = this.objects;
+			this.objects = null;
+			return result;
+		}
+	}
+
+}
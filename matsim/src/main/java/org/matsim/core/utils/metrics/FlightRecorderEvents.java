@@ -0,0 +1,264 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.metrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Custom Java Flight Recorder events for the phases and hot paths of MATSim, so that the CPU samples of a recording
+ * can be related to the iterations, the simulation time, the strategy modules and so on.  The events appear in the
+ * category "MATSim".
+ * <p></p>
+ * MATSim is compiled for Java 8, which has no API for JFR, so the event types are created at run time with
+ * <code>jdk.jfr.EventFactory</code> if it is there.  As long as no recording is started, {@link EventKind#begin()}
+ * only checks a flag and returns <code>null</code>; it is thus cheap enough to be called in every sim step.  Usage:
+ * <pre>
+ * FlightRecorderEvents.Span span = FlightRecorderEvents.PLAN_ROUTING.begin();
+ * ... // the work to be measured
+ * if (span != null) span.end(personId, numberOfTrips);
+ * </pre>
+ */
+public final class FlightRecorderEvents {
+
+	private static final Logger log = Logger.getLogger(FlightRecorderEvents.class);
+
+	private static final String CATEGORY = "MATSim";
+
+	public static final EventKind CONTROLER_PHASE = new EventKind("org.matsim.ControlerPhase", "Controler Phase",
+			"iteration", int.class, "phase", String.class);
+	public static final EventKind SIM_STEP = new EventKind("org.matsim.SimStep", "QSim Step",
+			"simTime", double.class, "activeLinks", int.class, "agents", int.class);
+	public static final EventKind STRATEGY_MODULE = new EventKind("org.matsim.StrategyModule", "Plan Strategy Module",
+			"strategy", String.class, "module", String.class, "plans", int.class);
+	public static final EventKind PLAN_ROUTING = new EventKind("org.matsim.PlanRouting", "Plan Routing",
+			"person", String.class, "trips", int.class);
+	public static final EventKind EVENTS_WRITING = new EventKind("org.matsim.EventsWriting", "Events Writing",
+			"writer", String.class, "events", int.class, "simTime", double.class);
+
+	// ()boolean; true as soon as a recording was started
+	private static final MethodHandle IS_INITIALIZED = find("jdk.jfr.FlightRecorder", "isInitialized", MethodType.methodType(boolean.class), true);
+	// (EventType)boolean
+	private static final MethodHandle IS_ENABLED = find("jdk.jfr.EventType", "isEnabled", MethodType.methodType(boolean.class), false);
+	// (EventFactory)Event
+	private static final MethodHandle NEW_EVENT = find("jdk.jfr.EventFactory", "newEvent", MethodType.methodType(classOrNull("jdk.jfr.Event")), false);
+	// (Event)void, (Event)boolean, (Event,int,Object)void
+	private static final MethodHandle BEGIN = find("jdk.jfr.Event", "begin", MethodType.methodType(void.class), false);
+	private static final MethodHandle END = find("jdk.jfr.Event", "end", MethodType.methodType(void.class), false);
+	private static final MethodHandle SHOULD_COMMIT = find("jdk.jfr.Event", "shouldCommit", MethodType.methodType(boolean.class), false);
+	private static final MethodHandle COMMIT = find("jdk.jfr.Event", "commit", MethodType.methodType(void.class), false);
+	private static final MethodHandle SET = find("jdk.jfr.Event", "set", MethodType.methodType(void.class, int.class, Object.class), false);
+
+	private static final boolean AVAILABLE = IS_INITIALIZED != null && IS_ENABLED != null && NEW_EVENT != null && BEGIN != null
+			&& END != null && SHOULD_COMMIT != null && COMMIT != null && SET != null;
+
+	private FlightRecorderEvents() {
+	}
+
+	/**
+	 * @return whether the JVM supports JFR events at all
+	 */
+	public static boolean isAvailable() {
+		return AVAILABLE;
+	}
+
+	/**
+	 * One type of event, i.e. a name and the fields to be set at the end of each event.
+	 */
+	public static final class EventKind {
+		private final String name;
+		private final String label;
+		private final String[] fieldNames;
+		private final Class<?>[] fieldTypes;
+
+		private volatile Object factory = null;
+		private volatile Object eventType = null;
+		private boolean failed = false;
+
+		EventKind(final String name, final String label, final Object... fields) {
+			this.name = name;
+			this.label = label;
+			this.fieldNames = new String[fields.length / 2];
+			this.fieldTypes = new Class<?>[fields.length / 2];
+			for (int i = 0; i < this.fieldNames.length; i++) {
+				this.fieldNames[i] = (String) fields[2 * i];
+				this.fieldTypes[i] = (Class<?>) fields[2 * i + 1];
+			}
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * @return whether a recording is running which records this event
+		 */
+		public boolean isEnabled() {
+			if (!AVAILABLE) {
+				return false;
+			}
+			try {
+				if (!(boolean) IS_INITIALIZED.invokeExact()) {
+					return false;
+				}
+				Object type = this.eventType;
+				if (type == null) {
+					type = register();
+					if (type == null) {
+						return false;
+					}
+				}
+				return (boolean) IS_ENABLED.invokeExact(type);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		/**
+		 * Starts the event.
+		 *
+		 * @return the started event, or <code>null</code> if the event is not recorded
+		 */
+		public Span begin() {
+			if (!isEnabled()) {
+				return null;
+			}
+			try {
+				Object event = NEW_EVENT.invokeExact(this.factory);
+				BEGIN.invokeExact(event);
+				return new Span(this, event);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		private synchronized Object register() {
+			if (this.eventType != null || this.failed) {
+				return this.eventType;
+			}
+			try {
+				Constructor<?> annotation = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+				List<Object> annotations = Arrays.asList(
+						annotation.newInstance(Class.forName("jdk.jfr.Name"), this.name),
+						annotation.newInstance(Class.forName("jdk.jfr.Label"), this.label),
+						annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[] { CATEGORY }));
+				Constructor<?> descriptor = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class);
+				List<Object> fields = new ArrayList<>();
+				for (int i = 0; i < this.fieldNames.length; i++) {
+					fields.add(descriptor.newInstance(this.fieldTypes[i], this.fieldNames[i]));
+				}
+				Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+				Object newFactory = factoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+				this.factory = newFactory;
+				this.eventType = factoryClass.getMethod("getEventType").invoke(newFactory);
+			} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+				log.warn("could not create flight recorder event " + this.name + ", it will not be recorded.", e);
+				this.failed = true;
+			}
+			return this.eventType;
+		}
+	}
+
+	/**
+	 * A started event.
+	 */
+	public static final class Span {
+		private final EventKind kind;
+		private final Object event;
+
+		Span(final EventKind kind, final Object event) {
+			this.kind = kind;
+			this.event = event;
+		}
+
+		/**
+		 * Ends the event and commits it if it is long enough for the recording's threshold.
+		 *
+		 * @param values the values of the event's fields, in the order of their definition
+		 */
+		public void end(final Object... values) {
+			if (values.length != this.kind.fieldNames.length) {
+				throw new IllegalArgumentException(this.kind.name + " has " + this.kind.fieldNames.length + " fields, got " + values.length + " values.");
+			}
+			try {
+				END.invokeExact(this.event);
+				if ((boolean) SHOULD_COMMIT.invokeExact(this.event)) {
+					for (int i = 0; i < values.length; i++) {
+						SET.invokeExact(this.event, i, values[i]);
+					}
+					COMMIT.invokeExact(this.event);
+				}
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+	}
+
+	private static Class<?> classOrNull(final String className) {
+		try {
+			return Class.forName(className);
+		} catch (ClassNotFoundException | LinkageError e) {
+			return Object.class;
+		}
+	}
+
+	/**
+	 * @return a handle whose parameter and return types are erased to Object, or <code>null</code> if the method
+	 * does not exist
+	 */
+	private static MethodHandle find(final String className, final String methodName, final MethodType type, final boolean isStatic) {
+		try {
+			Class<?> clazz = Class.forName(className);
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			MethodHandle handle = isStatic ? lookup.findStatic(clazz, methodName, type) : lookup.findVirtual(clazz, methodName, type);
+			MethodType erased = handle.type();
+			for (int i = 0; i < erased.parameterCount(); i++) {
+				if (!erased.parameterType(i).isPrimitive()) {
+					erased = erased.changeParameterType(i, Object.class);
+				}
+			}
+			if (!erased.returnType().isPrimitive()) {
+				erased = erased.changeReturnType(Object.class);
+			}
+			return handle.asType(erased);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	private static RuntimeException rethrow(final Throwable e) {
+		if (e instanceof RuntimeException) {
+			return (RuntimeException) e;
+		}
+		if (e instanceof Error) {
+			throw (Error) e;
+		}
+		return new RuntimeException(e);
+	}
+
+}
@@ -0,0 +1,314 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects counters, timers and histograms from all over MATSim, e.g. the run times of the mobsim engines or the
+ * number of routing queries.  Components get their metrics by name once and then only update them, which is
+ * cheap and thread-safe.  The values are collected per iteration by {@link #snapshotAndReset()}, see
+ * <code>org.matsim.analysis.MetricsControlerListener</code>.
+ * <p></p>
+ * Like {@link org.matsim.core.gbl.MatsimRandom}, there is a single instance per JVM, so that components which are
+ * not created by injection can report, too.
+ * <p></p>
+ * The single instance is {@link #setEnabled(boolean) disabled} unless the metrics are used; then the metrics do not
+ * measure or record anything, and cost next to nothing.
+ */
+public final class MetricsRegistry {
+
+	private static final MetricsRegistry instance = new MetricsRegistry(false);
+
+	public static MetricsRegistry getInstance() {
+		return instance;
+	}
+
+	public enum Type { counter, timer, histogram }
+
+	private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+	private volatile boolean enabled;
+
+	/* package */ MetricsRegistry() {
+		this(true);
+	}
+
+	private MetricsRegistry(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Switches the measuring and recording of all metrics on or off.  Components which do costly work only for their
+	 * metrics should check {@link #isEnabled()} first.
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Counter counter(final String name) {
+		return get(name, Counter.class);
+	}
+
+	/**
+	 * @return a histogram of durations in nanoseconds
+	 */
+	public Timer timer(final String name) {
+		return get(name, Timer.class);
+	}
+
+	public Histogram histogram(final String name) {
+		return get(name, Histogram.class);
+	}
+
+	private <T extends Metric> T get(final String name, final Class<T> type) {
+		Metric metric = this.metrics.get(name);
+		if (metric == null) {
+			Metric newMetric = type == Counter.class ? new Counter(this) : type == Timer.class ? new Timer(this) : new Histogram(this);
+			metric = this.metrics.putIfAbsent(name, newMetric);
+			if (metric == null) {
+				metric = newMetric;
+			}
+		}
+		if (!type.isInstance(metric) || (type == Histogram.class && metric instanceof Timer)) {
+			throw new IllegalArgumentException("metric " + name + " is a " + metric.getType() + ", not a " + type.getSimpleName());
+		}
+		return type.cast(metric);
+	}
+
+	/**
+	 * @return the values of all metrics which were updated since the last call, sorted by name; the metrics are
+	 * reset to zero.
+	 */
+	public Map<String, Snapshot> snapshotAndReset() {
+		Map<String, Snapshot> snapshots = new TreeMap<>();
+		for (Map.Entry<String, Metric> e : this.metrics.entrySet()) {
+			Snapshot snapshot = e.getValue().snapshotAndReset();
+			if (snapshot.getCount() > 0) {
+				snapshots.put(e.getKey(), snapshot);
+			}
+		}
+		return Collections.unmodifiableMap(snapshots);
+	}
+
+	/* package */ static abstract class Metric {
+		final MetricsRegistry registry;
+
+		Metric(final MetricsRegistry registry) {
+			this.registry = registry;
+		}
+
+		abstract Type getType();
+		abstract Snapshot snapshotAndReset();
+	}
+
+	public static final class Counter extends Metric {
+		private final LongAdder value = new LongAdder();
+
+		Counter(final MetricsRegistry registry) {
+			super(registry);
+		}
+
+		public void increment() {
+			if (this.registry.enabled) {
+				this.value.increment();
+			}
+		}
+
+		public void add(final long amount) {
+			if (this.registry.enabled) {
+				this.value.add(amount);
+			}
+		}
+
+		@Override
+		Type getType() {
+			return Type.counter;
+		}
+
+		@Override
+		Snapshot snapshotAndReset() {
+			long sum = this.value.sumThenReset();
+			return new Snapshot(Type.counter, sum, sum, sum, sum, sum, sum);
+		}
+	}
+
+	/**
+	 * Memorizes count, sum, minimum and maximum of the recorded values, and how many values fall in each
+	 * power of two, from which the median and the 95th percentile are estimated.
+	 */
+	public static class Histogram extends Metric {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+		private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+		private final AtomicLongArray buckets = new AtomicLongArray(65);
+
+		Histogram(final MetricsRegistry registry) {
+			super(registry);
+		}
+
+		public void record(final long value) {
+			if (!this.registry.enabled) {
+				return;
+			}
+			this.count.increment();
+			this.sum.add(value);
+			long current;
+			while (value < (current = this.min.get()) && !this.min.compareAndSet(current, value)) {
+				// retry
+			}
+			while (value > (current = this.max.get()) && !this.max.compareAndSet(current, value)) {
+				// retry
+			}
+			this.buckets.incrementAndGet(value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value));
+		}
+
+		@Override
+		Type getType() {
+			return Type.histogram;
+		}
+
+		@Override
+		Snapshot snapshotAndReset() {
+			long n = this.count.sumThenReset();
+			long s = this.sum.sumThenReset();
+			long lo = this.min.getAndSet(Long.MAX_VALUE);
+			long hi = this.max.getAndSet(Long.MIN_VALUE);
+			long[] counts = new long[this.buckets.length()];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = this.buckets.getAndSet(i, 0);
+			}
+			if (n == 0) {
+				return new Snapshot(getType(), 0, 0, 0, 0, 0, 0);
+			}
+			return new Snapshot(getType(), n, s, lo, hi, percentile(counts, n, 0.5, hi), percentile(counts, n, 0.95, hi));
+		}
+
+		/**
+		 * @return the upper bound of the bucket containing the percentile, but at most the maximum
+		 */
+		private static long percentile(final long[] counts, final long n, final double p, final long max) {
+			long rank = (long) Math.ceil(p * n);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return i == 0 ? Math.min(0, max) : (i >= 63 ? max : Math.min((1L << i) - 1, max));
+				}
+			}
+			return max;
+		}
+	}
+
+	public static final class Timer extends Histogram {
+		/** returned by {@link #start()} if the registry is disabled */
+		private static final long NOT_STARTED = Long.MIN_VALUE;
+
+		Timer(final MetricsRegistry registry) {
+			super(registry);
+		}
+
+		/**
+		 * @return the start time, to be handed to {@link #stop(long)}
+		 */
+		public long start() {
+			return this.registry.enabled ? System.nanoTime() : NOT_STARTED;
+		}
+
+		public void stop(final long startTime) {
+			if (startTime != NOT_STARTED) {
+				record(System.nanoTime() - startTime);
+			}
+		}
+
+		@Override
+		Type getType() {
+			return Type.timer;
+		}
+	}
+
+	/**
+	 * The values of a metric in one iteration.  For counters, all values are the counted sum; timers are in nanoseconds.
+	 */
+	public static final class Snapshot {
+		private final Type type;
+		private final long count;
+		private final long sum;
+		private final long min;
+		private final long max;
+		private final long median;
+		private final long p95;
+
+		Snapshot(final Type type, final long count, final long sum, final long min, final long max, final long median, final long p95) {
+			this.type = type;
+			this.count = count;
+			this.sum = sum;
+			this.min = min;
+			this.max = max;
+			this.median = median;
+			this.p95 = p95;
+		}
+
+		public Type getType() {
+			return this.type;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+		public long getSum() {
+			return this.sum;
+		}
+
+		public long getMin() {
+			return this.min;
+		}
+
+		public long getMax() {
+			return this.max;
+		}
+
+		public double getMean() {
+			return this.type == Type.counter ? this.sum : (double) this.sum / this.count;
+		}
+
+		public long getMedian() {
+			return this.median;
+		}
+
+		public long get95thPercentile() {
+			return this.p95;
+		}
+	}
+
+}
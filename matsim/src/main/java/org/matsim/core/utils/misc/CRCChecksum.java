@@ -31,6 +31,8 @@ import java.util.zip.GZIPInputStream;
 
 import org.apache.log4j.Logger;
 
+import com.github.luben.zstd.ZstdInputStream;
+
 public class CRCChecksum {
 	private static final Logger log = Logger.getLogger( CRCChecksum.class );
 
@@ -53,8 +55,8 @@ public class CRCChecksum {
 	}
 
 	/**
-	 * Calculates the checksum of the content of the given file. If the filename ends in ".gz",
-	 * the file is assumed to be gzipped and the checksum over the <em>uncompressed</em> content 
+	 * Calculates the checksum of the content of the given file. If the filename ends in ".gz" or ".zst",
+	 * the file is assumed to be gzip- or zstd-compressed and the checksum over the <em>uncompressed</em> content 
 	 * will be calculated. If a file is not found at its expected place, it is searched via the class loader.
 	 * <p></p>
 	 * Comments:<ul>
@@ -78,6 +80,13 @@ public class CRCChecksum {
 				} catch (IOException e) {
 					throw new RuntimeException(e);
 				}
+			} else if (filename.endsWith(".zst")) {
+				log.info( "file ends in zst");
+				try ( InputStream in = new ZstdInputStream(new BufferedInputStream(new FileInputStream(filename))) ) {
+					return getCRCFromStream(in);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
 			} else { // not with gz
 				log.info( "file does not end in gz");
 				try ( InputStream in = new BufferedInputStream(new FileInputStream(filename)) ) {
@@ -102,6 +111,14 @@ public class CRCChecksum {
 				} catch (IOException e) {
 					throw new RuntimeException(e);
 				}
+			} else if (filename.endsWith(".zst")) {
+				log.info( "file ends in zst");
+				try ( InputStream stream = CRCChecksum.class.getClassLoader().getResourceAsStream(filename) ;
+					InputStream in = new ZstdInputStream(new BufferedInputStream(stream)); ) {
+					return getCRCFromStream(in);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
 			} else { // not work gz
 				log.info( "file does not end in gz");
 				try ( InputStream stream = CRCChecksum.class.getClassLoader().getResourceAsStream(filename) ;
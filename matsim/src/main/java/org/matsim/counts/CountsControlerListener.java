@@ -29,6 +29,7 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.CountsConfigGroup;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.PopulationSample;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.StartupEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
@@ -72,6 +73,9 @@ class CountsControlerListener implements StartupListener, IterationEndsListener
     @com.google.inject.Inject(optional=true)
     private Counts<Link> counts = null;
 
+    @com.google.inject.Inject(optional=true)
+    private PopulationSample populationSample = null;
+
     private final Map<Id<Link>, double[]> linkStats = new HashMap<>();
     private int iterationsUsed = 0;
 
@@ -100,7 +104,7 @@ class CountsControlerListener implements StartupListener, IterationEndsListener
 	public void notifyIterationEnds(final IterationEndsEvent event) {
 		if (counts != null && this.config.getWriteCountsInterval() > 0) {
             if (useVolumesOfIteration(event.getIteration(), controlerConfigGroup.getFirstIteration())) {
-                addVolumes(volumesAnalyzer);
+                addVolumes(volumesAnalyzer, event.getIteration());
             }
 
             if (createCountsInIteration(event.getIteration())) {
@@ -187,14 +191,16 @@ class CountsControlerListener implements StartupListener, IterationEndsListener
 		return ((iteration % this.config.getWriteCountsInterval() == 0) && (this.iterationsUsed >= this.config.getAverageCountsOverIterations()));		
 	}
 
-	private void addVolumes(final VolumesAnalyzer volumes) {
+	private void addVolumes(final VolumesAnalyzer volumes, final int iteration) {
 		this.iterationsUsed++;
+		// volumes of iterations with only a sample of the population are scaled up to the full population
+		double volumeScaleFactor = this.populationSample == null ? 1.0 : this.populationSample.getScaleFactor(iteration);
 		for (Map.Entry<Id<Link>, double[]> e : this.linkStats.entrySet()) {
 			Id<Link> linkId = e.getKey();
 			double[] volumesPerHour = e.getValue(); 
 			double[] newVolume = getVolumesPerHourForLink(volumes, linkId); 
 			for (int i = 0; i < 24; i++) {
-				volumesPerHour[i] += newVolume[i];
+				volumesPerHour[i] += newVolume[i] / volumeScaleFactor;
 			}
 		}
 	}
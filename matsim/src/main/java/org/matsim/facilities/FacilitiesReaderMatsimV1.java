@@ -29,13 +29,16 @@ import org.matsim.core.utils.geometry.CoordinateTransformation;
 import org.matsim.core.utils.geometry.transformations.IdentityTransformation;
 import org.matsim.core.utils.geometry.transformations.TransformationFactory;
 import org.matsim.core.utils.io.MatsimXmlParser;
+import org.matsim.core.utils.io.ParallelXmlElementParser;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.utils.objectattributes.AttributeConverter;
 import org.matsim.utils.objectattributes.attributable.AttributesXmlReaderDelegate;
 import org.xml.sax.Attributes;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Stack;
+import java.util.function.Consumer;
 
 /**
  * A reader for facilities-files of MATSim according to <code>facilities_v1.dtd</code>.
@@ -65,30 +68,67 @@ final class FacilitiesReaderMatsimV1 extends MatsimXmlParser {
     private final String targetCRS;
     private CoordinateTransformation coordinateTransformation = new IdentityTransformation();
 
+    private final int numberOfThreads;
+    private final Map<Class<?>, AttributeConverter<?>> attributeConverters = new HashMap<>();
+    private ParallelXmlElementParser<ActivityFacility> facilityParser = null;
+    /** only set for the readers of the worker threads, which hand the facilities over to the reading thread */
+    private final Consumer<ActivityFacility> sink;
+
     FacilitiesReaderMatsimV1(
             final String externalInputCRS,
             final String targetCRS,
             final ActivityFacilities facilities) {
+        this(externalInputCRS, targetCRS, facilities, 1);
+    }
+
+    FacilitiesReaderMatsimV1(
+            final String externalInputCRS,
+            final String targetCRS,
+            final ActivityFacilities facilities,
+            final int numberOfThreads) {
         this.externalInputCRS = externalInputCRS;
         this.targetCRS = targetCRS;
         this.facilities = facilities;
         this.factory = this.facilities.getFactory();
+        this.numberOfThreads = numberOfThreads;
+        this.sink = null;
         if (externalInputCRS != null && targetCRS != null) {
             this.coordinateTransformation = TransformationFactory.getCoordinateTransformation(externalInputCRS, targetCRS);
             ProjectionUtils.putCRS(this.facilities, targetCRS);
         }
     }
 
+    private FacilitiesReaderMatsimV1(
+            final CoordinateTransformation coordinateTransformation,
+            final ActivityFacilities facilities,
+            final Consumer<ActivityFacility> sink) {
+        this.externalInputCRS = null;
+        this.targetCRS = null;
+        this.facilities = facilities;
+        this.factory = this.facilities.getFactory();
+        this.numberOfThreads = 1;
+        this.sink = sink;
+        this.coordinateTransformation = coordinateTransformation;
+    }
+
     public void putAttributeConverter(Class<?> clazz, AttributeConverter<?> converter) {
         this.attributesReader.putAttributeConverter(clazz, converter);
+        this.attributeConverters.put(clazz, converter);
     }
 
     public void putAttributeConverters(Map<Class<?>, AttributeConverter<?>> converters) {
         this.attributesReader.putAttributeConverters(converters);
+        this.attributeConverters.putAll(converters);
     }
 
     @Override
     public void startTag(final String name, final org.xml.sax.Attributes atts, final Stack<String> context) {
+        if (this.facilityParser == null && this.numberOfThreads > 1 && FACILITY.equals(name)) {
+            this.facilityParser = createFacilityParser();
+        }
+        if (this.facilityParser != null && this.facilityParser.startTag(name, atts, context)) {
+            return;
+        }
         if (FACILITIES.equals(name)) {
             startFacilities(atts);
         } else if (FACILITY.equals(name)) {
@@ -109,6 +149,13 @@ final class FacilitiesReaderMatsimV1 extends MatsimXmlParser {
 
     @Override
     public void endTag(final String name, final String content, final Stack<String> context) {
+        if (this.facilityParser != null && this.facilityParser.endTag(name, content, context)) {
+            return;
+        }
+        if (FACILITIES.equals(name) && this.facilityParser != null) {
+            this.facilityParser.finish();
+            this.facilityParser = null;
+        }
         if (FACILITY.equals(name)) {
             this.currfacility = null;
         } else if (ACTIVITY.equals(name)) {
@@ -171,10 +218,25 @@ final class FacilitiesReaderMatsimV1 extends MatsimXmlParser {
             }
         }
 
-        this.facilities.addActivityFacility(this.currfacility);
+        if (this.sink != null) {
+            this.sink.accept(this.currfacility);
+        } else {
+            this.facilities.addActivityFacility(this.currfacility);
+        }
         ((ActivityFacilityImpl) this.currfacility).setDesc(atts.getValue("desc"));
     }
 
+    private ParallelXmlElementParser<ActivityFacility> createFacilityParser() {
+        final CoordinateTransformation transformation = this.coordinateTransformation;
+        return new ParallelXmlElementParser<>(FACILITY, this.numberOfThreads,
+                sink -> {
+                    FacilitiesReaderMatsimV1 reader = new FacilitiesReaderMatsimV1(transformation, this.facilities, sink);
+                    reader.putAttributeConverters(this.attributeConverters);
+                    return reader;
+                },
+                this.facilities::addActivityFacility);
+    }
+
     private void startActivity(final Attributes atts) {
         this.curractivity = this.factory.createActivityOption(atts.getValue("type"));
         this.currfacility.addActivityOption(this.curractivity);
@@ -65,6 +65,7 @@ public class MatsimFacilitiesReader extends MatsimXmlParser {
     private CoordinateTransformation coordinateTransformation;
 
     private final ActivityFacilities facilities;
+    private final int numberOfThreads;
     private MatsimXmlParser delegate = null;
     private Map<Class<?>, AttributeConverter<?>> attributeConverters = new HashMap<>();
 
@@ -89,7 +90,7 @@ public class MatsimFacilitiesReader extends MatsimXmlParser {
     public MatsimFacilitiesReader(
             final String targetCRS,
             final Scenario scenario) {
-        this(scenario.getConfig().facilities().getInputCRS(), targetCRS, scenario.getActivityFacilities());
+        this(scenario.getConfig().facilities().getInputCRS(), targetCRS, scenario.getActivityFacilities(), scenario.getConfig().global().getNumberOfThreads());
     }
 
     /**
@@ -104,9 +105,27 @@ public class MatsimFacilitiesReader extends MatsimXmlParser {
             final String externalInputCRS,
             final String targetCRS,
             final ActivityFacilities facilities) {
+        this(externalInputCRS, targetCRS, facilities, 1);
+    }
+
+    /**
+     * Creates a new reader for MATSim facilities files.
+     *
+     * @param externalInputCRS specifies the CRS the coordinates are expressed in. If the CRS is define in the container
+     *                         attributes, this value is ignored
+     * @param targetCRS the CRS the coordinates should be expressed in
+     * @param facilities                 The ActivityFacilities-object to store the facilities in.
+     * @param numberOfThreads if larger than 1, the facilities are interpreted in parallel by this number of threads
+     */
+    public MatsimFacilitiesReader(
+            final String externalInputCRS,
+            final String targetCRS,
+            final ActivityFacilities facilities,
+            final int numberOfThreads) {
         this.externalInputCRS = externalInputCRS;
         this.targetCRS = targetCRS;
         this.facilities = facilities;
+        this.numberOfThreads = numberOfThreads;
     }
 
     public void putAttributeConverter(Class<?> clazz, AttributeConverter<?> converter) {
@@ -132,7 +151,7 @@ public class MatsimFacilitiesReader extends MatsimXmlParser {
         super.setDoctype(doctype);
         // Currently the only facilities-type is v1
         if (FACILITIES_V1.equals(doctype)) {
-            this.delegate = new FacilitiesReaderMatsimV1(this.externalInputCRS, this.targetCRS, this.facilities);
+            this.delegate = new FacilitiesReaderMatsimV1(this.externalInputCRS, this.targetCRS, this.facilities, this.numberOfThreads);
             ((FacilitiesReaderMatsimV1)this.delegate).putAttributeConverters(this.attributeConverters);
             log.info("using facilities_v1-reader.");
         } else {
@@ -20,11 +20,13 @@
 package org.matsim.households;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import com.google.inject.Inject;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.utils.io.MatsimXmlParser;
+import org.matsim.core.utils.io.ParallelXmlElementParser;
 import org.matsim.core.utils.misc.Counter;
 import org.matsim.households.Income.IncomePeriod;
 import org.matsim.utils.objectattributes.AttributeConverter;
@@ -62,36 +64,67 @@ abstract class AbstractHouseholdsReaderV10 extends MatsimXmlParser{
 	private org.matsim.utils.objectattributes.attributable.Attributes currAttributes =
 			new org.matsim.utils.objectattributes.attributable.Attributes();
 
+	private final int numberOfThreads;
+	private final Map<Class<?>, AttributeConverter<?>> attributeConverters = new HashMap<>();
+	private ParallelXmlElementParser<Household> householdParser = null;
+	/** only set for the readers of the worker threads, which hand the households over to the reading thread */
+	private final Consumer<Household> sink;
+
 	public AbstractHouseholdsReaderV10(Households households) {
+		this(households, 1);
+	}
+
+	/**
+	 * @param numberOfThreads if larger than 1, the households are interpreted in parallel by this number of threads
+	 */
+	public AbstractHouseholdsReaderV10(Households households, int numberOfThreads) {
+		this(households, numberOfThreads, null);
+	}
+
+	private AbstractHouseholdsReaderV10(Households households, int numberOfThreads, Consumer<Household> sink) {
 		if (households == null) {
 			throw new IllegalArgumentException("Container for households must not be null!");
 		}
 		this.households = households;
 		this.builder = households.getFactory();
+		this.numberOfThreads = numberOfThreads;
+		this.sink = sink;
 	}
 
 	public void putAttributeConverter( final Class<?> clazz , AttributeConverter<?> converter ) {
 		attributesReader.putAttributeConverter( clazz , converter );
+		attributeConverters.put( clazz , converter );
 	}
 
 	@Inject
 	public void putAttributeConverters( final Map<Class<?>, AttributeConverter<?>> converters ) {
 		attributesReader.putAttributeConverters( converters );
+		attributeConverters.putAll( converters );
 	}
 
 	@Override
 	public void endTag(String name, String content, Stack<String> context) {
+		if (this.householdParser != null && this.householdParser.endTag(name, content, context)) {
+			return;
+		}
 		if (HouseholdsSchemaV10Names.HOUSEHOLD.equalsIgnoreCase(name)) {
 			fillHousehold();
-			((HouseholdsImpl)this.households).addHousehold(currentHousehold);
+			if (this.sink != null) {
+				this.sink.accept(currentHousehold);
+			} else {
+				addHousehold(currentHousehold);
+			}
 			this.currentHousehold = null;
-			counter.incCounter();
 		}
 		else if (HouseholdsSchemaV10Names.INCOME.equalsIgnoreCase(name)) {
 			this.currentincome = this.builder.createIncome(Double.parseDouble(content.trim()), this.currentIncomePeriod);
 			this.currentincome.setCurrency(this.currentincomeCurrency);
 		}
 		else if (HouseholdsSchemaV10Names.HOUSEHOLDS.equalsIgnoreCase(name)) {
+			if (this.householdParser != null) {
+				this.householdParser.finish();
+				this.householdParser = null;
+			}
 			counter.printCounter();
 		}
 		else if (name.equalsIgnoreCase(HouseholdsSchemaV10Names.ATTRIBUTES)) {
@@ -102,6 +135,21 @@ abstract class AbstractHouseholdsReaderV10 extends MatsimXmlParser{
 		}
 	}
 
+	private void addHousehold(Household household) {
+		((HouseholdsImpl)this.households).addHousehold(household);
+		counter.incCounter();
+	}
+
+	private ParallelXmlElementParser<Household> createHouseholdParser() {
+		return new ParallelXmlElementParser<>(HouseholdsSchemaV10Names.HOUSEHOLD, this.numberOfThreads,
+				sink -> {
+					AbstractHouseholdsReaderV10 reader = new AbstractHouseholdsReaderV10(this.households, 1, sink) {};
+					reader.putAttributeConverters(this.attributeConverters);
+					return reader;
+				},
+				this::addHousehold);
+	}
+
 	private void fillHousehold() {
 		((HouseholdImpl) this.currentHousehold).setMemberIds(this.currentmembers);
 		((HouseholdImpl) this.currentHousehold).setVehicleIds(this.currentVehicleIds);
@@ -133,6 +181,12 @@ abstract class AbstractHouseholdsReaderV10 extends MatsimXmlParser{
 	 */
 	@Override
 	public void startTag(String name, Attributes atts, Stack<String> context) {
+		if (this.householdParser == null && this.numberOfThreads > 1 && HouseholdsSchemaV10Names.HOUSEHOLD.equalsIgnoreCase(name)) {
+			this.householdParser = createHouseholdParser();
+		}
+		if (this.householdParser != null && this.householdParser.startTag(name, atts, context)) {
+			return;
+		}
 		if (HouseholdsSchemaV10Names.HOUSEHOLD.equalsIgnoreCase(name)) {
 			this.currentHhId = Id.create(atts.getValue(HouseholdsSchemaV10Names.ID), Household.class);
 			this.currentHousehold = this.builder.createHousehold(this.currentHhId);
@@ -27,5 +27,12 @@ public class HouseholdsReaderV10 extends AbstractHouseholdsReaderV10 {
 	public HouseholdsReaderV10(Households households) {
 		super(households);
 	}
+
+	/**
+	 * @param numberOfThreads if larger than 1, the households are interpreted in parallel by this number of threads
+	 */
+	public HouseholdsReaderV10(Households households, int numberOfThreads) {
+		super(households, numberOfThreads);
+	}
 	
 }
@@ -19,6 +19,7 @@
 
 package org.matsim.pt.config;
 
+import java.util.Arrays;
 import java.util.Map;
 
 import org.matsim.core.config.ReflectiveConfigGroup;
@@ -31,11 +32,17 @@ public class TransitRouterConfigGroup extends ReflectiveConfigGroup {
 	/*package*/ static final String EXTENSION_RADIUS = "extensionRadius";
 	/*package*/ static final String MAX_BEELINE_WALK_CONNECTION_DISTANCE = "maxBeelineWalkConnectionDistance";
 	/*package*/ static final String ADDITIONAL_TRANSFER_TIME = "additionalTransferTime";
+	/*package*/ static final String ROUTER_TYPE = "routerType";
+	/*package*/ static final String ROUTER_NETWORK_CACHE_DIRECTORY = "routerNetworkCacheDirectory";
+
+	public static enum TransitRouterType { standard, raptor }
 
 	private double searchRadius = 1000.0;
 	private double extensionRadius = 200.0;
 	private double maxBeelineWalkConnectionDistance = 100.0;
 	private double additionalTransferTime = 0.0;
+	private TransitRouterType routerType = TransitRouterType.standard;
+	private String routerNetworkCacheDirectory = null;
 
 	private double directWalkFactor = 1. ;
 	
@@ -56,6 +63,11 @@ public class TransitRouterConfigGroup extends ReflectiveConfigGroup {
 		comments.put(MAX_BEELINE_WALK_CONNECTION_DISTANCE, "maximum beeline distance between stops that agents could transfer to by walking");
 		comments.put(ADDITIONAL_TRANSFER_TIME, "additional time the router allocates when a line switch happens. Can be interpreted as a 'safety' time that agents need to safely transfer from one line to another");
 		comments.put(DIRECT_WALK_FACTOR, DIRECT_WALK_FACTOR_CMT);
+		comments.put(ROUTER_TYPE, "the transit router to use. 'standard' runs Dijkstra on the transit router network, "
+				+ "'raptor' scans the routes of the schedule round by round and is typically considerably faster on large schedules. "
+				+ "Possible values: " + Arrays.toString(TransitRouterType.values()));
+		comments.put(ROUTER_NETWORK_CACHE_DIRECTORY, "directory in which the transit router network prepared from the schedule is stored "
+				+ "and re-used by later runs with the same schedule, instead of being re-created at every start. Not used if not set.");
 		return comments;
 	}
 
@@ -103,6 +115,28 @@ public class TransitRouterConfigGroup extends ReflectiveConfigGroup {
 		return this.additionalTransferTime;
 	}
 
+	@StringSetter( ROUTER_TYPE )
+	public void setRouterType(final TransitRouterType routerType) {
+		testForLocked() ;
+		this.routerType = routerType;
+	}
+
+	@StringGetter( ROUTER_TYPE )
+	public TransitRouterType getRouterType() {
+		return this.routerType;
+	}
+
+	@StringSetter( ROUTER_NETWORK_CACHE_DIRECTORY )
+	public void setRouterNetworkCacheDirectory(final String routerNetworkCacheDirectory) {
+		testForLocked() ;
+		this.routerNetworkCacheDirectory = routerNetworkCacheDirectory;
+	}
+
+	@StringGetter( ROUTER_NETWORK_CACHE_DIRECTORY )
+	public String getRouterNetworkCacheDirectory() {
+		return this.routerNetworkCacheDirectory;
+	}
+
 	/**
 	 * {@value #DIRECT_WALK_FACTOR_CMT}
 	 */
@@ -80,16 +80,7 @@ public class PreparedTransitSchedule {
 		}
 	
 		// this will search for the terminus departure that corresponds to my departure at the stop:
-		double[] cache = sortedDepartureCache.get(route);
-		if (cache == null) {
-			cache = new double[route.getDepartures().size()];
-			int i = 0;
-			for (Departure dep : route.getDepartures().values()) {
-				cache[i++] = dep.getDepartureTime();
-			}
-			Arrays.sort(cache);
-			sortedDepartureCache.put(route, cache);
-		}
+		double[] cache = getSortedDepartures(route);
 		int pos = Arrays.binarySearch(cache, earliestDepartureTimeAtTerminus);
 		if (pos < 0) {
 			// (if the departure time is not found _exactly_, binarySearch returns (-(insertion point) - 1).  That is
@@ -112,4 +103,28 @@ public class PreparedTransitSchedule {
 		}
 		return bestDepartureTime;
 	}
+
+	/**
+	 * @return the departure times of the route at its terminus, sorted ascending.  The array is shared and must not be modified.
+	 */
+	/*package*/ double[] getSortedDepartures(final TransitRoute route) {
+		double[] cache = sortedDepartureCache.get(route);
+		if (cache == null) {
+			cache = new double[route.getDepartures().size()];
+			int i = 0;
+			for (Departure dep : route.getDepartures().values()) {
+				cache[i++] = dep.getDepartureTime();
+			}
+			Arrays.sort(cache);
+			sortedDepartureCache.put(route, cache);
+		}
+		return cache;
+	}
+
+	/**
+	 * Sets the sorted departure times of the route, e.g. when they were read from a {@link TransitRouterNetworkCache}.
+	 */
+	/*package*/ void setSortedDepartures(final TransitRoute route, final double[] sortedDepartures) {
+		sortedDepartureCache.put(route, sortedDepartures);
+	}
 }
\ No newline at end of file
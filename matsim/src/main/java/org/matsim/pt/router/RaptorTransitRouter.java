@@ -0,0 +1,510 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.facilities.Facility;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * A round-based transit router (RAPTOR, see Delling, Pajor and Werneck, "Round-Based Public Transit Routing").
+ * Instead of running Dijkstra on a graph of route stops, it scans the routes of the {@link RaptorTransitSchedule}
+ * once per round, where round <i>k</i> finds the best connections using <i>k</i> vehicles.
+ * <p></p>
+ * The labels are minimized by generalized cost, computed the same way as {@link TransitRouterNetworkTravelTimeAndDisutility}
+ * does it for {@link TransitRouterImpl}: in-vehicle time, waiting time and distance on pt, walk time and walk distance
+ * for access, egress and transfers, plus the utility of line switch and the additional transfer time for every transfer.
+ * The cost parameters are read from the {@link TransitRouterConfig} for every request.
+ * <p></p>
+ * <em>This class is NOT thread-safe!</em>  It keeps its labels in arrays which are re-used between requests, so there
+ * should be one instance per thread.  The {@link RaptorTransitSchedule} can be shared by all of them.
+ *
+ * @see RaptorTransitRouterFactory
+ */
+public class RaptorTransitRouter extends AbstractTransitRouter implements TransitRouter {
+
+	private static final int MAX_ROUNDS = 20;
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	private final RaptorTransitSchedule data;
+
+	// labels per round and stop.  vehicle labels: arrival at a stop by a vehicle; board labels: ready to board at a stop
+	private final double[][] vTime = new double[MAX_ROUNDS + 1][];
+	private final double[][] vCost = new double[MAX_ROUNDS + 1][];
+	private final int[][] vBoard = new int[MAX_ROUNDS + 1][];
+	private final double[][] bTime = new double[MAX_ROUNDS + 1][];
+	private final double[][] bCost = new double[MAX_ROUNDS + 1][];
+	private final int[][] bFrom = new int[MAX_ROUNDS + 1][];
+	private final int[][] touched = new int[MAX_ROUNDS + 1][];
+	private final int[] touchedCount = new int[MAX_ROUNDS + 1];
+	private int usedRounds = 0;
+
+	// best costs over all rounds, for pruning
+	private final double[] bestVehCost;
+	private final double[] bestBoardCost;
+
+	// egress cost per stop, NaN if the stop is no egress stop
+	private final double[] egressCost;
+	private Collection<TransitStopFacility> egressStops = Collections.emptyList();
+
+	private final int[] markedStops;
+	private int markedCount = 0;
+	private final boolean[] isMarked;
+	private final int[] newMarkedStops;
+	private int newMarkedCount = 0;
+	private final int[] routeMarkedFrom; // first route stop (index within the route) to scan from, -1 if not marked
+	private final int[] markedRoutes;
+	private int markedRouteCount = 0;
+	private final int[] queue; // stops reached by walking, to continue walking from
+	private int queueHead = 0;
+	private int queueSize = 0;
+	private final boolean[] inQueue;
+	private final boolean[] walkedFrom;
+
+	public RaptorTransitRouter(final TransitRouterConfig trConfig, final TransitSchedule schedule) {
+		this(trConfig, RaptorTransitSchedule.create(schedule, trConfig));
+	}
+
+	public RaptorTransitRouter(final TransitRouterConfig trConfig, final RaptorTransitSchedule data) {
+		// only the walk times and walk disutilities are used from there
+		super(trConfig, new TransitRouterNetworkTravelTimeAndDisutility(trConfig, data.preparedSchedule));
+		this.data = data;
+		int stopCount = data.stopCount;
+		this.bestVehCost = new double[stopCount];
+		this.bestBoardCost = new double[stopCount];
+		this.egressCost = new double[stopCount];
+		Arrays.fill(this.bestVehCost, INF);
+		Arrays.fill(this.bestBoardCost, INF);
+		Arrays.fill(this.egressCost, Double.NaN);
+		this.markedStops = new int[stopCount];
+		this.isMarked = new boolean[stopCount];
+		this.newMarkedStops = new int[stopCount];
+		this.routeMarkedFrom = new int[data.routeCount];
+		Arrays.fill(this.routeMarkedFrom, -1);
+		this.markedRoutes = new int[data.routeCount];
+		this.queue = new int[stopCount];
+		this.inQueue = new boolean[stopCount];
+		this.walkedFrom = new boolean[stopCount];
+		ensureRound(0);
+	}
+
+	@Override
+	public List<Leg> calcRoute(final Facility fromFacility, final Facility toFacility, final double departureTime, final Person person) {
+		Coord fromCoord = fromFacility.getCoord();
+		Coord toCoord = toFacility.getCoord();
+		TransitPassengerRoute route = calcPassengerRoute(fromCoord, toCoord, departureTime, person);
+		if (route == null) {
+			return this.createDirectWalkLegList(null, fromCoord, toCoord);
+		}
+		double directWalkCost = getWalkDisutility(person, fromCoord, toCoord);
+		if (directWalkCost * getConfig().getDirectWalkFactor() < route.getTravelCost()) {
+			return this.createDirectWalkLegList(null, fromCoord, toCoord);
+		}
+		return convertPassengerRouteToLegList(departureTime, route, fromCoord, toCoord, person);
+	}
+
+	/**
+	 * Range query: finds all transit connections departing in the interval [<code>earliestDepartureTime</code>,
+	 * <code>latestDepartureTime</code>] which are not dominated by another connection, i.e. for which no other connection
+	 * departs later and arrives at least as early.  For this, one query is run per possible departure at the access stops,
+	 * latest first.  Direct walks are not part of the result.
+	 *
+	 * @return the connections, ordered by departure time
+	 */
+	public List<List<Leg>> calcRoutes(final Facility fromFacility, final Facility toFacility, final double earliestDepartureTime,
+			final double latestDepartureTime, final Person person) {
+		Coord fromCoord = fromFacility.getCoord();
+		Coord toCoord = toFacility.getCoord();
+
+		// collect the departure times at the origin which exactly catch a departure at one of the access stops
+		List<Double> departureTimes = new ArrayList<>();
+		for (TransitStopFacility stop : findNearbyStops(fromCoord)) {
+			int stopIndex = this.data.stopIndices.get(stop);
+			double walkTime = getWalkTime(person, fromCoord, stop.getCoord());
+			int start = this.data.stopRouteStopsStart[stopIndex];
+			int end = start + this.data.stopRouteStopsCount[stopIndex];
+			for (int i = start; i < end; i++) {
+				int routeStop = this.data.stopRouteStops[i];
+				double time = earliestDepartureTime + walkTime;
+				double depTime;
+				while ((depTime = this.data.getNextDepartureTime(routeStop, time)) <= latestDepartureTime + walkTime) {
+					departureTimes.add(depTime - walkTime);
+					time = depTime + 1.0;
+				}
+			}
+		}
+		Collections.sort(departureTimes, Collections.reverseOrder());
+
+		List<List<Leg>> result = new ArrayList<>();
+		double bestArrivalTime = INF;
+		double previousDepartureTime = Double.NaN;
+		for (double departureTime : departureTimes) {
+			if (departureTime == previousDepartureTime) {
+				continue;
+			}
+			previousDepartureTime = departureTime;
+			TransitPassengerRoute route = calcPassengerRoute(fromCoord, toCoord, departureTime, person);
+			if (route == null) {
+				continue;
+			}
+			List<Leg> legs = convertPassengerRouteToLegList(departureTime, route, fromCoord, toCoord, person);
+			double arrivalTime = departureTime;
+			for (Leg leg : legs) {
+				arrivalTime += leg.getTravelTime();
+			}
+			if (arrivalTime < bestArrivalTime) {
+				bestArrivalTime = arrivalTime;
+				result.add(legs);
+			}
+		}
+		Collections.reverse(result);
+		return result;
+	}
+
+	private TransitPassengerRoute calcPassengerRoute(final Coord fromCoord, final Coord toCoord, final double departureTime, final Person person) {
+		reset();
+
+		TransitRouterConfig config = getConfig();
+		double costInVeh = -config.getMarginalUtilityOfTravelTimePt_utl_s();
+		double costWait = -config.getMarginalUtilityOfWaitingPt_utl_s();
+		double costDistPt = -config.getMarginalUtilityOfTravelDistancePt_utl_m();
+
+		this.egressStops = findNearbyStops(toCoord);
+		if (this.egressStops.isEmpty()) {
+			return null;
+		}
+		for (TransitStopFacility stop : this.egressStops) {
+			int stopIndex = this.data.stopIndices.get(stop);
+			this.egressCost[stopIndex] = getWalkDisutility(person, stop.getCoord(), toCoord);
+		}
+
+		// round 0: access
+		for (TransitStopFacility stop : findNearbyStops(fromCoord)) {
+			int stopIndex = this.data.stopIndices.get(stop);
+			double cost = getWalkDisutility(person, fromCoord, stop.getCoord());
+			if (cost < this.bestBoardCost[stopIndex]) {
+				setBoardLabel(0, stopIndex, departureTime + getWalkTime(person, fromCoord, stop.getCoord()), cost, -1);
+				this.bestBoardCost[stopIndex] = cost;
+				mark(stopIndex);
+			}
+		}
+		swapMarked();
+
+		double bestCost = INF;
+		int bestRound = -1;
+		int bestStop = -1;
+
+		for (int k = 1; k <= MAX_ROUNDS && this.markedCount > 0; k++) {
+			ensureRound(k);
+			double[] prevBTime = this.bTime[k - 1];
+			double[] prevBCost = this.bCost[k - 1];
+			double[] curVTime = this.vTime[k];
+			double[] curVCost = this.vCost[k];
+
+			// collect the routes serving marked stops, together with the first marked stop along each route
+			for (int m = 0; m < this.markedCount; m++) {
+				int stop = this.markedStops[m];
+				this.isMarked[stop] = false;
+				int start = this.data.stopRouteStopsStart[stop];
+				int end = start + this.data.stopRouteStopsCount[stop];
+				for (int i = start; i < end; i++) {
+					int routeStop = this.data.stopRouteStops[i];
+					int route = this.data.routeStopRoute[routeStop];
+					int pos = routeStop - this.data.routeStopsStart[route];
+					int current = this.routeMarkedFrom[route];
+					if (current < 0) {
+						this.markedRoutes[this.markedRouteCount++] = route;
+						this.routeMarkedFrom[route] = pos;
+					} else if (pos < current) {
+						this.routeMarkedFrom[route] = pos;
+					}
+				}
+			}
+			this.markedCount = 0;
+
+			// scan the routes
+			for (int r = 0; r < this.markedRouteCount; r++) {
+				int route = this.markedRoutes[r];
+				int first = this.data.routeStopsStart[route] + this.routeMarkedFrom[route];
+				int last = this.data.routeStopsStart[route] + this.data.routeStopsCount[route];
+				this.routeMarkedFrom[route] = -1;
+
+				boolean onBoard = false;
+				int boardRouteStop = -1;
+				double tripStart = 0; // departure time of the current trip at the first stop of the route
+				double refCost = 0; // cost when the vehicle of the current trip was at refTime and refDistance
+				double refTime = 0;
+				double refDistance = 0;
+
+				for (int rs = first; rs < last; rs++) {
+					int stop = this.data.routeStopStop[rs];
+					double arrivalOffset = this.data.routeStopArrivalOffset[rs];
+					double distance = this.data.routeStopDistance[rs];
+
+					double onBoardCost = INF;
+					if (onBoard) {
+						double arrivalTime = tripStart + arrivalOffset;
+						onBoardCost = refCost + (arrivalTime - refTime) * costInVeh + (distance - refDistance) * costDistPt;
+						if (onBoardCost < this.bestVehCost[stop] && onBoardCost < bestCost) {
+							setVehicleLabel(k, stop, arrivalTime, onBoardCost, boardRouteStop);
+							this.bestVehCost[stop] = onBoardCost;
+							mark(stop);
+							double egress = this.egressCost[stop];
+							if (!Double.isNaN(egress) && onBoardCost + egress < bestCost) {
+								bestCost = onBoardCost + egress;
+								bestRound = k;
+								bestStop = stop;
+							}
+						}
+					}
+
+					// check if boarding here is cheaper than staying on the current trip
+					double readyTime = prevBTime[stop];
+					if (readyTime < INF && rs < last - 1) {
+						double depTime = this.data.getNextDepartureTime(rs, readyTime);
+						if (depTime < INF) {
+							double newTripStart = depTime - this.data.routeStopDepartureOffset[rs];
+							double vehArrivalTime = newTripStart + arrivalOffset;
+							double cost = prevBCost[stop] + Math.max(0, vehArrivalTime - readyTime) * costWait
+									+ Math.max(0, readyTime - vehArrivalTime) * costInVeh;
+							if (!onBoard || cost < onBoardCost || (cost == onBoardCost && newTripStart < tripStart)) {
+								onBoard = true;
+								boardRouteStop = rs;
+								tripStart = newTripStart;
+								refCost = cost;
+								refTime = vehArrivalTime;
+								refDistance = distance;
+							}
+						}
+					}
+				}
+			}
+			this.markedRouteCount = 0;
+
+			// transfers from stops reached in this round
+			swapMarked();
+			for (int m = 0; m < this.markedCount; m++) {
+				this.isMarked[this.markedStops[m]] = false;
+			}
+			for (int m = 0; m < this.markedCount; m++) {
+				int stop = this.markedStops[m];
+				relaxTransfers(k, stop, curVTime[stop], curVCost[stop], stop, true, bestCost);
+			}
+			// walks can be chained, i.e. continue from the stops just reached by walking.  Every stop is walked from at most
+			// once per round, and its label is not changed afterwards, so there are no cycles even if transfers have negative costs.
+			while (this.queueSize > 0) {
+				int stop = this.queue[this.queueHead];
+				this.queueHead = (this.queueHead + 1) % this.queue.length;
+				this.queueSize--;
+				this.inQueue[stop] = false;
+				this.walkedFrom[stop] = true;
+				relaxTransfers(k, stop, this.bTime[k][stop], this.bCost[k][stop], -(stop + 2), false, bestCost);
+			}
+			for (int m = 0; m < this.newMarkedCount; m++) {
+				this.walkedFrom[this.newMarkedStops[m]] = false;
+			}
+			swapMarked();
+		}
+		for (int m = 0; m < this.markedCount; m++) {
+			this.isMarked[this.markedStops[m]] = false;
+		}
+		this.markedCount = 0;
+
+		if (bestRound < 0) {
+			return null;
+		}
+		return createPassengerRoute(bestRound, bestStop, bestCost);
+	}
+
+
+	/**
+	 * Creates board labels for all stops which can be reached by walking from <code>stop</code>.  <code>from</code> is
+	 * stored as predecessor: the stop itself if the walk starts with alighting from a vehicle, or <code>-(stop + 2)</code>
+	 * if it continues a walk.  The additional transfer time and the utility of line switch are only charged when alighting,
+	 * so a transfer chaining several walks costs them once, like a transfer in {@link TransitRouterImpl}.
+	 */
+	private void relaxTransfers(final int round, final int stop, final double time, final double cost, final int from,
+			final boolean alighting, final double bestCost) {
+		TransitRouterConfig config = getConfig();
+		double additionalTransferTime = 0;
+		double baseTransferCost = 0;
+		if (alighting) {
+			additionalTransferTime = config.getAdditionalTransferTime();
+			baseTransferCost = -additionalTransferTime * config.getMarginalUtilityOfWaitingPt_utl_s() - config.getUtilityOfLineSwitch_utl();
+			relaxTransfer(round, stop, time + additionalTransferTime, cost + baseTransferCost, from, bestCost);
+		}
+		double walkSpeed = config.getBeelineWalkSpeed();
+		double costWalk = -config.getMarginalUtilityOfTravelTimeWalk_utl_s();
+		double costDistWalk = -config.getMarginalUtilityOfTravelDistanceWalk_utl_m();
+		int start = this.data.stopTransfersStart[stop];
+		int end = start + this.data.stopTransfersCount[stop];
+		for (int t = start; t < end; t++) {
+			double distance = this.data.transferDistance[t];
+			double walkTime = distance / walkSpeed;
+			relaxTransfer(round, this.data.transferToStop[t], time + walkTime + additionalTransferTime,
+					cost + walkTime * costWalk + distance * costDistWalk + baseTransferCost, from, bestCost);
+		}
+	}
+
+	private void relaxTransfer(final int round, final int toStop, final double time, final double cost, final int from, final double bestCost) {
+		if (cost < this.bestBoardCost[toStop] && cost < bestCost && !this.walkedFrom[toStop]) {
+			setBoardLabel(round, toStop, time, cost, from);
+			this.bestBoardCost[toStop] = cost;
+			mark(toStop);
+			if (!this.inQueue[toStop]) {
+				this.inQueue[toStop] = true;
+				this.queue[(this.queueHead + this.queueSize) % this.queue.length] = toStop;
+				this.queueSize++;
+			}
+		}
+	}
+
+	private TransitPassengerRoute createPassengerRoute(final int bestRound, final int bestStop, final double bestCost) {
+		List<RouteSegment> segments = new ArrayList<>();
+		int k = bestRound;
+		int stop = bestStop;
+		while (stop >= 0) {
+			int boardRouteStop = this.vBoard[k][stop];
+			int route = this.data.routeStopRoute[boardRouteStop];
+			int boardStop = this.data.routeStopStop[boardRouteStop];
+			double travelTime = this.vTime[k][stop] - this.bTime[k - 1][boardStop];
+			segments.add(new RouteSegment(this.data.stops[boardStop], this.data.stops[stop], travelTime,
+					this.data.routeLines[route].getId(), this.data.routes[route].getId()));
+			k--;
+			// follow the walks back to where the previous vehicle was left, merging them into one transfer segment
+			int current = boardStop;
+			stop = -1;
+			while (true) {
+				int from = this.bFrom[k][current];
+				if (from == -1) {
+					break;
+				}
+				if (from >= 0) {
+					segments.add(new RouteSegment(this.data.stops[from], this.data.stops[boardStop],
+							this.bTime[k][boardStop] - this.vTime[k][from], null, null));
+					stop = from;
+					break;
+				}
+				current = -from - 2;
+			}
+		}
+		Collections.reverse(segments);
+		return new TransitPassengerRoute(bestCost, segments);
+	}
+
+	private Collection<TransitStopFacility> findNearbyStops(final Coord coord) {
+		TransitRouterConfig config = getConfig();
+		Collection<TransitStopFacility> stops = this.data.getNearestStops(coord, config.getSearchRadius());
+		if (stops.size() < 2) {
+			// also enlarge search area if only one stop found, maybe a second one is near the border of the search area
+			TransitStopFacility nearestStop = this.data.getNearestStop(coord);
+			if (nearestStop != null) { // transit schedule might be completely empty!
+				double distance = CoordUtils.calcEuclideanDistance(coord, nearestStop.getCoord());
+				stops = this.data.getNearestStops(coord, distance + config.getExtensionRadius());
+			}
+		}
+		return stops;
+	}
+
+	private void setVehicleLabel(final int round, final int stop, final double time, final double cost, final int boardRouteStop) {
+		if (this.vCost[round][stop] == INF && this.bCost[round][stop] == INF) {
+			touch(round, stop);
+		}
+		this.vTime[round][stop] = time;
+		this.vCost[round][stop] = cost;
+		this.vBoard[round][stop] = boardRouteStop;
+	}
+
+	private void setBoardLabel(final int round, final int stop, final double time, final double cost, final int from) {
+		if (this.vCost[round][stop] == INF && this.bCost[round][stop] == INF) {
+			touch(round, stop);
+		}
+		this.bTime[round][stop] = time;
+		this.bCost[round][stop] = cost;
+		this.bFrom[round][stop] = from;
+	}
+
+	private void touch(final int round, final int stop) {
+		this.touched[round][this.touchedCount[round]++] = stop;
+	}
+
+	private void mark(final int stop) {
+		if (!this.isMarked[stop]) {
+			this.isMarked[stop] = true;
+			this.newMarkedStops[this.newMarkedCount++] = stop;
+		}
+	}
+
+	private void swapMarked() {
+		System.arraycopy(this.newMarkedStops, 0, this.markedStops, 0, this.newMarkedCount);
+		this.markedCount = this.newMarkedCount;
+		this.newMarkedCount = 0;
+	}
+
+	private void ensureRound(final int round) {
+		while (this.usedRounds <= round) {
+			int r = this.usedRounds;
+			int stopCount = this.data.stopCount;
+			this.vTime[r] = new double[stopCount];
+			this.vCost[r] = new double[stopCount];
+			this.vBoard[r] = new int[stopCount];
+			this.bTime[r] = new double[stopCount];
+			this.bCost[r] = new double[stopCount];
+			this.bFrom[r] = new int[stopCount];
+			this.touched[r] = new int[stopCount];
+			Arrays.fill(this.vTime[r], INF);
+			Arrays.fill(this.vCost[r], INF);
+			Arrays.fill(this.bTime[r], INF);
+			Arrays.fill(this.bCost[r], INF);
+			this.usedRounds++;
+		}
+	}
+
+	private void reset() {
+		for (int r = 0; r < this.usedRounds; r++) {
+			int[] touchedStops = this.touched[r];
+			for (int i = 0; i < this.touchedCount[r]; i++) {
+				int stop = touchedStops[i];
+				this.vTime[r][stop] = INF;
+				this.vCost[r][stop] = INF;
+				this.bTime[r][stop] = INF;
+				this.bCost[r][stop] = INF;
+				this.bestVehCost[stop] = INF;
+				this.bestBoardCost[stop] = INF;
+			}
+			this.touchedCount[r] = 0;
+		}
+		for (TransitStopFacility stop : this.egressStops) {
+			this.egressCost[this.data.stopIndices.get(stop)] = Double.NaN;
+		}
+		this.egressStops = Collections.emptyList();
+	}
+
+}
@@ -0,0 +1,339 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * A {@link TransitSchedule} flattened into primitive arrays, as needed by the {@link RaptorTransitRouter}.
+ * <p></p>
+ * Stops, routes, route stops, departures and transfers are each numbered consecutively; all references between
+ * them are array indices.  Departures are sorted per route, route stops are stored in route order, and for every
+ * stop the route stops serving it and the transfers (walk connections to nearby stops) starting there are stored
+ * in consecutive ranges.
+ * <p></p>
+ * Immutable once created, and thus thread-safe.  One instance should be shared by all routers.
+ */
+public final class RaptorTransitSchedule {
+	private static final Logger log = Logger.getLogger(RaptorTransitSchedule.class);
+
+	// stops
+	final int stopCount;
+	final TransitStopFacility[] stops;
+	final Map<TransitStopFacility, Integer> stopIndices;
+	final int[] stopRouteStopsStart;
+	final int[] stopRouteStopsCount;
+	final int[] stopRouteStops;
+	final int[] stopTransfersStart;
+	final int[] stopTransfersCount;
+
+	// routes
+	final int routeCount;
+	final TransitLine[] routeLines;
+	final TransitRoute[] routes;
+	final int[] routeStopsStart;
+	final int[] routeStopsCount;
+	final int[] routeDeparturesStart;
+	final int[] routeDeparturesCount;
+
+	// route stops
+	final int[] routeStopStop;
+	final int[] routeStopRoute;
+	final double[] routeStopArrivalOffset;
+	final double[] routeStopDepartureOffset;
+	final double[] routeStopDistance; // cumulative beeline distance from the first stop of the route
+
+	// departures, departure time at the first stop of the route, sorted per route
+	final double[] departures;
+
+	// transfers
+	final int[] transferToStop;
+	final double[] transferDistance;
+
+	// shared by the travel time and disutility of all routers using this schedule
+	final PreparedTransitSchedule preparedSchedule;
+
+	private final QuadTree<TransitStopFacility> stopsQT;
+
+	private RaptorTransitSchedule(final int stopCount, final int routeCount, final int routeStopCount, final int departureCount, final int transferCount,
+			final QuadTree<TransitStopFacility> stopsQT, final PreparedTransitSchedule preparedSchedule) {
+		this.stopCount = stopCount;
+		this.stops = new TransitStopFacility[stopCount];
+		this.stopIndices = new IdentityHashMap<>(stopCount);
+		this.stopRouteStopsStart = new int[stopCount];
+		this.stopRouteStopsCount = new int[stopCount];
+		this.stopRouteStops = new int[routeStopCount];
+		this.stopTransfersStart = new int[stopCount];
+		this.stopTransfersCount = new int[stopCount];
+
+		this.routeCount = routeCount;
+		this.routeLines = new TransitLine[routeCount];
+		this.routes = new TransitRoute[routeCount];
+		this.routeStopsStart = new int[routeCount];
+		this.routeStopsCount = new int[routeCount];
+		this.routeDeparturesStart = new int[routeCount];
+		this.routeDeparturesCount = new int[routeCount];
+
+		this.routeStopStop = new int[routeStopCount];
+		this.routeStopRoute = new int[routeStopCount];
+		this.routeStopArrivalOffset = new double[routeStopCount];
+		this.routeStopDepartureOffset = new double[routeStopCount];
+		this.routeStopDistance = new double[routeStopCount];
+
+		this.departures = new double[departureCount];
+
+		this.transferToStop = new int[transferCount];
+		this.transferDistance = new double[transferCount];
+
+		this.stopsQT = stopsQT;
+		this.preparedSchedule = preparedSchedule;
+	}
+
+	/**
+	 * Creates the array representation of the given schedule.  Transfers are created between all stops which are
+	 * at most {@link TransitRouterConfig#getBeelineWalkConnectionDistance()} apart.  Stops not served by any route are
+	 * ignored.
+	 */
+	public static RaptorTransitSchedule create(final TransitSchedule schedule, final TransitRouterConfig config) {
+		log.info("start creating raptor transit schedule");
+
+		// number all stops served by at least one route, and count the other elements
+		List<TransitStopFacility> stopList = new ArrayList<>();
+		Map<TransitStopFacility, Integer> stopIndices = new IdentityHashMap<>();
+		int routeCount = 0;
+		int routeStopCount = 0;
+		int departureCount = 0;
+		for (TransitLine line : schedule.getTransitLines().values()) {
+			for (TransitRoute route : line.getRoutes().values()) {
+				routeCount++;
+				routeStopCount += route.getStops().size();
+				departureCount += route.getDepartures().size();
+				for (TransitRouteStop routeStop : route.getStops()) {
+					TransitStopFacility stop = routeStop.getStopFacility();
+					if (!stopIndices.containsKey(stop)) {
+						stopIndices.put(stop, stopList.size());
+						stopList.add(stop);
+					}
+				}
+			}
+		}
+
+		QuadTree<TransitStopFacility> stopsQT = createStopsQuadTree(stopList);
+
+		// find the transfers
+		int stopCount = stopList.size();
+		List<int[]> transfers = new ArrayList<>();
+		for (int i = 0; i < stopCount; i++) {
+			Coord coord = stopList.get(i).getCoord();
+			for (TransitStopFacility other : stopsQT.getDisk(coord.getX(), coord.getY(), config.getBeelineWalkConnectionDistance())) {
+				int j = stopIndices.get(other);
+				if (i != j) {
+					transfers.add(new int[] { i, j });
+				}
+			}
+		}
+		// transfers are found stop by stop, i.e. they are already grouped by their from stop
+
+		RaptorTransitSchedule data = new RaptorTransitSchedule(stopCount, routeCount, routeStopCount, departureCount, transfers.size(), stopsQT,
+				new PreparedTransitSchedule(schedule));
+		for (int i = 0; i < stopCount; i++) {
+			data.stops[i] = stopList.get(i);
+			data.stopIndices.put(stopList.get(i), i);
+		}
+
+		// routes, route stops and departures
+		int[] routeStopsPerStop = new int[stopCount];
+		int routeIndex = 0;
+		int routeStopIndex = 0;
+		int departureIndex = 0;
+		for (TransitLine line : schedule.getTransitLines().values()) {
+			for (TransitRoute route : line.getRoutes().values()) {
+				data.routeLines[routeIndex] = line;
+				data.routes[routeIndex] = route;
+				data.routeStopsStart[routeIndex] = routeStopIndex;
+				data.routeStopsCount[routeIndex] = route.getStops().size();
+				Coord prevCoord = null;
+				double distance = 0.0;
+				for (TransitRouteStop routeStop : route.getStops()) {
+					int stopIndex = stopIndices.get(routeStop.getStopFacility());
+					Coord coord = routeStop.getStopFacility().getCoord();
+					if (prevCoord != null) {
+						distance += CoordUtils.calcEuclideanDistance(prevCoord, coord);
+					}
+					prevCoord = coord;
+					double arrivalOffset = routeStop.getArrivalOffset();
+					double departureOffset = routeStop.getDepartureOffset();
+					data.routeStopStop[routeStopIndex] = stopIndex;
+					data.routeStopRoute[routeStopIndex] = routeIndex;
+					data.routeStopArrivalOffset[routeStopIndex] = Time.isUndefinedTime(arrivalOffset) ? departureOffset : arrivalOffset;
+					data.routeStopDepartureOffset[routeStopIndex] = Time.isUndefinedTime(departureOffset) ? arrivalOffset : departureOffset;
+					data.routeStopDistance[routeStopIndex] = distance;
+					routeStopsPerStop[stopIndex]++;
+					routeStopIndex++;
+				}
+				data.routeDeparturesStart[routeIndex] = departureIndex;
+				data.routeDeparturesCount[routeIndex] = route.getDepartures().size();
+				for (Departure departure : route.getDepartures().values()) {
+					data.departures[departureIndex++] = departure.getDepartureTime();
+				}
+				Arrays.sort(data.departures, data.routeDeparturesStart[routeIndex], departureIndex);
+				routeIndex++;
+			}
+		}
+
+		// route stops per stop
+		int offset = 0;
+		for (int i = 0; i < stopCount; i++) {
+			data.stopRouteStopsStart[i] = offset;
+			offset += routeStopsPerStop[i];
+		}
+		for (int rs = 0; rs < routeStopCount; rs++) {
+			int stopIndex = data.routeStopStop[rs];
+			data.stopRouteStops[data.stopRouteStopsStart[stopIndex] + data.stopRouteStopsCount[stopIndex]] = rs;
+			data.stopRouteStopsCount[stopIndex]++;
+		}
+
+		// transfers
+		for (int t = 0; t < transfers.size(); t++) {
+			int from = transfers.get(t)[0];
+			int to = transfers.get(t)[1];
+			if (data.stopTransfersCount[from] == 0) {
+				data.stopTransfersStart[from] = t;
+			}
+			data.stopTransfersCount[from]++;
+			double distance = CoordUtils.calcEuclideanDistance(data.stops[from].getCoord(), data.stops[to].getCoord());
+			data.transferToStop[t] = to;
+			data.transferDistance[t] = distance;
+		}
+
+		log.info("raptor transit schedule statistics:");
+		log.info(" # stops:       " + stopCount);
+		log.info(" # routes:      " + routeCount);
+		log.info(" # route stops: " + routeStopCount);
+		log.info(" # departures:  " + departureCount);
+		log.info(" # transfers:   " + transfers.size());
+
+		return data;
+	}
+
+	private static QuadTree<TransitStopFacility> createStopsQuadTree(final Collection<TransitStopFacility> stops) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (TransitStopFacility stop : stops) {
+			Coord c = stop.getCoord();
+			minX = Math.min(minX, c.getX());
+			minY = Math.min(minY, c.getY());
+			maxX = Math.max(maxX, c.getX());
+			maxY = Math.max(maxY, c.getY());
+		}
+		if (stops.isEmpty()) {
+			minX = minY = maxX = maxY = 0.0;
+		}
+		QuadTree<TransitStopFacility> quadTree = new QuadTree<>(minX, minY, maxX, maxY);
+		for (TransitStopFacility stop : stops) {
+			Coord c = stop.getCoord();
+			quadTree.put(c.getX(), c.getY(), stop);
+		}
+		return quadTree;
+	}
+
+	public int getStopCount() {
+		return this.stopCount;
+	}
+
+	public int getRouteCount() {
+		return this.routeCount;
+	}
+
+	Collection<TransitStopFacility> getNearestStops(final Coord coord, final double distance) {
+		return this.stopsQT.getDisk(coord.getX(), coord.getY(), distance);
+	}
+
+	TransitStopFacility getNearestStop(final Coord coord) {
+		return this.stopsQT.getClosest(coord.getX(), coord.getY());
+	}
+
+	/**
+	 * @return the earliest departure time of the given route at the given route stop, not before <code>time</code>,
+	 * or {@link Double#POSITIVE_INFINITY} if the route has no departures.  Like in {@link PreparedTransitSchedule},
+	 * departures wrap around midnight.
+	 */
+	double getNextDepartureTime(final int routeStop, final double time) {
+		int route = this.routeStopRoute[routeStop];
+		int start = this.routeDeparturesStart[route];
+		int count = this.routeDeparturesCount[route];
+		if (count == 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double offset = this.routeStopDepartureOffset[routeStop];
+		double timeAtTerminus = time - offset;
+		int pos = lowerBound(start, count, timeAtTerminus);
+		if (pos < count) {
+			return this.departures[start + pos] + offset;
+		}
+		// there is no later departure, take the first one of the next day
+		double midnight = TransitRouterNetworkTravelTimeAndDisutility.MIDNIGHT;
+		double day = Math.floor(timeAtTerminus / midnight);
+		pos = lowerBound(start, count, timeAtTerminus - day * midnight);
+		if (pos >= count) {
+			pos = 0;
+			day++;
+		}
+		double departure = this.departures[start + pos] + day * midnight;
+		while (departure < timeAtTerminus) {
+			departure += midnight;
+		}
+		return departure + offset;
+	}
+
+	private int lowerBound(final int start, final int count, final double value) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.departures[start + mid] < value) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+}
@@ -22,6 +22,7 @@ package org.matsim.pt.router;
 
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
+import org.matsim.core.utils.collections.Tuple;
 import org.matsim.pt.transitSchedule.api.TransitSchedule;
 
 import javax.inject.Inject;
@@ -36,6 +37,7 @@ public class TransitRouterImplFactory implements Provider<TransitRouter> {
 
 	private final TransitRouterConfig config;
 	private final TransitSchedule transitSchedule;
+	private String cacheDirectory = null;
 	private TransitRouterNetwork routerNetwork;
 	private PreparedTransitSchedule preparedTransitSchedule;
 
@@ -46,6 +48,7 @@ public class TransitRouterImplFactory implements Provider<TransitRouter> {
 				config.plansCalcRoute(),
 				config.transitRouter(),
 				config.vspExperimental()));
+		this.cacheDirectory = config.transitRouter().getRouterNetworkCacheDirectory();
 		events.addHandler((TransitScheduleChangedEventHandler) event -> {
 			routerNetwork = null;
 			preparedTransitSchedule = null;
@@ -59,6 +62,12 @@ public class TransitRouterImplFactory implements Provider<TransitRouter> {
 
 	@Override
 	public TransitRouter get() {
+		if (this.routerNetwork == null && this.cacheDirectory != null) {
+			Tuple<TransitRouterNetwork, PreparedTransitSchedule> data = TransitRouterNetworkCache.loadOrCreate(transitSchedule,
+					this.config.getBeelineWalkConnectionDistance(), this.cacheDirectory);
+			this.routerNetwork = data.getFirst();
+			this.preparedTransitSchedule = data.getSecond();
+		}
 		if (this.routerNetwork == null) {
 			this.routerNetwork = TransitRouterNetwork.createFromSchedule(transitSchedule, this.config.getBeelineWalkConnectionDistance());
 		}
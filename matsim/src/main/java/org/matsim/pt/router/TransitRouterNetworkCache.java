@@ -0,0 +1,272 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.matsim.core.utils.collections.Tuple;
+import org.matsim.pt.router.TransitRouterNetwork.TransitRouterNetworkLink;
+import org.matsim.pt.router.TransitRouterNetwork.TransitRouterNetworkNode;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+
+/**
+ * Stores a {@link TransitRouterNetwork} and the sorted departures of a {@link PreparedTransitSchedule} in a binary file,
+ * so they do not have to be re-created from the schedule at every start.  Most of the time of
+ * {@link TransitRouterNetwork#createFromSchedule(TransitSchedule, double)} is spent searching for transfer links, so
+ * essentially those are stored, while the nodes and the links along the routes are re-created from the schedule.
+ * <p></p>
+ * Files are keyed by a hash over all parts of the schedule the router network depends on, and over the maximum beeline
+ * walk connection distance.  If anything in the schedule changes, a new file is created; stale files are never read.
+ * Nodes, routes and stops are referenced by their position in the iteration order of the schedule, which is part of the hash.
+ * <p></p>
+ * Files are written to a temporary file first and then moved into place, so several processes (e.g. distributed
+ * workers) can share one cache directory.
+ */
+public final class TransitRouterNetworkCache {
+	private static final Logger log = Logger.getLogger(TransitRouterNetworkCache.class);
+
+	private static final int MAGIC = 0x4d54524e; // "MTRN"
+	private static final int VERSION = 1;
+
+	private TransitRouterNetworkCache() {
+	}
+
+	/**
+	 * Reads the router network and prepared schedule for the given schedule from the cache directory if there is a
+	 * matching file; otherwise creates them and writes them to the cache directory.
+	 */
+	public static Tuple<TransitRouterNetwork, PreparedTransitSchedule> loadOrCreate(final TransitSchedule schedule,
+			final double maxBeelineWalkConnectionDistance, final String cacheDirectory) {
+		String hash = computeHash(schedule, maxBeelineWalkConnectionDistance);
+		File file = new File(cacheDirectory, "transitRouterNetwork_" + hash + ".bin");
+		if (file.exists()) {
+			try {
+				log.info("reading transit router network from " + file);
+				return read(file, schedule, hash);
+			} catch (IOException | RuntimeException e) {
+				log.warn("could not read transit router network from " + file + ", re-creating it.", e);
+			}
+		}
+		TransitRouterNetwork network = TransitRouterNetwork.createFromSchedule(schedule, maxBeelineWalkConnectionDistance);
+		PreparedTransitSchedule preparedSchedule = new PreparedTransitSchedule(schedule);
+		try {
+			new File(cacheDirectory).mkdirs();
+			write(network, preparedSchedule, schedule, hash, file);
+			log.info("wrote transit router network to " + file);
+		} catch (IOException e) {
+			log.warn("could not write transit router network to " + file + ", continuing without it.", e);
+		}
+		return new Tuple<>(network, preparedSchedule);
+	}
+
+	/**
+	 * @return a hash over everything in the schedule the {@link TransitRouterNetwork} and the {@link PreparedTransitSchedule}
+	 * depend on, as hex string
+	 */
+	public static String computeHash(final TransitSchedule schedule, final double maxBeelineWalkConnectionDistance) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		OutputStream nullStream = new OutputStream() {
+			@Override
+			public void write(final int b) {
+			}
+			@Override
+			public void write(final byte[] b, final int off, final int len) {
+			}
+		};
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DigestOutputStream(nullStream, digest)))) {
+			out.writeInt(VERSION);
+			out.writeDouble(maxBeelineWalkConnectionDistance);
+			for (TransitLine line : schedule.getTransitLines().values()) {
+				out.writeUTF(line.getId().toString());
+				for (TransitRoute route : line.getRoutes().values()) {
+					out.writeUTF(route.getId().toString());
+					out.writeInt(route.getStops().size());
+					for (TransitRouteStop stop : route.getStops()) {
+						out.writeUTF(stop.getStopFacility().getId().toString());
+						out.writeDouble(stop.getStopFacility().getCoord().getX());
+						out.writeDouble(stop.getStopFacility().getCoord().getY());
+						out.writeDouble(stop.getArrivalOffset());
+						out.writeDouble(stop.getDepartureOffset());
+					}
+					out.writeInt(route.getDepartures().size());
+					for (Departure departure : route.getDepartures().values()) {
+						out.writeDouble(departure.getDepartureTime());
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/*package*/ static void write(final TransitRouterNetwork network, final PreparedTransitSchedule preparedSchedule,
+			final TransitSchedule schedule, final String hash, final File file) throws IOException {
+		Map<TransitRouterNetworkNode, Integer> nodeIndices = new IdentityHashMap<>();
+		for (TransitRouterNetworkNode node : network.getNodes().values()) {
+			nodeIndices.put(node, nodeIndices.size());
+		}
+		List<TransitRouterNetworkLink> transferLinks = new ArrayList<>();
+		for (TransitRouterNetworkLink link : network.getLinks().values()) {
+			if (link.getRoute() == null) {
+				transferLinks.add(link);
+			}
+		}
+
+		File tmpFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeUTF(hash);
+				out.writeInt(network.getNodes().size());
+				out.writeInt(network.getLinks().size());
+
+				out.writeInt(transferLinks.size());
+				for (TransitRouterNetworkLink link : transferLinks) {
+					out.writeInt(nodeIndices.get(link.getFromNode()));
+					out.writeInt(nodeIndices.get(link.getToNode()));
+				}
+
+				for (TransitLine line : schedule.getTransitLines().values()) {
+					for (TransitRoute route : line.getRoutes().values()) {
+						double[] departures = preparedSchedule.getSortedDepartures(route);
+						out.writeInt(departures.length);
+						for (double departure : departures) {
+							out.writeDouble(departure);
+						}
+					}
+				}
+			}
+			try {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tmpFile.toPath());
+		}
+	}
+
+	/*package*/ static Tuple<TransitRouterNetwork, PreparedTransitSchedule> read(final File file, final TransitSchedule schedule,
+			final String hash) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("not a transit router network file of version " + VERSION + ": " + file);
+			}
+			String fileHash = readUTF(buffer);
+			if (!fileHash.equals(hash)) {
+				throw new IOException("transit router network file " + file + " does not belong to this schedule.");
+			}
+			int nodeCount = buffer.getInt();
+			int linkCount = buffer.getInt();
+
+			// nodes and route links are cheap to re-create, and are created in the same order as in createFromSchedule()
+			TransitRouterNetwork network = new TransitRouterNetwork();
+			List<TransitRouterNetworkNode> nodes = new ArrayList<>(nodeCount);
+			for (TransitLine line : schedule.getTransitLines().values()) {
+				for (TransitRoute route : line.getRoutes().values()) {
+					TransitRouterNetworkNode prevNode = null;
+					for (TransitRouteStop stop : route.getStops()) {
+						TransitRouterNetworkNode node = network.createNode(stop, route, line);
+						nodes.add(node);
+						if (prevNode != null) {
+							network.createLink(prevNode, node, route, line);
+						}
+						prevNode = node;
+					}
+				}
+			}
+			network.finishInit();
+			if (nodes.size() != nodeCount) {
+				throw new IOException("expected " + nodeCount + " nodes, but the schedule results in " + nodes.size());
+			}
+
+			int transferCount = buffer.getInt();
+			for (int i = 0; i < transferCount; i++) {
+				TransitRouterNetworkNode fromNode = nodes.get(buffer.getInt());
+				TransitRouterNetworkNode toNode = nodes.get(buffer.getInt());
+				network.createLink(fromNode, toNode, null, null);
+			}
+			if (network.getLinks().size() != linkCount) {
+				throw new IOException("expected " + linkCount + " links, but got " + network.getLinks().size());
+			}
+
+			PreparedTransitSchedule preparedSchedule = new PreparedTransitSchedule(schedule);
+			for (TransitLine line : schedule.getTransitLines().values()) {
+				for (TransitRoute route : line.getRoutes().values()) {
+					double[] departures = new double[buffer.getInt()];
+					buffer.asDoubleBuffer().get(departures);
+					buffer.position(buffer.position() + departures.length * Double.BYTES);
+					preparedSchedule.setSortedDepartures(route, departures);
+				}
+			}
+
+			log.info("transit router network statistics:");
+			log.info(" # nodes: " + network.getNodes().size());
+			log.info(" # links total:     " + network.getLinks().size());
+			log.info(" # transfer links:  " + transferCount);
+			return new Tuple<>(network, preparedSchedule);
+		}
+	}
+
+	private static String readUTF(final ByteBuffer buffer) {
+		int length = buffer.getShort() & 0xffff;
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8); // hex digits only, so modified UTF-8 equals UTF-8
+	}
+
+}
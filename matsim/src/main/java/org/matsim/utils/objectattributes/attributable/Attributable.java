@@ -5,4 +5,17 @@ package org.matsim.utils.objectattributes.attributable;
  */
 public interface Attributable {
 	Attributes getAttributes();
+
+	/**
+	 * Returns the attributes for reading only.  Implementations that create their attributes lazily (as there are
+	 * many instances of them, and most have no attributes) return {@link Attributes#EMPTY} if there are none yet,
+	 * instead of creating an empty container that would then stay in memory.  Use this when only reading, e.g. when
+	 * writing attributes to a file.
+	 * <p></p>
+	 * The lazy creation is not synchronized.  Like any other modification, the first {@link #getAttributes()} call for
+	 * an instance must not run concurrently with other accesses to its attributes; afterwards, concurrent reads are fine.
+	 */
+	default Attributes getAttributesForReading() {
+		return getAttributes();
+	}
 }
@@ -20,8 +20,24 @@ public final class Attributes {
 	private static final String[] EMPTY_KEYS = new String[0];
 	private static final Object[] EMPTY_VALUES = new Object[0];
 
+	/**
+	 * An immutable instance without any attributes, for classes which create their attributes lazily.
+	 * @see Attributable#getAttributesForReading()
+	 */
+	public static final Attributes EMPTY = new Attributes(true);
+
 	private String[] keys = EMPTY_KEYS;
 	private Object[] values = EMPTY_VALUES;
+	// (does not increase the memory footprint, as objects are aligned to 8 bytes anyway)
+	private final boolean immutable;
+
+	public Attributes() {
+		this(false);
+	}
+
+	private Attributes(final boolean immutable) {
+		this.immutable = immutable;
+	}
 
 	@Override
 	public String toString() {
@@ -36,6 +52,7 @@ public final class Attributes {
 	}
 
 	public Object putAttribute( final String attribute, final Object value) {
+		testForImmutable();
 		final int insertion = Arrays.binarySearch( keys , attribute );
 
 		if ( insertion >= 0 ) {
@@ -69,6 +86,7 @@ public final class Attributes {
 	}
 
 	public Object removeAttribute( final String attribute ) {
+		testForImmutable();
 		final int insertion = Arrays.binarySearch( keys , attribute );
 
 		if ( insertion < 0 ) return null;
@@ -87,6 +105,7 @@ public final class Attributes {
 	}
 
 	public void clear() {
+		testForImmutable();
 		keys = EMPTY_KEYS;
 		values = EMPTY_VALUES;
 	}
@@ -126,6 +145,12 @@ public final class Attributes {
 		return size() == 0;
 	}
 
+	private void testForImmutable() {
+		if ( immutable ) {
+			throw new UnsupportedOperationException( "these attributes are immutable; use getAttributes() instead of getAttributesForReading() to modify them." );
+		}
+	}
+
 	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
 		private int index = 0;
 
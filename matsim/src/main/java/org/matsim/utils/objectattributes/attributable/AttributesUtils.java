@@ -23,7 +23,10 @@ public class AttributesUtils {
 	 * which should be fine for 99.9% of the usecases of Attributes (value objects)
 	 */
 	public static <T extends Attributable> void copyAttributesFromTo( T from , T to ) {
-		copyTo( from.getAttributes() , to.getAttributes() );
+		Attributes fromAttributes = from.getAttributesForReading();
+		if ( !fromAttributes.isEmpty() ) {
+			copyTo( fromAttributes , to.getAttributes() );
+		}
 	}
 
 	/**
@@ -0,0 +1,118 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.vehicles.Vehicle;
+
+public class AnalysisEventsHubTest {
+
+	@Test
+	public void testSameResultsAsSeparateHandlers() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(1000, 0));
+		Link link1 = NetworkUtils.createAndAddLink(network, Id.createLinkId("1"), n1, n2, 1000, 10, 1000, 1);
+		Link link2 = NetworkUtils.createAndAddLink(network, Id.createLinkId("2"), n2, n1, 1000, 10, 1000, 1);
+
+		EventsManager events = EventsUtils.createEventsManager();
+		AnalysisEventsHub hub = new AnalysisEventsHub(events);
+		VolumesAnalyzer hubVolumes = new VolumesAnalyzer(hub);
+		LegHistogram hubHistogram = new LegHistogram(null, hub);
+		CalcLegTimes hubLegTimes = new CalcLegTimes(hub);
+
+		VolumesAnalyzer volumes = new VolumesAnalyzer(3600, 24 * 3600 - 1, network);
+		LegHistogram histogram = new LegHistogram(300);
+		CalcLegTimes legTimes = new CalcLegTimes();
+		events.addHandler(volumes);
+		events.addHandler(histogram);
+		events.addHandler(legTimes);
+
+		events.resetHandlers(0);
+		for (int i = 0; i < 10; i++) {
+			Id<Person> personId = Id.createPersonId(i);
+			Id<Vehicle> vehicleId = Id.createVehicleId(i);
+			String mode = i % 3 == 0 ? "truck" : TransportMode.car;
+			double time = 6 * 3600 + i * 1000;
+			events.processEvent(new ActivityEndEvent(time, personId, link2.getId(), null, "h"));
+			events.processEvent(new PersonDepartureEvent(time, personId, link2.getId(), mode));
+			events.processEvent(new VehicleEntersTrafficEvent(time, personId, link2.getId(), vehicleId, mode, 1.0));
+			events.processEvent(new LinkLeaveEvent(time + 1, vehicleId, link2.getId()));
+			events.processEvent(new LinkLeaveEvent(time + 100 * i, vehicleId, link1.getId()));
+			if (i == 9) {
+				events.processEvent(new PersonStuckEvent(time + 2000, personId, link1.getId(), mode));
+			} else {
+				events.processEvent(new PersonArrivalEvent(time + 200 * i, personId, link2.getId(), mode));
+				events.processEvent(new ActivityStartEvent(time + 200 * i, personId, link2.getId(), null, "w"));
+			}
+		}
+
+		for (Id<Link> linkId : network.getLinks().keySet()) {
+			Assert.assertArrayEquals(volumes.getVolumesForLink(linkId), hubVolumes.getVolumesForLink(linkId));
+			for (String mode : volumes.getModes()) {
+				Assert.assertArrayEquals(volumes.getVolumesForLink(linkId, mode), hubVolumes.getVolumesForLink(linkId, mode));
+			}
+		}
+		Assert.assertEquals(volumes.getModes(), hubVolumes.getModes());
+		Assert.assertEquals(volumes.getLinkIds(), hubVolumes.getLinkIds());
+		Assert.assertNull(hubVolumes.getVolumesForLink(Id.createLinkId("unknown")));
+
+		Assert.assertArrayEquals(histogram.getDepartures(), hubHistogram.getDepartures());
+		Assert.assertArrayEquals(histogram.getArrivals(), hubHistogram.getArrivals());
+		Assert.assertArrayEquals(histogram.getStuck(), hubHistogram.getStuck());
+		Assert.assertEquals(histogram.getLegModes(), hubHistogram.getLegModes());
+
+		Assert.assertEquals(legTimes.getAverageTripDuration(), hubLegTimes.getAverageTripDuration(), 1e-10);
+		StringWriter expected = new StringWriter();
+		legTimes.writeStats(expected);
+		StringWriter actual = new StringWriter();
+		hubLegTimes.writeStats(actual);
+		Assert.assertEquals(expected.toString(), actual.toString());
+
+		// resetting the handlers also resets the analyses of the hub
+		events.resetHandlers(1);
+		Assert.assertNull(hubVolumes.getVolumesForLink(link1.getId()));
+		Assert.assertTrue(hubVolumes.getLinkIds().isEmpty());
+		Assert.assertTrue(hubHistogram.getLegModes().isEmpty());
+		Assert.assertTrue(hubLegTimes.getLegStats().isEmpty());
+	}
+
+}
@@ -122,6 +122,39 @@ public class CalcLinkStatsTest {
 		Assert.assertEquals(0, cls.getAvgLinkVolumes(link2.getId()).length);
 	}
 	
+	@Test
+	public void testAddData_volumeScaleFactor() {
+		Scenario s = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Network network = s.getNetwork();
+		NetworkFactory nf = network.getFactory();
+
+		Node node1 = nf.createNode(Id.create("1", Node.class), new Coord((double) 0, (double) 0));
+		Node node2 = nf.createNode(Id.create("2", Node.class), new Coord((double) 1000, (double) 0));
+		network.addNode(node1);
+		network.addNode(node2);
+		Link link1 = nf.createLink(Id.create("101", Link.class), node1, node2);
+		network.addLink(link1);
+
+		VolumesAnalyzer analyzer = new VolumesAnalyzer(3600, 86400, network);
+		TravelTime ttimes = new FreeSpeedTravelTime();
+		CalcLinkStats cls = new CalcLinkStats(network);
+
+		Id<Vehicle> vehId = Id.create("1001", Vehicle.class);
+		analyzer.handleEvent(new LinkLeaveEvent(1000, vehId, link1.getId()));
+		analyzer.handleEvent(new LinkLeaveEvent(1010, vehId, link1.getId()));
+		analyzer.handleEvent(new LinkLeaveEvent(1020, vehId, link1.getId()));
+		cls.addData(analyzer, ttimes);
+
+		// an iteration with a 10% sample
+		analyzer.reset(1);
+		analyzer.handleEvent(new LinkLeaveEvent(1000, vehId, link1.getId()));
+		cls.addData(analyzer, ttimes, 0.1);
+
+		Assert.assertEquals(6.5, cls.getAvgLinkVolumes(link1.getId())[0], 1e-8);
+		// the volume analyzer itself is not changed
+		Assert.assertEquals(1.0, analyzer.getVolumesPerHourForLink(link1.getId())[0], 1e-8);
+	}
+
 	/**
 	 * Tests the travel times that are written out by {@link CalcLinkStats}.
 	 * 
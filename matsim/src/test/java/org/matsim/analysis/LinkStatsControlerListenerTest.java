@@ -70,6 +70,7 @@ public class LinkStatsControlerListenerTest {
 				install(new EventsManagerModule());
 				install(new ScenarioByInstanceModule(scenario));
 				bind(OutputDirectoryHierarchy.class).asEagerSingleton();
+				bind(BackgroundOutputWriter.class).asEagerSingleton();
 				bind(IterationStopWatch.class).asEagerSingleton();
 			}
 		});
@@ -0,0 +1,120 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.analysis;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
+import org.matsim.core.controler.OutputDirectoryHierarchy.OverwriteFileSetting;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.metrics.MetricsRegistry;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class MetricsControlerListenerTest {
+
+	@Rule public MatsimTestUtils util = new MatsimTestUtils();
+
+	@Test
+	public void testWriteAndPublishMetrics() throws IOException, JMException {
+		ControlerConfigGroup config = new ControlerConfigGroup();
+		config.setWriteMetricsInterval(2);
+		config.setExposingMetricsViaJmx(true);
+		OutputDirectoryHierarchy controlerIO = new OutputDirectoryHierarchy(this.util.getOutputDirectory(), OverwriteFileSetting.overwriteExistingFiles);
+		MetricsControlerListener listener = new MetricsControlerListener(config, controlerIO);
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName("org.matsim:type=Metrics");
+
+		for (int iteration = 0; iteration < 3; iteration++) {
+			controlerIO.createIterationDirectory(iteration);
+			listener.notifyIterationStarts(new IterationStartsEvent(null, iteration));
+			MetricsRegistry.getInstance().counter("test.counter").add(iteration + 1);
+			try (BufferedWriter out = IOUtils.getBufferedWriter(controlerIO.getIterationFilename(iteration, "data.txt"))) {
+				out.write("0123456789");
+			}
+			listener.notifyIterationEnds(new IterationEndsEvent(null, iteration));
+			Assert.assertTrue(server.isRegistered(name));
+			Assert.assertEquals(iteration, server.getAttribute(name, "Iteration"));
+			Assert.assertEquals(Long.valueOf(iteration + 1), listener.getSums().get("test.counter"));
+			Assert.assertEquals(Long.valueOf(10), listener.getSums().get("io.iterationOutputBytes"));
+		}
+		listener.notifyShutdown(new ShutdownEvent(null, false));
+		Assert.assertFalse(server.isRegistered(name));
+		Assert.assertFalse(MetricsRegistry.getInstance().isEnabled());
+
+		Assert.assertTrue(new File(controlerIO.getIterationFilename(0, "metrics.json")).exists());
+		Assert.assertFalse(new File(controlerIO.getIterationFilename(1, "metrics.json")).exists());
+		Assert.assertTrue(new File(controlerIO.getIterationFilename(2, "metrics.json")).exists());
+
+		int header = 0;
+		int counterLines = 0;
+		try (BufferedReader in = IOUtils.getBufferedReader(controlerIO.getOutputFilename("metrics.csv"))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.startsWith("iteration;")) {
+					header++;
+				} else if (line.contains(";test.counter;")) {
+					counterLines++;
+					Assert.assertTrue(line.startsWith("0;test.counter;counter;1;1;") || line.startsWith("2;test.counter;counter;3;3;"));
+				}
+			}
+		}
+		Assert.assertEquals(1, header);
+		Assert.assertEquals(2, counterLines);
+	}
+
+	@Test
+	public void testNoMetricsIfDisabled() throws JMException {
+		ControlerConfigGroup config = new ControlerConfigGroup();
+		config.setWriteMetricsInterval(0);
+		config.setExposingMetricsViaJmx(false);
+		OutputDirectoryHierarchy controlerIO = new OutputDirectoryHierarchy(this.util.getOutputDirectory(), OverwriteFileSetting.overwriteExistingFiles);
+		MetricsControlerListener listener = new MetricsControlerListener(config, controlerIO);
+
+		controlerIO.createIterationDirectory(0);
+		listener.notifyIterationStarts(new IterationStartsEvent(null, 0));
+		Assert.assertFalse(MetricsRegistry.getInstance().isEnabled());
+		MetricsRegistry.getInstance().counter("test.counter").add(1);
+		listener.notifyIterationEnds(new IterationEndsEvent(null, 0));
+		listener.notifyShutdown(new ShutdownEvent(null, false));
+
+		Assert.assertEquals(-1, listener.getIteration());
+		Assert.assertTrue(listener.getSums().isEmpty());
+		Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName("org.matsim:type=Metrics")));
+		Assert.assertFalse(new File(controlerIO.getOutputFilename("metrics.csv")).exists());
+		Assert.assertFalse(new File(controlerIO.getIterationFilename(0, "metrics.json")).exists());
+	}
+
+}
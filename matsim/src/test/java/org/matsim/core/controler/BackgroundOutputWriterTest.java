@@ -0,0 +1,97 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BackgroundOutputWriterTest {
+
+	@Test
+	public void testTasksAreExecutedInOrder() {
+		BackgroundOutputWriter writer = new BackgroundOutputWriter(true);
+		List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 20; i++) {
+			final int task = i;
+			writer.submit("task " + i, () -> {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				executed.add(task);
+			});
+		}
+		writer.flush();
+		Assert.assertEquals(20, executed.size());
+		for (int i = 0; i < 20; i++) {
+			Assert.assertEquals(i, executed.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void testFailureIsPassedOn() {
+		BackgroundOutputWriter writer = new BackgroundOutputWriter(true);
+		writer.submit("broken file", () -> {
+			throw new IllegalStateException("disk full");
+		});
+		try {
+			writer.flush();
+			Assert.fail("expected exception");
+		} catch (RuntimeException e) {
+			Assert.assertTrue(e.getMessage().contains("broken file"));
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		// the failure is only reported once
+		writer.flush();
+	}
+
+	@Test
+	public void testShutdown() throws InterruptedException {
+		BackgroundOutputWriter writer = new BackgroundOutputWriter(true);
+		List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+		writer.submit("task", () -> threads.add(Thread.currentThread()));
+		writer.shutdown();
+		Assert.assertEquals(1, threads.size());
+		threads.get(0).join(10000);
+		Assert.assertFalse(threads.get(0).isAlive());
+
+		// the writer can still be used, with a new thread
+		writer.submit("task", () -> threads.add(Thread.currentThread()));
+		writer.shutdown();
+		Assert.assertEquals(2, threads.size());
+		Assert.assertNotSame(threads.get(0), threads.get(1));
+	}
+
+	@Test
+	public void testNotInBackground() {
+		BackgroundOutputWriter writer = new BackgroundOutputWriter(false);
+		Assert.assertFalse(writer.isInBackground());
+		Assert.assertTrue(new BackgroundOutputWriter(true).isInBackground());
+		List<Thread> threads = new ArrayList<>();
+		writer.submit("task", () -> threads.add(Thread.currentThread()));
+		Assert.assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+	}
+
+}
@@ -42,6 +42,7 @@ import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
@@ -51,12 +52,17 @@ import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.ControlerConfigGroup.EventsFileFormat;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup.ActivityParams;
 import org.matsim.core.config.groups.QSimConfigGroup.SnapshotStyle;
 import org.matsim.core.config.groups.StrategyConfigGroup.StrategySettings;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.mobsim.framework.Mobsim;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.routes.NetworkRoute;
@@ -666,6 +672,48 @@ public class ControlerIT {
 		assertTrue(new File(controler.getControlerIO().getIterationFilename(0, Controler.FILENAME_EVENTS_XML)).exists());
 	}
 
+	@Test
+	public void testCompressionTypeZst() {
+		final Config config = utils.loadConfig(IOUtils.newUrl(ExamplesUtils.getTestScenarioURL("equil"), "config_plans1.xml"));
+		config.controler().setLastIteration(0);
+		config.controler().setWriteEventsInterval(1);
+		config.controler().setCreateGraphs(false);
+		config.controler().setCompressionType(ControlerConfigGroup.CompressionType.zst);
+
+		final Controler controler = new Controler(config);
+		controler.run();
+
+		String eventsFile = controler.getControlerIO().getIterationFilename(0,
+				ControlerUtils.getCompressedOutputFilename(Controler.FILENAME_EVENTS_XML, config.controler()));
+		assertTrue(eventsFile.endsWith(".xml.zst"));
+		assertTrue(new File(eventsFile).exists());
+		assertFalse(new File(controler.getControlerIO().getIterationFilename(0, Controler.FILENAME_EVENTS_XML)).exists());
+		String plansFile = controler.getControlerIO().getOutputFilename(Controler.OUTPUT_PREFIX + Controler.FILENAME_POPULATION);
+		assertTrue(new File(plansFile.replace(".gz", ".zst")).exists());
+		assertFalse(new File(plansFile).exists());
+		// all other output files keep their ending
+		assertTrue(new File(controler.getControlerIO().getOutputFilename(Controler.OUTPUT_PREFIX + Controler.FILENAME_NETWORK)).exists());
+
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCounter counter = new EventsCounter();
+		events.addHandler(counter);
+		new MatsimEventsReader(events).readFile(eventsFile);
+		assertTrue(counter.count > 0);
+	}
+
+	private static final class EventsCounter implements BasicEventHandler {
+		int count = 0;
+
+		@Override
+		public void handleEvent(final Event event) {
+			this.count++;
+		}
+
+		@Override
+		public void reset(final int iteration) {
+		}
+	}
+
 	/**
 	 * @author mrieser
 	 */
@@ -1,10 +1,18 @@
 package org.matsim.core.controler;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Assert;
 import org.junit.Test;
+import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.events.StartupEvent;
+import org.matsim.core.controler.listener.DataDependentListener;
+import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.controler.listener.IterationStartsListener;
 import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.controler.listener.StartupListener;
@@ -88,6 +96,134 @@ public class ControlerListenerManagerImplTest {
 		Assert.assertEquals(1, ecl.nOfShutdowns);
 	}
 	
+	@Test
+	public void testIterationEnds_withoutOverlap() {
+		ControlerListenerManagerImpl m = new ControlerListenerManagerImpl();
+		RecordingIterationEndsListener independent = new RecordingIterationEndsListener(DataDependentListener.Data.EVENTS);
+		m.addControlerListener(independent);
+
+		m.fireControlerIterationEndsEvent(0, false);
+		Assert.assertSame(Thread.currentThread(), independent.notifiedIn);
+		m.fireControlerShutdownEvent(false);
+	}
+
+	@Test
+	public void testIterationEnds_overlapWithReplanning() throws InterruptedException {
+		ControlerListenerManagerImpl m = new ControlerListenerManagerImpl();
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingIterationEndsListener independent = new RecordingIterationEndsListener(release, DataDependentListener.Data.EVENTS, DataDependentListener.Data.TRAVEL_TIMES);
+		RecordingIterationEndsListener dependent = new RecordingIterationEndsListener(DataDependentListener.Data.EVENTS, DataDependentListener.Data.POPULATION);
+		Thread[] undeclaredNotifiedIn = new Thread[1];
+		m.addControlerListener(independent);
+		m.addControlerListener(dependent);
+		m.addCoreControlerListener(new IterationEndsListener() {
+			// does not declare its data dependencies
+			@Override
+			public void notifyIterationEnds(IterationEndsEvent event) {
+				undeclaredNotifiedIn[0] = Thread.currentThread();
+			}
+		});
+
+		m.fireControlerIterationEndsEvent(0, true);
+		// returns although the independent listener is still waiting
+		Assert.assertSame(Thread.currentThread(), dependent.notifiedIn);
+		Assert.assertSame(Thread.currentThread(), undeclaredNotifiedIn[0]);
+		Assert.assertTrue(independent.started.await(10, TimeUnit.SECONDS));
+		Assert.assertNull(independent.notifiedIn);
+
+		release.countDown();
+		m.fireControlerBeforeMobsimEvent(1);
+		Assert.assertNotNull(independent.notifiedIn);
+		Assert.assertNotSame(Thread.currentThread(), independent.notifiedIn);
+		m.fireControlerShutdownEvent(false);
+	}
+
+	@Test
+	public void testIterationEnds_finishedBeforeListenerIsNotifiedAgain() {
+		ControlerListenerManagerImpl m = new ControlerListenerManagerImpl();
+		SlowListener slow = new SlowListener();
+		m.addControlerListener(slow);
+
+		m.fireControlerIterationEndsEvent(0, true);
+		m.fireControlerIterationStartsEvent(1);
+		Assert.assertTrue(slow.finishedBeforeIterationStarts);
+		m.fireControlerShutdownEvent(false);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testIterationEnds_failureInBackground() {
+		ControlerListenerManagerImpl m = new ControlerListenerManagerImpl();
+		m.addControlerListener(new RecordingIterationEndsListener(DataDependentListener.Data.EVENTS) {
+			@Override
+			public void notifyIterationEnds(IterationEndsEvent event) {
+				throw new IllegalStateException("failing on purpose");
+			}
+		});
+		m.fireControlerIterationEndsEvent(0, true);
+		m.fireControlerBeforeMobsimEvent(1);
+	}
+
+	private static class RecordingIterationEndsListener implements IterationEndsListener, DataDependentListener {
+
+		private final Set<Data> dependencies = EnumSet.noneOf(Data.class);
+		private final CountDownLatch release;
+		/*package*/ final CountDownLatch started = new CountDownLatch(1);
+		/*package*/ volatile Thread notifiedIn = null;
+
+		RecordingIterationEndsListener(Data... dependencies) {
+			this(new CountDownLatch(0), dependencies);
+		}
+
+		RecordingIterationEndsListener(CountDownLatch release, Data... dependencies) {
+			this.release = release;
+			for (Data data : dependencies) {
+				this.dependencies.add(data);
+			}
+		}
+
+		@Override
+		public Set<Data> getDataDependencies() {
+			return this.dependencies;
+		}
+
+		@Override
+		public void notifyIterationEnds(IterationEndsEvent event) {
+			this.started.countDown();
+			try {
+				Assert.assertTrue(this.release.await(10, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			this.notifiedIn = Thread.currentThread();
+		}
+	}
+
+	private static class SlowListener implements IterationEndsListener, IterationStartsListener, DataDependentListener {
+
+		private volatile boolean finished = false;
+		/*package*/ boolean finishedBeforeIterationStarts = false;
+
+		@Override
+		public Set<Data> getDataDependencies() {
+			return EnumSet.of(Data.EVENTS);
+		}
+
+		@Override
+		public void notifyIterationEnds(IterationEndsEvent event) {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			this.finished = true;
+		}
+
+		@Override
+		public void notifyIterationStarts(IterationStartsEvent event) {
+			this.finishedBeforeIterationStarts = this.finished;
+		}
+	}
+
 	private static class CountingControlerListener implements StartupListener, IterationStartsListener {
 
 		/*package*/ int nOfStartups = 0;
@@ -0,0 +1,192 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.controler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup.ActivityParams;
+import org.matsim.core.config.groups.StrategyConfigGroup.StrategySettings;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.replanning.strategies.DefaultPlanStrategiesModule.DefaultStrategy;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class PopulationSampleTest {
+
+	@Rule public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testFullIterations() {
+		ControlerConfigGroup config = new ControlerConfigGroup();
+		config.setFirstIteration(0);
+		config.setLastIteration(7);
+		config.setFullIterationsInterval(3);
+		boolean[] expected = { true, false, false, true, false, false, true, true };
+		for (int i = 0; i < expected.length; i++) {
+			Assert.assertEquals("iteration " + i, expected[i], PopulationSample.isFullIteration(i, config));
+		}
+	}
+
+	@Test
+	public void testSampledIterations() {
+		Config config = ConfigUtils.createConfig();
+		config.controler().setOutputDirectory(this.utils.getOutputDirectory());
+		config.controler().setLastIteration(3);
+		config.controler().setSampledIterationsFraction(0.5);
+		config.controler().setFullIterationsInterval(2);
+		config.controler().setCreateGraphs(false);
+		config.controler().setWriteEventsInterval(0);
+		config.controler().setWritePlansInterval(0);
+		config.controler().setDumpDataAtEnd(false);
+		config.plans().setSubpopulationAttributeName("subpopulation");
+		for (String type : new String[] { "h", "w" }) {
+			ActivityParams params = new ActivityParams(type);
+			params.setTypicalDuration(8 * 3600);
+			config.planCalcScore().addActivityParams(params);
+		}
+		for (String subpopulation : new String[] { null, "a" }) {
+			StrategySettings reRoute = new StrategySettings();
+			reRoute.setStrategyName(DefaultStrategy.ReRoute.toString());
+			reRoute.setWeight(1.0);
+			reRoute.setSubpopulation(subpopulation);
+			config.strategy().addStrategySettings(reRoute);
+		}
+		config.strategy().setMaxAgentPlanMemorySize(5);
+
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		createNetwork(scenario.getNetwork());
+		Population population = scenario.getPopulation();
+		for (int i = 0; i < 20; i++) {
+			Person person = population.getFactory().createPerson(Id.createPersonId(i));
+			Plan plan = population.getFactory().createPlan();
+			Activity home = population.getFactory().createActivityFromLinkId("h", Id.createLinkId(1));
+			home.setEndTime(7 * 3600 + i * 60);
+			plan.addActivity(home);
+			plan.addLeg(population.getFactory().createLeg(TransportMode.car));
+			plan.addActivity(population.getFactory().createActivityFromLinkId("w", Id.createLinkId(3)));
+			person.addPlan(plan);
+			population.addPerson(person);
+			if (i < 14) {
+				population.getPersonAttributes().putAttribute(person.getId().toString(), "subpopulation", "a");
+			}
+		}
+
+		final Map<Integer, Integer> departures = new HashMap<>();
+		final List<Integer> sampleSizes = new ArrayList<>();
+		final List<Integer> sampleSizesA = new ArrayList<>();
+		final List<Double> scaleFactors = new ArrayList<>();
+		final List<Double> scaleFactorsOfIterations = new ArrayList<>();
+		final Controler controler = new Controler(scenario);
+		controler.addOverridingModule(new AbstractModule() {
+			@Override
+			public void install() {
+				addEventHandlerBinding().toInstance(new PersonDepartureEventHandler() {
+					private int iteration;
+
+					@Override
+					public void reset(int iteration) {
+						this.iteration = iteration;
+					}
+
+					@Override
+					public void handleEvent(PersonDepartureEvent event) {
+						departures.merge(this.iteration, 1, Integer::sum);
+					}
+				});
+				addControlerListenerBinding().toInstance(new IterationEndsListener() {
+					@Override
+					public void notifyIterationEnds(IterationEndsEvent event) {
+						PopulationSample sample = controler.getInjector().getInstance(PopulationSample.class);
+						int size = 0;
+						int sizeA = 0;
+						for (Person person : population.getPersons().values()) {
+							boolean inSample = sample.contains(person.getId());
+							if (inSample) {
+								size++;
+								if ("a".equals(population.getPersonAttributes().getAttribute(person.getId().toString(), "subpopulation"))) {
+									sizeA++;
+								}
+							}
+							if (event.getIteration() == 1) {
+								// only the sample was replanned
+								Assert.assertEquals(inSample ? 2 : 1, person.getPlans().size());
+							}
+						}
+						sampleSizes.add(size);
+						scaleFactors.add(sample.getScaleFactor());
+						scaleFactorsOfIterations.add(sample.getScaleFactor(event.getIteration()));
+						sampleSizesA.add(sizeA);
+					}
+				});
+			}
+		});
+		controler.run();
+
+		Assert.assertEquals(Integer.valueOf(20), departures.get(0));
+		Assert.assertEquals(Integer.valueOf(10), departures.get(1));
+		Assert.assertEquals(Integer.valueOf(20), departures.get(2));
+		Assert.assertEquals(Integer.valueOf(20), departures.get(3));
+		Assert.assertEquals(20, sampleSizes.get(0).intValue());
+		Assert.assertEquals(10, sampleSizes.get(1).intValue());
+		Assert.assertEquals("sample is not stratified", 7, sampleSizesA.get(1).intValue());
+		Assert.assertEquals(20, sampleSizes.get(3).intValue());
+		Assert.assertEquals(Arrays.asList(1.0, 0.5, 1.0, 1.0), scaleFactors);
+		Assert.assertEquals(Arrays.asList(1.0, 0.5, 1.0, 1.0), scaleFactorsOfIterations);
+		// the capacities are scaled by the qsim network, not in the config
+		Assert.assertEquals(1.0, config.qsim().getFlowCapFactor(), 0.0);
+		Assert.assertEquals(1.0, config.qsim().getStorageCapFactor(), 0.0);
+	}
+
+	private static void createNetwork(final Network network) {
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(-100, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(0, 0));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.createNodeId(3), new Coord(1000, 0));
+		Node n4 = NetworkUtils.createAndAddNode(network, Id.createNodeId(4), new Coord(1100, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(1), n1, n2, 100, 10, 7200, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(2), n2, n3, 1000, 10, 3600, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(3), n3, n4, 100, 10, 7200, 1);
+	}
+
+}
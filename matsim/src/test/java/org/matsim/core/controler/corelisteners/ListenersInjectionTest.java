@@ -82,6 +82,7 @@ public class ListenersInjectionTest {
 						bind(ControlerListenerManager.class).to(ControlerListenerManagerImpl.class);
 						bind(OutputDirectoryHierarchy.class).toInstance( new OutputDirectoryHierarchy( outputDir , OutputDirectoryHierarchy.OverwriteFileSetting.deleteDirectoryIfExists ) );
 						bind(IterationStopWatch.class).toInstance( new IterationStopWatch() );
+						bind(BackgroundOutputWriter.class).toInstance( new BackgroundOutputWriter( false ) );
 						install(new ScenarioByInstanceModule(ScenarioUtils.createScenario(config)));
                     }
                 },
@@ -109,6 +109,42 @@ public class MatsimRandomTest extends MatsimTestCase {
 		assertTrue(Math.abs(value1 - value2b) > EPSILON);
 	}
 
+	/**
+	 * Tests that only a {@link MatsimRandom.ThreadWithOwnRandom} gets its own random number generator.
+	 */
+	public void testThreadWithOwnRandom() throws InterruptedException {
+		final Random global = MatsimRandom.getRandom();
+		final Random own = new Random(42);
+		final Random[] seen = new Random[3];
+		final Throwable[] setFromOutside = new Throwable[1];
+		final MatsimRandom.ThreadWithOwnRandom thread = new MatsimRandom.ThreadWithOwnRandom(() -> {
+			seen[0] = MatsimRandom.getRandom();
+			((MatsimRandom.ThreadWithOwnRandom) Thread.currentThread()).setRandom(own);
+			seen[1] = MatsimRandom.getRandom();
+			// other threads still get the global generator
+			Thread other = new Thread(() -> seen[2] = MatsimRandom.getRandom());
+			other.start();
+			try {
+				other.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}, "test");
+		try {
+			thread.setRandom(own);
+		} catch (IllegalStateException e) {
+			setFromOutside[0] = e;
+		}
+		thread.start();
+		thread.join();
+
+		assertNotNull("the generator must only be set from within the thread", setFromOutside[0]);
+		assertSame(global, seen[0]);
+		assertSame(own, seen[1]);
+		assertSame(global, seen[2]);
+		assertSame(global, MatsimRandom.getRandom());
+	}
+
 	/** Test that two (Pseudo)Random Number Generators are equil by
 	 * drawing a series of random numbers and comparing those.
 	 *
@@ -0,0 +1,174 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.groups.PlansConfigGroup;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.utils.objectattributes.attributable.Attributes;
+
+public class ColumnarPopulationTest {
+
+	@Test
+	public void testPackedPlans() {
+		runPackedPlans(PlansConfigGroup.PopulationStorage.columnar);
+	}
+
+	@Test
+	public void testPackedPlans_offHeap() {
+		runPackedPlans(PlansConfigGroup.PopulationStorage.columnarOffHeap);
+	}
+
+	private static void runPackedPlans(final PlansConfigGroup.PopulationStorage storage) {
+		Population population = createPopulation(storage);
+		Assert.assertTrue(population instanceof ColumnarPopulation);
+		population.addPerson(createPerson(population.getFactory(), "1"));
+
+		Person person = population.getPersons().get(Id.createPersonId("1"));
+		Plan plan = person.getSelectedPlan();
+		Assert.assertTrue(plan instanceof ColumnarPlan);
+		Assert.assertSame(person, plan.getPerson());
+		Assert.assertEquals(42.0, plan.getScore(), 0.0);
+		Assert.assertEquals(3, plan.getPlanElements().size());
+
+		Activity home = (Activity) plan.getPlanElements().get(0);
+		Assert.assertEquals("home", home.getType());
+		Assert.assertEquals(new Coord(10, 20), home.getCoord());
+		Assert.assertEquals(Id.createLinkId("1"), home.getLinkId());
+		Assert.assertNull(home.getFacilityId());
+		Assert.assertEquals(7 * 3600, home.getEndTime(), 0.0);
+		Assert.assertEquals("bar", home.getAttributes().getAttribute("foo"));
+
+		Leg leg = (Leg) plan.getPlanElements().get(1);
+		Assert.assertEquals(TransportMode.car, leg.getMode());
+		Assert.assertEquals(7 * 3600, leg.getDepartureTime(), 0.0);
+		NetworkRoute route = (NetworkRoute) leg.getRoute();
+		Assert.assertEquals(Arrays.asList(Id.createLinkId("2"), Id.createLinkId("3")), route.getLinkIds());
+		Assert.assertEquals(Id.createLinkId("4"), route.getEndLinkId());
+		Assert.assertEquals(1200.0, route.getDistance(), 0.0);
+		Assert.assertSame(Attributes.EMPTY, leg.getAttributesForReading());
+
+		Activity work = (Activity) plan.getPlanElements().get(2);
+		Assert.assertEquals(new Coord(1000, 2000, 3), work.getCoord());
+		Assert.assertEquals(Id.create("w", ActivityFacility.class), work.getFacilityId());
+
+		// values are changed in the store
+		home.setEndTime(8 * 3600);
+		home.setCoord(null);
+		leg.setMode(TransportMode.pt);
+		Assert.assertEquals(8 * 3600, ((Activity) plan.getPlanElements().get(0)).getEndTime(), 0.0);
+		Assert.assertNull(((Activity) plan.getPlanElements().get(0)).getCoord());
+		Assert.assertEquals(TransportMode.pt, ((Leg) plan.getPlanElements().get(1)).getMode());
+		Assert.assertEquals(home, plan.getPlanElements().get(0));
+		Assert.assertEquals(1, plan.getPlanElements().indexOf(leg));
+	}
+
+	@Test
+	public void testChangedPlansArePackedAgain() {
+		Population population = createPopulation(PlansConfigGroup.PopulationStorage.columnar);
+		population.addPerson(createPerson(population.getFactory(), "1"));
+		population.addPerson(createPerson(population.getFactory(), "2"));
+		Person person = population.getPersons().get(Id.createPersonId("1"));
+
+		// as in replanning
+		Plan copy = person.createCopyOfSelectedPlanAndMakeSelected();
+		Assert.assertFalse(copy instanceof ColumnarPlan);
+		Plan original = person.getPlans().get(0);
+		Leg walk = PopulationUtils.createLeg(TransportMode.walk);
+		original.getPlanElements().add(1, walk);
+		original.getPlanElements().add(1, PopulationUtils.createActivityFromLinkId("shop", Id.createLinkId("2")));
+		walk.setTravelTime(300);
+		Assert.assertEquals(5, original.getPlanElements().size());
+
+		PopulationUtils.compactPopulation(population);
+
+		Assert.assertEquals(2, person.getPlans().size());
+		Plan packedCopy = person.getSelectedPlan();
+		Assert.assertTrue(packedCopy instanceof ColumnarPlan);
+		Assert.assertSame(packedCopy, person.getPlans().get(1));
+		Assert.assertSame(person, packedCopy.getPerson());
+		Assert.assertEquals(3, packedCopy.getPlanElements().size());
+		Assert.assertEquals("bar", packedCopy.getPlanElements().get(0).getAttributes().getAttribute("foo"));
+
+		Assert.assertEquals(5, original.getPlanElements().size());
+		Assert.assertEquals("shop", ((Activity) original.getPlanElements().get(1)).getType());
+		Assert.assertEquals(300, ((Leg) original.getPlanElements().get(2)).getTravelTime(), 0.0);
+		Assert.assertNotSame(walk, original.getPlanElements().get(2));
+		Assert.assertEquals(Id.createLinkId("4"), ((Activity) original.getPlanElements().get(4)).getLinkId());
+
+		// now, most of the stored elements are no longer used, so the store is rebuilt
+		for (Person p : population.getPersons().values()) {
+			p.getSelectedPlan().getPlanElements().remove(2);
+			p.getSelectedPlan().getPlanElements().remove(1);
+		}
+		PopulationUtils.compactPopulation(population);
+		Assert.assertEquals(1, person.getSelectedPlan().getPlanElements().size());
+		Assert.assertEquals("home", ((Activity) person.getSelectedPlan().getPlanElements().get(0)).getType());
+		Assert.assertEquals(5, original.getPlanElements().size());
+		Assert.assertEquals(300, ((Leg) original.getPlanElements().get(2)).getTravelTime(), 0.0);
+	}
+
+	private static Population createPopulation(final PlansConfigGroup.PopulationStorage storage) {
+		PlansConfigGroup config = new PlansConfigGroup();
+		config.setPopulationStorage(storage);
+		return PopulationUtils.createPopulation(config, null);
+	}
+
+	private static Person createPerson(final PopulationFactory factory, final String id) {
+		Person person = factory.createPerson(Id.createPersonId(id));
+		Plan plan = factory.createPlan();
+		person.addPlan(plan);
+		plan.setScore(42.0);
+
+		Activity home = factory.createActivityFromCoord("home", new Coord(10, 20));
+		home.setLinkId(Id.createLinkId("1"));
+		home.setEndTime(7 * 3600);
+		home.getAttributes().putAttribute("foo", "bar");
+		plan.addActivity(home);
+
+		Leg leg = factory.createLeg(TransportMode.car);
+		leg.setDepartureTime(7 * 3600);
+		NetworkRoute route = RouteUtils.createLinkNetworkRouteImpl(Id.createLinkId("1"), Arrays.asList(Id.createLinkId("2"), Id.createLinkId("3")), Id.createLinkId("4"));
+		route.setDistance(1200.0);
+		leg.setRoute(route);
+		plan.addLeg(leg);
+
+		Activity work = factory.createActivityFromLinkId("work", Id.createLinkId("4"));
+		work.setCoord(new Coord(1000, 2000, 3));
+		work.setFacilityId(Id.create("w", ActivityFacility.class));
+		plan.addActivity(work);
+		return person;
+	}
+
+}
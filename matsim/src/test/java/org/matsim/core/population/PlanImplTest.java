@@ -42,6 +42,7 @@ import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.utils.objectattributes.attributable.Attributes;
 
 public class PlanImplTest {
 
@@ -378,4 +379,24 @@ public class PlanImplTest {
 		Assert.assertTrue(p.getPlanElements().get(3) instanceof Activity);
 	}
 
+	@Test
+	public void testAttributesCreatedLazily() {
+		Plan p = PopulationUtils.createPlan();
+		Activity act = PopulationUtils.createAndAddActivity(p, "h");
+		Leg leg = PopulationUtils.createAndAddLeg( p, TransportMode.walk );
+		Assert.assertSame(Attributes.EMPTY, p.getAttributesForReading());
+		Assert.assertSame(Attributes.EMPTY, act.getAttributesForReading());
+		Assert.assertSame(Attributes.EMPTY, leg.getAttributesForReading());
+
+		act.getAttributes().putAttribute("parking", "garage");
+		Assert.assertSame(act.getAttributes(), act.getAttributesForReading());
+		Assert.assertEquals("garage", act.getAttributesForReading().getAttribute("parking"));
+		Assert.assertSame(Attributes.EMPTY, leg.getAttributesForReading());
+
+		Plan copy = PopulationUtils.createPlan();
+		PopulationUtils.copyFromTo(p, copy);
+		Assert.assertEquals("garage", copy.getPlanElements().get(0).getAttributes().getAttribute("parking"));
+		Assert.assertSame(Attributes.EMPTY, copy.getPlanElements().get(1).getAttributesForReading());
+	}
+
 }
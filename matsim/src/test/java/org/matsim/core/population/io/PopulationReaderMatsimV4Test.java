@@ -333,6 +333,37 @@ public class PopulationReaderMatsimV4Test {
 		Assert.assertTrue(plan.getPlanElements().get(3) instanceof Activity);
 	}
 
+	@Test
+	public void testActivityTypesAreShared() {
+		final MutableScenario scenario = (MutableScenario) ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		PopulationReaderMatsimV4 reader = new PopulationReaderMatsimV4(scenario);
+		final Population population = scenario.getPopulation();
+
+		String str = "<?xml version=\"1.0\" ?>"+
+		"<!DOCTYPE plans SYSTEM \"http://www.matsim.org/files/dtd/plans_v4.dtd\">"+
+		"<plans>"+
+		"<person id=\"1\">"+
+		"	<plan>"+
+		"		<act type=\"h\" x=\"-25000\" y=\"0\" end_time=\"06:00\" />"+
+		"		<leg mode=\"walk\" />"+
+		"		<act type=\"h\" x=\"-25000\" y=\"0\" />"+
+		"	</plan>"+
+		"</person>"+
+		"<person id=\"2\">"+
+		"	<plan>"+
+		"		<act type=\"h\" x=\"-25000\" y=\"0\" />"+
+		"	</plan>"+
+		"</person>"+
+		"</plans>";
+		reader.parse(new ByteArrayInputStream(str.getBytes()));
+
+		Plan plan1 = population.getPersons().get(Id.create(1, Person.class)).getSelectedPlan();
+		Plan plan2 = population.getPersons().get(Id.create(2, Person.class)).getSelectedPlan();
+		String type = ((Activity) plan1.getPlanElements().get(0)).getType();
+		Assert.assertSame(type, ((Activity) plan1.getPlanElements().get(2)).getType());
+		Assert.assertSame(type, ((Activity) plan2.getPlanElements().get(0)).getType());
+	}
+
 	private static class XmlParserTestHelper {
 		private final MatsimXmlParser parser;
 		private final Stack<String> context = new Stack<String>();
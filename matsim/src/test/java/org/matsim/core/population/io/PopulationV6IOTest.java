@@ -1,5 +1,7 @@
 package org.matsim.core.population.io;
 
+import java.util.ArrayList;
+
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -208,4 +210,41 @@ public class PopulationV6IOTest {
 				population.getAttributes().getAttribute( "type" ) ,
 				readScenario.getPopulation().getAttributes().getAttribute( "type" ) );
 	}
+
+	@Test
+	public void testParallelReadingKeepsOrder() {
+		final Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig() );
+		for ( int i = 1000 ; i > 0 ; i-- ) {
+			final Person person = population.getFactory().createPerson(Id.createPersonId( i ));
+			population.addPerson( person );
+			person.getAttributes().putAttribute( "number" , i );
+			final Plan plan = population.getFactory().createPlan();
+			person.addPlan( plan );
+			plan.addActivity(population.getFactory().createActivityFromCoord( "home" , new Coord( i , 0 ) ));
+			plan.addLeg(population.getFactory().createLeg( "walk" ));
+			plan.addActivity(population.getFactory().createActivityFromCoord( "work" , new Coord( 0 , i ) ));
+		}
+
+		final String file = utils.getOutputDirectory()+"/population.xml";
+		new PopulationWriter( population ).writeV6( file );
+
+		final Scenario serialScenario = ScenarioUtils.createScenario( ConfigUtils.createConfig() );
+		serialScenario.getConfig().global().setNumberOfThreads( 1 );
+		new PopulationReader( serialScenario ).readFile( file );
+
+		final Scenario parallelScenario = ScenarioUtils.createScenario( ConfigUtils.createConfig() );
+		parallelScenario.getConfig().global().setNumberOfThreads( 4 );
+		new PopulationReader( parallelScenario ).readFile( file );
+
+		Assert.assertEquals( 1000 , parallelScenario.getPopulation().getPersons().size() );
+		Assert.assertEquals( "unexpected order of persons",
+				new ArrayList<>( serialScenario.getPopulation().getPersons().keySet() ),
+				new ArrayList<>( parallelScenario.getPopulation().getPersons().keySet() ) );
+		for ( Person readPerson : parallelScenario.getPopulation().getPersons().values() ) {
+			final int i = Integer.parseInt( readPerson.getId().toString() );
+			Assert.assertEquals( i , readPerson.getAttributes().getAttribute( "number" ) );
+			final Activity readWork = (Activity) readPerson.getSelectedPlan().getPlanElements().get( 2 );
+			Assert.assertEquals( new Coord( 0 , i ) , readWork.getCoord() );
+		}
+	}
 }
@@ -0,0 +1,108 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.population.routes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+
+public class CompactNetworkRouteTest extends AbstractNetworkRouteTest {
+
+	@Override
+	protected NetworkRoute getNetworkRouteInstance(final Id<Link> fromLinkId, final Id<Link> toLinkId, final Network network) {
+		return (NetworkRoute) new CompactNetworkRouteFactory(network).createRoute(fromLinkId, toLinkId);
+	}
+
+	@Test
+	public void testSameLinksAreShared() {
+		CompactNetworkRouteFactory factory = new CompactNetworkRouteFactory(null);
+		List<Id<Link>> links = ids("2", "3", "4");
+		NetworkRoute route1 = (NetworkRoute) factory.createRoute(Id.createLinkId(1), Id.createLinkId(5));
+		NetworkRoute route2 = (NetworkRoute) factory.createRoute(Id.createLinkId(1), Id.createLinkId(5));
+		route1.setLinkIds(Id.createLinkId(1), links, Id.createLinkId(5));
+		route2.setLinkIds(Id.createLinkId(1), new ArrayList<>(links), Id.createLinkId(5));
+		Assert.assertSame(route1.getLinkIds(), route2.getLinkIds());
+		Assert.assertEquals(links, route1.getLinkIds());
+		Assert.assertEquals(links.hashCode(), route1.getLinkIds().hashCode());
+
+		NetworkRoute route3 = (NetworkRoute) factory.createRoute(Id.createLinkId(1), Id.createLinkId(5));
+		route3.setLinkIds(Id.createLinkId(1), ids("2", "6", "4"), Id.createLinkId(5));
+		Assert.assertNotEquals(route1.getLinkIds(), route3.getLinkIds());
+
+		// routes of another factory do not share anything
+		NetworkRoute otherRoute = (NetworkRoute) new CompactNetworkRouteFactory(null).createRoute(Id.createLinkId(1), Id.createLinkId(5));
+		otherRoute.setLinkIds(Id.createLinkId(1), route1.getLinkIds(), Id.createLinkId(5));
+		Assert.assertNotSame(route1.getLinkIds(), otherRoute.getLinkIds());
+		Assert.assertEquals(route1.getLinkIds(), otherRoute.getLinkIds());
+	}
+
+	@Test
+	public void testClone() {
+		CompactNetworkRouteFactory factory = new CompactNetworkRouteFactory(null);
+		NetworkRoute route1 = (NetworkRoute) factory.createRoute(Id.createLinkId(1), Id.createLinkId(5));
+		route1.setLinkIds(Id.createLinkId(1), ids("2", "3"), Id.createLinkId(5));
+		NetworkRoute route2 = (NetworkRoute) route1.clone();
+		route2.setLinkIds(Id.createLinkId(1), ids("2", "3", "4"), Id.createLinkId(5));
+		Assert.assertEquals(ids("2", "3"), route1.getLinkIds());
+		Assert.assertEquals(ids("2", "3", "4"), route2.getLinkIds());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testLinkIdsUnmodifiable() {
+		CompactNetworkRouteFactory factory = new CompactNetworkRouteFactory(null);
+		NetworkRoute route = (NetworkRoute) factory.createRoute(Id.createLinkId(1), Id.createLinkId(5));
+		route.setLinkIds(Id.createLinkId(1), ids("2", "3"), Id.createLinkId(5));
+		route.getLinkIds().add(Id.createLinkId(4));
+	}
+
+	@Test
+	public void testSubRouteDoesNotAddUnknownLinks() {
+		CompactNetworkRouteStore store = new CompactNetworkRouteStore(null);
+		NetworkRoute route = new CompactNetworkRouteImpl(Id.createLinkId(1), Id.createLinkId(5), store);
+		route.setLinkIds(Id.createLinkId(1), ids("2", "3"), Id.createLinkId(5));
+		try {
+			route.getSubRoute(Id.createLinkId(1), Id.createLinkId("unknown"));
+			Assert.fail("expected IllegalArgumentException, but it did not happen.");
+		} catch (IllegalArgumentException expected) {
+		}
+		try {
+			route.getSubRoute(Id.createLinkId("unknown"), Id.createLinkId(5));
+			Assert.fail("expected IllegalArgumentException, but it did not happen.");
+		} catch (IllegalArgumentException expected) {
+		}
+		Assert.assertEquals(-1, store.findIndex(Id.createLinkId("unknown")));
+		Assert.assertEquals(ids("3"), route.getSubRoute(Id.createLinkId(2), Id.createLinkId(5)).getLinkIds());
+	}
+
+	private static List<Id<Link>> ids(final String... ids) {
+		List<Id<Link>> list = new ArrayList<>();
+		for (String id : Arrays.asList(ids)) {
+			list.add(Id.createLinkId(id));
+		}
+		return list;
+	}
+
+}
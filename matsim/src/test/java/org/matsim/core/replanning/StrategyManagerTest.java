@@ -34,10 +34,12 @@ import org.matsim.core.gbl.MatsimRandom;
 import org.matsim.core.population.PersonUtils;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.replanning.selectors.BestPlanSelector;
+import org.matsim.core.replanning.selectors.ExpBetaPlanSelector;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
 import org.matsim.core.scenario.ScenarioUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -373,6 +375,104 @@ public class StrategyManagerTest {
 		Assert.assertEquals(1.0, weights.get(2), 1e-8);
 	}
 	
+	/**
+	 * Tests that the parallel plan selection gives the same results independent of the number of threads, and that
+	 * the modules still get the plans in the order of the population.
+	 */
+	@Test
+	public void testParallelSelectionIndependentOfNumberOfThreads() {
+		List<String> result1 = new ArrayList<>();
+		List<String> order1 = runParallelSelection(1, result1);
+		List<String> result4 = new ArrayList<>();
+		List<String> order4 = runParallelSelection(4, result4);
+
+		Assert.assertEquals(result1, result4);
+		Assert.assertEquals(order1, order4);
+		Assert.assertFalse(order1.isEmpty());
+
+		// the selection threads are stopped at shutdown
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("PlanSelection.")) {
+				try {
+					thread.join(10000);
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				Assert.assertFalse(thread.isAlive());
+			}
+		}
+	}
+
+	@Test
+	public void testRandomForPersonDoesNotDependOnStringHashCode() {
+		// the ids have the same String.hashCode()
+		Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+		Person aa = PopulationUtils.getFactory().createPerson(Id.create("Aa", Person.class));
+		Person bb = PopulationUtils.getFactory().createPerson(Id.create("BB", Person.class));
+		MatsimRandom.reset(4711);
+		Assert.assertNotEquals(GenericStrategyManager.getRandomForPerson(aa, 1).nextLong(),
+				GenericStrategyManager.getRandomForPerson(bb, 1).nextLong());
+		Assert.assertNotEquals(GenericStrategyManager.getRandomForPerson(aa, 1).nextLong(),
+				GenericStrategyManager.getRandomForPerson(aa, 2).nextLong());
+		Assert.assertEquals(GenericStrategyManager.getRandomForPerson(aa, 1).nextLong(),
+				GenericStrategyManager.getRandomForPerson(aa, 1).nextLong());
+	}
+
+	private static List<String> runParallelSelection(final int numberOfThreads, final List<String> result) {
+		MatsimRandom.reset(4711);
+		Population population = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		for (int i = 0; i < 500; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			for (int j = 0; j < 5; j++) {
+				Plan plan = PersonUtils.createAndAddPlan(person, j == 0);
+				plan.setScore((double) ((i * 7 + j * 13) % 11));
+			}
+			population.addPerson(person);
+		}
+
+		final List<String> handledPersons = new ArrayList<>();
+		StrategyManager manager = new StrategyManager();
+		manager.setNumberOfThreadsForSelection(numberOfThreads);
+		manager.setMaxPlansPerAgent(4);
+		manager.setPlanSelectorForRemoval(new RandomPlanSelector<Plan, Person>());
+		manager.addStrategyForDefaultSubpopulation(new PlanStrategyImpl(new ExpBetaPlanSelector<Plan, Person>(1.0)), 0.6);
+		PlanStrategyImpl innovation = new PlanStrategyImpl(new RandomPlanSelector<Plan, Person>());
+		innovation.addStrategyModule(new PlanStrategyModule() {
+			@Override
+			public void prepareReplanning(ReplanningContext replanningContext) {
+			}
+			@Override
+			public void handlePlan(Plan plan) {
+				handledPersons.add(plan.getPerson().getId().toString());
+				plan.setScore(0.0);
+			}
+			@Override
+			public void finishReplanning() {
+			}
+		});
+		manager.addStrategyForDefaultSubpopulation(innovation, 0.4);
+
+		List<String> expectedOrder = new ArrayList<>();
+		for (int iteration = 1; iteration <= 3; iteration++) {
+			int first = handledPersons.size();
+			manager.run(population, iteration, null);
+			expectedOrder.clear();
+			for (Person person : population.getPersons().values()) {
+				if (handledPersons.subList(first, handledPersons.size()).contains(person.getId().toString())) {
+					expectedOrder.add(person.getId().toString());
+				}
+			}
+			Assert.assertEquals(expectedOrder, handledPersons.subList(first, handledPersons.size()));
+		}
+
+		for (Person person : population.getPersons().values()) {
+			result.add(person.getId() + ":" + person.getPlans().size() + ":" + person.getPlans().indexOf(person.getSelectedPlan())
+					+ ":" + person.getSelectedPlan().getScore());
+		}
+		manager.shutdown();
+		return handledPersons;
+	}
+
 	/**
 	 * A simple extension to the PlanStrategy which counts how often it was
 	 * called.
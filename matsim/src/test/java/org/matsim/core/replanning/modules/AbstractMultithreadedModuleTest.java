@@ -20,6 +20,12 @@
 
 package org.matsim.core.replanning.modules;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -60,6 +66,155 @@ public class AbstractMultithreadedModuleTest {
 
 	}
 
+	@Test
+	public void testAllPlansHandled() {
+		runAllPlansHandled(false);
+	}
+
+	@Test
+	public void testAllPlansHandled_balancedLoad() {
+		runAllPlansHandled(true);
+	}
+
+	private static void runAllPlansHandled(final boolean balanceLoad) {
+		CountingModule testee = new CountingModule(3, balanceLoad);
+		for (int iteration = 0; iteration < 3; iteration++) {
+			testee.prepareReplanning(null);
+			for (int i = 0; i < 1000; i++) {
+				testee.handlePlan(null);
+			}
+			testee.finishReplanning();
+			Assert.assertEquals(1000 * (iteration + 1), testee.handled.get());
+		}
+		// the threads are re-used in every iteration
+		Assert.assertTrue(testee.threads.size() <= 3);
+	}
+
+	@Test
+	public void testThreadsStoppedAtShutdown() {
+		runThreadsStoppedAtShutdown(false);
+	}
+
+	@Test
+	public void testThreadsStoppedAtShutdown_balancedLoad() {
+		runThreadsStoppedAtShutdown(true);
+	}
+
+	private static void runThreadsStoppedAtShutdown(final boolean balanceLoad) {
+		CountingModule testee = new CountingModule(3, balanceLoad);
+		testee.prepareReplanning(null);
+		for (int i = 0; i < 1000; i++) {
+			testee.handlePlan(null);
+		}
+		testee.finishReplanning();
+		Assert.assertFalse(testee.threads.isEmpty());
+		for (Thread thread : testee.threads) {
+			Assert.assertTrue(thread.isAlive());
+		}
+
+		testee.shutdown();
+		for (Thread thread : testee.threads) {
+			Assert.assertFalse(thread.isAlive());
+		}
+
+		// the module can still be used, with new threads
+		testee.threads.clear();
+		testee.prepareReplanning(null);
+		for (int i = 0; i < 1000; i++) {
+			testee.handlePlan(null);
+		}
+		testee.finishReplanning();
+		Assert.assertEquals(2000, testee.handled.get());
+		testee.shutdown();
+		for (Thread thread : testee.threads) {
+			Assert.assertFalse(thread.isAlive());
+		}
+	}
+
+	@Test
+	public void testShutdownAfterCrash() {
+		CountingModule testee = new CountingModule(3, false);
+		testee.crashAt = 500;
+		testee.prepareReplanning(null);
+		for (int i = 0; i < 1000; i++) {
+			testee.handlePlan(null);
+		}
+		try {
+			testee.finishReplanning();
+			Assert.fail("expected exception, got none.");
+		} catch (RuntimeException e) {
+			log.info("Catched expected exception.", e);
+		}
+		testee.shutdown();
+		Assert.assertFalse(testee.threads.isEmpty());
+		for (Thread thread : testee.threads) {
+			Assert.assertFalse(thread.isAlive());
+		}
+
+		// the module can be used again afterwards
+		testee.crashAt = -1;
+		testee.handled.set(0);
+		testee.prepareReplanning(null);
+		for (int i = 0; i < 1000; i++) {
+			testee.handlePlan(null);
+		}
+		testee.finishReplanning();
+		Assert.assertEquals(1000, testee.handled.get());
+		testee.shutdown();
+	}
+
+	@Test
+	public void testShutdownDuringReplanning() {
+		CountingModule testee = new CountingModule(3, true);
+		testee.prepareReplanning(null);
+		for (int i = 0; i < 1000; i++) {
+			testee.handlePlan(null);
+		}
+		// e.g. because another module crashed, finishReplanning() is never called
+		testee.shutdown();
+		for (Thread thread : testee.threads) {
+			Assert.assertFalse(thread.isAlive());
+		}
+	}
+
+	@Test
+	public void testDeterministicDistribution() {
+		CountingModule testee = new CountingModule(3, false);
+		testee.prepareReplanning(null);
+		for (int i = 0; i < 100; i++) {
+			testee.handlePlan(null);
+		}
+		testee.finishReplanning();
+		// plans are distributed round-robin to the threads
+		Assert.assertEquals(3, testee.handledPerAlgo.size());
+		for (AtomicInteger handled : testee.handledPerAlgo) {
+			Assert.assertTrue(handled.get() == 33 || handled.get() == 34);
+		}
+	}
+
+	private static class CountingModule extends AbstractMultithreadedModule {
+		final AtomicInteger handled = new AtomicInteger(0);
+		final List<AtomicInteger> handledPerAlgo = new CopyOnWriteArrayList<>();
+		final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		/** the plan number at which the algorithm crashes, negative for never */
+		volatile int crashAt = -1;
+		public CountingModule(final int nOfThreads, final boolean balanceLoad) {
+			super(nOfThreads, balanceLoad);
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			AtomicInteger handledByAlgo = new AtomicInteger(0);
+			this.handledPerAlgo.add(handledByAlgo);
+			return plan -> {
+				this.threads.add(Thread.currentThread());
+				handledByAlgo.incrementAndGet();
+				if (this.handled.incrementAndGet() == this.crashAt) {
+					throw new IllegalArgumentException("just some exception to crash this thread.");
+				}
+			};
+		}
+	}
+
 	private static class DummyAbstractMultithreadedModule extends AbstractMultithreadedModule {
 		public DummyAbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 			super(globalConfigGroup);
@@ -21,6 +21,8 @@
 package org.matsim.core.replanning.selectors;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Coord;
@@ -308,6 +310,53 @@ public class PathSizeLogitSelectorTest extends AbstractPlanSelectorTest {
 		assertEquals(2132, cnt3);
 	}
 
+	/**
+	 * Tests that the cached link fingerprints of a route are updated when the links of the route change.
+	 */
+	public void testRouteChangeUpdatesWeights() {
+		this.network = createNetwork();
+		PathSizeLogitSelector selector = new PathSizeLogitSelector(config.planCalcScore(), this.network);
+		Id<Link> l1 = Id.create("1", Link.class);
+		Id<Link> l6 = Id.create("6", Link.class);
+		Id<Link> l7 = Id.create("7", Link.class);
+
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		NetworkRoute r1 = RouteUtils.createLinkNetworkRouteImpl(l6, Arrays.asList(l1), l7);
+		NetworkRoute r2 = RouteUtils.createLinkNetworkRouteImpl(l6, Arrays.asList(Id.create("2", Link.class), Id.create("3", Link.class)), l7);
+		Plan p1 = createPlanWithRoute(person, r1);
+		Plan p2 = createPlanWithRoute(person, r2);
+
+		// no overlap, thus both plans have a path size of 1
+		Map<Plan, Double> weights = selector.calcWeights(person.getPlans());
+		assertEquals(1.0, weights.get(p1), 1e-10);
+		assertEquals(1.0, weights.get(p2), 1e-10);
+
+		// now both routes use the same link, each getting half of its length: (0.5)^beta
+		r2.setLinkIds(l6, Arrays.asList(l1), l7);
+		weights = selector.calcWeights(person.getPlans());
+		assertEquals(0.25, weights.get(p1), 1e-10);
+		assertEquals(0.25, weights.get(p2), 1e-10);
+
+		// legs departing far apart are not compared to each other
+		((Leg) p2.getPlanElements().get(1)).setDepartureTime(7200.0);
+		weights = selector.calcWeights(person.getPlans());
+		assertEquals(1.0, weights.get(p1), 1e-10);
+		assertEquals(1.0, weights.get(p2), 1e-10);
+	}
+
+	private static Plan createPlanWithRoute(final Person person, final NetworkRoute route) {
+		Plan plan = PopulationUtils.createPlan(person);
+		plan.addActivity(PopulationUtils.createActivityFromLinkId("h", route.getStartLinkId()));
+		Leg leg = PopulationUtils.createLeg(TransportMode.car);
+		leg.setDepartureTime(0.0);
+		leg.setRoute(route);
+		plan.addLeg(leg);
+		plan.addActivity(PopulationUtils.createActivityFromLinkId("w", route.getEndLinkId()));
+		plan.setScore(0.0);
+		person.addPlan(plan);
+		return plan;
+	}
+
 	private Network createNetwork() {
 		//we use a simple "red bus / blue bus paradox" network
 		// Sketch of the network
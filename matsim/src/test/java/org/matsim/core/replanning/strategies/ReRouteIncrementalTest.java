@@ -0,0 +1,183 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.replanning.strategies;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.HasPlansAndId;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.replanning.PlanStrategy;
+import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.replanning.ShutdownableStrategy;
+import org.matsim.core.replanning.StrategyManager;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class ReRouteIncrementalTest {
+
+	@Test
+	public void testChangedLinks() {
+		Fixture f = new Fixture();
+		LinkTravelTimeChanges changes = new LinkTravelTimeChanges(f.network, f.travelTime, 0.05, 3600, 24 * 3600);
+		Plan viaLink2 = f.createPlan("2");
+		Plan viaLink3 = f.createPlan("3");
+
+		// at first, everything counts as changed
+		changes.update();
+		Assert.assertEquals(4, changes.getNumberOfChangedLinks());
+		Assert.assertTrue(changes.isAffected(viaLink2));
+
+		changes.update();
+		Assert.assertEquals(0, changes.getNumberOfChangedLinks());
+		Assert.assertFalse(changes.isAffected(viaLink2));
+		Assert.assertFalse(changes.isAffected(viaLink3));
+
+		// a small change is ignored, a large one not
+		f.factors.put(Id.createLinkId("2"), 1.01);
+		changes.update();
+		Assert.assertEquals(0, changes.getNumberOfChangedLinks());
+		f.factors.put(Id.createLinkId("2"), 1.2);
+		changes.update();
+		Assert.assertEquals(1, changes.getNumberOfChangedLinks());
+		Assert.assertTrue(changes.isAffected(viaLink2));
+		Assert.assertFalse(changes.isAffected(viaLink3));
+
+		// legs without route always need to be routed
+		((Leg) viaLink3.getPlanElements().get(1)).setRoute(null);
+		Assert.assertTrue(changes.isAffected(viaLink3));
+	}
+
+	@Test
+	public void testOnlyAffectedPersonsAreRerouted() {
+		Fixture f = new Fixture();
+		LinkTravelTimeChanges changes = new LinkTravelTimeChanges(f.network, f.travelTime, 0.05, 3600, 24 * 3600);
+		CountingStrategy reRoute = new CountingStrategy();
+		CountingStrategy selectOnly = new CountingStrategy();
+		PlanStrategy strategy = new ReRouteIncremental.IncrementalReRouteStrategy(changes, reRoute, selectOnly);
+
+		Person person2 = PopulationUtils.getFactory().createPerson(Id.createPersonId("2"));
+		person2.addPlan(f.createPlan("2"));
+		Person person3 = PopulationUtils.getFactory().createPerson(Id.createPersonId("3"));
+		person3.addPlan(f.createPlan("3"));
+
+		strategy.init(null);
+		strategy.run(person2);
+		strategy.run(person3);
+		strategy.finish();
+		Assert.assertEquals(2, reRoute.counter);
+		Assert.assertEquals(0, selectOnly.counter);
+
+		f.factors.put(Id.createLinkId("3"), 2.0);
+		strategy.init(null);
+		strategy.run(person2);
+		strategy.run(person3);
+		strategy.finish();
+		Assert.assertEquals(3, reRoute.counter);
+		Assert.assertEquals(1, selectOnly.counter);
+	}
+
+	@Test
+	public void testShutdownIsForwarded() {
+		Fixture f = new Fixture();
+		LinkTravelTimeChanges changes = new LinkTravelTimeChanges(f.network, f.travelTime, 0.05, 3600, 24 * 3600);
+		CountingStrategy reRoute = new CountingStrategy();
+		CountingStrategy selectOnly = new CountingStrategy();
+		StrategyManager manager = new StrategyManager();
+		manager.addStrategy(new ReRouteIncremental.IncrementalReRouteStrategy(changes, reRoute, selectOnly), null, 1.0);
+
+		manager.shutdown();
+		Assert.assertEquals(1, reRoute.shutdowns);
+		Assert.assertEquals(1, selectOnly.shutdowns);
+	}
+
+	private static class Fixture {
+		final Network network = NetworkUtils.createNetwork();
+		final Map<Id<Link>, Double> factors = new HashMap<>();
+		final TravelTime travelTime = new TravelTime() {
+			@Override
+			public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+				Double factor = factors.get(link.getId());
+				return link.getLength() / link.getFreespeed() * (factor == null ? 1.0 : factor);
+			}
+		};
+
+		Fixture() {
+			Node n1 = NetworkUtils.createAndAddNode(this.network, Id.createNodeId("1"), new Coord(0, 0));
+			Node n2 = NetworkUtils.createAndAddNode(this.network, Id.createNodeId("2"), new Coord(1000, 0));
+			Node n3 = NetworkUtils.createAndAddNode(this.network, Id.createNodeId("3"), new Coord(2000, 0));
+			Node n4 = NetworkUtils.createAndAddNode(this.network, Id.createNodeId("4"), new Coord(3000, 0));
+			NetworkUtils.createAndAddLink(this.network, Id.createLinkId("1"), n1, n2, 1000, 10, 1000, 1);
+			NetworkUtils.createAndAddLink(this.network, Id.createLinkId("2"), n2, n3, 1000, 10, 1000, 1);
+			NetworkUtils.createAndAddLink(this.network, Id.createLinkId("3"), n2, n3, 1200, 10, 1000, 1);
+			NetworkUtils.createAndAddLink(this.network, Id.createLinkId("4"), n3, n4, 1000, 10, 1000, 1);
+		}
+
+		Plan createPlan(final String viaLink) {
+			Plan plan = PopulationUtils.createPlan();
+			plan.addActivity(PopulationUtils.createActivityFromLinkId("h", Id.createLinkId("1")));
+			Leg leg = PopulationUtils.createLeg(TransportMode.car);
+			leg.setRoute(RouteUtils.createLinkNetworkRouteImpl(Id.createLinkId("1"), Arrays.asList(Id.createLinkId(viaLink)), Id.createLinkId("4")));
+			plan.addLeg(leg);
+			plan.addActivity(PopulationUtils.createActivityFromLinkId("w", Id.createLinkId("4")));
+			plan.setScore(0.0);
+			return plan;
+		}
+	}
+
+	private static class CountingStrategy implements PlanStrategy, ShutdownableStrategy {
+		int counter = 0;
+		int shutdowns = 0;
+
+		@Override
+		public void run(HasPlansAndId<Plan, Person> person) {
+			this.counter++;
+		}
+
+		@Override
+		public void init(ReplanningContext replanningContext) {
+		}
+
+		@Override
+		public void finish() {
+		}
+
+		@Override
+		public void shutdown() {
+			this.shutdowns++;
+		}
+	}
+
+}
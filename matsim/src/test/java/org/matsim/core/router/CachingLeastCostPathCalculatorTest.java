@@ -0,0 +1,133 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.CachingLeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCache;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.vehicles.Vehicle;
+
+public class CachingLeastCostPathCalculatorTest {
+
+	@Test
+	public void testCacheHitsWithinTimeBin() {
+		Fixture f = new Fixture();
+		LeastCostPathCache cache = new LeastCostPathCache(100, 900.);
+		CachingLeastCostPathCalculator router = new CachingLeastCostPathCalculator(f.counting, cache);
+
+		LeastCostPathCalculator.Path p1 = router.calcLeastCostPath(f.n1, f.n3, 7.0 * 3600, null, null);
+		LeastCostPathCalculator.Path p2 = router.calcLeastCostPath(f.n1, f.n3, 7.0 * 3600 + 600, null, null);
+		Assert.assertEquals(1, f.counting.calls);
+		Assert.assertSame(p1, p2);
+		Assert.assertEquals(2, p1.links.size());
+
+		// next time bin
+		router.calcLeastCostPath(f.n1, f.n3, 7.0 * 3600 + 900, null, null);
+		Assert.assertEquals(2, f.counting.calls);
+
+		// other destination
+		router.calcLeastCostPath(f.n1, f.n2, 7.0 * 3600, null, null);
+		Assert.assertEquals(3, f.counting.calls);
+
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(3, cache.getMisses());
+		Assert.assertEquals(0.25, cache.getHitRate(), 1e-10);
+	}
+
+	@Test
+	public void testClear() {
+		Fixture f = new Fixture();
+		LeastCostPathCache cache = new LeastCostPathCache(100, 900.);
+		CachingLeastCostPathCalculator router = new CachingLeastCostPathCalculator(f.counting, cache);
+
+		router.calcLeastCostPath(f.n1, f.n3, 0.0, null, null);
+		Assert.assertEquals(1, cache.size());
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		router.calcLeastCostPath(f.n1, f.n3, 0.0, null, null);
+		Assert.assertEquals(2, f.counting.calls);
+	}
+
+	@Test
+	public void testSizeIsBounded() {
+		Fixture f = new Fixture();
+		LeastCostPathCache cache = new LeastCostPathCache(16, 1.);
+		CachingLeastCostPathCalculator router = new CachingLeastCostPathCalculator(f.counting, cache);
+
+		for (int i = 0; i < 1000; i++) {
+			router.calcLeastCostPath(f.n1, f.n3, i, null, null);
+		}
+		Assert.assertTrue(cache.size() <= 16);
+		Assert.assertEquals(1000, cache.getEvictions() + cache.size());
+	}
+
+	private static class CountingLeastCostPathCalculator implements LeastCostPathCalculator {
+		private final LeastCostPathCalculator delegate;
+		int calls = 0;
+
+		CountingLeastCostPathCalculator(LeastCostPathCalculator delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public Path calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+			this.calls++;
+			return this.delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+		}
+	}
+
+	private static class Fixture {
+		final Network network = NetworkUtils.createNetwork();
+		final Node n1;
+		final Node n2;
+		final Node n3;
+		final CountingLeastCostPathCalculator counting;
+
+		Fixture() {
+			NetworkFactory nf = this.network.getFactory();
+			this.n1 = nf.createNode(Id.create("1", Node.class), new Coord(0, 0));
+			this.n2 = nf.createNode(Id.create("2", Node.class), new Coord(0, 1000));
+			this.n3 = nf.createNode(Id.create("3", Node.class), new Coord(0, 2000));
+			this.network.addNode(this.n1);
+			this.network.addNode(this.n2);
+			this.network.addNode(this.n3);
+			Link l1 = nf.createLink(Id.create("1", Link.class), this.n1, this.n2);
+			Link l2 = nf.createLink(Id.create("2", Link.class), this.n2, this.n3);
+			for (Link l : new Link[] { l1, l2 }) {
+				l.setFreespeed(10.0);
+				l.setLength(1000.0);
+				this.network.addLink(l);
+			}
+			FreespeedTravelTimeAndDisutility freespeed = new FreespeedTravelTimeAndDisutility(-6.0 / 3600, +6.0 / 3600, 0.0);
+			this.counting = new CountingLeastCostPathCalculator(new Dijkstra(this.network, freespeed, freespeed));
+		}
+	}
+}
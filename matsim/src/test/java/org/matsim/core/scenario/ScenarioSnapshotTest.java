@@ -0,0 +1,261 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.scenario;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.NetworkFactory;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.network.io.NetworkWriter;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.population.routes.GenericRouteImpl;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.utils.misc.CRCChecksum;
+import org.matsim.facilities.ActivityFacilities;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.facilities.ActivityOption;
+import org.matsim.facilities.FacilitiesWriter;
+import org.matsim.facilities.OpeningTimeImpl;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.vehicles.Vehicle;
+
+public class ScenarioSnapshotTest {
+
+	@Rule public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testWriteRead() throws Exception {
+		Scenario original = createScenario();
+		Path snapshotFile = Paths.get(this.utils.getOutputDirectory(), "scenario.snapshot");
+		byte[] hash = { 1, 2, 3 };
+		new ScenarioSnapshot(Collections.emptyMap()).write(snapshotFile, hash, original);
+
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Assert.assertFalse(new ScenarioSnapshot(Collections.emptyMap()).read(snapshotFile, new byte[] { 1, 2, 4 }, scenario));
+		Assert.assertTrue(scenario.getNetwork().getNodes().isEmpty());
+		Assert.assertTrue(new ScenarioSnapshot(Collections.emptyMap()).read(snapshotFile, hash, scenario));
+
+		Node node = scenario.getNetwork().getNodes().get(Id.createNodeId("2"));
+		Assert.assertEquals(new Coord(1000, 0, 12.5), node.getCoord());
+		Assert.assertEquals("junction", NetworkUtils.getType(node));
+		Assert.assertEquals("n2", NetworkUtils.getOrigId(node));
+		Link link = scenario.getNetwork().getLinks().get(Id.createLinkId("2"));
+		Assert.assertEquals("primary", NetworkUtils.getType(link));
+		Assert.assertEquals(new HashSet<>(Arrays.asList("car", "bike")), link.getAllowedModes());
+
+		ActivityFacility facility = scenario.getActivityFacilities().getFacilities().get(Id.create("home", ActivityFacility.class));
+		Assert.assertEquals(1, facility.getActivityOptions().get("home").getOpeningTimes().size());
+		Assert.assertEquals(Id.createLinkId("1"), facility.getLinkId());
+
+		Person person = scenario.getPopulation().getPersons().get(Id.createPersonId("1"));
+		Assert.assertEquals(2, person.getPlans().size());
+		Assert.assertSame(person.getPlans().get(1), person.getSelectedPlan());
+		Assert.assertEquals("young", person.getAttributes().getAttribute("age"));
+		Assert.assertNull(person.getPlans().get(1).getScore());
+		Leg leg = (Leg) person.getPlans().get(0).getPlanElements().get(1);
+		NetworkRoute route = (NetworkRoute) leg.getRoute();
+		Assert.assertEquals(Arrays.asList(Id.createLinkId("2")), route.getLinkIds());
+		Assert.assertEquals(Id.create("car1", Vehicle.class), route.getVehicleId());
+		Route walkRoute = ((Leg) person.getPlans().get(1).getPlanElements().get(1)).getRoute();
+		Assert.assertEquals(1234.0, walkRoute.getDistance(), 0.0);
+
+		// everything else is compared through the xml files
+		String outputDirectory = this.utils.getOutputDirectory();
+		new NetworkWriter(original.getNetwork()).write(outputDirectory + "network1.xml");
+		new NetworkWriter(scenario.getNetwork()).write(outputDirectory + "network2.xml");
+		Assert.assertEquals(CRCChecksum.getCRCFromFile(outputDirectory + "network1.xml"), CRCChecksum.getCRCFromFile(outputDirectory + "network2.xml"));
+		new FacilitiesWriter(original.getActivityFacilities()).write(outputDirectory + "facilities1.xml");
+		new FacilitiesWriter(scenario.getActivityFacilities()).write(outputDirectory + "facilities2.xml");
+		Assert.assertEquals(CRCChecksum.getCRCFromFile(outputDirectory + "facilities1.xml"), CRCChecksum.getCRCFromFile(outputDirectory + "facilities2.xml"));
+		new PopulationWriter(original.getPopulation()).write(outputDirectory + "population1.xml");
+		new PopulationWriter(scenario.getPopulation()).write(outputDirectory + "population2.xml");
+		Assert.assertEquals(CRCChecksum.getCRCFromFile(outputDirectory + "population1.xml"), CRCChecksum.getCRCFromFile(outputDirectory + "population2.xml"));
+	}
+
+	@Test
+	public void testLoadScenario() throws Exception {
+		String outputDirectory = this.utils.getOutputDirectory();
+		Scenario original = createScenario();
+		new NetworkWriter(original.getNetwork()).write(outputDirectory + "network.xml");
+		new FacilitiesWriter(original.getActivityFacilities()).write(outputDirectory + "facilities.xml");
+		new PopulationWriter(original.getPopulation()).write(outputDirectory + "population.xml");
+
+		Config config = ConfigUtils.createConfig();
+		config.network().setInputFile(outputDirectory + "network.xml");
+		config.facilities().setInputFile(outputDirectory + "facilities.xml");
+		config.plans().setInputFile(outputDirectory + "population.xml");
+		config.global().setScenarioSnapshotFile(outputDirectory + "scenario.snapshot");
+		Path snapshotFile = Paths.get(outputDirectory, "scenario.snapshot");
+
+		Scenario scenario1 = ScenarioUtils.loadScenario(config);
+		Assert.assertTrue(Files.exists(snapshotFile));
+		Assert.assertEquals(1, scenario1.getPopulation().getPersons().size());
+		byte[] hash = ScenarioSnapshot.computeHash(config);
+		Assert.assertTrue(new ScenarioSnapshot(Collections.emptyMap()).read(snapshotFile, hash,
+				ScenarioUtils.createScenario(ConfigUtils.createConfig())));
+
+		Scenario scenario2 = ScenarioUtils.loadScenario(config);
+		Assert.assertEquals(3, scenario2.getNetwork().getLinks().size());
+		Assert.assertEquals(1, scenario2.getPopulation().getPersons().size());
+		Assert.assertEquals(1, scenario2.getActivityFacilities().getFacilities().size());
+
+		// a changed input file replaces the snapshot
+		Person person = original.getPopulation().getFactory().createPerson(Id.createPersonId("2"));
+		original.getPopulation().addPerson(person);
+		new PopulationWriter(original.getPopulation()).write(outputDirectory + "population.xml");
+		Assert.assertFalse(Arrays.equals(hash, ScenarioSnapshot.computeHash(config)));
+		Scenario scenario3 = ScenarioUtils.loadScenario(config);
+		Assert.assertEquals(2, scenario3.getPopulation().getPersons().size());
+		Assert.assertTrue(new ScenarioSnapshot(Collections.emptyMap()).read(snapshotFile, ScenarioSnapshot.computeHash(config),
+				ScenarioUtils.createScenario(ConfigUtils.createConfig())));
+		Assert.assertFalse(new File(outputDirectory + "scenario.snapshot.tmp").exists());
+	}
+
+	@Test
+	public void testLoadScenario_truncatedSnapshot() throws Exception {
+		String outputDirectory = this.utils.getOutputDirectory();
+		Scenario original = createScenario();
+		new NetworkWriter(original.getNetwork()).write(outputDirectory + "network.xml");
+		new FacilitiesWriter(original.getActivityFacilities()).write(outputDirectory + "facilities.xml");
+		new PopulationWriter(original.getPopulation()).write(outputDirectory + "population.xml");
+
+		Config config = ConfigUtils.createConfig();
+		config.network().setInputFile(outputDirectory + "network.xml");
+		config.facilities().setInputFile(outputDirectory + "facilities.xml");
+		config.plans().setInputFile(outputDirectory + "population.xml");
+		config.global().setScenarioSnapshotFile(outputDirectory + "scenario.snapshot");
+		Path snapshotFile = Paths.get(outputDirectory, "scenario.snapshot");
+
+		ScenarioUtils.loadScenario(config);
+		byte[] complete = Files.readAllBytes(snapshotFile);
+		// cut off the population, but keep the header with the matching hash
+		Files.write(snapshotFile, Arrays.copyOf(complete, complete.length - 20));
+
+		Scenario scenario = ScenarioUtils.loadScenario(config);
+		Assert.assertEquals(3, scenario.getNetwork().getNodes().size());
+		Assert.assertEquals(3, scenario.getNetwork().getLinks().size());
+		Assert.assertEquals(1, scenario.getActivityFacilities().getFacilities().size());
+		Assert.assertEquals(1, scenario.getPopulation().getPersons().size());
+		Assert.assertEquals(2, scenario.getPopulation().getPersons().get(Id.createPersonId("1")).getPlans().size());
+
+		// the snapshot was replaced
+		Assert.assertArrayEquals(complete, Files.readAllBytes(snapshotFile));
+	}
+
+	private static Scenario createScenario() {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Network network = scenario.getNetwork();
+		network.setName("test network");
+		NetworkFactory nf = network.getFactory();
+		Node n1 = nf.createNode(Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = nf.createNode(Id.createNodeId("2"), new Coord(1000, 0, 12.5));
+		Node n3 = nf.createNode(Id.createNodeId("3"), new Coord(2000, 0));
+		network.addNode(n1);
+		network.addNode(n2);
+		network.addNode(n3);
+		NetworkUtils.setType(n2, "junction");
+		NetworkUtils.setOrigId(n2, "n2");
+		Link l1 = nf.createLink(Id.createLinkId("1"), n1, n2);
+		Link l2 = nf.createLink(Id.createLinkId("2"), n2, n3);
+		Link l3 = nf.createLink(Id.createLinkId("3"), n3, n1);
+		for (Link link : Arrays.asList(l1, l2, l3)) {
+			link.setLength(1000);
+			link.setCapacity(1800);
+			link.setFreespeed(13.9);
+			link.setNumberOfLanes(1);
+			network.addLink(link);
+		}
+		l2.setAllowedModes(new HashSet<>(Arrays.asList("car", "bike")));
+		NetworkUtils.setType(l2, "primary");
+		l3.getAttributes().putAttribute("toll", 2.5);
+
+		ActivityFacilities facilities = scenario.getActivityFacilities();
+		ActivityFacility home = facilities.getFactory().createActivityFacility(Id.create("home", ActivityFacility.class), new Coord(0, 10), Id.createLinkId("1"));
+		ActivityOption option = facilities.getFactory().createActivityOption("home");
+		option.setCapacity(5);
+		option.addOpeningTime(new OpeningTimeImpl(0, 24 * 3600));
+		home.addActivityOption(option);
+		facilities.addActivityFacility(home);
+
+		PopulationFactory pf = scenario.getPopulation().getFactory();
+		Person person = pf.createPerson(Id.createPersonId("1"));
+		person.getAttributes().putAttribute("age", "young");
+		Plan plan1 = pf.createPlan();
+		plan1.setScore(12.5);
+		Activity home1 = pf.createActivityFromLinkId("home", Id.createLinkId("1"));
+		home1.setFacilityId(home.getId());
+		home1.setCoord(new Coord(0, 10));
+		home1.setEndTime(7 * 3600);
+		plan1.addActivity(home1);
+		Leg car = pf.createLeg("car");
+		car.setDepartureTime(7 * 3600);
+		car.setTravelTime(300);
+		NetworkRoute route = (NetworkRoute) pf.getRouteFactories().createRoute(NetworkRoute.class, Id.createLinkId("1"), Id.createLinkId("3"));
+		route.setLinkIds(Id.createLinkId("1"), Arrays.asList(Id.createLinkId("2")), Id.createLinkId("3"));
+		route.setVehicleId(Id.create("car1", Vehicle.class));
+		route.setDistance(1000);
+		car.setRoute(route);
+		plan1.addLeg(car);
+		Activity work = pf.createActivityFromLinkId("work", Id.createLinkId("3"));
+		work.setMaximumDuration(8 * 3600);
+		work.getAttributes().putAttribute("shift", 1);
+		plan1.addActivity(work);
+		person.addPlan(plan1);
+
+		Plan plan2 = pf.createPlan();
+		plan2.addActivity(pf.createActivityFromCoord("home", new Coord(0, 10)));
+		Leg walk = pf.createLeg("walk");
+		Route walkRoute = pf.getRouteFactories().createRoute(GenericRouteImpl.class, Id.createLinkId("1"), Id.createLinkId("3"));
+		walkRoute.setDistance(1234);
+		walkRoute.setTravelTime(900);
+		walk.setRoute(walkRoute);
+		plan2.addLeg(walk);
+		plan2.addActivity(pf.createActivityFromLinkId("work", Id.createLinkId("3")));
+		person.addPlan(plan2);
+		person.setSelectedPlan(plan2);
+		scenario.getPopulation().addPerson(person);
+		return scenario;
+	}
+
+}
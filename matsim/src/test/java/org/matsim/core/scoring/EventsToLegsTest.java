@@ -83,7 +83,44 @@ public class EventsToLegsTest {
 		Assert.assertEquals(20.0,lh.handledLeg.getLeg().getRoute().getTravelTime(), 1e-9);
 		Assert.assertEquals(550.0,lh.handledLeg.getLeg().getRoute().getDistance(), 1e-9);
 	}
-	
+
+	@Test
+	public void testRoutesOfConsecutiveLegsAreIndependent() {
+		Scenario scenario = createTriangularNetwork();
+		EventsToLegs eventsToLegs = new EventsToLegs(scenario);
+		RememberingLegHandler lh = new RememberingLegHandler();
+		eventsToLegs.addLegHandler(lh);
+		Id<Person> agentId = Id.create("1", Person.class);
+		Id<Vehicle> vehId = Id.create("veh1", Vehicle.class);
+		eventsToLegs.handleEvent(new PersonDepartureEvent(10.0, agentId, Id.createLinkId("l1"), "car"));
+		eventsToLegs.handleEvent(new PersonEntersVehicleEvent(10.0, agentId, vehId));
+		eventsToLegs.handleEvent(new VehicleEntersTrafficEvent(10.0, agentId, Id.createLinkId("l1"), vehId, "car", 1.0));
+		eventsToLegs.handleEvent(new LinkLeaveEvent(10.0, vehId, Id.createLinkId("l1")));
+		eventsToLegs.handleEvent(new LinkEnterEvent(11.0, vehId, Id.createLinkId("l2")));
+		eventsToLegs.handleEvent(new VehicleLeavesTrafficEvent(30.0, agentId, Id.createLinkId("l2"), vehId, "car", 1.0));
+		eventsToLegs.handleEvent(new PersonArrivalEvent(30.0, agentId, Id.createLinkId("l2"), "car"));
+		PersonExperiencedLeg firstLeg = lh.handledLeg;
+		Assert.assertEquals(Id.createLinkId("l1"), firstLeg.getLeg().getRoute().getStartLinkId());
+		Assert.assertEquals(Id.createLinkId("l2"), firstLeg.getLeg().getRoute().getEndLinkId());
+		Assert.assertEquals(500.0, firstLeg.getLeg().getRoute().getDistance(), 1e-9);
+
+		eventsToLegs.reset(1);
+
+		eventsToLegs.handleEvent(new PersonDepartureEvent(40.0, agentId, Id.createLinkId("l2"), "walk"));
+		eventsToLegs.handleEvent(new TeleportationArrivalEvent(60.0, agentId, 70.0));
+		eventsToLegs.handleEvent(new PersonArrivalEvent(60.0, agentId, Id.createLinkId("l4"), "walk"));
+		PersonExperiencedLeg secondLeg = lh.handledLeg;
+		Assert.assertNotSame(firstLeg.getLeg(), secondLeg.getLeg());
+		Assert.assertEquals(Id.createLinkId("l2"), secondLeg.getLeg().getRoute().getStartLinkId());
+		Assert.assertEquals(Id.createLinkId("l4"), secondLeg.getLeg().getRoute().getEndLinkId());
+		Assert.assertEquals(70.0, secondLeg.getLeg().getRoute().getDistance(), 1e-9);
+
+		// the first route must not be changed by re-using the buffers
+		Assert.assertEquals(Id.createLinkId("l1"), firstLeg.getLeg().getRoute().getStartLinkId());
+		Assert.assertEquals(Id.createLinkId("l2"), firstLeg.getLeg().getRoute().getEndLinkId());
+		Assert.assertEquals(500.0, firstLeg.getLeg().getRoute().getDistance(), 1e-9);
+	}
+
 	private static Scenario createTriangularNetwork() {
 		MutableScenario scenario = (MutableScenario) ScenarioUtils.createScenario(ConfigUtils.createConfig());
 
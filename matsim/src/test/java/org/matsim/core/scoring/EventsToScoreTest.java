@@ -58,6 +58,43 @@ public class EventsToScoreTest extends MatsimTestCase {
 		assertEquals(3.4, e2s.getAgentScore(person.getId()));
 	}
 
+	/**
+	 * Without a controler, there is no shutdown; {@link EventsToScore#finish()} must stop the threads of the scoring.
+	 */
+	public void testNoThreadsLeftBehind() {
+		int threadsBefore = countScoringThreads();
+		for (int i = 0; i < 3; i++) {
+			Config config = ConfigUtils.createConfig();
+			config.global().setNumberOfThreads(4);
+			Scenario scenario = ScenarioUtils.createScenario(config);
+			Population population = scenario.getPopulation();
+			for (int p = 0; p < 10; p++) {
+				population.addPerson(population.getFactory().createPerson(Id.create(p, Person.class)));
+			}
+			EventsManager events = EventsUtils.createEventsManager();
+			EventsToScore e2s = EventsToScore.createWithoutScoreUpdating(scenario, new MockScoringFunctionFactory(), events);
+			for (int iteration = 0; iteration < 2; iteration++) {
+				e2s.beginIteration(iteration);
+				for (int p = 0; p < 10; p++) {
+					events.processEvent(new PersonMoneyEvent(3600.0, Id.create(p, Person.class), p));
+				}
+				e2s.finish();
+				assertEquals(threadsBefore, countScoringThreads());
+				assertEquals(7.0, e2s.getAgentScore(Id.create(7, Person.class)));
+			}
+		}
+	}
+
+	private static int countScoringThreads() {
+		int count = 0;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.isAlive() && thread.getName().startsWith("ScoringFunctionsForPopulation.")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
 	public void testMsaAveraging() {
 		Config config = ConfigUtils.createConfig() ;
 		
@@ -0,0 +1,208 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.scoring;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.controler.ControlerListenerManagerImpl;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.scoring.functions.CharyparNagelScoringFunctionFactory;
+import org.matsim.core.utils.misc.CRCChecksum;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class ScoringFunctionsForPopulationTest {
+
+	@Rule public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testShardsGiveSameScores() {
+		Scenario scenario = createScenario();
+		ScoringFunctionsForPopulation single = score(scenario, 1);
+		ScoringFunctionsForPopulation sharded = score(scenario, 4);
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			double score = single.getScoringFunctionForAgent(person.getId()).getScore();
+			Assert.assertFalse(Double.isNaN(score));
+			Assert.assertEquals(score, sharded.getScoringFunctionForAgent(person.getId()).getScore(), 0.0);
+		}
+		single.writePartialScores(this.utils.getOutputDirectory() + "single.txt");
+		sharded.writePartialScores(this.utils.getOutputDirectory() + "sharded.txt");
+		Assert.assertEquals(CRCChecksum.getCRCFromFile(this.utils.getOutputDirectory() + "single.txt"),
+				CRCChecksum.getCRCFromFile(this.utils.getOutputDirectory() + "sharded.txt"));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testExceptionInShardPropagates() {
+		Config config = ConfigUtils.createConfig();
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Id<Person> personId = Id.createPersonId(1);
+		scenario.getPopulation().addPerson(scenario.getPopulation().getFactory().createPerson(personId));
+		EventsManager events = EventsUtils.createEventsManager();
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		ScoringFunctionsForPopulation scoringFunctionsForPopulation = new ScoringFunctionsForPopulation(controlerListenerManager, events,
+				new EventsToActivities(controlerListenerManager, events), new EventsToLegs(scenario.getNetwork(), events), scenario.getPopulation(),
+				person -> new ThrowingScoringFunction(), 2);
+		controlerListenerManager.fireControlerIterationStartsEvent(0);
+		events.processEvent(new PersonMoneyEvent(3600.0, personId, 3.4));
+		scoringFunctionsForPopulation.finishScoringFunctions();
+	}
+
+	@Test
+	public void testShardThreadsAreReusedAndStoppedAtShutdown() throws InterruptedException {
+		Config config = ConfigUtils.createConfig();
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		for (int i = 0; i < 20; i++) {
+			scenario.getPopulation().addPerson(scenario.getPopulation().getFactory().createPerson(Id.createPersonId(i)));
+		}
+		EventsManager events = EventsUtils.createEventsManager();
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		ScoringFunctionsForPopulation scoringFunctionsForPopulation = new ScoringFunctionsForPopulation(controlerListenerManager, events,
+				new EventsToActivities(controlerListenerManager, events), new EventsToLegs(scenario.getNetwork(), events), scenario.getPopulation(),
+				person -> new ThreadRecordingScoringFunction(threads), 2);
+		for (int iteration = 0; iteration < 3; iteration++) {
+			controlerListenerManager.fireControlerIterationStartsEvent(iteration);
+			for (int i = 0; i < 20; i++) {
+				events.processEvent(new PersonMoneyEvent(3600.0 + i, Id.createPersonId(i), 1.0));
+			}
+			scoringFunctionsForPopulation.finishScoringFunctions();
+			for (int i = 0; i < 20; i++) {
+				Assert.assertEquals(1.0, scoringFunctionsForPopulation.getScoringFunctionForAgent(Id.createPersonId(i)).getScore(), 0.0);
+			}
+		}
+		// the same two threads are used in all iterations
+		Assert.assertEquals(2, threads.size());
+		for (Thread thread : threads) {
+			Assert.assertTrue(thread.isAlive());
+		}
+		controlerListenerManager.fireControlerShutdownEvent(false);
+		for (Thread thread : threads) {
+			thread.join(10000);
+			Assert.assertFalse(thread.isAlive());
+		}
+	}
+
+	private static class ThreadRecordingScoringFunction implements ScoringFunction {
+		private final Set<Thread> threads;
+		private double score = 0;
+		ThreadRecordingScoringFunction(final Set<Thread> threads) {
+			this.threads = threads;
+		}
+		@Override public void handleActivity(Activity activity) {
+		}
+		@Override public void handleLeg(Leg leg) {
+		}
+		@Override public void agentStuck(double time) {
+		}
+		@Override public void addMoney(double amount) {
+			this.threads.add(Thread.currentThread());
+			this.score += amount;
+		}
+		@Override public void finish() {
+		}
+		@Override public double getScore() {
+			return this.score;
+		}
+		@Override public void handleEvent(Event event) {
+		}
+	}
+
+	private static class ThrowingScoringFunction implements ScoringFunction {
+		@Override public void handleActivity(Activity activity) {
+		}
+		@Override public void handleLeg(Leg leg) {
+		}
+		@Override public void agentStuck(double time) {
+		}
+		@Override public void addMoney(double amount) {
+			throw new IllegalStateException();
+		}
+		@Override public void finish() {
+		}
+		@Override public double getScore() {
+			return 0;
+		}
+		@Override public void handleEvent(Event event) {
+		}
+	}
+
+	private static Scenario createScenario() {
+		Config config = ConfigUtils.createConfig();
+		PlanCalcScoreConfigGroup.ActivityParams work = new PlanCalcScoreConfigGroup.ActivityParams("work");
+		work.setTypicalDuration(8 * 3600.0);
+		config.planCalcScore().addActivityParams(work);
+		PlanCalcScoreConfigGroup.ActivityParams home = new PlanCalcScoreConfigGroup.ActivityParams("home");
+		home.setTypicalDuration(12 * 3600.0);
+		config.planCalcScore().addActivityParams(home);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		for (int i = 0; i < 50; i++) {
+			scenario.getPopulation().addPerson(scenario.getPopulation().getFactory().createPerson(Id.createPersonId(i)));
+		}
+		return scenario;
+	}
+
+	private static ScoringFunctionsForPopulation score(final Scenario scenario, final int numberOfShards) {
+		EventsManager events = EventsUtils.createEventsManager();
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		ScoringFunctionsForPopulation scoringFunctionsForPopulation = new ScoringFunctionsForPopulation(controlerListenerManager, events,
+				new EventsToActivities(controlerListenerManager, events), new EventsToLegs(scenario.getNetwork(), events), scenario.getPopulation(),
+				new CharyparNagelScoringFunctionFactory(scenario), numberOfShards);
+		controlerListenerManager.fireControlerIterationStartsEvent(0);
+		events.initProcessing();
+		for (int i = 0; i < 50; i++) {
+			Id<Person> personId = Id.createPersonId(i);
+			double offset = i * 60;
+			events.processEvent(new ActivityEndEvent(7 * 3600 + offset, personId, Id.createLinkId(0), null, "home"));
+			events.processEvent(new PersonDepartureEvent(7 * 3600 + offset, personId, Id.createLinkId(0), "car"));
+			events.processEvent(new PersonArrivalEvent(7.5 * 3600 + offset * 2, personId, Id.createLinkId(1), "car"));
+			events.processEvent(new ActivityStartEvent(7.5 * 3600 + offset * 2, personId, Id.createLinkId(1), null, "work"));
+			events.processEvent(new PersonMoneyEvent(10 * 3600, personId, -i));
+			events.processEvent(new ActivityEndEvent(16 * 3600 + offset, personId, Id.createLinkId(1), null, "work"));
+			events.processEvent(new PersonDepartureEvent(16 * 3600 + offset, personId, Id.createLinkId(1), "car"));
+			events.processEvent(new PersonArrivalEvent(17 * 3600 + offset, personId, Id.createLinkId(0), "car"));
+			events.processEvent(new ActivityStartEvent(17 * 3600 + offset, personId, Id.createLinkId(0), null, "home"));
+		}
+		events.finishProcessing();
+		controlerListenerManager.fireControlerAfterMobsimEvent(0);
+		scoringFunctionsForPopulation.finishScoringFunctions();
+		return scoringFunctionsForPopulation;
+	}
+
+}
@@ -103,4 +103,33 @@ public class LinkToLinkTravelTimeCalculatorTest extends MatsimTestCase {
 		assertEquals( 1 * 60, ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link1, link3, 7.0 * 3600 + 5 * 60 + 4*timeBinSize), EPSILON);  // linkTravelTime3 - 1*timeBinSize
 		assertEquals(10     , ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link1, link3, 7.0 * 3600 + 5 * 60 + 5*timeBinSize), EPSILON);  // freespeedTravelTime > linkTravelTime2b - 2*timeBinSize
 	}
+
+	public void testNotConnectedLinks() {
+		MutableScenario scenario = (MutableScenario) ScenarioUtils.createScenario(loadConfig(null));
+		scenario.getConfig().travelTimeCalculator().setCalculateLinkToLinkTravelTimes(true);
+		Network network = scenario.getNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.create(1, Node.class), new Coord((double) 0, (double) 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.create(2, Node.class), new Coord((double) 1000, (double) 0));
+		Node node3 = NetworkUtils.createAndAddNode(network, Id.create(3, Node.class), new Coord((double) 2000, (double) 0));
+		Link link1 = NetworkUtils.createAndAddLink(network, Id.create(1, Link.class), node1, node2, 1000.0, 100.0, 3600.0, 1.0);
+		Link link2 = NetworkUtils.createAndAddLink(network, Id.create(2, Link.class), node2, node3, 1000.0, 100.0, 3600.0, 1.0);
+
+		TravelTimeCalculator ttcalc = new TravelTimeCalculator(network, 15*60, 12*3600, scenario.getConfig().travelTimeCalculator());
+		Id<Vehicle> vehId = Id.create(11, Vehicle.class);
+
+		// link 2 does not lead back to link 1, but the events may say so nevertheless
+		ttcalc.handleEvent(new LinkEnterEvent(7.0 * 3600, vehId, link2.getId()));
+		ttcalc.handleEvent(new LinkLeaveEvent(7.0 * 3600 + 100, vehId, link2.getId()));
+		ttcalc.handleEvent(new LinkEnterEvent(7.0 * 3600 + 100, vehId, link1.getId()));
+
+		assertEquals(100, ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link2, link1, 7.0 * 3600), EPSILON);
+		assertEquals(100, ttcalc.getLinkTravelTimes().getLinkTravelTime(link2, 7.0 * 3600, null, null), EPSILON);
+
+		ttcalc.reset(1);
+		assertEquals(10, ttcalc.getLinkToLinkTravelTimes().getLinkToLinkTravelTime(link2, link1, 7.0 * 3600), EPSILON);
+
+		// the pending link enter event was removed by reset, so this must not count as travel time
+		ttcalc.handleEvent(new LinkLeaveEvent(7.0 * 3600 + 900, vehId, link1.getId()));
+		assertEquals(10, ttcalc.getLinkTravelTimes().getLinkTravelTime(link1, 7.0 * 3600, null, null), EPSILON);
+	}
 }
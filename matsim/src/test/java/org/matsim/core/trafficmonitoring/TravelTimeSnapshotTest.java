@@ -0,0 +1,140 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.Injector;
+import org.matsim.core.events.EventsManagerModule;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.scenario.ScenarioByInstanceModule;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.vehicles.Vehicle;
+
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+public class TravelTimeSnapshotTest {
+
+	@Test
+	public void testSameTravelTimesAsCalculator_average() {
+		runSameTravelTimesAsCalculator("average");
+	}
+
+	@Test
+	public void testSameTravelTimesAsCalculator_linearInterpolation() {
+		runSameTravelTimesAsCalculator("linearinterpolation");
+	}
+
+	private static void runSameTravelTimesAsCalculator(final String getterType) {
+		Network network = createNetwork();
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTravelTimeGetterType(getterType);
+		TravelTimeCalculator calculator = TravelTimeCalculator.create(network, config);
+		addTravelTimes(calculator, network);
+
+		TravelTimeSnapshot snapshot = new TravelTimeSnapshot(network, calculator);
+		TravelTime expected = calculator.getLinkTravelTimes();
+		for (Link link : network.getLinks().values()) {
+			for (double time = 0; time < 32 * 3600; time += 97) {
+				Assert.assertEquals(expected.getLinkTravelTime(link, time, null, null), snapshot.getLinkTravelTime(link, time, null, null), 1e-3);
+			}
+		}
+	}
+
+	@Test
+	public void testUpdate() {
+		Network network = createNetwork();
+		TravelTimeCalculator calculator = TravelTimeCalculator.create(network, new TravelTimeCalculatorConfigGroup());
+		Link link = network.getLinks().get(Id.createLinkId(1));
+		TravelTimeSnapshot snapshot = new TravelTimeSnapshot(network, calculator);
+		Assert.assertEquals(10.0, snapshot.getLinkTravelTime(link, 7.0 * 3600, null, null), 1e-6);
+		// taking the snapshot does not create travel time data for links without traffic
+		Assert.assertNull(calculator.getConsolidatedTravelTimeData(link));
+
+		addTravelTimes(calculator, network);
+		// the snapshot is not changed before it is updated
+		Assert.assertEquals(10.0, snapshot.getLinkTravelTime(link, 7.0 * 3600, null, null), 1e-6);
+		snapshot.update();
+		Assert.assertEquals(301.0, snapshot.getLinkTravelTime(link, 7.0 * 3600, null, null), 1e-6);
+	}
+
+	@Test
+	public void testBoundAsTravelTime() {
+		Config config = ConfigUtils.createConfig();
+		config.travelTimeCalculator().setUseTravelTimeSnapshot(true);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Network network = scenario.getNetwork();
+		createNetwork(network);
+		com.google.inject.Injector injector = Injector.createInjector(config, new TravelTimeCalculatorModule(), new EventsManagerModule(), new ScenarioByInstanceModule(scenario));
+		TravelTime travelTime = injector.getInstance(Key.get(TravelTime.class, Names.named("car")));
+		Assert.assertSame(injector.getInstance(TravelTimeSnapshot.class), travelTime);
+
+		EventsManager events = injector.getInstance(EventsManager.class);
+		Id<Vehicle> vehId = Id.create(1, Vehicle.class);
+		events.processEvent(new LinkEnterEvent(7.0 * 3600, vehId, Id.createLinkId(1)));
+		events.processEvent(new LinkLeaveEvent(7.0 * 3600 + 300, vehId, Id.createLinkId(1)));
+		Link link = network.getLinks().get(Id.createLinkId(1));
+		Assert.assertEquals(10.0, travelTime.getLinkTravelTime(link, 7.0 * 3600, null, null), 1e-6);
+		((TravelTimeSnapshot) travelTime).notifyAfterMobsim(null);
+		Assert.assertEquals(300.0, travelTime.getLinkTravelTime(link, 7.0 * 3600, null, null), 1e-6);
+	}
+
+	private static void addTravelTimes(final TravelTimeCalculator calculator, final Network network) {
+		int vehicle = 0;
+		for (Link link : network.getLinks().values()) {
+			for (int hour = 6; hour < 10; hour++) {
+				Id<Vehicle> vehId = Id.create(vehicle++, Vehicle.class);
+				double enterTime = hour * 3600 + 10;
+				double travelTime = 100.0 * (hour - 4) + Integer.parseInt(link.getId().toString());
+				calculator.handleEvent(new LinkEnterEvent(enterTime, vehId, link.getId()));
+				calculator.handleEvent(new LinkLeaveEvent(enterTime + travelTime, vehId, link.getId()));
+			}
+		}
+	}
+
+	private static Network createNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		createNetwork(network);
+		return network;
+	}
+
+	private static void createNetwork(final Network network) {
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.create(1, Node.class), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.create(2, Node.class), new Coord(1000, 0));
+		Node node3 = NetworkUtils.createAndAddNode(network, Id.create(3, Node.class), new Coord(2000, 0));
+		NetworkUtils.createAndAddLink(network, Id.create(1, Link.class), node1, node2, 1000.0, 100.0, 3600.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.create(2, Link.class), node2, node3, 1000.0, 50.0, 3600.0, 1.0);
+	}
+
+}
@@ -29,7 +29,9 @@ import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.Random;
 
 import org.apache.log4j.Logger;
 import org.junit.Assert;
@@ -242,6 +244,66 @@ public class IOUtilsTest {
 		Assert.assertTrue("compressed file should be equal 62 bytes, but is " + file.length(), file.length() == 62);
 	}
 
+	@Test
+	public void testGetBufferedWriter_append_zst() throws IOException {
+		String filename = this.utils.getOutputDirectory() + "test.txt.zst";
+		BufferedWriter writer = IOUtils.getAppendingBufferedWriter(filename);
+		writer.write("aaa");
+		writer.close();
+		try {
+			IOUtils.getAppendingBufferedWriter(filename);
+			Assert.fail("expected exception.");
+		} catch (IllegalArgumentException e) {
+			log.info("Catched expected exception.", e);
+		}
+	}
+
+	@Test
+	public void testGetBufferedWriter_zst() throws IOException {
+		String filename = this.utils.getOutputDirectory() + "test.txt.zst";
+		BufferedWriter writer = IOUtils.getBufferedWriter(filename);
+		for (int i = 0; i < 1000; i++) {
+			writer.write("12345678901234567890123456789012345678901234567890");
+			writer.newLine();
+		}
+		writer.close();
+		File file = new File(filename);
+		Assert.assertTrue("compressed file should be less than 100 bytes, but is " + file.length(), file.length() < 100);
+
+		BufferedReader reader = IOUtils.getBufferedReader(filename);
+		int lines = 0;
+		String line;
+		while ((line = reader.readLine()) != null) {
+			Assert.assertEquals("12345678901234567890123456789012345678901234567890", line);
+			lines++;
+		}
+		reader.close();
+		Assert.assertEquals(1000, lines);
+	}
+
+	@Test
+	public void testGetOutputStream_zstdCompressionLevel() throws IOException {
+		String plainFilename = this.utils.getOutputDirectory() + "plain.txt";
+		String fastFilename = this.utils.getOutputDirectory() + "fast.txt.zst";
+		String smallFilename = this.utils.getOutputDirectory() + "small.txt.zst";
+		writeRandomNumbers(plainFilename, 1);
+		writeRandomNumbers(fastFilename, 1);
+		writeRandomNumbers(smallFilename, 19);
+		Assert.assertTrue(new File(smallFilename).length() < new File(fastFilename).length());
+		// the checksum is calculated over the uncompressed content
+		Assert.assertEquals(CRCChecksum.getCRCFromFile(plainFilename), CRCChecksum.getCRCFromFile(fastFilename));
+		Assert.assertEquals(CRCChecksum.getCRCFromFile(plainFilename), CRCChecksum.getCRCFromFile(smallFilename));
+	}
+
+	private static void writeRandomNumbers(final String filename, final int zstdCompressionLevel) throws IOException {
+		Random random = new Random(4711);
+		try (OutputStream out = IOUtils.getOutputStream(filename, false, zstdCompressionLevel)) {
+			for (int i = 0; i < 10000; i++) {
+				out.write((random.nextInt(1000) + "\n").getBytes(StandardCharsets.UTF_8));
+			}
+		}
+	}
+
 	@Test
 	public void testGetInputStream_UTFwithoutBOM() throws IOException {
 		String filename = utils.getOutputDirectory() + "test.txt";
@@ -26,10 +26,14 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import org.apache.log4j.Logger;
+import org.junit.Rule;
 import org.junit.Test;
 import org.matsim.lanes.LanesReader;
+import org.matsim.testcases.MatsimTestUtils;
 
 /**
  * @author mrieser
@@ -39,6 +43,9 @@ public class MatsimFileTypeGuesserTest {
 
 	private final static Logger log = Logger.getLogger(MatsimFileTypeGuesserTest.class);
 
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
 	@Test
 	public void testNetworkV1Dtd() throws IOException {
 		MatsimFileTypeGuesser g = new MatsimFileTypeGuesser("test/scenarios/equil/network.xml");
@@ -47,6 +54,18 @@ public class MatsimFileTypeGuesserTest {
 		assertEquals("http://www.matsim.org/files/dtd/network_v1.dtd", g.getSystemId());
 	}
 
+	@Test
+	public void testNetworkV1Dtd_zst() throws IOException {
+		String filename = this.utils.getOutputDirectory() + "network.xml.zst";
+		try (InputStream in = IOUtils.getInputStream("test/scenarios/equil/network.xml");
+				OutputStream out = IOUtils.getOutputStream(filename)) {
+			IOUtils.copyStream(in, out);
+		}
+		MatsimFileTypeGuesser g = new MatsimFileTypeGuesser(filename);
+		assertEquals(MatsimFileTypeGuesser.FileType.Network, g.getGuessedFileType());
+		assertEquals("http://www.matsim.org/files/dtd/network_v1.dtd", g.getSystemId());
+	}
+
 	@Test
 	public void testConfigV2Dtd() throws IOException {
 		MatsimFileTypeGuesser g = new MatsimFileTypeGuesser("test/scenarios/equil/config.xml");
@@ -0,0 +1,118 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelGzipStreamsTest {
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		byte[] data = createData(5 * ParallelGzipOutputStream.BLOCK_SIZE + 1234);
+		byte[] compressed = compress(data);
+
+		Assert.assertTrue(compressed.length < data.length / 2);
+		Assert.assertArrayEquals(data, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(compressed))));
+		// the members must be readable by every gzip implementation
+		Assert.assertArrayEquals(data, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		byte[] compressed = compress(new byte[0]);
+		Assert.assertEquals(0, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(compressed))).length);
+		Assert.assertEquals(0, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))).length);
+	}
+
+	@Test
+	public void testReadOtherGzip() throws IOException {
+		byte[] data = createData(3 * ParallelGzipOutputStream.BLOCK_SIZE);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(data);
+		}
+		Assert.assertArrayEquals(data, readAll(new ParallelGzipInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+
+		// members of another implementation following the parallel ones
+		bytes = new ByteArrayOutputStream();
+		bytes.write(compress(data));
+		try (OutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(data, 0, 1000);
+		}
+		byte[] read = readAll(new ParallelGzipInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		Assert.assertEquals(data.length + 1000, read.length);
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertEquals(data[i], read[data.length + i]);
+		}
+	}
+
+	@Test(expected = ZipException.class)
+	public void testCorruptData() throws IOException {
+		byte[] compressed = compress(createData(1000));
+		compressed[compressed.length - 6]++; // in the checksum
+		readAll(new ParallelGzipInputStream(new ByteArrayInputStream(compressed)));
+	}
+
+	private static byte[] createData(final int length) {
+		Random random = new Random(4711);
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) ('a' + random.nextInt(8));
+		}
+		return data;
+	}
+
+	private static byte[] compress(final byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (OutputStream out = new ParallelGzipOutputStream(bytes)) {
+			// write in odd pieces, so that the blocks get filled in different ways
+			int position = 0;
+			while (position < data.length) {
+				int count = Math.min(data.length - position, 77777);
+				out.write(data, position, count);
+				position += count;
+				if (position < data.length) {
+					out.write(data[position++]);
+				}
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static byte[] readAll(final InputStream in) throws IOException {
+		try (InputStream stream = in) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			IOUtils.copyStream(stream, bytes);
+			return bytes.toByteArray();
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.utils.io;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Stack;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.AttributesImpl;
+
+public class ParallelXmlElementParserTest {
+
+	@Test
+	public void testOrderAndContext() {
+		List<String> results = new ArrayList<>();
+		ParallelXmlElementParser<String> parser = new ParallelXmlElementParser<>("item", 4,
+				sink -> new ItemParser(sink), results::add);
+
+		Stack<String> context = new Stack<>();
+		Assert.assertFalse(parser.startTag("items", new AttributesImpl(), context));
+		context.push("items");
+		for (int i = 0; i < 1234; i++) {
+			Assert.assertTrue(parser.startTag("item", attributes(Integer.toString(i)), context));
+			context.push("item");
+			Assert.assertTrue(parser.startTag("value", new AttributesImpl(), context));
+			Assert.assertTrue(parser.endTag("value", "v" + i, context));
+			context.pop();
+			Assert.assertTrue(parser.endTag("item", "", context));
+		}
+		context.pop();
+		Assert.assertFalse(parser.endTag("items", "", context));
+		parser.finish();
+
+		Assert.assertEquals(1234, results.size());
+		for (int i = 0; i < 1234; i++) {
+			Assert.assertEquals(i + "=v" + i, results.get(i));
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExceptionIsPassedOn() {
+		ParallelXmlElementParser<String> parser = new ParallelXmlElementParser<>("item", 2,
+				sink -> new ItemParser(sink), s -> {});
+		Stack<String> context = new Stack<>();
+		context.push("items");
+		parser.startTag("item", attributes(null), context);
+		parser.endTag("item", "", context);
+		parser.finish();
+	}
+
+	@Test
+	public void testThreadsStoppedAtFinish() throws InterruptedException {
+		List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+		ParallelXmlElementParser<String> parser = new ParallelXmlElementParser<>("item", 2,
+				sink -> {
+					threads.add(Thread.currentThread());
+					return new ItemParser(sink);
+				}, s -> {});
+		parseItems(parser, 1000);
+		parser.finish();
+		Assert.assertFalse(threads.isEmpty());
+		for (Thread thread : threads) {
+			thread.join(10000);
+			Assert.assertFalse(thread.isAlive());
+		}
+	}
+
+	@Test
+	public void testIdleThreadsStopWithoutFinish() throws InterruptedException {
+		List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+		ParallelXmlElementParser<String> parser = new ParallelXmlElementParser<>("item", 2,
+				sink -> {
+					threads.add(Thread.currentThread());
+					return new ItemParser(sink);
+				}, s -> {});
+		// e.g. the file is truncated, so the end of the enclosing element is never reached
+		parseItems(parser, 1000);
+		Assert.assertFalse(threads.isEmpty());
+		for (Thread thread : threads) {
+			thread.join(30000);
+			Assert.assertFalse(thread.isAlive());
+		}
+	}
+
+	private static void parseItems(final ParallelXmlElementParser<String> parser, final int count) {
+		Stack<String> context = new Stack<>();
+		context.push("items");
+		for (int i = 0; i < count; i++) {
+			parser.startTag("item", attributes(Integer.toString(i)), context);
+			parser.endTag("item", "", context);
+		}
+	}
+
+	private static Attributes attributes(final String id) {
+		AttributesImpl atts = new AttributesImpl();
+		if (id != null) {
+			atts.addAttribute(null, "id", "id", "CDATA", id);
+		}
+		return atts;
+	}
+
+	private static final class ItemParser extends MatsimXmlParser {
+
+		private final Consumer<String> sink;
+		private String id;
+		private String value;
+
+		ItemParser(final Consumer<String> sink) {
+			this.sink = sink;
+		}
+
+		@Override
+		public void startTag(final String name, final Attributes atts, final Stack<String> context) {
+			if ("item".equals(name)) {
+				Assert.assertEquals("items", context.peek());
+				this.id = atts.getValue("id");
+				if (this.id == null) {
+					throw new IllegalStateException("item without id");
+				}
+			} else {
+				Assert.assertEquals("item", context.peek());
+			}
+		}
+
+		@Override
+		public void endTag(final String name, final String content, final Stack<String> context) {
+			if ("value".equals(name)) {
+				this.value = content;
+			} else if ("item".equals(name)) {
+				this.sink.accept(this.id + "=" + this.value);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,102 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.metrics;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class FlightRecorderEventsTest {
+
+	@Rule public MatsimTestUtils util = new MatsimTestUtils();
+
+	@Test
+	public void testNoEventsWithoutRecording() {
+		// no recording is started in the tests, so nothing must be created
+		Assert.assertFalse(FlightRecorderEvents.SIM_STEP.isEnabled());
+		Assert.assertNull(FlightRecorderEvents.SIM_STEP.begin());
+		Assert.assertNull(FlightRecorderEvents.PLAN_ROUTING.begin());
+	}
+
+	@Test
+	public void testEventNames() {
+		Assert.assertEquals("org.matsim.ControlerPhase", FlightRecorderEvents.CONTROLER_PHASE.getName());
+		Assert.assertEquals("org.matsim.EventsWriting", FlightRecorderEvents.EVENTS_WRITING.getName());
+	}
+
+	/**
+	 * Starts a recording, so this only runs on JVMs with JFR.  The JFR API is used by reflection, since the tests are
+	 * compiled for Java 8 as well.
+	 */
+	@Test
+	public void testEventRecorded() throws Exception {
+		Assume.assumeTrue(FlightRecorderEvents.isAvailable());
+		Class<?> recordingClass;
+		try {
+			recordingClass = Class.forName("jdk.jfr.Recording");
+		} catch (ClassNotFoundException e) {
+			Assume.assumeNoException(e);
+			return;
+		}
+		Object recording = recordingClass.getConstructor().newInstance();
+		try {
+			Object settings = recordingClass.getMethod("enable", String.class).invoke(recording, FlightRecorderEvents.SIM_STEP.getName());
+			settings.getClass().getMethod("withoutThreshold").invoke(settings);
+			recordingClass.getMethod("start").invoke(recording);
+
+			FlightRecorderEvents.Span span = FlightRecorderEvents.SIM_STEP.begin();
+			Assert.assertNotNull(span);
+			span.end(3600.0, 5, 10);
+
+			recordingClass.getMethod("stop").invoke(recording);
+			Path file = Paths.get(this.util.getOutputDirectory(), "recording.jfr");
+			recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+
+			List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile").getMethod("readAllEvents", Path.class).invoke(null, file);
+			Class<?> recordedEventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+			Method getEventType = recordedEventClass.getMethod("getEventType");
+			Method getValue = recordedEventClass.getMethod("getValue", String.class);
+			Method getName = Class.forName("jdk.jfr.EventType").getMethod("getName");
+			int simSteps = 0;
+			for (Object event : events) {
+				if (FlightRecorderEvents.SIM_STEP.getName().equals(getName.invoke(getEventType.invoke(event)))) {
+					simSteps++;
+					Assert.assertEquals(3600.0, (Double) getValue.invoke(event, "simTime"), 0.0);
+					Assert.assertEquals(5, ((Integer) getValue.invoke(event, "activeLinks")).intValue());
+					Assert.assertEquals(10, ((Integer) getValue.invoke(event, "agents")).intValue());
+				}
+			}
+			Assert.assertEquals(1, simSteps);
+		} finally {
+			recordingClass.getMethod("close").invoke(recording);
+		}
+		// no longer recorded once the recording is closed
+		Assert.assertNull(FlightRecorderEvents.SIM_STEP.begin());
+	}
+
+}
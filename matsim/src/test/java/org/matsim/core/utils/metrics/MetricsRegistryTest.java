@@ -0,0 +1,128 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.core.utils.metrics;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.core.utils.metrics.MetricsRegistry.Snapshot;
+
+public class MetricsRegistryTest {
+
+	@Test
+	public void testCounter() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.counter("a").increment();
+		registry.counter("a").add(4);
+		Map<String, Snapshot> snapshots = registry.snapshotAndReset();
+		Assert.assertEquals(1, snapshots.size());
+		Assert.assertEquals(MetricsRegistry.Type.counter, snapshots.get("a").getType());
+		Assert.assertEquals(5, snapshots.get("a").getSum());
+
+		// reset, and metrics without values are not reported
+		Assert.assertTrue(registry.snapshotAndReset().isEmpty());
+	}
+
+	@Test
+	public void testHistogram() {
+		MetricsRegistry registry = new MetricsRegistry();
+		MetricsRegistry.Histogram histogram = registry.histogram("h");
+		Assert.assertSame(histogram, registry.histogram("h"));
+		for (int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		Snapshot snapshot = registry.snapshotAndReset().get("h");
+		Assert.assertEquals(100, snapshot.getCount());
+		Assert.assertEquals(5050, snapshot.getSum());
+		Assert.assertEquals(1, snapshot.getMin());
+		Assert.assertEquals(100, snapshot.getMax());
+		Assert.assertEquals(50.5, snapshot.getMean(), 1e-9);
+		// the percentiles are the upper bounds of powers of two
+		Assert.assertEquals(63, snapshot.getMedian());
+		Assert.assertEquals(100, snapshot.get95thPercentile());
+
+		histogram.record(7);
+		snapshot = registry.snapshotAndReset().get("h");
+		Assert.assertEquals(1, snapshot.getCount());
+		Assert.assertEquals(7, snapshot.getMin());
+		Assert.assertEquals(7, snapshot.getMedian());
+	}
+
+	@Test
+	public void testTimer() throws InterruptedException {
+		MetricsRegistry registry = new MetricsRegistry();
+		MetricsRegistry.Timer timer = registry.timer("t");
+		long start = timer.start();
+		Thread.sleep(2);
+		timer.stop(start);
+		Snapshot snapshot = registry.snapshotAndReset().get("t");
+		Assert.assertEquals(MetricsRegistry.Type.timer, snapshot.getType());
+		Assert.assertEquals(1, snapshot.getCount());
+		Assert.assertTrue(snapshot.getSum() >= 2000000);
+	}
+
+	@Test
+	public void testDisabled() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.setEnabled(false);
+		registry.counter("a").add(4);
+		registry.histogram("b").record(7);
+		MetricsRegistry.Timer timer = registry.timer("c");
+		timer.stop(timer.start());
+		Assert.assertTrue(registry.snapshotAndReset().isEmpty());
+
+		registry.setEnabled(true);
+		registry.counter("a").add(4);
+		Assert.assertEquals(4, registry.snapshotAndReset().get("a").getSum());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeMismatch() {
+		MetricsRegistry registry = new MetricsRegistry();
+		registry.timer("x");
+		registry.histogram("x");
+	}
+
+	@Test
+	public void testConcurrentUpdates() throws InterruptedException {
+		MetricsRegistry registry = new MetricsRegistry();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10000; i++) {
+					registry.counter("c").increment();
+					registry.histogram("h").record(i);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		Map<String, Snapshot> snapshots = registry.snapshotAndReset();
+		Assert.assertEquals(40000, snapshots.get("c").getSum());
+		Assert.assertEquals(40000, snapshots.get("h").getCount());
+		Assert.assertEquals(0, snapshots.get("h").getMin());
+		Assert.assertEquals(9999, snapshots.get("h").getMax());
+	}
+
+}
@@ -0,0 +1,141 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.population.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.algorithms.PersonAlgorithmPipeline;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.population.io.StreamingPopulationReader;
+import org.matsim.core.population.io.StreamingPopulationWriter;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+/**
+ * Tests the class {@link PersonAlgorithmPipeline}.
+ */
+public class PersonAlgorithmPipelineTest {
+
+	@Rule public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testOrderIsKept() {
+		List<Id<Person>> handled = new ArrayList<>();
+		AtomicInteger providedAlgorithms = new AtomicInteger();
+		PersonAlgorithmPipeline pipeline = new PersonAlgorithmPipeline(20);
+		pipeline.addParallelStage(4, () -> {
+			providedAlgorithms.incrementAndGet();
+			Random random = new Random(providedAlgorithms.get());
+			return person -> {
+				try {
+					Thread.sleep(random.nextInt(3));
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
+				}
+				person.getAttributes().putAttribute("stage1", true);
+			};
+		});
+		pipeline.addParallelStage(3, () -> person -> person.getAttributes().putAttribute("stage2", true));
+		pipeline.addStage(person -> {
+			Assert.assertEquals(true, person.getAttributes().getAttribute("stage1"));
+			Assert.assertEquals(true, person.getAttributes().getAttribute("stage2"));
+			handled.add(person.getId());
+		});
+
+		List<Id<Person>> expected = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			Person person = PopulationUtils.getFactory().createPerson(Id.createPersonId(i));
+			expected.add(person.getId());
+			pipeline.run(person);
+		}
+		pipeline.finish();
+		Assert.assertEquals(4, providedAlgorithms.get());
+		Assert.assertEquals(expected, handled);
+	}
+
+	@Test
+	public void testExceptionIsPassedOn() {
+		PersonAlgorithmPipeline pipeline = new PersonAlgorithmPipeline(5);
+		pipeline.addParallelStage(2, () -> person -> {
+			if (person.getId().equals(Id.createPersonId(10))) {
+				throw new IllegalArgumentException("person 10");
+			}
+		});
+		List<Id<Person>> handled = Collections.synchronizedList(new ArrayList<>());
+		pipeline.addStage(person -> handled.add(person.getId()));
+		try {
+			for (int i = 0; i < 100; i++) {
+				pipeline.run(PopulationUtils.getFactory().createPerson(Id.createPersonId(i)));
+			}
+			pipeline.finish();
+			Assert.fail("Expected Exception, got none.");
+		} catch (RuntimeException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+		Assert.assertFalse(handled.contains(Id.createPersonId(10)));
+	}
+
+	@Test
+	public void testStreamingPopulationReader() {
+		Population population = PopulationUtils.createPopulation(ConfigUtils.createConfig());
+		for (int i = 0; i < 300; i++) {
+			population.addPerson(population.getFactory().createPerson(Id.createPersonId(i)));
+		}
+		String inputFile = this.utils.getOutputDirectory() + "population.xml";
+		String outputFile = this.utils.getOutputDirectory() + "output_population.xml";
+		new PopulationWriter(population).write(inputFile);
+
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		StreamingPopulationReader reader = new StreamingPopulationReader(scenario);
+		StreamingPopulationWriter writer = new StreamingPopulationWriter();
+		writer.startStreaming(outputFile);
+		reader.addParallelAlgorithm(3, () -> person -> person.getAttributes().putAttribute("handled", "yes"));
+		reader.addAlgorithm(writer);
+		reader.setPipelineCapacity(10);
+		reader.readFile(inputFile);
+		writer.closeStreaming();
+
+		Scenario input = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReader(input).readFile(inputFile);
+		Scenario result = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReader(result).readFile(outputFile);
+		Assert.assertEquals(300, result.getPopulation().getPersons().size());
+		Assert.assertEquals(new ArrayList<>(input.getPopulation().getPersons().keySet()), new ArrayList<>(result.getPopulation().getPersons().keySet()));
+		for (Person person : result.getPopulation().getPersons().values()) {
+			Assert.assertEquals("yes", person.getAttributes().getAttribute("handled"));
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.pt.routes.ExperimentalTransitRoute;
+
+/**
+ * Tests functionality specific to {@link RaptorTransitRouter}.  The regular routing is tested together with
+ * {@link TransitRouterImpl} in {@link TransitRouterImplTest}.
+ */
+public class RaptorTransitRouterTest {
+
+	@Test
+	public void testRangeQuery() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		Coord fromCoord = new Coord(3800, 5100);
+		Coord toCoord = new Coord(16100, 5050);
+		List<List<Leg>> routes = router.calcRoutes(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0*3600, 6.0*3600, null);
+
+		// the blue line departs at *:06, *:26 and *:46
+		Assert.assertEquals(3, routes.size());
+		double accessTime = routes.get(0).get(0).getTravelTime();
+		double[] expectedArrivals = { 5.0*3600 + 29*60, 5.0*3600 + 49*60, 6.0*3600 + 9*60 };
+		double[] departures = { 5.0*3600 + 6*60, 5.0*3600 + 26*60, 5.0*3600 + 46*60 };
+		for (int i = 0; i < 3; i++) {
+			List<Leg> legs = routes.get(i);
+			Assert.assertEquals(3, legs.size());
+			Assert.assertEquals(TransportMode.pt, legs.get(1).getMode());
+			Assert.assertEquals(f.blueLine.getId(), ((ExperimentalTransitRoute) legs.get(1).getRoute()).getLineId());
+			double time = departures[i] - accessTime + legs.get(0).getTravelTime() + legs.get(1).getTravelTime();
+			Assert.assertEquals(expectedArrivals[i], time, 1e-8);
+		}
+	}
+
+	@Test
+	public void testRangeQuery_noDepartures() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		List<List<Leg>> routes = router.calcRoutes(new FakeFacility(new Coord(3800, 5100)), new FakeFacility(new Coord(16100, 5050)),
+				5.0*3600 + 7*60, 5.0*3600 + 20*60, null);
+		Assert.assertEquals(0, routes.size());
+	}
+
+	@Test
+	public void testReuseBetweenRequests() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitSchedule data = RaptorTransitSchedule.create(f.schedule, trConfig);
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, data);
+		RaptorTransitRouter freshRouter = new RaptorTransitRouter(trConfig, data);
+		Coord fromCoord = new Coord(3800, 5100);
+		Coord toCoord = new Coord(16100, 10050);
+		router.calcRoute(new FakeFacility(toCoord), new FakeFacility(fromCoord), 7.0*3600, null);
+		router.calcRoute(new FakeFacility(fromCoord), new FakeFacility(new Coord(28100, 4950)), 5.0*3600, null);
+		List<Leg> legs = router.calcRoute(new FakeFacility(fromCoord), new FakeFacility(toCoord), 6.0*3600, null);
+		List<Leg> expected = freshRouter.calcRoute(new FakeFacility(fromCoord), new FakeFacility(toCoord), 6.0*3600, null);
+		Assert.assertEquals(expected.size(), legs.size());
+		for (int i = 0; i < legs.size(); i++) {
+			Assert.assertEquals(expected.get(i).getMode(), legs.get(i).getMode());
+			Assert.assertEquals(expected.get(i).getTravelTime(), legs.get(i).getTravelTime(), 1e-8);
+		}
+	}
+
+}
@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.List;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -78,7 +79,7 @@ public class TransitRouterImplTest {
 	public static Collection<Object> createRouterTypes() {
 		Object[] router = new Object [] { 
 				"standard"
-//				,TransitRouterType.raptor
+				,"raptor"
 		};
 		return Arrays.asList(router);
 	}
@@ -130,6 +131,9 @@ public class TransitRouterImplTest {
 		case "standard":
 			router = new TransitRouterImpl(trConfig, schedule);
 			break;
+		case "raptor":
+			router = new RaptorTransitRouter(trConfig, schedule);
+			break;
 		default:
 			break;
 		}
@@ -588,6 +592,40 @@ public class TransitRouterImplTest {
 		}
 	}
 	
+	@Test
+	public void testChainedTransferWalks() {
+		// only the raptor router continues walks from stops reached by walking
+		Assume.assumeTrue("raptor".equals(routerType));
+		TransferFixture f = new TransferFixture(5 * 60.0);
+		// stops 1 and 2 are 4m apart, so the transfer between them needs two walks via stop m
+		f.routerConfig.setBeelineWalkConnectionDistance(3.0);
+		TransitScheduleFactory sb = f.schedule.getFactory();
+		TransitStopFacility stopM = sb.createTransitStopFacility(Id.create("m", TransitStopFacility.class), new Coord(25000, 1000), false);
+		TransitStopFacility stopX = sb.createTransitStopFacility(Id.create("x", TransitStopFacility.class), new Coord(25000, 30000), false);
+		f.schedule.addStopFacility(stopM);
+		f.schedule.addStopFacility(stopX);
+		stopM.setLinkId(f.stop2.getLinkId());
+		stopX.setLinkId(f.stop2.getLinkId());
+		// stops only used for walking are not part of the raptor schedule, so stop m is served by a line leading elsewhere
+		TransitLine lineMtoX = sb.createTransitLine(Id.create("mtoX", TransitLine.class));
+		f.schedule.addTransitLine(lineMtoX);
+		NetworkRoute netRoute = RouteUtils.createLinkNetworkRouteImpl(f.stop2.getLinkId(), f.stop2.getLinkId());
+		List<TransitRouteStop> stops = new ArrayList<TransitRouteStop>();
+		stops.add(sb.createTransitRouteStop(stopM, Time.UNDEFINED_TIME, 0.0));
+		stops.add(sb.createTransitRouteStop(stopX, 5*60.0, Time.UNDEFINED_TIME));
+		TransitRoute route = sb.createTransitRoute(Id.create("mtoX", TransitRoute.class), netRoute, stops, "train");
+		lineMtoX.addRoute(route);
+		route.addDeparture(sb.createDeparture(Id.create("lmtoX d0", Departure.class), 8.0*3600));
+
+		TransitRouter router = createTransitRouter(f.schedule, f.routerConfig, routerType);
+		List<Leg> legs = router.calcRoute(new FakeFacility(f.fromFacility.getCoord()), new FakeFacility(f.toFacility.getCoord()), 7.0*3600 + 50*60, null);
+		Assert.assertEquals(5, legs.size());
+		Assert.assertEquals(800, legs.get(1).getTravelTime(), 0.0);	// arrival at 08:05:00
+		Assert.assertEquals(304, legs.get(2).getTravelTime(), 1e-8);	// two walks of 2m and the additional transfer time, charged only once -> 304s; arrival at 08:10:04
+		Assert.assertEquals(596, legs.get(3).getTravelTime(), 1e-8);	// the 08:15 departure is caught
+		Assert.assertEquals(1900.0, calcTripDuration(new ArrayList<PlanElement>(legs)), 1e-8);
+	}
+
 	private static double calcTripDuration(List<PlanElement> planElements) {
 		double duration = 0.0;
 		for (PlanElement pe : planElements) {			
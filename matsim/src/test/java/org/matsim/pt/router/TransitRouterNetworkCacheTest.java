@@ -0,0 +1,103 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.io.File;
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.core.utils.collections.Tuple;
+import org.matsim.pt.router.TransitRouterNetwork.TransitRouterNetworkLink;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class TransitRouterNetworkCacheTest {
+
+	@Rule public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testWriteRead() {
+		Fixture f = new Fixture();
+		f.init();
+		String dir = this.utils.getOutputDirectory();
+		Tuple<TransitRouterNetwork, PreparedTransitSchedule> created = TransitRouterNetworkCache.loadOrCreate(f.schedule, 100.0, dir);
+		File[] files = new File(dir).listFiles((d, name) -> name.endsWith(".bin"));
+		Assert.assertEquals(1, files.length);
+
+		Tuple<TransitRouterNetwork, PreparedTransitSchedule> read = TransitRouterNetworkCache.loadOrCreate(f.schedule, 100.0, dir);
+		Assert.assertNotSame(created.getFirst(), read.getFirst());
+		TransitRouterNetwork expected = created.getFirst();
+		TransitRouterNetwork actual = read.getFirst();
+		Assert.assertEquals(expected.getNodes().size(), actual.getNodes().size());
+		Assert.assertEquals(expected.getLinks().size(), actual.getLinks().size());
+		Iterator<? extends TransitRouterNetworkLink> actualLinks = actual.getLinks().values().iterator();
+		for (TransitRouterNetworkLink link : expected.getLinks().values()) {
+			TransitRouterNetworkLink other = actualLinks.next();
+			Assert.assertEquals(link.getId(), other.getId());
+			Assert.assertEquals(link.getFromNode().getId(), other.getFromNode().getId());
+			Assert.assertEquals(link.getToNode().getId(), other.getToNode().getId());
+			Assert.assertSame(link.getFromNode().stop, other.getFromNode().stop);
+			Assert.assertSame(link.getRoute(), other.getRoute());
+			Assert.assertEquals(link.getLength(), other.getLength(), 1e-10);
+		}
+		Assert.assertNotNull(actual.getNearestNode(f.schedule.getFacilities().values().iterator().next().getCoord()));
+
+		for (TransitRoute route : f.blueLine.getRoutes().values()) {
+			Assert.assertArrayEquals(created.getSecond().getSortedDepartures(route), read.getSecond().getSortedDepartures(route), 0.0);
+		}
+	}
+
+	@Test
+	public void testHashChangesWithSchedule() {
+		Fixture f = new Fixture();
+		f.init();
+		String hash = TransitRouterNetworkCache.computeHash(f.schedule, 100.0);
+		Assert.assertEquals(hash, TransitRouterNetworkCache.computeHash(f.schedule, 100.0));
+		Assert.assertNotEquals(hash, TransitRouterNetworkCache.computeHash(f.schedule, 200.0));
+
+		TransitRoute route = f.blueLine.getRoutes().values().iterator().next();
+		route.addDeparture(f.schedule.getFactory().createDeparture(Id.create("extra", Departure.class), 23.0 * 3600));
+		Assert.assertNotEquals(hash, TransitRouterNetworkCache.computeHash(f.schedule, 100.0));
+	}
+
+	@Test
+	public void testRoutingWithCachedNetwork() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		String dir = this.utils.getOutputDirectory();
+		TransitRouterNetworkCache.loadOrCreate(f.schedule, trConfig.getBeelineWalkConnectionDistance(), dir);
+		Tuple<TransitRouterNetwork, PreparedTransitSchedule> read = TransitRouterNetworkCache.loadOrCreate(f.schedule, trConfig.getBeelineWalkConnectionDistance(), dir);
+
+		TransitRouterNetworkTravelTimeAndDisutility tt = new TransitRouterNetworkTravelTimeAndDisutility(trConfig, read.getSecond());
+		TransitRouter cachedRouter = new TransitRouterImpl(trConfig, read.getSecond(), read.getFirst(), tt, tt);
+		TransitRouter router = new TransitRouterImpl(trConfig, f.schedule);
+		FakeFacility from = new FakeFacility(new Coord(3800, 5100));
+		FakeFacility to = new FakeFacility(new Coord(16100, 10050));
+		Assert.assertEquals(router.calcRoute(from, to, 6.0*3600, null).size(), cachedRouter.calcRoute(from, to, 6.0*3600, null).size());
+		Assert.assertEquals(5, cachedRouter.calcRoute(from, to, 6.0*3600, null).size());
+	}
+
+}
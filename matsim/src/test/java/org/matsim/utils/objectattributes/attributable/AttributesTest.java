@@ -80,4 +80,10 @@ public class AttributesTest {
 		Assert.assertNull( "unexpected mapping " ,
 				attributes.getAttribute( "rain is nice" ) );
 	}
+
+	@Test( expected = UnsupportedOperationException.class )
+	public void testEmptyIsImmutable() {
+		Assert.assertEquals( 0 , Attributes.EMPTY.size() );
+		Attributes.EMPTY.putAttribute( "sun" , "nice" );
+	}
 }